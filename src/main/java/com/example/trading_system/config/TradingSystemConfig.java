@@ -1,10 +1,20 @@
 package com.example.trading_system.config;
 
+import com.example.trading_system.gateway.BinaryOrderGateway;
+import com.example.trading_system.model.DuplicateWindow;
+import com.example.trading_system.model.IngressLimits;
+import com.example.trading_system.model.RateLimit;
+import com.example.trading_system.model.RiskLimits;
 import com.example.trading_system.service.TradingService;
 import com.example.trading_system.service.TradingServiceImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+
 /**
  * Configuration class for trading system beans.
  * Defines beans for dependency injection.
@@ -12,10 +22,64 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class TradingSystemConfig {
     /**
-     * Provides a singleton TradingService bean for dependency injection.
+     * Provides a singleton TradingService bean for dependency injection, throttling each trader when
+     * {@code trading.throttle.trader.rate} is set.
+     */
+    @Bean
+    public TradingService tradingService(RiskLimits riskLimits, IngressLimits ingressLimits,
+                                         @Value("${trading.throttle.trader.rate:#{null}}") Double traderRate,
+                                         @Value("${trading.throttle.trader.burst:#{null}}") Integer traderBurst,
+                                         @Value("${trading.dedup.window:5m}") Duration duplicateWindow,
+                                         @Value("${trading.dedup.capacity:1000000}") int duplicateCapacity) {
+        return new TradingServiceImpl(riskLimits, rateLimit(traderRate, traderBurst), ingressLimits,
+            new DuplicateWindow(duplicateWindow, duplicateCapacity));
+    }
+
+    /**
+     * Per-instrument intake bounds from the {@code trading.ingress.*} properties; unset bounds are not checked.
      */
     @Bean
-    public TradingService tradingService() {
-        return new TradingServiceImpl();
+    public IngressLimits ingressLimits(
+            @Value("${trading.ingress.max-resting-orders:#{null}}") Integer maxRestingOrders,
+            @Value("${trading.ingress.max-pending-commands:#{null}}") Integer maxPendingCommands) {
+        return new IngressLimits(maxRestingOrders, maxPendingCommands);
+    }
+
+    /**
+     * Pre-trade limits from the {@code trading.risk.*} properties; unset limits are not checked.
+     */
+    @Bean
+    public RiskLimits riskLimits(
+            @Value("${trading.risk.max-order-quantity:#{null}}") Integer maxOrderQuantity,
+            @Value("${trading.risk.max-order-notional:#{null}}") BigDecimal maxOrderNotional,
+            @Value("${trading.risk.price-band:#{null}}") BigDecimal priceBand,
+            @Value("${trading.risk.max-open-orders:#{null}}") Integer maxOpenOrders,
+            @Value("${trading.risk.max-gross-exposure:#{null}}") BigDecimal maxGrossExposure,
+            @Value("${trading.risk.credit-limit:#{null}}") BigDecimal creditLimit) {
+        return new RiskLimits(maxOrderQuantity, maxOrderNotional, priceBand, maxOpenOrders, maxGrossExposure,
+            creditLimit);
+    }
+
+    /**
+     * Starts the binary TCP order entry gateway when enabled, throttling each connection when
+     * {@code trading.throttle.session.rate} is set.
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(name = "trading.gateway.binary.enabled", havingValue = "true")
+    public BinaryOrderGateway binaryOrderGateway(TradingService tradingService,
+                                                 @Value("${trading.gateway.binary.port:9090}") int port,
+                                                 @Value("${trading.throttle.session.rate:#{null}}") Double sessionRate,
+                                                 @Value("${trading.throttle.session.burst:#{null}}") Integer sessionBurst) {
+        return new BinaryOrderGateway(tradingService, port, rateLimit(sessionRate, sessionBurst));
+    }
+
+    /**
+     * No limit when the rate is unset; the burst defaults to one second's worth of messages.
+     */
+    private static RateLimit rateLimit(Double rate, Integer burst) {
+        if (rate == null) {
+            return null;
+        }
+        return new RateLimit(rate, burst != null ? burst : (int) Math.max(1, Math.ceil(rate)));
     }
-} 
\ No newline at end of file
+} 
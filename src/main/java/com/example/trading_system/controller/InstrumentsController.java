@@ -1,26 +1,45 @@
 package com.example.trading_system.controller;
 
+import com.example.trading_system.dto.AmendOrderRequest;
+import com.example.trading_system.dto.AuctionResponse;
+import com.example.trading_system.dto.BatchAuctionRequest;
 import com.example.trading_system.dto.InstrumentRequest;
 import com.example.trading_system.dto.OrderRequest;
 import com.example.trading_system.dto.InstrumentOrderResponse;
+import com.example.trading_system.dto.OrderBookResponse;
+import com.example.trading_system.model.Candle;
+import com.example.trading_system.model.CandleInterval;
+import com.example.trading_system.model.FillEstimate;
+import com.example.trading_system.model.IngressStatistics;
 import com.example.trading_system.model.Instrument;
+import com.example.trading_system.model.MarketStatistics;
 import com.example.trading_system.model.Order;
+import com.example.trading_system.model.OrderAck;
+import com.example.trading_system.model.QueuePosition;
 import com.example.trading_system.model.Trade;
+import com.example.trading_system.model.TradeAnalytics;
 import com.example.trading_system.service.OrderBook;
 import com.example.trading_system.service.TradingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
-import java.util.Collection;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,9 +52,12 @@ import java.util.Map;
 @Tag(name = "Trading API", description = "API for managing trading instruments")
 public class InstrumentsController {
     private final TradingService tradingService;
+    // Pre-serialised read responses, revalidated against the registry and order book versions
+    private final SerializedResponseCache responseCache;
 
-    public InstrumentsController(TradingService tradingService) {
+    public InstrumentsController(TradingService tradingService, ObjectMapper objectMapper) {
         this.tradingService = tradingService;
+        this.responseCache = new SerializedResponseCache(objectMapper);
     }
 
     @PostMapping("")
@@ -46,16 +68,23 @@ public class InstrumentsController {
     })
     public ResponseEntity<Instrument> registerInstrument(
             @Valid @RequestBody InstrumentRequest request) {
-        Instrument instrument = new Instrument(request.symbol());
+        Instrument instrument = new Instrument(request.symbol(), request.effectiveSelfTradePrevention(),
+            request.effectiveMatchingAlgorithm());
         tradingService.registerInstrument(instrument);
         return new ResponseEntity<>(instrument, HttpStatus.CREATED);
     }
 
     @GetMapping("")
     @Operation(summary = "Get all registered instruments")
-    @ApiResponse(responseCode = "200", description = "List of instruments retrieved successfully")
-    public ResponseEntity<Collection<Instrument>> getAllInstruments() {
-        return ResponseEntity.ok(tradingService.getAllInstruments());
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "List of instruments retrieved successfully",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = Instrument.class)))),
+        @ApiResponse(responseCode = "304", description = "Instruments unchanged since the given ETag")
+    })
+    public ResponseEntity<byte[]> getAllInstruments(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return responseCache.respond("instruments", tradingService::getRegistryVersion,
+            tradingService::getAllInstruments, ifNoneMatch);
     }
 
     @PostMapping("/{id}/order")
@@ -69,10 +98,16 @@ public class InstrumentsController {
             @Parameter(description = "ID of the instrument to place the order for") 
             @PathVariable String id,
             @Valid @RequestBody OrderRequest request) {
-        Order order = new Order(id, request.traderId(), request.type(), request.price(), request.quantity());
-        List<Trade> trades = tradingService.placeOrder(order);
+        Order order = new Order(id, request.traderId(), request.type(), request.price(), request.quantity(),
+            request.effectiveTimeInForce(), request.stopPrice(),
+            request.displayQuantity() != null ? request.displayQuantity() : 0);
+        if (order.getTimeInForce() == Order.TimeInForce.GTD) {
+            order.setExpireTime(request.expireTime());
+        }
+        order.setClientOrderId(request.clientOrderId());
+        OrderAck ack = tradingService.placeOrderOnce(order);
         return new ResponseEntity<>(
-            new InstrumentOrderResponse(order.getOrderId(), order.getStatus(), trades),
+            new InstrumentOrderResponse(ack.orderId(), ack.status(), ack.trades()),
             HttpStatus.CREATED
         );
     }
@@ -92,31 +127,206 @@ public class InstrumentsController {
         return ResponseEntity.ok().build();
     }
 
+    @PatchMapping("/{id}/orders/{orderId}")
+    @Operation(summary = "Amend the price and/or quantity of an existing order")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Order amended successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid amendment or order no longer active"),
+        @ApiResponse(responseCode = "404", description = "Instrument or order not found")
+    })
+    public ResponseEntity<InstrumentOrderResponse> amendOrder(
+            @Parameter(description = "ID of the instrument")
+            @PathVariable String id,
+            @Parameter(description = "ID of the order to amend")
+            @PathVariable @Pattern(regexp = "^[a-zA-Z0-9\\-]{1,36}$") String orderId,
+            @Valid @RequestBody AmendOrderRequest request) {
+        List<Trade> trades = tradingService.amendOrder(id, orderId, request.price(), request.quantity());
+        Order order = tradingService.getOrderBook(id).getAllOrders().get(orderId);
+        return ResponseEntity.ok(new InstrumentOrderResponse(orderId, order.getStatus(), trades));
+    }
+
+    @PostMapping("/{id}/auction")
+    @Operation(summary = "Start a call auction; orders accumulate without matching until it ends")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Auction started"),
+        @ApiResponse(responseCode = "404", description = "Instrument not found")
+    })
+    public ResponseEntity<Void> startAuction(
+            @Parameter(description = "ID of the instrument")
+            @PathVariable String id) {
+        tradingService.startAuction(id);
+        return ResponseEntity.ok().build();
+    }
+
+    @DeleteMapping("/{id}/auction")
+    @Operation(summary = "End a call auction, uncrossing the book and resuming continuous trading")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Auction uncrossed"),
+        @ApiResponse(responseCode = "404", description = "Instrument not found")
+    })
+    public ResponseEntity<AuctionResponse> endAuction(
+            @Parameter(description = "ID of the instrument")
+            @PathVariable String id) {
+        List<Trade> trades = tradingService.endAuction(id);
+        return ResponseEntity.ok(AuctionResponse.fromTrades(
+            id, tradingService.getOrderBook(id).getTradingPhase(), trades));
+    }
+
+    @PutMapping("/{id}/batch-auction")
+    @Operation(summary = "Switch an instrument to frequent batch auctions cleared at a uniform price")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch auctions started"),
+        @ApiResponse(responseCode = "400", description = "Invalid interval or instrument is in a call auction"),
+        @ApiResponse(responseCode = "404", description = "Instrument not found")
+    })
+    public ResponseEntity<Void> startBatchAuctions(
+            @Parameter(description = "ID of the instrument")
+            @PathVariable String id,
+            @Valid @RequestBody BatchAuctionRequest request) {
+        tradingService.startBatchAuctions(id, Duration.ofMillis(request.intervalMillis()));
+        return ResponseEntity.ok().build();
+    }
+
+    @DeleteMapping("/{id}/batch-auction")
+    @Operation(summary = "Clear the final batch and return the instrument to continuous trading")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch auctions stopped"),
+        @ApiResponse(responseCode = "404", description = "Instrument not found")
+    })
+    public ResponseEntity<AuctionResponse> stopBatchAuctions(
+            @Parameter(description = "ID of the instrument")
+            @PathVariable String id) {
+        List<Trade> trades = tradingService.stopBatchAuctions(id);
+        return ResponseEntity.ok(AuctionResponse.fromTrades(
+            id, tradingService.getOrderBook(id).getTradingPhase(), trades));
+    }
+
+    @GetMapping("/{id}/orders/{orderId}/queue-position")
+    @Operation(summary = "Get the number of orders and quantity ahead of a resting order at its price")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Queue position retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Order is not resting in the book"),
+        @ApiResponse(responseCode = "404", description = "Instrument or order not found")
+    })
+    public ResponseEntity<QueuePosition> getQueuePosition(
+            @Parameter(description = "ID of the instrument")
+            @PathVariable String id,
+            @Parameter(description = "ID of the resting order")
+            @PathVariable String orderId) {
+        return ResponseEntity.ok(tradingService.getOrderBook(id).getQueuePosition(orderId));
+    }
+
+    @GetMapping("/{id}/fill-estimate")
+    @Operation(summary = "Estimate the average and worst price of filling a quantity now, without placing an order")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Estimate calculated successfully"),
+        @ApiResponse(responseCode = "400", description = "Quantity is not positive"),
+        @ApiResponse(responseCode = "404", description = "Instrument not found")
+    })
+    public ResponseEntity<FillEstimate> estimateFill(
+            @Parameter(description = "ID of the instrument")
+            @PathVariable String id,
+            @Parameter(description = "Side of the order to estimate: BUY sweeps the sell side", required = true)
+            @RequestParam Order.OrderType side,
+            @Parameter(description = "Quantity to fill", required = true)
+            @RequestParam int quantity) {
+        return ResponseEntity.ok(tradingService.getOrderBook(id).estimateFill(side, quantity));
+    }
+
+    @GetMapping("/{id}/statistics")
+    @Operation(summary = "Get the market price, last trade price and rolling VWAP, volume, trade count and high/low of an instrument")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully"),
+        @ApiResponse(responseCode = "404", description = "Instrument not found")
+    })
+    public ResponseEntity<MarketStatistics> getMarketStatistics(
+            @Parameter(description = "ID of the instrument")
+            @PathVariable String id) {
+        return ResponseEntity.ok(tradingService.getMarketStatistics(id));
+    }
+
+    @GetMapping("/{id}/ingress")
+    @Operation(summary = "Get an instrument's pending command depth and resting orders against its limits, with reject counts")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Ingress metrics retrieved successfully"),
+        @ApiResponse(responseCode = "404", description = "Instrument not found")
+    })
+    public ResponseEntity<IngressStatistics> getIngressStatistics(
+            @Parameter(description = "ID of the instrument")
+            @PathVariable String id) {
+        return ResponseEntity.ok(tradingService.getIngressStatistics(id));
+    }
+
+    @GetMapping("/{id}/analytics")
+    @Operation(summary = "Get the volume, notional, VWAP and price range of an instrument's trades in a time range, and its depth imbalance")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Analytics computed successfully"),
+        @ApiResponse(responseCode = "400", description = "Range ends before it starts or depth levels out of range"),
+        @ApiResponse(responseCode = "404", description = "Instrument not found")
+    })
+    public ResponseEntity<TradeAnalytics> getTradeAnalytics(
+            @Parameter(description = "ID of the instrument")
+            @PathVariable String id,
+            @Parameter(description = "Start of the range, inclusive; defaults to the first trade")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "End of the range, exclusive; defaults to now")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Price levels of each side counted in the depth imbalance")
+            @RequestParam(defaultValue = "10") int depthLevels) {
+        return ResponseEntity.ok(tradingService.getOrderBook(id).getTradeAnalytics(from, to, depthLevels));
+    }
+
+    @GetMapping("/{id}/candles")
+    @Operation(summary = "Get the most recent OHLCV candles for an instrument, oldest first")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Candles retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Limit out of range"),
+        @ApiResponse(responseCode = "404", description = "Instrument not found")
+    })
+    public ResponseEntity<List<Candle>> getCandles(
+            @Parameter(description = "ID of the instrument")
+            @PathVariable String id,
+            @Parameter(description = "Candle length")
+            @RequestParam(defaultValue = "M1") CandleInterval interval,
+            @Parameter(description = "Maximum number of candles to return")
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(tradingService.getOrderBook(id).getCandles(interval, limit));
+    }
+
     @GetMapping("/{id}/price")
     @Operation(summary = "Get the current market price for an instrument")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Price retrieved successfully"),
+        @ApiResponse(responseCode = "200", description = "Price retrieved successfully",
+            content = @Content(schema = @Schema(implementation = BigDecimal.class))),
+        @ApiResponse(responseCode = "304", description = "Price unchanged since the given ETag"),
         @ApiResponse(responseCode = "404", description = "Instrument not found")
     })
-    public ResponseEntity<BigDecimal> getMarketPrice(
+    public ResponseEntity<byte[]> getMarketPrice(
             @Parameter(description = "ID of the instrument to get price for")
-            @PathVariable String id) {
-        return ResponseEntity.ok(tradingService.getMarketPrice(id));
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return responseCache.respond("price-" + id, tradingService::getRegistryVersion,
+            () -> tradingService.getMarketPrice(id), ifNoneMatch);
     }
 
     @GetMapping("/{id}/orderbook")
     @Operation(summary = "Get the current order book for an instrument")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Order book retrieved successfully"),
+        @ApiResponse(responseCode = "200", description = "Order book retrieved successfully",
+            content = @Content(schema = @Schema(implementation = OrderBookResponse.class))),
+        @ApiResponse(responseCode = "304", description = "Order book unchanged since the given ETag"),
         @ApiResponse(responseCode = "404", description = "Instrument not found")
     })
-    public ResponseEntity<Map<String, List<Order>>> getOrderBook(
+    public ResponseEntity<byte[]> getOrderBook(
             @Parameter(description = "ID of the instrument to get order book for")
-            @PathVariable String id) {
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         OrderBook orderBook = tradingService.getOrderBook(id);
-        Map<String, List<Order>> response = new HashMap<>();
-        response.put("buyOrders", orderBook.getBuyOrders());
-        response.put("sellOrders", orderBook.getSellOrders());
-        return ResponseEntity.ok(response);
+        return responseCache.respond("orderbook-" + id, orderBook::getVersion, () -> {
+            Map<String, List<Order>> response = new HashMap<>();
+            response.put("buyOrders", orderBook.getBuyOrders());
+            response.put("sellOrders", orderBook.getSellOrders());
+            return response;
+        }, ifNoneMatch);
     }
 }
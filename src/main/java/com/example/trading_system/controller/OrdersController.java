@@ -1,44 +1,88 @@
 package com.example.trading_system.controller;
 
+import com.example.trading_system.dto.OrderPageResponse;
 import com.example.trading_system.model.Order;
+import com.example.trading_system.model.OrderPage;
 import com.example.trading_system.service.TradingService;
 import com.example.trading_system.dto.OrderResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/trading/orders")
 @Tag(name = "Order API", description = "API for managing trading orders")
 public class OrdersController {
     private final TradingService tradingService;
+    private final ObjectMapper objectMapper;
 
-    public OrdersController(TradingService tradingService) {
+    public OrdersController(TradingService tradingService, ObjectMapper objectMapper) {
         this.tradingService = tradingService;
+        this.objectMapper = objectMapper;
     }
 
+    /**
+     * Streams the JSON array element by element, so memory per request does not grow with the
+     * number of orders.
+     */
     @GetMapping("")
     @Operation(summary = "Get all orders for a specific trader")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Orders retrieved successfully"),
+            @ApiResponse(responseCode = "200", description = "Orders retrieved successfully",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            array = @ArraySchema(schema = @Schema(implementation = OrderResponse.class)))),
             @ApiResponse(responseCode = "400", description = "Trader ID is required")
     })
-    public ResponseEntity<List<OrderResponse>> getOrdersByTrader(
+    public void getOrdersByTrader(
             @Parameter(description = "ID of the trader to get orders for", required = true)
-            @RequestParam(required = true) String traderId) {
-        List<Order> orders = tradingService.getOrdersByTrader(traderId);
-        List<OrderResponse> orderResponses = orders.stream()
-                .map(OrderResponse::fromOrder)
-                .toList();
-        return ResponseEntity.ok(orderResponses);
+            @RequestParam(required = true) String traderId,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        try (Stream<Order> orders = tradingService.streamOrdersByTrader(traderId);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartArray();
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                generator.writeObject(OrderResponse.fromOrder(iterator.next()));
+            }
+            generator.writeEndArray();
+        }
     }
-} 
\ No newline at end of file
+
+    @GetMapping("/page")
+    @Operation(summary = "Get one page of a trader's orders in placement order")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Trader ID is required, or the cursor or limit is invalid")
+    })
+    public ResponseEntity<OrderPageResponse> getOrdersPageByTrader(
+            @Parameter(description = "ID of the trader to get orders for", required = true)
+            @RequestParam(required = true) String traderId,
+            @Parameter(description = "Cursor returned with the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of orders to return (1-1000)")
+            @RequestParam(defaultValue = "100") int limit) {
+        OrderPage page = tradingService.getOrdersByTrader(traderId, cursor, limit);
+        return ResponseEntity.ok(new OrderPageResponse(
+                page.orders().stream().map(OrderResponse::fromOrder).toList(),
+                page.nextCursor()));
+    }
+}
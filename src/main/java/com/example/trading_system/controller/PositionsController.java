@@ -0,0 +1,55 @@
+package com.example.trading_system.controller;
+
+import com.example.trading_system.model.Position;
+import com.example.trading_system.service.TradingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/trading/positions")
+@Tag(name = "Position API", description = "API for trader positions and P&L")
+public class PositionsController {
+    private final TradingService tradingService;
+
+    public PositionsController(TradingService tradingService) {
+        this.tradingService = tradingService;
+    }
+
+    @GetMapping("")
+    @Operation(summary = "Get a trader's position and P&L in every instrument it has traded")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Positions retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Trader ID is required")
+    })
+    public ResponseEntity<List<Position>> getPositions(
+            @Parameter(description = "ID of the trader", required = true)
+            @RequestParam String traderId) {
+        return ResponseEntity.ok(tradingService.getPositions(traderId));
+    }
+
+    @GetMapping("/{instrumentId}")
+    @Operation(summary = "Get a trader's position and P&L in one instrument")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Position retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Trader ID is required"),
+            @ApiResponse(responseCode = "404", description = "Instrument not found")
+    })
+    public ResponseEntity<Position> getPosition(
+            @Parameter(description = "ID of the instrument")
+            @PathVariable String instrumentId,
+            @Parameter(description = "ID of the trader", required = true)
+            @RequestParam String traderId) {
+        return ResponseEntity.ok(tradingService.getPosition(traderId, instrumentId));
+    }
+}
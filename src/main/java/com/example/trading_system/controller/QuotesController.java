@@ -0,0 +1,41 @@
+package com.example.trading_system.controller;
+
+import com.example.trading_system.dto.MassQuoteRequest;
+import com.example.trading_system.dto.MassQuoteResponse;
+import com.example.trading_system.dto.QuoteRequest;
+import com.example.trading_system.model.MassQuoteResult;
+import com.example.trading_system.service.TradingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/trading/quotes")
+@Tag(name = "Quote API", description = "API for market maker quotes")
+public class QuotesController {
+    private final TradingService tradingService;
+
+    public QuotesController(TradingService tradingService) {
+        this.tradingService = tradingService;
+    }
+
+    @PostMapping("")
+    @Operation(summary = "Replace a trader's bid and ask on many instruments in one request")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Quotes processed; each outcome says whether it was applied"),
+            @ApiResponse(responseCode = "400", description = "Invalid quote; nothing was changed"),
+            @ApiResponse(responseCode = "404", description = "Instrument not found; nothing was changed")
+    })
+    public ResponseEntity<MassQuoteResponse> massQuote(@Valid @RequestBody MassQuoteRequest request) {
+        MassQuoteResult result = tradingService.massQuote(request.traderId(),
+                request.quotes().stream().map(QuoteRequest::toQuote).toList());
+        return ResponseEntity.ok(MassQuoteResponse.fromResult(result));
+    }
+}
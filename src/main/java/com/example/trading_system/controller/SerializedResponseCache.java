@@ -0,0 +1,84 @@
+package com.example.trading_system.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Caches JSON responses as byte arrays keyed by the version of the data they were rendered from.
+ * <p>
+ * A request is served from the cache while the source version is unchanged and answered with
+ * 304 Not Modified when its If-None-Match header carries the current ETag. A snapshot is only stored
+ * if the version did not move while it was being rendered.
+ * <p>
+ * Versions start again from zero on every start, so ETags also carry a random epoch chosen once per process.
+ * A tag a client kept from before a restart then never matches a different snapshot with the same version.
+ */
+class SerializedResponseCache {
+    static final String EPOCH = Long.toHexString(UUID.randomUUID().getMostSignificantBits());
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, Entry> entries;
+
+    SerializedResponseCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.entries = new ConcurrentHashMap<>();
+    }
+
+    ResponseEntity<byte[]> respond(String key, LongSupplier version, Supplier<?> body, String ifNoneMatch) {
+        long current = version.getAsLong();
+        Entry entry = entries.get(key);
+        if (entry == null || entry.version() != current) {
+            entry = render(key, current, version, body);
+        }
+
+        if (matches(ifNoneMatch, entry.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entry.etag()).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(entry.etag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(entry.body());
+    }
+
+    private Entry render(String key, long renderedVersion, LongSupplier version, Supplier<?> body) {
+        byte[] bytes;
+        try {
+            bytes = objectMapper.writeValueAsBytes(body.get());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialise response for " + key, e);
+        }
+        Entry entry = new Entry(renderedVersion, bytes, "\"" + EPOCH + "-" + key + "-" + renderedVersion + "\"");
+        if (version.getAsLong() == renderedVersion) {
+            entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Entry(long version, byte[] body, String etag) {
+    }
+}
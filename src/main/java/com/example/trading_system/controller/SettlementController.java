@@ -0,0 +1,52 @@
+package com.example.trading_system.controller;
+
+import com.example.trading_system.model.NettingReport;
+import com.example.trading_system.service.TradingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/trading/settlement")
+@Tag(name = "Settlement API", description = "API for end-of-day netting of trades")
+public class SettlementController {
+    private final TradingService tradingService;
+
+    public SettlementController(TradingService tradingService) {
+        this.tradingService = tradingService;
+    }
+
+    @GetMapping("/netting")
+    @Operation(summary = "Net the recorded trades into obligations per trader pair and per trader, for each instrument")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Netting report computed successfully")
+    })
+    public ResponseEntity<NettingReport> getNettingReport(
+            @Parameter(description = "Day whose trades to net, e.g. 2026-10-19; all recorded trades when omitted")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(tradingService.computeNetting(date));
+    }
+
+    @GetMapping("/netting/{date}")
+    @Operation(summary = "Get the netting report stored by the end-of-day batch job for a trade date")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stored netting report found"),
+            @ApiResponse(responseCode = "404", description = "No report is stored for the date")
+    })
+    public ResponseEntity<NettingReport> getEndOfDayNettingReport(
+            @Parameter(description = "Trade date, e.g. 2026-10-19")
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(tradingService.getEndOfDayNetting(date));
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.trading_system.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for amending a resting order. Omitted fields keep their current value.
+ */
+public record AmendOrderRequest(
+    @DecimalMin(value = "0.01", message = "Price must be greater than 0")
+    @Schema(description = "New limit price; a change re-queues the order", example = "101.00")
+    BigDecimal price,
+
+    @Positive(message = "Quantity must be positive")
+    @Schema(description = "New remaining quantity; a decrease keeps time priority", example = "5")
+    Integer quantity
+) {}
@@ -0,0 +1,32 @@
+package com.example.trading_system.dto;
+
+import com.example.trading_system.model.Trade;
+import com.example.trading_system.model.TradingPhase;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Schema(description = "Outcome of an auction uncross")
+public record AuctionResponse(
+        @Schema(description = "Identifier of the instrument", example = "123e4567-e89b-12d3-a456-426614174000")
+        String instrumentId,
+        @Schema(description = "Trading phase after the uncross", example = "CONTINUOUS")
+        TradingPhase phase,
+        @Schema(description = "Uncrossing price, or null when the book was not crossed", example = "100.00")
+        BigDecimal price,
+        @Schema(description = "Total quantity executed", example = "1500")
+        long volume,
+        @Schema(description = "Number of trades executed", example = "42")
+        int tradeCount
+) {
+    public static AuctionResponse fromTrades(String instrumentId, TradingPhase phase, List<Trade> trades) {
+        return new AuctionResponse(
+                instrumentId,
+                phase,
+                trades.isEmpty() ? null : trades.getFirst().price(),
+                trades.stream().mapToLong(Trade::quantity).sum(),
+                trades.size()
+        );
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.trading_system.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * DTO for switching an instrument to frequent batch auctions.
+ */
+public record BatchAuctionRequest(
+    @NotNull(message = "Interval is required")
+    @Min(value = 1, message = "Interval must be between 1 and 100 ms")
+    @Max(value = 100, message = "Interval must be between 1 and 100 ms")
+    @Schema(description = "Batch length in milliseconds", example = "50")
+    Integer intervalMillis
+) {}
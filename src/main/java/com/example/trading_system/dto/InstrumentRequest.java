@@ -1,12 +1,40 @@
 package com.example.trading_system.dto;
 
+import com.example.trading_system.model.MatchingAlgorithm;
+import com.example.trading_system.model.SelfTradePrevention;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.PositiveOrZero;
 
 public record InstrumentRequest(
     @NotBlank(message = "Symbol is required")
     @Pattern(regexp = "^[A-Z0-9]+$", message = "Symbol must contain only uppercase letters and numbers")
     @Schema(description = "Symbol of the instrument", example = "BTC")
-    String symbol
-) {}
+    String symbol,
+
+    @Schema(description = "Self-trade prevention mode (default CANCEL_NEWEST)", example = "CANCEL_NEWEST")
+    SelfTradePrevention selfTradePrevention,
+
+    @Schema(description = "Matching algorithm: FIFO (default) or PRO_RATA", example = "FIFO")
+    MatchingAlgorithm.Type matchingAlgorithm,
+
+    @Schema(description = "Pro-rata only: fill the first order in the queue before sharing out the rest", example = "true")
+    Boolean topOrderPriority,
+
+    @PositiveOrZero(message = "Minimum allocation must not be negative")
+    @Schema(description = "Pro-rata only: proportional shares below this size are not allocated", example = "2")
+    Integer minimumAllocation
+) {
+    public SelfTradePrevention effectiveSelfTradePrevention() {
+        return selfTradePrevention != null ? selfTradePrevention : SelfTradePrevention.CANCEL_NEWEST;
+    }
+
+    public MatchingAlgorithm effectiveMatchingAlgorithm() {
+        if (matchingAlgorithm != MatchingAlgorithm.Type.PRO_RATA) {
+            return MatchingAlgorithm.FIFO;
+        }
+        return MatchingAlgorithm.proRata(Boolean.TRUE.equals(topOrderPriority),
+            minimumAllocation != null ? minimumAllocation : 0);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.trading_system.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * DTO replacing a trader's quotes on many instruments in one request.
+ */
+public record MassQuoteRequest(
+    @NotBlank(message = "Trader ID is required")
+    @Schema(description = "Market maker that owns the quotes", example = "MM1")
+    String traderId,
+
+    @NotEmpty(message = "At least one quote is required")
+    @Schema(description = "New bid and ask per instrument")
+    List<@Valid QuoteRequest> quotes
+) {}
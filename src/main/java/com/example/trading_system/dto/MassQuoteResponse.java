@@ -0,0 +1,26 @@
+package com.example.trading_system.dto;
+
+import com.example.trading_system.model.MassQuoteResult;
+import com.example.trading_system.model.QuoteOutcome;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Acknowledgement of a mass quote. Each instrument is updated on its own, so the request "
+        + "can succeed with some quotes rejected; a rejected quote left that instrument's previous quote in place.")
+public record MassQuoteResponse(
+        @Schema(description = "Number of instruments whose quotes were replaced", example = "40")
+        int quoteCount,
+        @Schema(description = "Number of trades the applied quotes executed", example = "0")
+        int tradeCount,
+        @Schema(description = "Outcome of each quote, in request order")
+        List<QuoteOutcome> outcomes
+) {
+    public static MassQuoteResponse fromResult(MassQuoteResult result) {
+        return new MassQuoteResponse(
+                (int) result.outcomes().stream().filter(QuoteOutcome::applied).count(),
+                result.trades().size(),
+                result.outcomes()
+        );
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.trading_system.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "A page of a trader's orders in placement order")
+public record OrderPageResponse(
+        @Schema(description = "Orders in this page")
+        List<OrderResponse> orders,
+        @Schema(description = "Cursor to request the next page, null when there are no more orders", example = "100")
+        String nextCursor
+) {}
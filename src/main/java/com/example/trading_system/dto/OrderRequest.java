@@ -1,13 +1,18 @@
 package com.example.trading_system.dto;
 
 import com.example.trading_system.model.Order;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 /**
  * DTO for placing a new order. Used as the request body in the REST API.
@@ -21,7 +26,6 @@ public record OrderRequest(
     @Schema(description = "Order type: BUY or SELL", example = "BUY")
     Order.OrderType type,
 
-    @NotNull(message = "Price is required")
     @DecimalMin(value = "0.01", message = "Price must be greater than 0")
     @Schema(description = "Limit price (nullable for market orders)", example = "100.00")
     BigDecimal price,
@@ -29,5 +33,40 @@ public record OrderRequest(
     @NotNull(message = "Quantity is required")
     @Positive(message = "Quantity must be positive")
     @Schema(description = "Quantity to buy or sell", example = "10")
-    int quantity
-) {}
+    int quantity,
+
+    @Schema(description = "Time in force: GTC (default), IOC, FOK, DAY or GTD. Market orders must be IOC or FOK", example = "GTC")
+    Order.TimeInForce timeInForce,
+
+    @DecimalMin(value = "0.01", message = "Stop price must be greater than 0")
+    @Schema(description = "Stop price; when set the order waits until a trade prints at or through it", example = "105.00")
+    BigDecimal stopPrice,
+
+    @Positive(message = "Display quantity must be positive")
+    @Schema(description = "Iceberg peak size; only this much of the quantity is shown in the book at a time", example = "5")
+    Integer displayQuantity,
+
+    @Future(message = "Expire time must be in the future")
+    @Schema(description = "When a GTD order expires; required for GTD and ignored otherwise", example = "2030-01-31T17:30:00")
+    LocalDateTime expireTime,
+
+    @Size(min = 1, max = 64, message = "Client order ID must be 1 to 64 characters")
+    @Schema(description = "Trader's own ID for the order; resending an ID within the duplicate window returns the original response instead of placing a second order", example = "my-order-42")
+    String clientOrderId
+) {
+    public Order.TimeInForce effectiveTimeInForce() {
+        return timeInForce != null ? timeInForce : Order.TimeInForce.GTC;
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "Price is required unless the order is IOC or FOK")
+    public boolean isPriceValidForTimeInForce() {
+        return price != null || effectiveTimeInForce().isImmediate();
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "Expire time is required for GTD orders")
+    public boolean isExpireTimeValidForTimeInForce() {
+        return expireTime != null || effectiveTimeInForce() != Order.TimeInForce.GTD;
+    }
+}
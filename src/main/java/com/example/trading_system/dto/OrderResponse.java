@@ -4,6 +4,7 @@ import com.example.trading_system.model.Order;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Schema(description = "Response DTO for an order")
 public record OrderResponse(
@@ -18,7 +19,11 @@ public record OrderResponse(
         @Schema(description = "Limit price for the order", example = "100.00")
         BigDecimal price,
         @Schema(description = "Quantity of the order", example = "10")
-        int quantity
+        int quantity,
+        @Schema(description = "Stop price, for stop orders", example = "105.00")
+        BigDecimal stopPrice,
+        @Schema(description = "When the order expires, for GTD and DAY orders", example = "2030-01-31T17:30:00")
+        LocalDateTime expireTime
 ) {
     public static OrderResponse fromOrder(Order order) {
         return new OrderResponse(
@@ -27,7 +32,9 @@ public record OrderResponse(
                 order.getType(),
                 order.getTraderId(),
                 order.getPrice(),
-                order.getQuantity()
+                order.getQuantity(),
+                order.getStopPrice(),
+                order.getExpireTime()
         );
     }
 } 
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.example.trading_system.dto;
+
+import com.example.trading_system.model.Quote;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.math.BigDecimal;
+
+/**
+ * One instrument's bid and ask within a mass quote.
+ */
+public record QuoteRequest(
+    @NotBlank(message = "Instrument ID is required")
+    @Schema(description = "Instrument to quote", example = "123e4567-e89b-12d3-a456-426614174000")
+    String instrumentId,
+
+    @DecimalMin(value = "0.01", message = "Bid price must be greater than 0")
+    @Schema(description = "Bid price; required when the bid quantity is positive", example = "99.50")
+    BigDecimal bidPrice,
+
+    @PositiveOrZero(message = "Bid quantity must not be negative")
+    @Schema(description = "Bid quantity; zero withdraws the bid", example = "10")
+    int bidQuantity,
+
+    @DecimalMin(value = "0.01", message = "Ask price must be greater than 0")
+    @Schema(description = "Ask price; required when the ask quantity is positive", example = "100.50")
+    BigDecimal askPrice,
+
+    @PositiveOrZero(message = "Ask quantity must not be negative")
+    @Schema(description = "Ask quantity; zero withdraws the ask", example = "10")
+    int askQuantity
+) {
+    public Quote toQuote() {
+        return new Quote(instrumentId, bidPrice, bidQuantity, askPrice, askQuantity);
+    }
+}
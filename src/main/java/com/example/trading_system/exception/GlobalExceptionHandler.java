@@ -1,5 +1,6 @@
 package com.example.trading_system.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -10,12 +11,14 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.stream.Collectors;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
     private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+    private static final long MIN_RETRY_AFTER_SECONDS = 1;
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationExceptions(MethodArgumentNotValidException ex) {
@@ -29,14 +32,31 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(TradingException.class)
     public ResponseEntity<ErrorResponse> handleTradingException(TradingException ex) {
+        ErrorResponse error = new ErrorResponse(ex.getErrorCode(), ex.getMessage());
+        if ("RATE_LIMITED".equals(ex.getErrorCode()) || "ORDER_QUEUE_FULL".equals(ex.getErrorCode())) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds(ex.getRetryAfter())))
+                    .body(error);
+        }
         HttpStatus status = HttpStatus.BAD_REQUEST;
-        if ("INSTRUMENT_NOT_FOUND".equals(ex.getErrorCode()) || "ORDER_NOT_FOUND".equals(ex.getErrorCode())) {
+        if ("INSTRUMENT_NOT_FOUND".equals(ex.getErrorCode()) || "ORDER_NOT_FOUND".equals(ex.getErrorCode())
+                || "NETTING_REPORT_NOT_FOUND".equals(ex.getErrorCode())) {
             status = HttpStatus.NOT_FOUND;
         }
-        ErrorResponse error = new ErrorResponse(ex.getErrorCode(), ex.getMessage());
         return new ResponseEntity<>(error, status);
     }
 
+    /**
+     * Rounds the computed delay up to whole seconds, as Retry-After cannot express less. Without one,
+     * such as for a full queue that clears within moments, clients back off for the shortest interval.
+     */
+    private static long retryAfterSeconds(Duration retryAfter) {
+        if (retryAfter == null) {
+            return MIN_RETRY_AFTER_SECONDS;
+        }
+        return Math.max(MIN_RETRY_AFTER_SECONDS, retryAfter.plusNanos(999_999_999).toSeconds());
+    }
+
     @ExceptionHandler(MissingPathVariableException.class)
     public ResponseEntity<ErrorResponse> handleMissingPathVariableException(MissingPathVariableException ex) {
         String message = String.format("Required path variable '%s' is missing", ex.getVariableName());
@@ -4,6 +4,8 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+import java.time.Duration;
+
 /**
  * Custom exception for trading system errors.
  * This exception is used to handle business logic errors in the trading system.
@@ -18,16 +20,28 @@ public class TradingException extends RuntimeException {
     @Schema(description = "Detailed error message explaining what went wrong", example = "Order price cannot be negative")
     private final String message;
 
+    // How long the client should wait before retrying, or null when unknown
+    private final Duration retryAfter;
+
     public TradingException(String errorCode, String message) {
+        this(errorCode, message, null);
+    }
+
+    public TradingException(String errorCode, String message, Duration retryAfter) {
         super(message);
         this.errorCode = errorCode;
         this.message = message;
+        this.retryAfter = retryAfter;
     }
 
     public String getErrorCode() {
         return errorCode;
     }
 
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
     @Override
     public String getMessage() {
         return message;
@@ -54,6 +68,39 @@ public class TradingException extends RuntimeException {
         SYSTEM_ERROR,
 
         @Schema(description = "Order queue is full and cannot accept more orders")
-        ORDER_QUEUE_FULL
+        ORDER_QUEUE_FULL,
+
+        @Schema(description = "Invalid pagination cursor or page size")
+        INVALID_PAGE_REQUEST,
+
+        @Schema(description = "Operation not allowed in the instrument's trading phase, or invalid phase settings")
+        INVALID_TRADING_PHASE,
+
+        @Schema(description = "Order quantity is above the maximum allowed for a single order")
+        ORDER_QUANTITY_LIMIT_EXCEEDED,
+
+        @Schema(description = "Order notional is above the maximum allowed for a single order")
+        ORDER_NOTIONAL_LIMIT_EXCEEDED,
+
+        @Schema(description = "Order price is too far from the current market price")
+        PRICE_OUTSIDE_BAND,
+
+        @Schema(description = "Trader already has the maximum number of open orders")
+        OPEN_ORDER_LIMIT_EXCEEDED,
+
+        @Schema(description = "Order would take the trader's gross open notional above its limit")
+        EXPOSURE_LIMIT_EXCEEDED,
+
+        @Schema(description = "Order would take the trader's credit usage above its limit")
+        CREDIT_LIMIT_EXCEEDED,
+
+        @Schema(description = "Trader or session sent messages faster than its allowed rate")
+        RATE_LIMITED,
+
+        @Schema(description = "Invalid time range or depth level count for trade analytics")
+        INVALID_ANALYTICS_REQUEST,
+
+        @Schema(description = "No end-of-day netting report is stored for the trade date")
+        NETTING_REPORT_NOT_FOUND
     }
 }
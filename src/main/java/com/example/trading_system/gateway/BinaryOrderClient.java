@@ -0,0 +1,104 @@
+package com.example.trading_system.gateway;
+
+import com.example.trading_system.model.Order;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import static com.example.trading_system.gateway.BinaryProtocol.*;
+
+/**
+ * Blocking Java client for the {@link BinaryOrderGateway}.
+ * <p>
+ * Requests are encoded into a direct send buffer and only written when it fills up or on {@link #flush()},
+ * so callers can pipeline many orders per system call. Responses carry the client sequence number of the
+ * request they answer and may arrive out of order across instruments.
+ */
+public class BinaryOrderClient implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final SocketChannel channel;
+    private final ByteBuffer writeBuffer;
+    private final ByteBuffer readBuffer;
+    private final byte[] scratch;
+
+    private BinaryOrderClient(SocketChannel channel) {
+        this.channel = channel;
+        this.writeBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.readBuffer.flip();
+        this.scratch = new byte[ID_LENGTH];
+    }
+
+    public static BinaryOrderClient connect(String host, int port) throws IOException {
+        SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.socket().setTcpNoDelay(true);
+        return new BinaryOrderClient(channel);
+    }
+
+    public void sendNewOrder(long clientSeq, String instrumentId, String traderId, Order.OrderType type,
+                             BigDecimal price, int quantity) throws IOException {
+        sendNewOrder(clientSeq, instrumentId, traderId, type, price, quantity, Order.TimeInForce.GTC);
+    }
+
+    /**
+     * Buffers a new order; a null price sends a market order.
+     */
+    public void sendNewOrder(long clientSeq, String instrumentId, String traderId, Order.OrderType type,
+                             BigDecimal price, int quantity, Order.TimeInForce timeInForce) throws IOException {
+        ensureCapacity(LENGTH_FIELD_SIZE + NEW_ORDER_LENGTH);
+        encodeNewOrder(writeBuffer, clientSeq, instrumentId, traderId, type,
+                price == null ? 0 : toFixedPoint(price), quantity, timeInForce);
+    }
+
+    public void sendCancel(long clientSeq, String instrumentId, String orderId) throws IOException {
+        ensureCapacity(LENGTH_FIELD_SIZE + CANCEL_LENGTH);
+        encodeCancel(writeBuffer, clientSeq, instrumentId, orderId);
+    }
+
+    /**
+     * Writes every buffered request to the gateway.
+     */
+    public void flush() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            channel.write(writeBuffer);
+        }
+        writeBuffer.clear();
+    }
+
+    /**
+     * Flushes pending requests and blocks until the next response arrives.
+     */
+    public Response readResponse() throws IOException {
+        flush();
+        while (readBuffer.remaining() < LENGTH_FIELD_SIZE
+                || readBuffer.remaining() < LENGTH_FIELD_SIZE + readBuffer.getInt(readBuffer.position())) {
+            readBuffer.compact();
+            int read = channel.read(readBuffer);
+            readBuffer.flip();
+            if (read < 0) {
+                throw new EOFException("Gateway closed the connection");
+            }
+        }
+        int length = readBuffer.getInt();
+        Response response = decodeResponse(readBuffer, readBuffer.position(), scratch);
+        readBuffer.position(readBuffer.position() + length);
+        return response;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void ensureCapacity(int frameSize) throws IOException {
+        if (writeBuffer.remaining() < frameSize) {
+            flush();
+        }
+    }
+}
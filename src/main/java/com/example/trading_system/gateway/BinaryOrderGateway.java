@@ -0,0 +1,365 @@
+package com.example.trading_system.gateway;
+
+import com.example.trading_system.exception.TradingException;
+import com.example.trading_system.model.Order;
+import com.example.trading_system.model.RateLimit;
+import com.example.trading_system.model.Trade;
+import com.example.trading_system.service.RateLimiter;
+import com.example.trading_system.service.TradingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static com.example.trading_system.gateway.BinaryProtocol.*;
+
+/**
+ * Order entry gateway speaking {@link BinaryProtocol} over TCP.
+ * <p>
+ * A single selector thread owns every socket. Frames are decoded in place from a direct receive buffer
+ * and handed to the asynchronous {@link TradingService} API, so the loop never waits on matching.
+ * Completed results are queued back to the selector thread, which encodes them into the connection's
+ * direct send buffer.
+ * <p>
+ * Each connection is a session with its own optional token bucket. Every new order takes a token, and one
+ * over the rate is answered with a {@code RATE_LIMITED} reject without reaching the trading service. Cancels
+ * are never throttled, so a session at its limit can still pull its orders, as over REST.
+ */
+public class BinaryOrderGateway implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(BinaryOrderGateway.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final TradingService tradingService;
+    private final int port;
+    // Connections with results waiting to be written, filled by sequencer threads
+    private final Queue<Connection> readyConnections;
+    // Per-session token buckets, or null when sessions are unthrottled
+    private final RateLimiter sessionThrottle;
+    // Only touched on the selector thread
+    private long nextSessionId;
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread selectorThread;
+    private volatile boolean running;
+
+    public BinaryOrderGateway(TradingService tradingService, int port) {
+        this(tradingService, port, null);
+    }
+
+    /**
+     * @param sessionRateLimit Rate of new orders allowed per connection, or null for no limit.
+     */
+    public BinaryOrderGateway(TradingService tradingService, int port, RateLimit sessionRateLimit) {
+        this.tradingService = tradingService;
+        this.port = port;
+        this.readyConnections = new ConcurrentLinkedQueue<>();
+        this.sessionThrottle = sessionRateLimit == null ? null : new RateLimiter(sessionRateLimit);
+    }
+
+    public void start() throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        selectorThread = Thread.ofPlatform().name("binary-gateway").daemon().start(this::runLoop);
+        log.info("Binary order gateway listening on port {}", getPort());
+    }
+
+    /**
+     * Returns the bound port, which differs from the configured one when it was 0.
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        if (selectorThread != null) {
+            try {
+                selectorThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (serverChannel != null) {
+            serverChannel.close();
+        }
+        log.info("Binary order gateway stopped");
+    }
+
+    private void runLoop() {
+        try {
+            while (running) {
+                selector.select();
+                flushReadyConnections();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handleKey(key);
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            log.error("Binary order gateway selector failed: {}", e.getMessage(), e);
+        } finally {
+            closeSelector();
+        }
+    }
+
+    private void handleKey(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            try {
+                accept();
+            } catch (IOException e) {
+                log.warn("Failed to accept binary gateway connection: {}", e.getMessage());
+            }
+            return;
+        }
+        Connection connection = (Connection) key.attachment();
+        try {
+            if (key.isReadable()) {
+                read(connection);
+            }
+            if (key.isValid() && key.isWritable()) {
+                flush(connection);
+            }
+        } catch (IOException e) {
+            log.warn("Closing binary gateway connection: {}", e.getMessage());
+            connection.close();
+        } catch (RuntimeException e) {
+            // A bug handling one connection must not take the selector thread and every other session down
+            log.error("Closing binary gateway connection {} after unexpected error: {}",
+                    connection.sessionId, e.getMessage(), e);
+            connection.close();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        key.attach(new Connection(channel, key, "session-" + nextSessionId++));
+        log.info("Accepted binary gateway connection from {}", channel.getRemoteAddress());
+    }
+
+    private void read(Connection connection) throws IOException {
+        ByteBuffer buffer = connection.readBuffer;
+        if (connection.channel.read(buffer) < 0) {
+            connection.close();
+            return;
+        }
+        buffer.flip();
+        while (buffer.remaining() >= LENGTH_FIELD_SIZE) {
+            int length = buffer.getInt(buffer.position());
+            if (length <= 0 || length > MAX_FRAME_LENGTH) {
+                throw new IOException("Invalid frame length " + length);
+            }
+            if (buffer.remaining() < LENGTH_FIELD_SIZE + length) {
+                break;
+            }
+            int frame = buffer.position() + LENGTH_FIELD_SIZE;
+            dispatch(connection, buffer, frame, length);
+            buffer.position(frame + length);
+        }
+        buffer.compact();
+    }
+
+    private void dispatch(Connection connection, ByteBuffer buffer, int frame, int length) throws IOException {
+        byte type = buffer.get(frame + TYPE_OFFSET);
+        if (type == NEW_ORDER && sessionThrottle != null
+                && !sessionThrottle.tryAcquire(connection.sessionId)) {
+            connection.enqueue(new Reject(buffer.getLong(frame + CLIENT_SEQ_OFFSET),
+                    TradingException.ErrorCode.RATE_LIMITED));
+            return;
+        }
+        if (type == NEW_ORDER && length == NEW_ORDER_LENGTH) {
+            onNewOrder(connection, buffer, frame);
+        } else if (type == CANCEL && length == CANCEL_LENGTH) {
+            onCancel(connection, buffer, frame);
+        } else {
+            throw new IOException("Unexpected message type " + type + " with length " + length);
+        }
+    }
+
+    private void onNewOrder(Connection connection, ByteBuffer buffer, int frame) {
+        long clientSeq = buffer.getLong(frame + CLIENT_SEQ_OFFSET);
+        Order.OrderType type = toOrderType(buffer.get(frame + NEW_ORDER_SIDE_OFFSET));
+        long price = buffer.getLong(frame + NEW_ORDER_PRICE_OFFSET);
+        int quantity = buffer.getInt(frame + NEW_ORDER_QUANTITY_OFFSET);
+        Order.TimeInForce timeInForce = toTimeInForce(buffer.get(frame + NEW_ORDER_TIF_OFFSET));
+        // Same rules as the REST OrderRequest validation; a zero price is a market order. The frame has
+        // no expire time, so GTD orders can only be placed over REST
+        if (type == null || timeInForce == null || price < 0 || quantity <= 0
+                || (price == 0 && !timeInForce.isImmediate()) || timeInForce == Order.TimeInForce.GTD) {
+            connection.enqueue(new Reject(clientSeq, TradingException.ErrorCode.INVALID_ORDER));
+            return;
+        }
+
+        Order order = new Order(
+                getAscii(buffer, frame + NEW_ORDER_INSTRUMENT_OFFSET, ID_LENGTH, connection.scratch),
+                getAscii(buffer, frame + NEW_ORDER_TRADER_OFFSET, TRADER_ID_LENGTH, connection.scratch),
+                type, price == 0 ? null : toPrice(price), quantity, timeInForce);
+        tradingService.placeOrderAsync(order).whenComplete((trades, error) -> {
+            if (error != null) {
+                connection.enqueue(new Reject(clientSeq, toErrorCode(error)));
+            } else {
+                connection.enqueue(toExecutionReport(clientSeq, order, trades));
+            }
+        });
+    }
+
+    private void onCancel(Connection connection, ByteBuffer buffer, int frame) {
+        long clientSeq = buffer.getLong(frame + CLIENT_SEQ_OFFSET);
+        String instrumentId = getAscii(buffer, frame + CANCEL_INSTRUMENT_OFFSET, ID_LENGTH, connection.scratch);
+        String orderId = getAscii(buffer, frame + CANCEL_ORDER_OFFSET, ID_LENGTH, connection.scratch);
+        tradingService.cancelOrderAsync(instrumentId, orderId).whenComplete((ignored, error) -> {
+            if (error != null) {
+                connection.enqueue(new Reject(clientSeq, toErrorCode(error)));
+            } else {
+                connection.enqueue(new ExecutionReport(clientSeq, orderId, Order.OrderStatus.CANCELLED,
+                        0, 0, BigDecimal.ZERO));
+            }
+        });
+    }
+
+    private static ExecutionReport toExecutionReport(long clientSeq, Order order, List<Trade> trades) {
+        int executed = 0;
+        BigDecimal lastPrice = BigDecimal.ZERO;
+        for (Trade trade : trades) {
+            executed += trade.quantity();
+            lastPrice = trade.price();
+        }
+        return new ExecutionReport(clientSeq, order.getOrderId(), order.getStatus(), executed,
+                order.getQuantity(), lastPrice);
+    }
+
+    private static TradingException.ErrorCode toErrorCode(Throwable error) {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        if (cause instanceof TradingException tradingException) {
+            for (TradingException.ErrorCode code : TradingException.ErrorCode.values()) {
+                if (code.name().equals(tradingException.getErrorCode())) {
+                    return code;
+                }
+            }
+        }
+        log.error("Binary gateway request failed: {}", cause.getMessage(), cause);
+        return TradingException.ErrorCode.SYSTEM_ERROR;
+    }
+
+    private void flushReadyConnections() {
+        Connection connection;
+        while ((connection = readyConnections.poll()) != null) {
+            try {
+                flush(connection);
+            } catch (IOException e) {
+                log.warn("Closing binary gateway connection: {}", e.getMessage());
+                connection.close();
+            } catch (RuntimeException e) {
+                log.error("Closing binary gateway connection {} after unexpected error: {}",
+                        connection.sessionId, e.getMessage(), e);
+                connection.close();
+            }
+        }
+    }
+
+    private void flush(Connection connection) throws IOException {
+        if (!connection.key.isValid()) {
+            return;
+        }
+        ByteBuffer buffer = connection.writeBuffer;
+        Response response;
+        while (buffer.remaining() >= MAX_FRAME_LENGTH + LENGTH_FIELD_SIZE
+                && (response = connection.pending.poll()) != null) {
+            encode(buffer, response);
+        }
+        buffer.flip();
+        connection.channel.write(buffer);
+        buffer.compact();
+
+        boolean moreToWrite = buffer.position() > 0 || !connection.pending.isEmpty();
+        connection.key.interestOps(moreToWrite
+                ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+                : SelectionKey.OP_READ);
+    }
+
+    private static void encode(ByteBuffer buffer, Response response) {
+        switch (response) {
+            case ExecutionReport report -> encodeExecutionReport(buffer, report.clientSeq(), report.orderId(),
+                    report.status(), report.executedQuantity(), report.leavesQuantity(),
+                    toFixedPoint(report.lastPrice()));
+            case Reject reject -> encodeReject(buffer, reject.clientSeq(), reject.errorCode());
+        }
+    }
+
+    private void closeSelector() {
+        try {
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+        } catch (IOException e) {
+            log.warn("Error closing binary gateway selector: {}", e.getMessage());
+        }
+    }
+
+    private final class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final Queue<Response> pending = new ConcurrentLinkedQueue<>();
+        private final byte[] scratch = new byte[ID_LENGTH];
+        private final String sessionId;
+
+        private Connection(SocketChannel channel, SelectionKey key, String sessionId) {
+            this.channel = channel;
+            this.key = key;
+            this.sessionId = sessionId;
+        }
+
+        private void enqueue(Response response) {
+            pending.add(response);
+            readyConnections.add(this);
+            selector.wakeup();
+        }
+
+        private void close() {
+            key.cancel();
+            if (sessionThrottle != null) {
+                sessionThrottle.remove(sessionId);
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Error closing binary gateway connection: {}", e.getMessage());
+            }
+        }
+    }
+}
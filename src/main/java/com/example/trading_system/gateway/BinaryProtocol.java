@@ -0,0 +1,180 @@
+package com.example.trading_system.gateway;
+
+import com.example.trading_system.exception.TradingException;
+import com.example.trading_system.model.Order;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed-layout binary order entry protocol.
+ * <p>
+ * Every frame is a big-endian {@code int} body length followed by the body. The first body byte is the
+ * message type; all other fields sit at fixed offsets so they can be read in place from the receive buffer.
+ * Identifiers are ASCII, zero padded to their field width. Prices are fixed-point longs with
+ * {@link #PRICE_SCALE} implied decimals.
+ */
+public final class BinaryProtocol {
+    public static final int LENGTH_FIELD_SIZE = 4;
+    public static final int PRICE_SCALE = 4;
+    public static final int ID_LENGTH = 36;
+    public static final int TRADER_ID_LENGTH = 32;
+
+    public static final byte NEW_ORDER = 1;
+    public static final byte CANCEL = 2;
+    public static final byte EXECUTION_REPORT = 3;
+    public static final byte REJECT = 4;
+
+    // Offsets shared by every message: type, then the client sequence number used for correlation
+    public static final int TYPE_OFFSET = 0;
+    public static final int CLIENT_SEQ_OFFSET = 1;
+
+    // NEW_ORDER: instrumentId, traderId, side, price (0 for market), quantity, time in force
+    public static final int NEW_ORDER_INSTRUMENT_OFFSET = 9;
+    public static final int NEW_ORDER_TRADER_OFFSET = NEW_ORDER_INSTRUMENT_OFFSET + ID_LENGTH;
+    public static final int NEW_ORDER_SIDE_OFFSET = NEW_ORDER_TRADER_OFFSET + TRADER_ID_LENGTH;
+    public static final int NEW_ORDER_PRICE_OFFSET = NEW_ORDER_SIDE_OFFSET + 1;
+    public static final int NEW_ORDER_QUANTITY_OFFSET = NEW_ORDER_PRICE_OFFSET + 8;
+    public static final int NEW_ORDER_TIF_OFFSET = NEW_ORDER_QUANTITY_OFFSET + 4;
+    public static final int NEW_ORDER_LENGTH = NEW_ORDER_TIF_OFFSET + 1;
+
+    // CANCEL: instrumentId, orderId
+    public static final int CANCEL_INSTRUMENT_OFFSET = 9;
+    public static final int CANCEL_ORDER_OFFSET = CANCEL_INSTRUMENT_OFFSET + ID_LENGTH;
+    public static final int CANCEL_LENGTH = CANCEL_ORDER_OFFSET + ID_LENGTH;
+
+    // EXECUTION_REPORT: orderId, status, executed quantity, leaves quantity, last trade price
+    public static final int REPORT_ORDER_OFFSET = 9;
+    public static final int REPORT_STATUS_OFFSET = REPORT_ORDER_OFFSET + ID_LENGTH;
+    public static final int REPORT_EXECUTED_OFFSET = REPORT_STATUS_OFFSET + 1;
+    public static final int REPORT_LEAVES_OFFSET = REPORT_EXECUTED_OFFSET + 4;
+    public static final int REPORT_PRICE_OFFSET = REPORT_LEAVES_OFFSET + 4;
+    public static final int EXECUTION_REPORT_LENGTH = REPORT_PRICE_OFFSET + 8;
+
+    // REJECT: TradingException.ErrorCode ordinal
+    public static final int REJECT_CODE_OFFSET = 9;
+    public static final int REJECT_LENGTH = REJECT_CODE_OFFSET + 1;
+
+    public static final int MAX_FRAME_LENGTH = NEW_ORDER_LENGTH;
+
+    private static final Order.OrderType[] ORDER_TYPES = Order.OrderType.values();
+    private static final Order.TimeInForce[] TIME_IN_FORCES = Order.TimeInForce.values();
+    private static final Order.OrderStatus[] ORDER_STATUSES = Order.OrderStatus.values();
+    private static final TradingException.ErrorCode[] ERROR_CODES = TradingException.ErrorCode.values();
+
+    private BinaryProtocol() {
+    }
+
+    public static void encodeNewOrder(ByteBuffer buffer, long clientSeq, String instrumentId, String traderId,
+                                      Order.OrderType type, long price, int quantity,
+                                      Order.TimeInForce timeInForce) {
+        buffer.putInt(NEW_ORDER_LENGTH).put(NEW_ORDER).putLong(clientSeq);
+        putAscii(buffer, instrumentId, ID_LENGTH);
+        putAscii(buffer, traderId, TRADER_ID_LENGTH);
+        buffer.put((byte) type.ordinal()).putLong(price).putInt(quantity).put((byte) timeInForce.ordinal());
+    }
+
+    public static void encodeCancel(ByteBuffer buffer, long clientSeq, String instrumentId, String orderId) {
+        buffer.putInt(CANCEL_LENGTH).put(CANCEL).putLong(clientSeq);
+        putAscii(buffer, instrumentId, ID_LENGTH);
+        putAscii(buffer, orderId, ID_LENGTH);
+    }
+
+    public static void encodeExecutionReport(ByteBuffer buffer, long clientSeq, String orderId,
+                                             Order.OrderStatus status, int executedQuantity,
+                                             int leavesQuantity, long lastPrice) {
+        buffer.putInt(EXECUTION_REPORT_LENGTH).put(EXECUTION_REPORT).putLong(clientSeq);
+        putAscii(buffer, orderId, ID_LENGTH);
+        buffer.put((byte) status.ordinal()).putInt(executedQuantity).putInt(leavesQuantity).putLong(lastPrice);
+    }
+
+    public static void encodeReject(ByteBuffer buffer, long clientSeq, TradingException.ErrorCode errorCode) {
+        buffer.putInt(REJECT_LENGTH).put(REJECT).putLong(clientSeq).put((byte) errorCode.ordinal());
+    }
+
+    /**
+     * Decodes the response frame whose body starts at {@code offset}.
+     */
+    public static Response decodeResponse(ByteBuffer buffer, int offset, byte[] scratch) {
+        long clientSeq = buffer.getLong(offset + CLIENT_SEQ_OFFSET);
+        return switch (buffer.get(offset + TYPE_OFFSET)) {
+            case EXECUTION_REPORT -> new ExecutionReport(
+                    clientSeq,
+                    getAscii(buffer, offset + REPORT_ORDER_OFFSET, ID_LENGTH, scratch),
+                    ORDER_STATUSES[buffer.get(offset + REPORT_STATUS_OFFSET)],
+                    buffer.getInt(offset + REPORT_EXECUTED_OFFSET),
+                    buffer.getInt(offset + REPORT_LEAVES_OFFSET),
+                    toPrice(buffer.getLong(offset + REPORT_PRICE_OFFSET)));
+            case REJECT -> new Reject(clientSeq, ERROR_CODES[buffer.get(offset + REJECT_CODE_OFFSET)]);
+            default -> throw new IllegalArgumentException(
+                    "Unknown response type: " + buffer.get(offset + TYPE_OFFSET));
+        };
+    }
+
+    public static Order.OrderType toOrderType(byte side) {
+        if (side < 0 || side >= ORDER_TYPES.length) {
+            return null;
+        }
+        return ORDER_TYPES[side];
+    }
+
+    public static Order.TimeInForce toTimeInForce(byte timeInForce) {
+        if (timeInForce < 0 || timeInForce >= TIME_IN_FORCES.length) {
+            return null;
+        }
+        return TIME_IN_FORCES[timeInForce];
+    }
+
+    public static long toFixedPoint(BigDecimal price) {
+        return price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toPrice(long fixedPoint) {
+        return BigDecimal.valueOf(fixedPoint, PRICE_SCALE);
+    }
+
+    /**
+     * Writes {@code value} as ASCII into a zero-padded field of {@code width} bytes without allocating.
+     */
+    public static void putAscii(ByteBuffer buffer, String value, int width) {
+        if (value.length() > width) {
+            throw new IllegalArgumentException("Value exceeds " + width + " bytes: " + value);
+        }
+        for (int i = 0; i < width; i++) {
+            buffer.put(i < value.length() ? (byte) value.charAt(i) : 0);
+        }
+    }
+
+    /**
+     * Reads a zero-padded ASCII field through the caller's scratch array, so the only allocation is the
+     * resulting string.
+     */
+    public static String getAscii(ByteBuffer buffer, int offset, int width, byte[] scratch) {
+        int length = 0;
+        while (length < width) {
+            byte b = buffer.get(offset + length);
+            if (b == 0) {
+                break;
+            }
+            scratch[length++] = b;
+        }
+        return new String(scratch, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * A decoded gateway response.
+     */
+    public sealed interface Response permits ExecutionReport, Reject {
+        long clientSeq();
+    }
+
+    public record ExecutionReport(long clientSeq, String orderId, Order.OrderStatus status,
+                                  int executedQuantity, int leavesQuantity, BigDecimal lastPrice)
+            implements Response {
+    }
+
+    public record Reject(long clientSeq, TradingException.ErrorCode errorCode) implements Response {
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.trading_system.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Open, high, low, close and volume of the trades in one interval.
+ */
+public record Candle(
+    @Schema(description = "Start of the interval", example = "2024-06-05T21:00:00")
+    LocalDateTime openTime,
+    @Schema(description = "Price of the first trade", example = "100.00")
+    BigDecimal open,
+    @Schema(description = "Highest trade price", example = "101.50")
+    BigDecimal high,
+    @Schema(description = "Lowest trade price", example = "99.75")
+    BigDecimal low,
+    @Schema(description = "Price of the last trade", example = "101.00")
+    BigDecimal close,
+    @Schema(description = "Quantity traded", example = "1250")
+    long volume,
+    @Schema(description = "Number of trades", example = "37")
+    int tradeCount
+) {}
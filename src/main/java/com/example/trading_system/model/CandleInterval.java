@@ -0,0 +1,23 @@
+package com.example.trading_system.model;
+
+import java.time.Duration;
+
+/**
+ * Candle lengths aggregated for every instrument.
+ */
+public enum CandleInterval {
+    S1(Duration.ofSeconds(1)),
+    M1(Duration.ofMinutes(1)),
+    M5(Duration.ofMinutes(5)),
+    H1(Duration.ofHours(1));
+
+    private final Duration duration;
+
+    CandleInterval(Duration duration) {
+        this.duration = duration;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.trading_system.model;
+
+import java.time.Duration;
+
+/**
+ * How long client order IDs are remembered to catch resubmitted orders.
+ *
+ * @param length Time for which a repeated client order ID is recognised as a duplicate.
+ * @param capacity Most IDs remembered at once. Under a higher order rate the oldest IDs are forgotten
+ *                 early, shortening the window rather than growing the heap.
+ */
+public record DuplicateWindow(
+    Duration length,
+    int capacity
+) {
+    public static final DuplicateWindow DEFAULT = new DuplicateWindow(Duration.ofMinutes(5), 1_000_000);
+
+    public DuplicateWindow {
+        if (length.isNegative() || length.isZero() || capacity < 1) {
+            throw new IllegalArgumentException("Duplicate window length and capacity must be positive");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.trading_system.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+/**
+ * What an order would pay if it swept the book right now. Prices are null when the opposite side is empty.
+ */
+public record FillEstimate(
+    @Schema(description = "Side of the order being estimated", example = "BUY")
+    Order.OrderType side,
+    @Schema(description = "Quantity asked for", example = "500")
+    int quantity,
+    @Schema(description = "Quantity the book could fill, including hidden iceberg quantity", example = "500")
+    long fillableQuantity,
+    @Schema(description = "Total cost of the fillable quantity", example = "50125.00")
+    BigDecimal notional,
+    @Schema(description = "Average fill price", example = "100.250000")
+    BigDecimal averagePrice,
+    @Schema(description = "Best price on the opposite side", example = "100.00")
+    BigDecimal bestPrice,
+    @Schema(description = "Last price level the sweep reaches", example = "101.00")
+    BigDecimal worstPrice,
+    @Schema(description = "How far the average price is from the best price, against the order", example = "0.250000")
+    BigDecimal slippage
+) {}
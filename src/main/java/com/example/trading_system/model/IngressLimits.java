@@ -0,0 +1,17 @@
+package com.example.trading_system.model;
+
+/**
+ * Bounds on what one instrument accepts, so overload is rejected instead of queued. A null limit is not
+ * checked.
+ *
+ * @param maxRestingOrders Most orders the book may hold, counting resting orders and untriggered stops.
+ *                         Orders that could rest are rejected once it is reached; IOC and FOK orders are not.
+ * @param maxPendingCommands Most orders, amendments and quotes waiting on the instrument's sequencer.
+ *                           Cancels are always queued, but count towards the depth.
+ */
+public record IngressLimits(
+    Integer maxRestingOrders,
+    Integer maxPendingCommands
+) {
+    public static final IngressLimits NONE = new IngressLimits(null, null);
+}
@@ -0,0 +1,23 @@
+package com.example.trading_system.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Load on an instrument's intake against its limits, with the number of commands turned away.
+ */
+public record IngressStatistics(
+    @Schema(description = "ID of the instrument")
+    String instrumentId,
+    @Schema(description = "Commands queued or running on the instrument's sequencer", example = "3")
+    int pendingCommands,
+    @Schema(description = "Most pending commands admitted, or null when unbounded", example = "10000")
+    Integer maxPendingCommands,
+    @Schema(description = "Orders resting in the book, including untriggered stops", example = "1520")
+    int restingOrders,
+    @Schema(description = "Most resting orders allowed, or null when unbounded", example = "100000")
+    Integer maxRestingOrders,
+    @Schema(description = "Commands rejected because the pending queue was full", example = "0")
+    long queueFullRejects,
+    @Schema(description = "Orders rejected because the book was full", example = "0")
+    long bookFullRejects
+) {}
@@ -18,10 +18,26 @@ public class Instrument {
     @Schema(description = "Current market price, calculated as the mid price between best buy and sell orders", example = "105.50")
     private BigDecimal marketPrice;
 
+    @Schema(description = "How orders from the same trader that would trade with each other are handled", example = "CANCEL_NEWEST")
+    private final SelfTradePrevention selfTradePrevention;
+
+    @Schema(description = "How incoming orders are allocated among the resting orders at a price level")
+    private final MatchingAlgorithm matchingAlgorithm;
+
     public Instrument(String symbol) {
+        this(symbol, SelfTradePrevention.CANCEL_NEWEST);
+    }
+
+    public Instrument(String symbol, SelfTradePrevention selfTradePrevention) {
+        this(symbol, selfTradePrevention, MatchingAlgorithm.FIFO);
+    }
+
+    public Instrument(String symbol, SelfTradePrevention selfTradePrevention, MatchingAlgorithm matchingAlgorithm) {
         this.id = UUID.randomUUID().toString();
         this.symbol = symbol;
         this.marketPrice = BigDecimal.ZERO;
+        this.selfTradePrevention = selfTradePrevention;
+        this.matchingAlgorithm = matchingAlgorithm;
     }
 
     public String getId() {
@@ -39,4 +55,12 @@ public class Instrument {
     public void setMarketPrice(BigDecimal marketPrice) {
         this.marketPrice = marketPrice;
     }
+
+    public SelfTradePrevention getSelfTradePrevention() {
+        return selfTradePrevention;
+    }
+
+    public MatchingAlgorithm getMatchingAlgorithm() {
+        return matchingAlgorithm;
+    }
 }
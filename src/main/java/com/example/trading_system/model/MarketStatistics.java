@@ -0,0 +1,20 @@
+package com.example.trading_system.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Current prices of an instrument together with its rolling trade statistics.
+ */
+public record MarketStatistics(
+    @Schema(description = "ID of the instrument")
+    String instrumentId,
+    @Schema(description = "Mid price between best bid and best ask", example = "100.50")
+    BigDecimal marketPrice,
+    @Schema(description = "Price of the last trade, or null before the first trade", example = "100.25")
+    BigDecimal lastTradePrice,
+    @Schema(description = "Statistics per sliding window")
+    List<WindowStatistics> windows
+) {}
@@ -0,0 +1,12 @@
+package com.example.trading_system.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a mass quote: one entry per quote in request order, and the trades of every applied quote.
+ * Each instrument is updated on its own, so one instrument's rejected quote does not undo the others.
+ */
+public record MassQuoteResult(
+    List<QuoteOutcome> outcomes,
+    List<Trade> trades
+) {}
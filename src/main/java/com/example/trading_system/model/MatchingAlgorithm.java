@@ -0,0 +1,28 @@
+package com.example.trading_system.model;
+
+/**
+ * How an incoming order's quantity is shared among the resting orders at a price level.
+ * <p>
+ * {@link Type#FIFO} fills resting orders in time priority. {@link Type#PRO_RATA} shares the quantity in
+ * proportion to each resting order's visible size: shares are rounded down, shares below
+ * {@code minimumAllocation} are dropped, and whatever is left over goes to the orders in time priority.
+ * With {@code topOrderPriority} the first order in the queue is filled before the rest is shared out.
+ */
+public record MatchingAlgorithm(Type type, boolean topOrderPriority, int minimumAllocation) {
+    public static final MatchingAlgorithm FIFO = new MatchingAlgorithm(Type.FIFO, false, 0);
+
+    public static MatchingAlgorithm proRata(boolean topOrderPriority, int minimumAllocation) {
+        return new MatchingAlgorithm(Type.PRO_RATA, topOrderPriority, minimumAllocation);
+    }
+
+    public boolean isProRata() {
+        return type == Type.PRO_RATA;
+    }
+
+    public enum Type {
+        // Price-time priority
+        FIFO,
+        // Price priority, then proportional to size
+        PRO_RATA
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.trading_system.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Net settlement obligations computed from the recorded trades.
+ */
+public record NettingReport(
+    @Schema(description = "Day whose trades were netted, or null for every recorded trade", example = "2026-10-19")
+    LocalDate tradeDate,
+    @Schema(description = "Number of trades netted; trades of a trader with itself are left out", example = "125000")
+    long tradeCount,
+    @Schema(description = "Obligations between each pair of traders per instrument, by instrument and trader")
+    List<PairObligation> pairs,
+    @Schema(description = "Obligations of each trader per instrument, by trader and instrument")
+    List<TraderObligation> traders
+) {}
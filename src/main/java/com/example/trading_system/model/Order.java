@@ -1,5 +1,7 @@
 package com.example.trading_system.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -12,20 +14,62 @@ public class Order {
     private final String instrumentId;
     private final OrderType type;
     private final String traderId;
-    private final BigDecimal price;
+    private BigDecimal price;
     private int quantity;
     private OrderStatus status;
-    private final LocalDateTime timestamp;
+    private LocalDateTime timestamp;
+    private final TimeInForce timeInForce;
+    private final BigDecimal stopPrice;
+    private boolean triggered;
+    // Iceberg peak size; zero for orders that show their full quantity
+    private final int displayQuantity;
+    private int hiddenQuantity;
+    // When a GTD or DAY order leaves the book; null for orders that do not expire
+    private LocalDateTime expireTime;
+    // Trader's own ID for the order, used to recognise resubmissions; null when the trader gave none
+    private String clientOrderId;
 
     public Order(String instrumentId, String traderId, OrderType type, BigDecimal price, int quantity) {
+        this(instrumentId, traderId, type, price, quantity, TimeInForce.GTC);
+    }
+
+    /**
+     * Creates an order with an explicit time in force. A null price makes it a market order,
+     * which is only valid as IOC or FOK.
+     */
+    public Order(String instrumentId, String traderId, OrderType type, BigDecimal price, int quantity,
+                 TimeInForce timeInForce) {
+        this(instrumentId, traderId, type, price, quantity, timeInForce, null);
+    }
+
+    /**
+     * Creates a stop order when {@code stopPrice} is set. The order waits outside the book until a trade
+     * prints at or through the stop price and then enters as a limit order, or as a market order when
+     * the price is null.
+     */
+    public Order(String instrumentId, String traderId, OrderType type, BigDecimal price, int quantity,
+                 TimeInForce timeInForce, BigDecimal stopPrice) {
+        this(instrumentId, traderId, type, price, quantity, timeInForce, stopPrice, 0);
+    }
+
+    /**
+     * Creates an iceberg order when {@code displayQuantity} is positive and below the quantity. Only the
+     * display quantity is visible in the book; the rest is hidden and refreshed one display quantity at a
+     * time, each refresh taking a new time priority.
+     */
+    public Order(String instrumentId, String traderId, OrderType type, BigDecimal price, int quantity,
+                 TimeInForce timeInForce, BigDecimal stopPrice, int displayQuantity) {
         this.orderId = UUID.randomUUID().toString();
         this.instrumentId = instrumentId;
         this.traderId = traderId;
         this.type = type;
         this.price = price;
-        this.quantity = quantity;
+        this.displayQuantity = displayQuantity;
+        setTotalQuantity(quantity);
         this.status = OrderStatus.OPEN;
         this.timestamp = LocalDateTime.now();
+        this.timeInForce = timeInForce;
+        this.stopPrice = stopPrice;
     }
 
     public String getOrderId() {
@@ -56,6 +100,27 @@ public class Order {
         this.quantity = quantity;
     }
 
+    /**
+     * Remaining quantity held back from the book by an iceberg order.
+     */
+    @JsonIgnore
+    public int getHiddenQuantity() {
+        return hiddenQuantity;
+    }
+
+    @JsonIgnore
+    public int getDisplayQuantity() {
+        return displayQuantity;
+    }
+
+    /**
+     * Visible plus hidden remaining quantity.
+     */
+    @JsonIgnore
+    public int getTotalQuantity() {
+        return quantity + hiddenQuantity;
+    }
+
     public OrderStatus getStatus() {
         return status;
     }
@@ -68,19 +133,97 @@ public class Order {
         return timestamp;
     }
 
+    public TimeInForce getTimeInForce() {
+        return timeInForce;
+    }
+
+    public LocalDateTime getExpireTime() {
+        return expireTime;
+    }
+
+    public void setExpireTime(LocalDateTime expireTime) {
+        this.expireTime = expireTime;
+    }
+
+    public String getClientOrderId() {
+        return clientOrderId;
+    }
+
+    public void setClientOrderId(String clientOrderId) {
+        this.clientOrderId = clientOrderId;
+    }
+
+    public boolean isMarket() {
+        return price == null;
+    }
+
+    public BigDecimal getStopPrice() {
+        return stopPrice;
+    }
+
+    public boolean isPendingStop() {
+        return stopPrice != null && !triggered;
+    }
+
+    /**
+     * Releases a stop order into the book. It takes its time priority from the moment it triggered.
+     */
+    public void trigger() {
+        this.triggered = true;
+        this.timestamp = LocalDateTime.now();
+    }
+
     public void execute(int amount) {
         if (amount > quantity) {
             throw new IllegalArgumentException("Executed amount exceeds remaining quantity");
         }
         this.quantity -= amount;
 
-        if (this.quantity == 0) {
+        if (this.quantity == 0 && this.hiddenQuantity == 0) {
             this.status = OrderStatus.FILLED;
         } else {
             this.status = OrderStatus.PARTIALLY_FILLED;
         }
     }
 
+    /**
+     * Replaces the price and remaining quantity. The order takes a new time priority, so it must be
+     * taken out of the book before calling this and re-queued afterwards.
+     */
+    public void replace(BigDecimal price, int quantity) {
+        this.price = price;
+        setTotalQuantity(quantity);
+        this.timestamp = LocalDateTime.now();
+    }
+
+    /**
+     * Lowers the total remaining quantity without touching time priority. Hidden quantity is taken
+     * first, so the visible size only shrinks once nothing is left in reserve.
+     */
+    public void decreaseTo(int quantity) {
+        int cut = getTotalQuantity() - quantity;
+        int hiddenCut = Math.min(hiddenQuantity, cut);
+        this.hiddenQuantity -= hiddenCut;
+        this.quantity -= cut - hiddenCut;
+    }
+
+    /**
+     * Moves the next display quantity out of hiddenQuantity into the visible quantity with a new time priority.
+     * @return The quantity made visible.
+     */
+    public int replenish() {
+        int refresh = Math.min(displayQuantity, hiddenQuantity);
+        this.hiddenQuantity -= refresh;
+        this.quantity += refresh;
+        this.timestamp = LocalDateTime.now();
+        return refresh;
+    }
+
+    private void setTotalQuantity(int quantity) {
+        this.quantity = displayQuantity > 0 ? Math.min(displayQuantity, quantity) : quantity;
+        this.hiddenQuantity = quantity - this.quantity;
+    }
+
     public boolean isFilled() {
         return this.status == OrderStatus.FILLED;
     }
@@ -92,10 +235,35 @@ public class Order {
     }
 
 
+    /**
+     * How long an order stays working.
+     */
+    public enum TimeInForce {
+        // Rests in the book until filled or cancelled
+        GTC,
+        // Immediate or cancel: fills what it can now, the remainder is cancelled
+        IOC,
+        // Fill or kill: fills completely now or not at all
+        FOK,
+        // Rests in the book until filled, cancelled or the end of the trading day
+        DAY,
+        // Good till date: rests in the book until filled, cancelled or its expire time
+        GTD;
+
+        /**
+         * Whether the order only trades on arrival and never rests.
+         */
+        public boolean isImmediate() {
+            return this == IOC || this == FOK;
+        }
+    }
+
+
     public enum OrderStatus {
         OPEN,
         PARTIALLY_FILLED,
         FILLED,
-        CANCELLED
+        CANCELLED,
+        EXPIRED
     }
 }
@@ -0,0 +1,12 @@
+package com.example.trading_system.model;
+
+import java.util.List;
+
+/**
+ * Outcome of placing an order: the order's ID and status once it was processed, and the trades it executed.
+ */
+public record OrderAck(
+    String orderId,
+    Order.OrderStatus status,
+    List<Trade> trades
+) {}
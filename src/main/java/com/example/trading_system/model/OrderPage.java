@@ -0,0 +1,12 @@
+package com.example.trading_system.model;
+
+import java.util.List;
+
+/**
+ * A page of orders in placement order, with the cursor to request the following page.
+ * The cursor is null when there are no more orders.
+ */
+public record OrderPage(
+    List<Order> orders,
+    String nextCursor
+) {}
@@ -0,0 +1,26 @@
+package com.example.trading_system.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+/**
+ * What one trader owes another in an instrument after netting all their trades against each other.
+ * Positive figures are owed by the counterparty to the trader, negative ones the other way round.
+ */
+public record PairObligation(
+    @Schema(description = "ID of the instrument")
+    String instrumentId,
+    @Schema(description = "Trader the figures are seen from; the lower ID of the pair", example = "trader-1")
+    String traderId,
+    @Schema(description = "Other trader of the pair", example = "trader-2")
+    String counterpartyId,
+    @Schema(description = "Units the counterparty delivers to the trader, net of those going the other way", example = "40")
+    long netQuantity,
+    @Schema(description = "Cash the trader pays the counterparty, net of cash received", example = "4012.50")
+    BigDecimal netCash,
+    @Schema(description = "Units traded between the two in either direction", example = "120")
+    long grossQuantity,
+    @Schema(description = "Number of trades between the two", example = "12")
+    long tradeCount
+) {}
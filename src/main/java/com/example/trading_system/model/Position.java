@@ -0,0 +1,25 @@
+package com.example.trading_system.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+/**
+ * A trader's holding in one instrument, with profit and loss.
+ */
+public record Position(
+    @Schema(description = "ID of the trader")
+    String traderId,
+    @Schema(description = "ID of the instrument")
+    String instrumentId,
+    @Schema(description = "Net quantity held: positive when long, negative when short", example = "-25")
+    long quantity,
+    @Schema(description = "Average price of the open quantity, or null when flat", example = "100.250000")
+    BigDecimal averageCost,
+    @Schema(description = "Profit locked in by closing quantity", example = "42.50")
+    BigDecimal realizedPnl,
+    @Schema(description = "Price the open quantity is valued at: the market price, or the last trade price while one side of the book is empty", example = "101.00")
+    BigDecimal markPrice,
+    @Schema(description = "Profit of the open quantity at the mark price, or null without a mark price", example = "-18.75")
+    BigDecimal unrealizedPnl
+) {}
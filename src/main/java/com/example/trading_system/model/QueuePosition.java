@@ -0,0 +1,21 @@
+package com.example.trading_system.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+/**
+ * Where a resting order sits in the time priority queue of its price level.
+ */
+public record QueuePosition(
+    @Schema(description = "ID of the resting order", example = "123e4567-e89b-12d3-a456-426614174001")
+    String orderId,
+    @Schema(description = "Price level the order rests at", example = "100.00")
+    BigDecimal price,
+    @Schema(description = "Number of orders ahead of it at this price", example = "3")
+    int ordersAhead,
+    @Schema(description = "Visible quantity ahead of it at this price", example = "250")
+    long quantityAhead,
+    @Schema(description = "Visible quantity of the whole price level", example = "400")
+    long levelQuantity
+) {}
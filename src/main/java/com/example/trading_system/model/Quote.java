@@ -0,0 +1,14 @@
+package com.example.trading_system.model;
+
+import java.math.BigDecimal;
+
+/**
+ * A market maker's two-sided quote on one instrument. A side with zero quantity is withdrawn.
+ */
+public record Quote(
+    String instrumentId,
+    BigDecimal bidPrice,
+    int bidQuantity,
+    BigDecimal askPrice,
+    int askQuantity
+) {}
@@ -0,0 +1,24 @@
+package com.example.trading_system.model;
+
+import com.example.trading_system.exception.TradingException;
+
+/**
+ * Outcome of one instrument's quote in a mass quote. A rejected quote left the instrument's previous quote
+ * in place.
+ * @param errorCode Null when the quote was applied, otherwise the code of the rejection.
+ * @param message Null when the quote was applied, otherwise why it was rejected.
+ */
+public record QuoteOutcome(
+    String instrumentId,
+    boolean applied,
+    String errorCode,
+    String message
+) {
+    public static QuoteOutcome applied(String instrumentId) {
+        return new QuoteOutcome(instrumentId, true, null, null);
+    }
+
+    public static QuoteOutcome rejected(String instrumentId, TradingException exception) {
+        return new QuoteOutcome(instrumentId, false, exception.getErrorCode(), exception.getMessage());
+    }
+}
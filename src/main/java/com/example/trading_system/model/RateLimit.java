@@ -0,0 +1,13 @@
+package com.example.trading_system.model;
+
+/**
+ * Token bucket settings: a bucket holds up to {@code burst} requests and refills at
+ * {@code requestsPerSecond}.
+ */
+public record RateLimit(double requestsPerSecond, int burst) {
+    public RateLimit {
+        if (!(requestsPerSecond > 0) || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least 1");
+        }
+    }
+}
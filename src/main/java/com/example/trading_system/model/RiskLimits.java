@@ -0,0 +1,27 @@
+package com.example.trading_system.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Pre-trade limits applied to every order. A null limit is not checked.
+ *
+ * @param maxOrderQuantity Largest quantity of a single order.
+ * @param maxOrderNotional Largest quantity times price of a single order; market orders are valued at the
+ *                         market price.
+ * @param priceBand Largest distance of a limit price from the market price, as a fraction of the market
+ *                  price (0.1 allows 10% either side).
+ * @param maxOpenOrders Most open orders a trader may have across all instruments.
+ * @param maxGrossExposure Largest total notional of a trader's open buy and sell orders.
+ * @param creditLimit Largest notional of a trader's open buy orders plus what it has spent on buys net of
+ *                    sells.
+ */
+public record RiskLimits(
+    Integer maxOrderQuantity,
+    BigDecimal maxOrderNotional,
+    BigDecimal priceBand,
+    Integer maxOpenOrders,
+    BigDecimal maxGrossExposure,
+    BigDecimal creditLimit
+) {
+    public static final RiskLimits NONE = new RiskLimits(null, null, null, null, null, null);
+}
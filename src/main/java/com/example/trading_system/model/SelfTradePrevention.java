@@ -0,0 +1,16 @@
+package com.example.trading_system.model;
+
+/**
+ * What happens when two orders from the same trader would trade with each other.
+ * Either way no trade is printed and matching carries on with the remaining orders.
+ */
+public enum SelfTradePrevention {
+    // Cancel the order that arrived later, usually the incoming order
+    CANCEL_NEWEST,
+    // Cancel the order that arrived earlier, usually the resting order
+    CANCEL_OLDEST,
+    // Cancel both orders
+    CANCEL_BOTH,
+    // Reduce both orders by the smaller remaining quantity; an order reduced to zero is cancelled
+    DECREMENT
+}
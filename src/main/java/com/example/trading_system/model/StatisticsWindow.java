@@ -0,0 +1,32 @@
+package com.example.trading_system.model;
+
+import java.time.Duration;
+
+/**
+ * Sliding windows over which trade statistics are kept for every instrument.
+ * <p>
+ * A window is a ring of equal buckets and slides one bucket at a time, so it covers between
+ * {@code buckets - 1} and {@code buckets} bucket widths of trades. The session window is a single day-wide
+ * bucket, so it restarts at local midnight like DAY orders.
+ */
+public enum StatisticsWindow {
+    M1(Duration.ofSeconds(1), 60),
+    M5(Duration.ofSeconds(5), 60),
+    SESSION(Duration.ofDays(1), 1);
+
+    private final Duration bucketWidth;
+    private final int buckets;
+
+    StatisticsWindow(Duration bucketWidth, int buckets) {
+        this.bucketWidth = bucketWidth;
+        this.buckets = buckets;
+    }
+
+    public Duration getBucketWidth() {
+        return bucketWidth;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+}
@@ -16,6 +16,10 @@ public record Trade(
     String buyOrderId,
     @Schema(description = "ID of the sell order involved in the trade", example = "123e4567-e89b-12d3-a456-426614174003")
     String sellOrderId,
+    @Schema(description = "ID of the trader who bought", example = "trader-1")
+    String buyTraderId,
+    @Schema(description = "ID of the trader who sold", example = "trader-2")
+    String sellTraderId,
     @Schema(description = "ID of the instrument traded", example = "123e4567-e89b-12d3-a456-426614174000")
     String instrumentId,
     @Schema(description = "Price at which the trade was executed", example = "105.00")
@@ -0,0 +1,39 @@
+package com.example.trading_system.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * Trades of one instrument within a time range, and the balance of the top of its book. Figures are computed
+ * in double precision over the whole range; prices are null when the range holds no trades.
+ */
+public record TradeAnalytics(
+    @Schema(description = "ID of the instrument")
+    String instrumentId,
+    @Schema(description = "Start of the range, inclusive, or null for the first trade")
+    LocalDateTime from,
+    @Schema(description = "End of the range, exclusive, or null for now")
+    LocalDateTime to,
+    @Schema(description = "Number of trades in the range", example = "37")
+    int tradeCount,
+    @Schema(description = "Quantity traded", example = "1250")
+    long volume,
+    @Schema(description = "Sum of price times quantity", example = "125312.5")
+    double notional,
+    @Schema(description = "Volume-weighted average trade price", example = "100.25")
+    Double vwap,
+    @Schema(description = "Lowest trade price", example = "99.75")
+    Double low,
+    @Schema(description = "Highest trade price", example = "101.5")
+    Double high,
+    @Schema(description = "Price levels of each side counted in the depth", example = "10")
+    int depthLevels,
+    @Schema(description = "Quantity on the best bid levels, including iceberg reserve", example = "800")
+    long bidDepth,
+    @Schema(description = "Quantity on the best ask levels, including iceberg reserve", example = "600")
+    long askDepth,
+    @Schema(description = "(bid depth - ask depth) / (bid depth + ask depth), or null when both sides are empty",
+        example = "0.142857")
+    Double depthImbalance
+) {}
@@ -0,0 +1,19 @@
+package com.example.trading_system.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+/**
+ * A trader's settlement in one instrument, net across all its counterparties.
+ */
+public record TraderObligation(
+    @Schema(description = "ID of the trader", example = "trader-1")
+    String traderId,
+    @Schema(description = "ID of the instrument")
+    String instrumentId,
+    @Schema(description = "Units the trader receives; negative when it delivers", example = "40")
+    long netQuantity,
+    @Schema(description = "Cash the trader pays; negative when it receives", example = "4012.50")
+    BigDecimal netCash
+) {}
@@ -0,0 +1,13 @@
+package com.example.trading_system.model;
+
+/**
+ * Phase an instrument's order book is trading in.
+ */
+public enum TradingPhase {
+    // Incoming orders match immediately against the book
+    CONTINUOUS,
+    // Orders accumulate without matching until the book is uncrossed at a single price
+    AUCTION,
+    // Frequent batch auctions: orders accumulate and the book is uncrossed at a fixed interval
+    BATCH_AUCTION
+}
@@ -0,0 +1,23 @@
+package com.example.trading_system.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+/**
+ * Trades of one instrument within a sliding window. Prices are null when the window holds no trades.
+ */
+public record WindowStatistics(
+    @Schema(description = "Window the figures cover", example = "M1")
+    StatisticsWindow window,
+    @Schema(description = "Volume-weighted average trade price", example = "100.250000")
+    BigDecimal vwap,
+    @Schema(description = "Quantity traded", example = "1250")
+    long volume,
+    @Schema(description = "Number of trades", example = "37")
+    long tradeCount,
+    @Schema(description = "Highest trade price", example = "101.50")
+    BigDecimal high,
+    @Schema(description = "Lowest trade price", example = "99.75")
+    BigDecimal low
+) {}
@@ -0,0 +1,52 @@
+package com.example.trading_system.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bulk reductions over columns of prices and quantities.
+ * <p>
+ * There are two implementations: {@code VectorAnalyticsKernels} uses the incubating Vector API to reduce
+ * several lanes per instruction, and {@link ScalarAnalyticsKernels} is a plain loop. The vector kernels are
+ * only compiled by the {@code vector} Maven profile and only loaded when the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}; otherwise the scalar kernels are used and the results are the
+ * same up to floating point rounding.
+ */
+interface AnalyticsKernels {
+    String VECTOR_MODULE = "jdk.incubator.vector";
+
+    /**
+     * Reduces the entries {@code from} (inclusive) to {@code to} (exclusive) of two parallel columns in one
+     * pass.
+     */
+    Summary summarize(double[] prices, double[] quantities, int from, int to);
+
+    /**
+     * Total quantity, total price times quantity, and the lowest and highest price of a range. The lowest and
+     * highest price of an empty range are positive and negative infinity.
+     */
+    record Summary(double quantity, double notional, double low, double high) {}
+
+    /**
+     * Picks the vector kernels when the Vector API module is resolved, and the scalar kernels otherwise.
+     * The vector class is loaded by name so it is never linked against a missing module.
+     */
+    static AnalyticsKernels select() {
+        Logger log = LoggerFactory.getLogger(AnalyticsKernels.class);
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                AnalyticsKernels kernels = (AnalyticsKernels) Class
+                    .forName(AnalyticsKernels.class.getPackageName() + ".VectorAnalyticsKernels")
+                    .getDeclaredConstructor().newInstance();
+                log.info("Trade analytics using the Vector API: {}", kernels);
+                return kernels;
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Typically a build without the vector profile
+                log.warn("Vector API kernels are not available ({}), using scalar kernels", e.toString());
+            }
+        } else {
+            log.info("Trade analytics using scalar kernels");
+        }
+        return new ScalarAnalyticsKernels();
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.trading_system.service;
+
+import com.example.trading_system.model.Candle;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OHLCV candles of one interval length, kept in a fixed-size ring buffer.
+ * <p>
+ * Each field lives in its own primitive array, with prices as fixed-point longs, so a trade updates the
+ * current candle or starts the next one in O(1), and the oldest candle is overwritten once the buffer is
+ * full. Intervals without trades produce no candle.
+ * <p>
+ * Prices keep {@value #PRICE_SCALE} decimal places until one has too many integer digits to fit a long at
+ * that scale; the series then drops decimal places and rescales the candles it holds, which happens at
+ * most a handful of times over its life.
+ * <p>
+ * Not thread safe; the owning order book calls it under its own lock.
+ */
+class CandleSeries {
+    // Decimal places kept for prices while they fit; finer prices are rounded half-even
+    static final int PRICE_SCALE = 8;
+    // Digits that always fit in a long
+    private static final int MAX_DIGITS = 18;
+
+    private final long intervalMillis;
+    private final long[] openTime;
+    private final long[] open;
+    private final long[] high;
+    private final long[] low;
+    private final long[] close;
+    private final long[] volume;
+    private final int[] tradeCount;
+    // Candles started since creation; the current one is at (count - 1) % capacity
+    private long count;
+    private int scale = PRICE_SCALE;
+
+    CandleSeries(long intervalMillis, int capacity) {
+        this.intervalMillis = intervalMillis;
+        this.openTime = new long[capacity];
+        this.open = new long[capacity];
+        this.high = new long[capacity];
+        this.low = new long[capacity];
+        this.close = new long[capacity];
+        this.volume = new long[capacity];
+        this.tradeCount = new int[capacity];
+    }
+
+    /**
+     * Adds a trade at wall-clock {@code timeMillis}. A trade stamped before the current candle, as after
+     * a clock step back, is folded into the current candle so the series stays ordered.
+     */
+    void record(long timeMillis, BigDecimal tradePrice, long quantity) {
+        long price = toFixedPoint(tradePrice);
+        long start = timeMillis - Math.floorMod(timeMillis, intervalMillis);
+        int current = (int) ((count - 1) % openTime.length);
+        if (count == 0 || start > openTime[current]) {
+            current = (int) (count++ % openTime.length);
+            openTime[current] = start;
+            open[current] = price;
+            high[current] = price;
+            low[current] = price;
+            close[current] = price;
+            volume[current] = quantity;
+            tradeCount[current] = 1;
+            return;
+        }
+        high[current] = Math.max(high[current], price);
+        low[current] = Math.min(low[current], price);
+        close[current] = price;
+        volume[current] += quantity;
+        tradeCount[current]++;
+    }
+
+    /**
+     * Up to {@code limit} most recent candles, oldest first.
+     */
+    List<Candle> latest(int limit) {
+        int size = (int) Math.min(Math.min(count, openTime.length), limit);
+        List<Candle> candles = new ArrayList<>(size);
+        for (long i = count - size; i < count; i++) {
+            int index = (int) (i % openTime.length);
+            candles.add(new Candle(toTime(openTime[index]), toPrice(open[index]), toPrice(high[index]),
+                toPrice(low[index]), toPrice(close[index]), volume[index], tradeCount[index]));
+        }
+        return candles;
+    }
+
+    /**
+     * Local wall-clock time as milliseconds, so candles line up with local minutes and hours.
+     */
+    static long toMillis(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1000 + time.getNano() / 1_000_000;
+    }
+
+    private long toFixedPoint(BigDecimal price) {
+        BigDecimal scaled = price.setScale(scale, RoundingMode.HALF_EVEN);
+        if (scaled.precision() > MAX_DIGITS) {
+            rescale(scale - (scaled.precision() - MAX_DIGITS));
+            scaled = price.setScale(scale, RoundingMode.HALF_EVEN);
+        }
+        return scaled.unscaledValue().longValue();
+    }
+
+    private void rescale(int newScale) {
+        for (int i = 0; i < Math.min(count, openTime.length); i++) {
+            open[i] = rescale(open[i], newScale);
+            high[i] = rescale(high[i], newScale);
+            low[i] = rescale(low[i], newScale);
+            close[i] = rescale(close[i], newScale);
+        }
+        scale = newScale;
+    }
+
+    private long rescale(long fixedPoint, int newScale) {
+        return BigDecimal.valueOf(fixedPoint, scale).setScale(newScale, RoundingMode.HALF_EVEN).unscaledValue().longValue();
+    }
+
+    private static LocalDateTime toTime(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000),
+            (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private BigDecimal toPrice(long fixedPoint) {
+        BigDecimal price = BigDecimal.valueOf(fixedPoint, scale).stripTrailingZeros();
+        return price.scale() < 0 ? price.setScale(0) : price;
+    }
+}
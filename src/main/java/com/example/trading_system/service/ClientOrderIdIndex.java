@@ -0,0 +1,103 @@
+package com.example.trading_system.service;
+
+import com.example.trading_system.model.DuplicateWindow;
+import com.example.trading_system.model.OrderAck;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The client order IDs seen within the {@link DuplicateWindow}, each with the outcome of its placement.
+ * <p>
+ * IDs go into a ring of time buckets, each a hash map. The newest bucket takes every new ID until it is a
+ * bucket width old or holds its share of the capacity, and then the ring turns and the oldest bucket is
+ * dropped whole. A lookup probes the fixed number of buckets, so it costs the same however many orders
+ * have been placed, and nothing is remembered beyond the window or the capacity.
+ */
+class ClientOrderIdIndex {
+    private static final int BUCKETS = 4;
+
+    private final long bucketMillis;
+    private final int bucketCapacity;
+    private final Map<Key, CompletableFuture<OrderAck>>[] buckets;
+    // Bucket taking new IDs, and the time it started
+    private int head;
+    private long headStart;
+
+    @SuppressWarnings("unchecked")
+    ClientOrderIdIndex(DuplicateWindow window, long nowMillis) {
+        // Once the head turns, the other buckets together still span the whole window
+        this.bucketMillis = Math.max(1, window.length().toMillis() / (BUCKETS - 1));
+        this.bucketCapacity = Math.max(1, window.capacity() / BUCKETS);
+        this.buckets = new Map[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new HashMap<>();
+        }
+        this.headStart = nowMillis;
+    }
+
+    /**
+     * Claims a trader's client order ID for a placement about to start.
+     * @param placement Completed with the placement's outcome, or exceptionally if it is rejected.
+     * @return The earlier placement of the same ID, possibly still running, or null if the ID is now claimed.
+     */
+    synchronized CompletableFuture<OrderAck> claim(String traderId, String clientOrderId,
+                                                   CompletableFuture<OrderAck> placement, long nowMillis) {
+        advance(nowMillis);
+        Key key = new Key(traderId, clientOrderId);
+        for (Map<Key, CompletableFuture<OrderAck>> bucket : buckets) {
+            CompletableFuture<OrderAck> original = bucket.get(key);
+            if (original != null) {
+                return original;
+            }
+        }
+        buckets[head].put(key, placement);
+        return null;
+    }
+
+    /**
+     * Forgets an ID whose placement was rejected, so the order can be sent again under the same ID.
+     */
+    synchronized void release(String traderId, String clientOrderId, CompletableFuture<OrderAck> placement) {
+        Key key = new Key(traderId, clientOrderId);
+        for (Map<Key, CompletableFuture<OrderAck>> bucket : buckets) {
+            if (bucket.remove(key, placement)) {
+                return;
+            }
+        }
+    }
+
+    synchronized int size() {
+        int size = 0;
+        for (Map<Key, CompletableFuture<OrderAck>> bucket : buckets) {
+            size += bucket.size();
+        }
+        return size;
+    }
+
+    /**
+     * Turns the ring once per bucket width elapsed, keeping bucket starts on the width grid, or once when
+     * the head is full. A gap longer than the window clears every bucket.
+     */
+    private void advance(long nowMillis) {
+        long elapsed = nowMillis - headStart;
+        if (elapsed >= bucketMillis) {
+            long turns = elapsed / bucketMillis;
+            for (int i = 0; i < Math.min(turns, BUCKETS); i++) {
+                turn();
+            }
+            headStart += turns * bucketMillis;
+        } else if (buckets[head].size() >= bucketCapacity) {
+            turn();
+            headStart = nowMillis;
+        }
+    }
+
+    private void turn() {
+        head = (head + 1) % BUCKETS;
+        buckets[head].clear();
+    }
+
+    private record Key(String traderId, String clientOrderId) {}
+}
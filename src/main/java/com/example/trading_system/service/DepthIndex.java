@@ -0,0 +1,178 @@
+package com.example.trading_system.service;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cumulative depth of one side of the book, best price first.
+ * <p>
+ * A treap keyed by price where every node also carries the level count, total quantity and notional of its
+ * subtree.
+ * Price levels report each change in their resting quantity, so the index is kept up to date in
+ * O(log levels) per change, and the cost of sweeping any quantity from the top of the book is found by
+ * one descent from the root in O(log levels), without touching the levels themselves.
+ */
+class DepthIndex {
+    private final Comparator<BigDecimal> priority;
+    private Node root;
+
+    /**
+     * @param priority Orders prices best first: ascending for sells, descending for buys.
+     */
+    DepthIndex(Comparator<BigDecimal> priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Adds {@code delta} to the quantity resting at {@code price}; a level that reaches zero is dropped.
+     */
+    void adjust(BigDecimal price, long delta) {
+        if (delta != 0) {
+            root = adjust(root, price, delta);
+        }
+    }
+
+    long totalQuantity() {
+        return quantity(root);
+    }
+
+    /**
+     * Total quantity of the best {@code levels} levels, found by one descent from the root in O(log levels).
+     */
+    long quantityOfBest(int levels) {
+        long total = 0;
+        int needed = levels;
+        Node node = root;
+        while (node != null && needed > 0) {
+            if (levels(node.left) >= needed) {
+                node = node.left;
+                continue;
+            }
+            needed -= levels(node.left) + 1;
+            total += quantity(node.left) + node.quantity;
+            node = node.right;
+        }
+        return total;
+    }
+
+    /**
+     * Walks the levels best first until {@code quantity} is covered, or the side runs out.
+     */
+    Sweep sweep(long quantity) {
+        long needed = quantity;
+        BigDecimal notional = BigDecimal.ZERO;
+        BigDecimal worstPrice = null;
+        Node node = root;
+        while (node != null && needed > 0) {
+            if (quantity(node.left) >= needed) {
+                node = node.left;
+                continue;
+            }
+            needed -= quantity(node.left);
+            notional = notional.add(notional(node.left));
+            long taken = Math.min(needed, node.quantity);
+            notional = notional.add(node.price.multiply(BigDecimal.valueOf(taken)));
+            needed -= taken;
+            worstPrice = node.price;
+            node = node.right;
+        }
+        return new Sweep(quantity - needed, notional, worstPrice);
+    }
+
+    /**
+     * Outcome of a simulated sweep: how much could be filled, at what total cost, and the last price reached.
+     */
+    record Sweep(long filledQuantity, BigDecimal notional, BigDecimal worstPrice) {}
+
+    private Node adjust(Node node, BigDecimal price, long delta) {
+        if (node == null) {
+            return new Node(price, delta);
+        }
+        int comparison = priority.compare(price, node.price);
+        if (comparison == 0) {
+            node.quantity += delta;
+            if (node.quantity == 0) {
+                return merge(node.left, node.right);
+            }
+        } else if (comparison < 0) {
+            node.left = adjust(node.left, price, delta);
+            if (node.left != null && node.left.weight > node.weight) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = adjust(node.right, price, delta);
+            if (node.right != null && node.right.weight > node.weight) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null || right == null) {
+            return left != null ? left : right;
+        }
+        if (left.weight > right.weight) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.update();
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.update();
+        return right;
+    }
+
+    private static int levels(Node node) {
+        return node == null ? 0 : node.subtreeLevels;
+    }
+
+    private static long quantity(Node node) {
+        return node == null ? 0 : node.subtreeQuantity;
+    }
+
+    private static BigDecimal notional(Node node) {
+        return node == null ? BigDecimal.ZERO : node.subtreeNotional;
+    }
+
+    private static final class Node {
+        private final BigDecimal price;
+        private final int weight;
+        private long quantity;
+        private int subtreeLevels;
+        private long subtreeQuantity;
+        private BigDecimal subtreeNotional;
+        private Node left;
+        private Node right;
+
+        private Node(BigDecimal price, long quantity) {
+            this.price = price;
+            this.weight = ThreadLocalRandom.current().nextInt();
+            this.quantity = quantity;
+            update();
+        }
+
+        private void update() {
+            subtreeLevels = levels(left) + 1 + levels(right);
+            subtreeQuantity = quantity(left) + quantity + quantity(right);
+            subtreeNotional = notional(left).add(price.multiply(BigDecimal.valueOf(quantity))).add(notional(right));
+        }
+    }
+}
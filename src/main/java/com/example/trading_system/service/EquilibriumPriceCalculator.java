@@ -0,0 +1,119 @@
+package com.example.trading_system.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+
+/**
+ * Finds the price at which an auction uncrosses.
+ * <p>
+ * Candidate prices are the level prices inside the crossed range. Cumulative buy quantity at or above
+ * each candidate and cumulative sell quantity at or below it are built in one sweep per side over the
+ * level totals, so the cost depends on the number of price levels and not on the number of orders.
+ * The chosen price maximises executable volume; ties go to the smallest imbalance, then to the price
+ * closest to the reference price, then to the lower price.
+ */
+class EquilibriumPriceCalculator {
+
+    record Equilibrium(BigDecimal price, long volume) {
+    }
+
+    /**
+     * @param buyLevels Buy levels, best (highest) price first.
+     * @param sellLevels Sell levels, best (lowest) price first.
+     * @param referencePrice Price used to break ties, usually the last trade price; may be null.
+     */
+    Optional<Equilibrium> calculate(NavigableMap<BigDecimal, PriceLevel> buyLevels,
+                                    NavigableMap<BigDecimal, PriceLevel> sellLevels,
+                                    BigDecimal referencePrice) {
+        if (buyLevels.isEmpty() || sellLevels.isEmpty()
+                || buyLevels.firstKey().compareTo(sellLevels.firstKey()) < 0) {
+            return Optional.empty();
+        }
+
+        // Levels outside the crossed range cannot trade at any candidate price
+        List<PriceLevel> buys = new ArrayList<>(buyLevels.headMap(sellLevels.firstKey(), true).values());
+        List<PriceLevel> sells = new ArrayList<>(sellLevels.headMap(buyLevels.firstKey(), true).values());
+        BigDecimal[] prices = mergePrices(buys, sells);
+
+        long[] supply = new long[prices.length];
+        long cumulative = 0;
+        for (int i = 0, s = 0; i < prices.length; i++) {
+            while (s < sells.size() && sells.get(s).getPrice().compareTo(prices[i]) <= 0) {
+                cumulative += totalOf(sells.get(s++));
+            }
+            supply[i] = cumulative;
+        }
+
+        long[] demand = new long[prices.length];
+        cumulative = 0;
+        for (int i = prices.length - 1, b = 0; i >= 0; i--) {
+            while (b < buys.size() && buys.get(b).getPrice().compareTo(prices[i]) >= 0) {
+                cumulative += totalOf(buys.get(b++));
+            }
+            demand[i] = cumulative;
+        }
+
+        int best = -1;
+        long bestVolume = 0;
+        long bestImbalance = 0;
+        for (int i = 0; i < prices.length; i++) {
+            long volume = Math.min(demand[i], supply[i]);
+            long imbalance = Math.abs(demand[i] - supply[i]);
+            if (volume > bestVolume
+                    || (volume == bestVolume && volume > 0
+                        && (imbalance < bestImbalance
+                            || (imbalance == bestImbalance && closer(prices[i], prices[best], referencePrice))))) {
+                best = i;
+                bestVolume = volume;
+                bestImbalance = imbalance;
+            }
+        }
+        return best < 0 ? Optional.empty() : Optional.of(new Equilibrium(prices[best], bestVolume));
+    }
+
+    private static long totalOf(PriceLevel level) {
+        return level.getTotalQuantity() + level.getHiddenQuantity();
+    }
+
+    /**
+     * Merges the ascending sell prices and descending buy prices into one ascending array without duplicates.
+     */
+    private static BigDecimal[] mergePrices(List<PriceLevel> buys, List<PriceLevel> sells) {
+        BigDecimal[] prices = new BigDecimal[buys.size() + sells.size()];
+        int count = 0;
+        int b = buys.size() - 1;
+        int s = 0;
+        while (b >= 0 || s < sells.size()) {
+            BigDecimal next;
+            if (s >= sells.size()) {
+                next = buys.get(b--).getPrice();
+            } else if (b < 0) {
+                next = sells.get(s++).getPrice();
+            } else {
+                int comparison = buys.get(b).getPrice().compareTo(sells.get(s).getPrice());
+                next = comparison <= 0 ? buys.get(b--).getPrice() : sells.get(s++).getPrice();
+                if (comparison == 0) {
+                    s++;
+                }
+            }
+            if (count == 0 || prices[count - 1].compareTo(next) != 0) {
+                prices[count++] = next;
+            }
+        }
+        return Arrays.copyOf(prices, count);
+    }
+
+    /**
+     * Whether the candidate is a better tie-break than the current best, which is always the lower price.
+     */
+    private static boolean closer(BigDecimal candidate, BigDecimal current, BigDecimal referencePrice) {
+        if (referencePrice == null) {
+            return false;
+        }
+        return candidate.subtract(referencePrice).abs().compareTo(current.subtract(referencePrice).abs()) < 0;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.trading_system.service;
+
+import java.util.Arrays;
+
+/**
+ * Binary indexed tree over a growable array of longs, giving point updates and prefix sums in O(log n).
+ */
+class FenwickTree {
+    private long[] tree;
+
+    FenwickTree(int capacity) {
+        this.tree = new long[capacity];
+    }
+
+    int capacity() {
+        return tree.length;
+    }
+
+    void add(int index, long delta) {
+        for (int i = index; i < tree.length; i |= i + 1) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Sum of the values at indexes below {@code index}.
+     */
+    long prefixSum(int index) {
+        long sum = 0;
+        for (int i = index - 1; i >= 0; i = (i & (i + 1)) - 1) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Replaces the contents with {@code values}, resizing to {@code capacity}, in O(capacity).
+     */
+    void rebuild(long[] values, int count, int capacity) {
+        tree = capacity == tree.length ? tree : new long[capacity];
+        Arrays.fill(tree, 0);
+        System.arraycopy(values, 0, tree, 0, count);
+        for (int i = 0; i < capacity; i++) {
+            int parent = i | (i + 1);
+            if (parent < capacity) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
@@ -1,71 +1,250 @@
 package com.example.trading_system.service;
 
 import com.example.trading_system.exception.TradingException;
+import com.example.trading_system.model.Candle;
+import com.example.trading_system.model.CandleInterval;
+import com.example.trading_system.model.FillEstimate;
+import com.example.trading_system.model.MatchingAlgorithm;
 import com.example.trading_system.model.Order;
+import com.example.trading_system.model.QueuePosition;
+import com.example.trading_system.model.SelfTradePrevention;
+import com.example.trading_system.model.StatisticsWindow;
 import com.example.trading_system.model.Trade;
+import com.example.trading_system.model.TradeAnalytics;
+import com.example.trading_system.model.TradingPhase;
+import com.example.trading_system.model.WindowStatistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Order book holding resting orders in price levels.
+ * <p>
+ * Each side is a sorted map from price to {@link PriceLevel}, so the best price is found in O(log levels)
+ * and an order is added or removed in O(log levels). All writes come from the instrument's sequencer;
+ * methods are synchronized so snapshot reads from request threads see a consistent book.
+ */
 public class InMemoryOrderBook implements OrderBook{
     private static final Logger log = LoggerFactory.getLogger(InMemoryOrderBook.class);
+    private static final int AVERAGE_PRICE_SCALE = 6;
+    // Granularity of GTD and DAY expiry
+    static final long EXPIRY_TICK_MILLIS = 100;
+    // Candles kept per interval
+    static final int CANDLE_HISTORY = 1000;
+    // Most price levels per side the trade analytics count towards depth
+    static final int MAX_DEPTH_LEVELS = 1000;
+    private static final AnalyticsKernels ANALYTICS = AnalyticsKernels.select();
 
-    // Priority queue for buy orders: highest price first, then earliest timestamp
-    private final PriorityBlockingQueue<Order> buyOrders;
-    // Priority queue for sale orders: lowest price first, then earliest timestamp
-    private final PriorityBlockingQueue<Order> sellOrders;
+    // Buy price levels: highest price first, orders within a level by time priority
+    private final NavigableMap<BigDecimal, PriceLevel> buyLevels;
+    // Sell price levels: lowest price first, orders within a level by time priority
+    private final NavigableMap<BigDecimal, PriceLevel> sellLevels;
+    // Cumulative quantity and notional of each side, best price first
+    private final DepthIndex buyDepth;
+    private final DepthIndex sellDepth;
+    // Orders resting in the price levels of both sides
+    private int restingOrders;
     // Map to quickly find and cancel orders by ID
     private final Map<String, Order> allOrders;
     // List of executed trades
     private final List<Trade> trades;
+    // The same trades as primitive columns for bulk analytics
+    private final TradeTape tape;
+    // Stop orders waiting for the last trade price to reach their stop price
+    private final StopOrderIndex stopOrders;
+    // Expiry deadlines of GTD and DAY orders, with each order's timer for O(1) cancellation
+    private final TimingWheel expiryWheel;
+    private final Map<String, TimingWheel.Timeout> expiryTimers;
+    // OHLCV candles of every interval, updated from each recorded trade
+    private final Map<CandleInterval, CandleSeries> candles;
+    // Rolling trade statistics, republished as an immutable snapshot whenever they change
+    private final List<RollingWindow> rollingWindows;
+    private volatile List<WindowStatistics> statistics;
+    // Bumped on every change to the resting orders, used to validate cached snapshots
+    private final AtomicLong version;
+    private volatile BigDecimal lastTradePrice;
+    private volatile TradingPhase phase;
 
     private final String instrumentId;
     private final TradeMatcher tradeMatcher;
+    // Told about every trade and order change, e.g. to keep positions and risk counters
+    private final OrderBookListener listener;
     private final MarketPriceCalculator marketPriceCalculator;
+    private final EquilibriumPriceCalculator equilibriumPriceCalculator;
 
     public InMemoryOrderBook(String instrumentId) {
+        this(instrumentId, SelfTradePrevention.CANCEL_NEWEST);
+    }
+
+    public InMemoryOrderBook(String instrumentId, SelfTradePrevention selfTradePrevention) {
+        this(instrumentId, selfTradePrevention, MatchingAlgorithm.FIFO);
+    }
+
+    public InMemoryOrderBook(String instrumentId, SelfTradePrevention selfTradePrevention,
+                             MatchingAlgorithm matchingAlgorithm) {
+        this(instrumentId, selfTradePrevention, matchingAlgorithm, OrderBookListener.NONE);
+    }
+
+    public InMemoryOrderBook(String instrumentId, SelfTradePrevention selfTradePrevention,
+                             MatchingAlgorithm matchingAlgorithm, OrderBookListener listener) {
         log.info("Initializing order book for instrument: {}", instrumentId);
         this.instrumentId = instrumentId;
-        this.tradeMatcher = new TradeMatcher();
+        this.tradeMatcher = new TradeMatcher(selfTradePrevention, matchingAlgorithm);
+        this.listener = listener;
         this.marketPriceCalculator = new MarketPriceCalculator();
-        // Buy orders: higher price first, then earlier timestamp
-        this.buyOrders = new PriorityBlockingQueue<>(100, 
-                Comparator.comparing(Order::getPrice).reversed().thenComparing(Order::getTimestamp));
-        // Sell orders: lower price first, then earlier timestamp
-        this.sellOrders = new PriorityBlockingQueue<>(100,
-                Comparator.comparing(Order::getPrice).thenComparing(Order::getTimestamp));
+        this.equilibriumPriceCalculator = new EquilibriumPriceCalculator();
+        this.buyLevels = new TreeMap<>(Comparator.reverseOrder());
+        this.sellLevels = new TreeMap<>();
+        this.buyDepth = new DepthIndex(Comparator.reverseOrder());
+        this.sellDepth = new DepthIndex(Comparator.naturalOrder());
         this.allOrders = new ConcurrentHashMap<>();
         this.trades = new CopyOnWriteArrayList<>();
-        log.debug("Order book initialized with capacity 100 for both buy and sell queues");
+        this.tape = new TradeTape();
+        this.stopOrders = new StopOrderIndex();
+        this.expiryWheel = new TimingWheel(EXPIRY_TICK_MILLIS, System.currentTimeMillis());
+        this.expiryTimers = new HashMap<>();
+        this.candles = new EnumMap<>(CandleInterval.class);
+        for (CandleInterval interval : CandleInterval.values()) {
+            candles.put(interval, new CandleSeries(interval.getDuration().toMillis(), CANDLE_HISTORY));
+        }
+        this.rollingWindows = Arrays.stream(StatisticsWindow.values()).map(RollingWindow::new).toList();
+        publishStatistics();
+        this.version = new AtomicLong();
+        this.phase = TradingPhase.CONTINUOUS;
+        log.debug("Order book initialized for instrument {}", instrumentId);
     }
 
     @Override
-    public void addOrder(Order order) {
+    public synchronized void addOrder(Order order) {
         log.info("Adding order {} for instrument {}: type={}, price={}, quantity={}", 
             order.getOrderId(), instrumentId, order.getType(), order.getPrice(), order.getQuantity());
-        
-        boolean added = switch (order.getType()) {
-            case BUY -> buyOrders.offer(order);
-            case SELL -> sellOrders.offer(order);
-        };
-        
-        if (!added) {
-            log.error("Failed to add order {} to queue - queue is full", order.getOrderId());
-            throw new TradingException(TradingException.ErrorCode.ORDER_QUEUE_FULL.name(),
-                "Order queue is full: " + order.getOrderId());
+
+        rest(order);
+        allOrders.put(order.getOrderId(), order);
+        version.incrementAndGet();
+        log.debug("Order {} successfully added to {} side", order.getOrderId(), order.getType());
+    }
+
+    @Override
+    public synchronized List<Trade> submitOrder(Order order) {
+        log.info("Submitting {} order {} for instrument {}: type={}, price={}, quantity={}",
+            order.getTimeInForce(), order.getOrderId(), instrumentId, order.getType(),
+            order.getPrice(), order.getQuantity());
+
+        if (order.isMarket() && !order.getTimeInForce().isImmediate()) {
+            throw new TradingException(TradingException.ErrorCode.INVALID_ORDER.name(),
+                "Market orders must be IOC or FOK: " + order.getOrderId());
         }
-        
+        if (phase != TradingPhase.CONTINUOUS && order.getTimeInForce().isImmediate()) {
+            throw new TradingException(TradingException.ErrorCode.INVALID_ORDER.name(),
+                "IOC and FOK orders are not accepted during an auction: " + order.getOrderId());
+        }
+        resolveExpireTime(order);
+
         allOrders.put(order.getOrderId(), order);
-        log.debug("Order {} successfully added to {} queue", order.getOrderId(), order.getType());
+        if (order.isPendingStop()) {
+            if (lastTradePrice == null || !StopOrderIndex.isTriggeredBy(order, lastTradePrice)) {
+                stopOrders.add(order);
+                scheduleExpiry(order);
+                version.incrementAndGet();
+                listener.onOrderUpdated(order);
+                log.debug("Stop order {} waiting for stop price {}", order.getOrderId(), order.getStopPrice());
+                return List.of();
+            }
+            order.trigger();
+        }
+
+        List<Trade> tradeList = new ArrayList<>(execute(order));
+        triggerStops(tradeList);
+        return tradeList;
+    }
+
+    private List<Trade> execute(Order order) {
+        // During an auction orders only accumulate; they trade when the book is uncrossed
+        List<Trade> tradeList = phase != TradingPhase.CONTINUOUS
+            ? List.of() : tradeMatcher.execute(order, this, instrumentId);
+        recordTrades(tradeList);
+
+        if (order.getQuantity() > 0 && order.getStatus() != Order.OrderStatus.CANCELLED) {
+            if (!order.getTimeInForce().isImmediate()) {
+                rest(order);
+                scheduleExpiry(order);
+                version.incrementAndGet();
+                log.debug("Order {} resting with remaining quantity {}", order.getOrderId(), order.getQuantity());
+            } else {
+                // The unfilled remainder of an immediate order never enters the book
+                order.setStatus(Order.OrderStatus.CANCELLED);
+                cancelExpiry(order);
+                log.debug("Cancelled unfilled remainder {} of {} order {}",
+                    order.getQuantity(), order.getTimeInForce(), order.getOrderId());
+            }
+        }
+        listener.onOrderUpdated(order);
+        return tradeList;
+    }
+
+    /**
+     * Gives DAY orders the end of the current day as their expire time and checks the one set on GTD orders.
+     */
+    private void resolveExpireTime(Order order) {
+        switch (order.getTimeInForce()) {
+            case DAY -> order.setExpireTime(LocalDate.now().plusDays(1).atStartOfDay());
+            case GTD -> {
+                if (order.getExpireTime() == null || !order.getExpireTime().isAfter(LocalDateTime.now())) {
+                    throw new TradingException(TradingException.ErrorCode.INVALID_ORDER.name(),
+                        "GTD orders need an expire time in the future: " + order.getOrderId());
+                }
+            }
+            default -> order.setExpireTime(null);
+        }
+    }
+
+    private void scheduleExpiry(Order order) {
+        if (order.getExpireTime() != null && !expiryTimers.containsKey(order.getOrderId())) {
+            long deadline = order.getExpireTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            expiryTimers.put(order.getOrderId(), expiryWheel.schedule(order, deadline));
+        }
+    }
+
+    private void cancelExpiry(Order order) {
+        TimingWheel.Timeout timeout = expiryTimers.remove(order.getOrderId());
+        if (timeout != null) {
+            expiryWheel.cancel(timeout);
+        }
+    }
+
+    /**
+     * Releases stops triggered by the last trade price into the book. Trades made by triggered stops can
+     * move the price further and trigger more stops, so this loops until a round triggers nothing.
+     * Outside continuous trading stops stay pending, as they could not trade.
+     */
+    private void triggerStops(List<Trade> tradeList) {
+        while (phase == TradingPhase.CONTINUOUS && lastTradePrice != null && stopOrders.size() > 0) {
+            List<Order> triggered = stopOrders.pollTriggered(lastTradePrice);
+            if (triggered.isEmpty()) {
+                return;
+            }
+            version.incrementAndGet();
+            log.info("Last trade price {} triggered {} stop orders for instrument {}",
+                lastTradePrice, triggered.size(), instrumentId);
+            for (Order stop : triggered) {
+                stop.trigger();
+                tradeList.addAll(execute(stop));
+            }
+        }
     }
 
     @Override
-    public void cancelOrder(String orderId) {
+    public synchronized void cancelOrder(String orderId) {
         log.info("Attempting to cancel order {} for instrument {}", orderId, instrumentId);
         
         Order order = allOrders.get(orderId);
@@ -74,29 +253,87 @@ public class InMemoryOrderBook implements OrderBook{
             throw new TradingException(TradingException.ErrorCode.ORDER_NOT_FOUND.name(),
                     "Order not found: " + orderId);
         }
-        if (order.getStatus() == Order.OrderStatus.CANCELLED) {
-            log.info("Order {} was already cancelled", orderId);
+        if (order.getStatus() == Order.OrderStatus.CANCELLED || order.getStatus() == Order.OrderStatus.EXPIRED) {
+            log.info("Order {} was already {}", orderId, order.getStatus());
             return;
         }
 
         order.setStatus(Order.OrderStatus.CANCELLED);
+        cancelExpiry(order);
+        version.incrementAndGet();
         log.debug("Order {} status set to CANCELLED", orderId);
 
-        // Remove from the appropriate queue but keep in allOrders
-        boolean removed = switch (order.getType()) {
-            case BUY -> buyOrders.remove(order);
-            case SELL -> sellOrders.remove(order);
-        };
-        
-        if (!removed) {
-            log.warn("Order {} was already removed from queue", orderId);
+        // Remove from the appropriate side but keep in allOrders
+        if (order.isPendingStop()) {
+            stopOrders.remove(order);
+            log.debug("Stop order {} removed from the trigger index", orderId);
+        } else if (!unrest(order)) {
+            log.warn("Order {} was already removed from the book", orderId);
         } else {
-            log.debug("Order {} removed from {} queue", orderId, order.getType());
+            log.debug("Order {} removed from {} side", orderId, order.getType());
         }
+        listener.onOrderUpdated(order);
     }
 
     @Override
-    public boolean hasMatchingOrders() {
+    public synchronized List<Trade> amendOrder(String orderId, BigDecimal newPrice, Integer newQuantity) {
+        log.info("Amending order {} for instrument {}: price={}, quantity={}",
+            orderId, instrumentId, newPrice, newQuantity);
+
+        Order order = allOrders.get(orderId);
+        if (order == null) {
+            log.warn("Order {} not found for amendment", orderId);
+            throw new TradingException(TradingException.ErrorCode.ORDER_NOT_FOUND.name(),
+                    "Order not found: " + orderId);
+        }
+        if (order.getStatus() == Order.OrderStatus.CANCELLED || order.getStatus() == Order.OrderStatus.EXPIRED
+                || order.isFilled()) {
+            throw new TradingException(TradingException.ErrorCode.INVALID_ORDER.name(),
+                    "Order is no longer active: " + orderId);
+        }
+
+        BigDecimal price = newPrice != null ? newPrice : order.getPrice();
+        int quantity = newQuantity != null ? newQuantity : order.getTotalQuantity();
+        if ((price != null && price.signum() <= 0) || quantity <= 0) {
+            throw new TradingException(TradingException.ErrorCode.INVALID_ORDER.name(),
+                    "Amended price and quantity must be positive: " + orderId);
+        }
+
+        if (order.isPendingStop()) {
+            // Not in the book yet, so there is no queue position to keep
+            order.replace(price, quantity);
+            version.incrementAndGet();
+            listener.onOrderUpdated(order);
+            log.debug("Pending stop order {} amended to price {} with quantity {}", orderId, price, quantity);
+            return List.of();
+        }
+
+        if (price.compareTo(order.getPrice()) == 0 && quantity <= order.getTotalQuantity()) {
+            // Shrinking in place keeps the queue position and cannot create a new cross
+            PriceLevel level = levelsFor(order.getType()).get(order.getPrice());
+            int visible = order.getQuantity();
+            int hidden = order.getHiddenQuantity();
+            order.decreaseTo(quantity);
+            level.reduce(order, visible - order.getQuantity());
+            level.reduceHidden(order, hidden - order.getHiddenQuantity());
+            version.incrementAndGet();
+            listener.onOrderUpdated(order);
+            log.debug("Order {} quantity reduced in place to {}", orderId, quantity);
+            return List.of();
+        }
+
+        // Re-entered as an incoming order, so a cross trades under the instrument's matching algorithm
+        unrest(order);
+        order.replace(price, quantity);
+        version.incrementAndGet();
+        log.debug("Order {} re-entered at price {} with quantity {}", orderId, price, quantity);
+        List<Trade> tradeList = new ArrayList<>(execute(order));
+        triggerStops(tradeList);
+        return tradeList;
+    }
+
+    @Override
+    public synchronized boolean hasMatchingOrders() {
         Optional<Order> buyOrder = getBestBuyOrder();
         Optional<Order> sellOrder = getBestSellOrder();
         boolean hasMatch = buyOrder.isPresent() && sellOrder.isPresent()
@@ -111,10 +348,122 @@ public class InMemoryOrderBook implements OrderBook{
     }
 
     @Override
-    public List<Trade> matchOrders() {
+    public synchronized List<Trade> matchOrders() {
+        if (phase != TradingPhase.CONTINUOUS) {
+            log.debug("Instrument {} is in auction, deferring matching to the uncross", instrumentId);
+            return List.of();
+        }
         log.info("Starting order matching process for instrument {}", instrumentId);
-        List<Trade> tradeList = tradeMatcher.match(this, instrumentId);
+        List<Trade> tradeList = new ArrayList<>(tradeMatcher.match(this, instrumentId));
+        recordTrades(tradeList);
+        triggerStops(tradeList);
+        return tradeList;
+    }
+
+    @Override
+    public synchronized List<Trade> uncross() {
+        Optional<EquilibriumPriceCalculator.Equilibrium> equilibrium =
+            equilibriumPriceCalculator.calculate(buyLevels, sellLevels, lastTradePrice);
+        if (equilibrium.isEmpty()) {
+            log.info("Book for instrument {} is not crossed, nothing to uncross", instrumentId);
+            return List.of();
+        }
+        // Self-trade prevention can leave part of the equilibrium volume unfilled. Clearing again would
+        // print at a second price, so any cross left is for continuous matching or the next batch.
+        BigDecimal price = equilibrium.get().price();
+        List<Trade> tradeList = tradeMatcher.uncross(
+            eligible(buyLevels, price), eligible(sellLevels, price),
+            price, equilibrium.get().volume(), this, instrumentId);
+        recordTrades(tradeList);
+        return tradeList;
+    }
+
+    @Override
+    public synchronized List<Trade> triggerStops() {
+        List<Trade> tradeList = new ArrayList<>();
+        if (phase == TradingPhase.CONTINUOUS) {
+            triggerStops(tradeList);
+        } else {
+            restTriggeredStops();
+        }
+        return tradeList;
+    }
+
+    /**
+     * Moves triggered stops that can rest into the book for the next uncross. IOC and FOK stops stay
+     * pending until continuous trading resumes, as an auction would cancel them unfilled.
+     */
+    private void restTriggeredStops() {
+        if (lastTradePrice == null || stopOrders.size() == 0) {
+            return;
+        }
+        int released = 0;
+        for (Order stop : stopOrders.pollTriggered(lastTradePrice)) {
+            if (stop.getTimeInForce().isImmediate()) {
+                stopOrders.add(stop);
+            } else {
+                stop.trigger();
+                execute(stop);
+                released++;
+            }
+        }
+        if (released > 0) {
+            version.incrementAndGet();
+            log.info("Last trade price {} released {} stop orders into the {} of instrument {}",
+                lastTradePrice, released, phase, instrumentId);
+        }
+    }
+
+    @Override
+    public synchronized List<Order> expireOrders(long nowMillis) {
+        List<Order> expired = new ArrayList<>();
+        for (Order order : expiryWheel.advance(nowMillis)) {
+            expiryTimers.remove(order.getOrderId());
+            if (order.isPendingStop()) {
+                stopOrders.remove(order);
+            } else if (!unrest(order)) {
+                continue;
+            }
+            order.setStatus(Order.OrderStatus.EXPIRED);
+            listener.onOrderUpdated(order);
+            expired.add(order);
+        }
+        if (!expired.isEmpty()) {
+            version.incrementAndGet();
+            log.info("Expired {} orders for instrument {}", expired.size(), instrumentId);
+        }
+        return expired;
+    }
+
+    @Override
+    public TradingPhase getTradingPhase() {
+        return phase;
+    }
+
+    @Override
+    public synchronized void setTradingPhase(TradingPhase phase) {
+        log.info("Instrument {} switching from {} to {}", instrumentId, this.phase, phase);
+        this.phase = phase;
+    }
+
+    private void recordTrades(List<Trade> tradeList) {
         this.trades.addAll(tradeList);
+        for (Trade trade : tradeList) {
+            long timeMillis = CandleSeries.toMillis(trade.timestamp());
+            tape.append(timeMillis, trade.price().doubleValue(), trade.quantity());
+            for (CandleSeries series : candles.values()) {
+                series.record(timeMillis, trade.price(), trade.quantity());
+            }
+            for (RollingWindow window : rollingWindows) {
+                window.record(timeMillis, trade.price(), trade.quantity());
+            }
+            listener.onTrade(trade);
+        }
+        if (!tradeList.isEmpty()) {
+            publishStatistics();
+            lastTradePrice = tradeList.getLast().price();
+            version.incrementAndGet();
+        }
         
         Optional.of(tradeList)
             .filter(list -> !list.isEmpty())
@@ -127,43 +476,61 @@ public class InMemoryOrderBook implements OrderBook{
             }, () -> {
                 log.debug("No trades matched for instrument {}", instrumentId);
             });
-        
-        return tradeList;
     }
 
     @Override
-    public Optional<BigDecimal> getMarketPrice() {
+    public synchronized Optional<BigDecimal> getMarketPrice() {
         Optional<BigDecimal> price = marketPriceCalculator.calculateMarketPrice(this);
         price.ifPresent(p -> log.debug("Current market price for {}: {}", instrumentId, p));
         return price;
     }
 
     @Override
-    public Optional<Order> getBestBuyOrder() {
-        Optional<Order> order = Optional.ofNullable(buyOrders.peek());
+    public Optional<BigDecimal> getLastTradePrice() {
+        return Optional.ofNullable(lastTradePrice);
+    }
+
+    @Override
+    public List<Trade> getTrades() {
+        // A snapshot of the copy-on-write list, taken without the book's lock
+        return List.copyOf(trades);
+    }
+
+    @Override
+    public synchronized List<Trade> getTrades(LocalDateTime from, LocalDateTime to) {
+        // The tape holds the same trades in the same order, so its index is also the trade list's
+        TradeTape.Columns columns = tape.view();
+        int start = columns.indexOf(CandleSeries.toMillis(from));
+        int end = Math.max(start, columns.indexOf(CandleSeries.toMillis(to)));
+        return List.copyOf(trades.subList(start, end));
+    }
+
+    @Override
+    public synchronized Optional<Order> getBestBuyOrder() {
+        Optional<Order> order = bestOrder(buyLevels);
         order.ifPresent(o -> log.debug("Best buy order for {}: {} at {}", 
             instrumentId, o.getOrderId(), o.getPrice()));
         return order;
     }
 
     @Override
-    public Optional<Order> getBestSellOrder() {
-        Optional<Order> order = Optional.ofNullable(sellOrders.peek());
+    public synchronized Optional<Order> getBestSellOrder() {
+        Optional<Order> order = bestOrder(sellLevels);
         order.ifPresent(o -> log.debug("Best sell order for {}: {} at {}", 
             instrumentId, o.getOrderId(), o.getPrice()));
         return order;
     }
 
     @Override
-    public List<Order> getBuyOrders() {
-        List<Order> orders = new ArrayList<>(buyOrders);
+    public synchronized List<Order> getBuyOrders() {
+        List<Order> orders = flatten(buyLevels);
         log.debug("Retrieved {} buy orders for {}", orders.size(), instrumentId);
         return orders;
     }
 
     @Override
-    public List<Order> getSellOrders() {
-        List<Order> orders = new ArrayList<>(sellOrders);
+    public synchronized List<Order> getSellOrders() {
+        List<Order> orders = flatten(sellLevels);
         log.debug("Retrieved {} sell orders for {}", orders.size(), instrumentId);
         return orders;
     }
@@ -175,12 +542,274 @@ public class InMemoryOrderBook implements OrderBook{
     }
 
     @Override
-    public void removeOrder(Order order) {
-        log.debug("Removing order {} from {} queue", order.getOrderId(), order.getType());
-        switch (order.getType()) {
-            case BUY -> buyOrders.remove(order);
-            case SELL -> sellOrders.remove(order);
-            default -> throw new IllegalArgumentException("Unknown order type: " + order.getType());
+    public synchronized void removeOrder(Order order) {
+        log.debug("Removing order {} from {} side", order.getOrderId(), order.getType());
+        cancelExpiry(order);
+        if (unrest(order)) {
+            version.incrementAndGet();
+        }
+        listener.onOrderUpdated(order);
+    }
+
+    @Override
+    public synchronized void fillOrder(Order order, int quantity) {
+        PriceLevel level = order.isMarket() ? null : levelsFor(order.getType()).get(order.getPrice());
+        order.execute(quantity);
+        listener.onOrderUpdated(order);
+        if (level == null || !level.contains(order)) {
+            // Incoming order that is not resting yet
+            return;
+        }
+        level.reduce(order, quantity);
+        if (order.isFilled()) {
+            log.debug("Order {} is filled, removing from order book", order.getOrderId());
+            unrest(order);
+            cancelExpiry(order);
+        }
+    }
+
+    @Override
+    public synchronized void reduceOrder(Order order, int quantity) {
+        PriceLevel level = order.isMarket() ? null : levelsFor(order.getType()).get(order.getPrice());
+        boolean resting = level != null && level.contains(order);
+        int visible = order.getQuantity();
+        int hidden = order.getHiddenQuantity();
+        order.decreaseTo(order.getTotalQuantity() - quantity);
+        if (order.getTotalQuantity() == 0) {
+            order.setStatus(Order.OrderStatus.CANCELLED);
+            cancelExpiry(order);
+        }
+        listener.onOrderUpdated(order);
+        if (!resting) {
+            return;
+        }
+        level.reduce(order, visible - order.getQuantity());
+        level.reduceHidden(order, hidden - order.getHiddenQuantity());
+        if (order.getTotalQuantity() == 0) {
+            unrest(order);
+        }
+        version.incrementAndGet();
+        log.debug("Order {} reduced by {} without trading", order.getOrderId(), quantity);
+    }
+
+    @Override
+    public synchronized void replenishOrder(Order order) {
+        PriceLevel level = order.isMarket() ? null : levelsFor(order.getType()).get(order.getPrice());
+        boolean resting = level != null && level.contains(order);
+        if (resting) {
+            level.remove(order);
+        }
+        int refreshed = order.replenish();
+        if (resting) {
+            level.add(order);
+            version.incrementAndGet();
+        }
+        log.debug("Iceberg order {} replenished with {} units, {} still hidden",
+            order.getOrderId(), refreshed, order.getHiddenQuantity());
+    }
+
+    @Override
+    public synchronized long getAvailableQuantity(Order.OrderType side, BigDecimal limitPrice) {
+        NavigableMap<BigDecimal, PriceLevel> levels = levelsFor(side);
+        Map<BigDecimal, PriceLevel> reachable = limitPrice == null ? levels : levels.headMap(limitPrice, true);
+        long available = 0;
+        for (PriceLevel level : reachable.values()) {
+            available += level.getTotalQuantity() + level.getHiddenQuantity();
+        }
+        return available;
+    }
+
+    @Override
+    public synchronized long getAvailableQuantity(Order.OrderType side, BigDecimal limitPrice, String traderId,
+                                                  OwnOrderCutoff cutoff, long needed) {
+        NavigableMap<BigDecimal, PriceLevel> levels = levelsFor(side);
+        Map<BigDecimal, PriceLevel> reachable = limitPrice == null ? levels : levels.headMap(limitPrice, true);
+        long available = 0;
+        for (PriceLevel level : reachable.values()) {
+            if (available >= needed) {
+                break;
+            }
+            long own = level.getTraderQuantity(traderId);
+            if (own == 0 || cutoff == OwnOrderCutoff.NONE) {
+                available += level.getTotalQuantity() + level.getHiddenQuantity() - own;
+                continue;
+            }
+            if (cutoff == OwnOrderCutoff.FIRST_ORDER) {
+                available += level.getQuantityBefore(traderId, needed - available);
+            }
+            break;
+        }
+        return available;
+    }
+
+    @Override
+    public synchronized List<Order> getBestLevelOrders(Order.OrderType side) {
+        Map.Entry<BigDecimal, PriceLevel> best = levelsFor(side).firstEntry();
+        return best == null ? List.of() : new ArrayList<>(best.getValue().getOrders());
+    }
+
+    @Override
+    public synchronized long getLevelQuantity(Order.OrderType side, BigDecimal price) {
+        PriceLevel level = levelsFor(side).get(price);
+        return level == null ? 0 : level.getTotalQuantity();
+    }
+
+    @Override
+    public synchronized QueuePosition getQueuePosition(String orderId) {
+        Order order = allOrders.get(orderId);
+        if (order == null) {
+            throw new TradingException(TradingException.ErrorCode.ORDER_NOT_FOUND.name(),
+                    "Order not found: " + orderId);
+        }
+        PriceLevel level = order.isMarket() ? null : levelsFor(order.getType()).get(order.getPrice());
+        if (level == null || !level.contains(order)) {
+            throw new TradingException(TradingException.ErrorCode.INVALID_ORDER.name(),
+                    "Order is not resting in the book: " + orderId);
+        }
+        return new QueuePosition(orderId, level.getPrice(), level.getOrdersAhead(order),
+            level.getQuantityAhead(order), level.getTotalQuantity());
+    }
+
+    @Override
+    public synchronized FillEstimate estimateFill(Order.OrderType side, int quantity) {
+        if (quantity <= 0) {
+            throw new TradingException(TradingException.ErrorCode.INVALID_ORDER.name(),
+                    "Quantity must be positive");
+        }
+        Order.OrderType restingSide = side == Order.OrderType.BUY ? Order.OrderType.SELL : Order.OrderType.BUY;
+        DepthIndex.Sweep sweep = depthFor(restingSide).sweep(quantity);
+        if (sweep.filledQuantity() == 0) {
+            return new FillEstimate(side, quantity, 0, BigDecimal.ZERO, null, null, null, null);
+        }
+        BigDecimal bestPrice = levelsFor(restingSide).firstKey();
+        BigDecimal averagePrice = sweep.notional()
+            .divide(BigDecimal.valueOf(sweep.filledQuantity()), AVERAGE_PRICE_SCALE, RoundingMode.HALF_EVEN);
+        BigDecimal slippage = side == Order.OrderType.BUY
+            ? averagePrice.subtract(bestPrice) : bestPrice.subtract(averagePrice);
+        return new FillEstimate(side, quantity, sweep.filledQuantity(), sweep.notional(), averagePrice,
+            bestPrice, sweep.worstPrice(), slippage);
+    }
+
+    @Override
+    public synchronized List<Candle> getCandles(CandleInterval interval, int limit) {
+        if (limit < 1 || limit > CANDLE_HISTORY) {
+            throw new TradingException(TradingException.ErrorCode.INVALID_PAGE_REQUEST.name(),
+                    "Limit must be between 1 and " + CANDLE_HISTORY);
+        }
+        return candles.get(interval).latest(limit);
+    }
+
+    @Override
+    public synchronized void rollStatistics(LocalDateTime now) {
+        long nowMillis = CandleSeries.toMillis(now);
+        boolean changed = false;
+        for (RollingWindow window : rollingWindows) {
+            changed |= window.roll(nowMillis);
+        }
+        if (changed) {
+            publishStatistics();
+        }
+    }
+
+    @Override
+    public List<WindowStatistics> getTradeStatistics() {
+        return statistics;
+    }
+
+    private void publishStatistics() {
+        statistics = rollingWindows.stream().map(RollingWindow::snapshot).toList();
+    }
+
+    @Override
+    public TradeAnalytics getTradeAnalytics(LocalDateTime from, LocalDateTime to, int depthLevels) {
+        if (depthLevels < 1 || depthLevels > MAX_DEPTH_LEVELS) {
+            throw new TradingException(TradingException.ErrorCode.INVALID_ANALYTICS_REQUEST.name(),
+                    "Depth levels must be between 1 and " + MAX_DEPTH_LEVELS);
+        }
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new TradingException(TradingException.ErrorCode.INVALID_ANALYTICS_REQUEST.name(),
+                    "Range ends before it starts");
+        }
+        TradeTape.Columns columns;
+        long bidDepth;
+        long askDepth;
+        synchronized (this) {
+            columns = tape.view();
+            bidDepth = buyDepth.quantityOfBest(depthLevels);
+            askDepth = sellDepth.quantityOfBest(depthLevels);
+        }
+        // Reduced outside the lock, so a long range never holds up the sequencer
+        int start = from == null ? 0 : columns.indexOf(CandleSeries.toMillis(from));
+        int end = to == null ? columns.size() : columns.indexOf(CandleSeries.toMillis(to));
+        AnalyticsKernels.Summary trades = ANALYTICS.summarize(columns.prices(), columns.quantities(), start, end);
+        boolean traded = end > start;
+        return new TradeAnalytics(instrumentId, from, to, end - start, (long) trades.quantity(), trades.notional(),
+            traded ? trades.notional() / trades.quantity() : null, traded ? trades.low() : null,
+            traded ? trades.high() : null, depthLevels, bidDepth, askDepth,
+            bidDepth + askDepth == 0 ? null : (double) (bidDepth - askDepth) / (bidDepth + askDepth));
+    }
+
+    @Override
+    public synchronized int getRestingOrderCount() {
+        return restingOrders + stopOrders.size();
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    private NavigableMap<BigDecimal, PriceLevel> levelsFor(Order.OrderType side) {
+        return side == Order.OrderType.BUY ? buyLevels : sellLevels;
+    }
+
+    private DepthIndex depthFor(Order.OrderType side) {
+        return side == Order.OrderType.BUY ? buyDepth : sellDepth;
+    }
+
+    private void rest(Order order) {
+        levelsFor(order.getType())
+            .computeIfAbsent(order.getPrice(), price -> new PriceLevel(price, depthFor(order.getType())))
+            .add(order);
+        restingOrders++;
+    }
+
+    private boolean unrest(Order order) {
+        NavigableMap<BigDecimal, PriceLevel> levels = levelsFor(order.getType());
+        PriceLevel level = levels.get(order.getPrice());
+        if (level == null || !level.remove(order)) {
+            return false;
+        }
+        restingOrders--;
+        if (level.isEmpty()) {
+            levels.remove(level.getPrice());
+        }
+        return true;
+    }
+
+    private static Optional<Order> bestOrder(NavigableMap<BigDecimal, PriceLevel> levels) {
+        Map.Entry<BigDecimal, PriceLevel> best = levels.firstEntry();
+        return best == null ? Optional.empty() : Optional.ofNullable(best.getValue().first());
+    }
+
+    /**
+     * Orders on one side that can trade at the given price, in priority order.
+     */
+    private static List<Order> eligible(NavigableMap<BigDecimal, PriceLevel> levels, BigDecimal price) {
+        List<Order> orders = new ArrayList<>();
+        for (PriceLevel level : levels.headMap(price, true).values()) {
+            for (Order order : level.getOrders()) {
+                if (order.getTotalQuantity() > 0 && order.getStatus() != Order.OrderStatus.CANCELLED) {
+                    orders.add(order);
+                }
+            }
         }
+        return orders;
+    }
+
+    private static List<Order> flatten(NavigableMap<BigDecimal, PriceLevel> levels) {
+        List<Order> orders = new ArrayList<>();
+        levels.values().forEach(level -> orders.addAll(level.getOrders()));
+        return orders;
     }
 }
@@ -0,0 +1,86 @@
+package com.example.trading_system.service;
+
+import com.example.trading_system.exception.TradingException;
+import com.example.trading_system.model.IngressLimits;
+import com.example.trading_system.model.IngressStatistics;
+import com.example.trading_system.model.Order;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control for one instrument.
+ * <p>
+ * Commands are counted in before they are queued on the sequencer and out when they finish, so a full
+ * queue is detected with one atomic increment on the caller's thread and rejected with
+ * {@code ORDER_QUEUE_FULL} before it costs a task or any heap. The book size is checked on the sequencer,
+ * where it cannot change underneath the check.
+ */
+class IngressGate {
+    private final String instrumentId;
+    private final IngressLimits limits;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder queueFullRejects = new LongAdder();
+    private final LongAdder bookFullRejects = new LongAdder();
+
+    IngressGate(String instrumentId, IngressLimits limits) {
+        this.instrumentId = instrumentId;
+        this.limits = limits;
+    }
+
+    /**
+     * Counts in a command about to be queued. Every admitted command must be followed by {@link #done}.
+     * @throws TradingException ORDER_QUEUE_FULL when the pending limit is reached; nothing is counted.
+     */
+    void admit() {
+        int depth = pending.incrementAndGet();
+        if (limits.maxPendingCommands() != null && depth > limits.maxPendingCommands()) {
+            pending.decrementAndGet();
+            queueFullRejects.increment();
+            throw new TradingException(TradingException.ErrorCode.ORDER_QUEUE_FULL.name(),
+                "Instrument " + instrumentId + " has " + limits.maxPendingCommands() + " commands pending");
+        }
+    }
+
+    /**
+     * Counts in a command that is queued whatever the depth, such as a cancel.
+     */
+    void admitAlways() {
+        pending.incrementAndGet();
+    }
+
+    void done() {
+        pending.decrementAndGet();
+    }
+
+    /**
+     * Checks there is room in the book for an order that may rest. Run on the instrument's sequencer.
+     * @throws TradingException ORDER_QUEUE_FULL when the resting order limit is reached.
+     */
+    void checkCapacity(OrderBook orderBook, Order order) {
+        if (!order.getTimeInForce().isImmediate()) {
+            checkCapacity(orderBook, 1);
+        }
+    }
+
+    /**
+     * Checks there is room in the book for {@code newOrders} more resting orders, such as the new sides of
+     * a quote. Run on the instrument's sequencer.
+     * @throws TradingException ORDER_QUEUE_FULL when they would take the book past the resting order limit.
+     */
+    void checkCapacity(OrderBook orderBook, int newOrders) {
+        if (limits.maxRestingOrders() == null || newOrders == 0) {
+            return;
+        }
+        if (orderBook.getRestingOrderCount() + newOrders > limits.maxRestingOrders()) {
+            bookFullRejects.increment();
+            throw new TradingException(TradingException.ErrorCode.ORDER_QUEUE_FULL.name(),
+                "Order book of instrument " + instrumentId + " holds " + limits.maxRestingOrders() + " orders");
+        }
+    }
+
+    IngressStatistics snapshot(OrderBook orderBook) {
+        return new IngressStatistics(instrumentId, pending.get(), limits.maxPendingCommands(),
+            orderBook.getRestingOrderCount(), limits.maxRestingOrders(), queueFullRejects.sum(), bookFullRejects.sum());
+    }
+}
@@ -1,25 +1,212 @@
 package com.example.trading_system.service;
 
+import com.example.trading_system.model.Candle;
+import com.example.trading_system.model.CandleInterval;
+import com.example.trading_system.model.FillEstimate;
 import com.example.trading_system.model.Order;
+import com.example.trading_system.model.QueuePosition;
 import com.example.trading_system.model.Trade;
+import com.example.trading_system.model.TradeAnalytics;
+import com.example.trading_system.model.TradingPhase;
+import com.example.trading_system.model.WindowStatistics;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 public interface OrderBook {
     void addOrder(Order order);
+
+    /**
+     * Matches an incoming order against the opposite side and, if it is GTC, DAY or GTD, rests the
+     * remainder until it fills, is cancelled or expires. IOC and market orders cancel their unfilled remainder; FOK orders execute in full or not at all.
+     * Stop orders are held until the last trade price reaches their stop price; stops triggered by the
+     * resulting trades are executed in the same call.
+     * @param order The incoming order.
+     * @return Trades executed by the order and by any stop orders it triggered.
+     */
+    List<Trade> submitOrder(Order order);
     void removeOrder(Order order);
     void cancelOrder(String orderId);
+
+    /**
+     * Amends a resting order. A quantity decrease at the same price is applied in place and keeps the
+     * order's time priority; any other change re-queues the order with a new priority and runs matching.
+     * @param orderId The order to amend.
+     * @param newPrice The new limit price, or null to keep the current one.
+     * @param newQuantity The new remaining quantity, or null to keep the current one.
+     * @return Trades executed as a result of the amendment.
+     */
+    List<Trade> amendOrder(String orderId, BigDecimal newPrice, Integer newQuantity);
     boolean hasMatchingOrders();
 
     List<Trade> matchOrders();
+
+    /**
+     * Uncrosses the book at the price that maximises executable volume. All eligible orders trade at
+     * that single price in price-time priority, once: a cross that self-trade prevention leaves behind
+     * is not cleared again. The trading phase is left unchanged, and stops the
+     * uncross price triggers stay pending until {@link #triggerStops()} or the next continuous match.
+     * @return Trades executed by the uncross.
+     */
+    List<Trade> uncross();
+
+    /**
+     * Releases the stops triggered by the last trade price. In continuous trading they trade at once and
+     * may trigger further stops; in an auction phase the ones that can rest join the book for the next
+     * uncross and IOC and FOK stops stay pending.
+     * @return Trades executed by the triggered stops.
+     */
+    List<Trade> triggerStops();
+
+    /**
+     * Removes every GTD and DAY order whose expire time is at or before {@code nowMillis} in one batch.
+     * Pending expiries are kept in a timing wheel, so this only touches the orders that are due.
+     * @return The orders that expired.
+     */
+    List<Order> expireOrders(long nowMillis);
+
+    TradingPhase getTradingPhase();
+
+    /**
+     * Switches the phase. Outside {@link TradingPhase#CONTINUOUS} orders rest without matching and only
+     * orders that can rest are accepted.
+     */
+    void setTradingPhase(TradingPhase phase);
     Optional<BigDecimal> getMarketPrice();
 
+    /**
+     * Price of the most recent trade, used to trigger stop orders.
+     */
+    Optional<BigDecimal> getLastTradePrice();
+
+    /**
+     * Every trade recorded by the book, oldest first, as of the call.
+     */
+    List<Trade> getTrades();
+
+    /**
+     * Trades recorded from {@code from} inclusive to {@code to} exclusive, oldest first. The range is found
+     * by binary search, so only its trades are copied.
+     */
+    List<Trade> getTrades(LocalDateTime from, LocalDateTime to);
+
     Optional<Order> getBestBuyOrder();
     Optional<Order> getBestSellOrder();
     List<Order> getSellOrders();
     List<Order> getBuyOrders();
     Map<String, Order> getAllOrders();
+
+    /**
+     * Executes quantity against an order, keeping level totals in step and removing it once filled.
+     */
+    void fillOrder(Order order, int quantity);
+
+    /**
+     * Takes quantity off an order without a trade, hidden quantity first. An order reduced to zero is
+     * cancelled and leaves the book.
+     */
+    void reduceOrder(Order order, int quantity);
+
+    /**
+     * Refreshes an iceberg order whose visible quantity is used up from its hidden quantity. A resting
+     * order moves to the back of its price level.
+     */
+    void replenishOrder(Order order);
+
+    /**
+     * Gets the resting quantity on a side that an order limited at {@code limitPrice} could reach,
+     * or the whole side when the limit is null. Hidden iceberg quantity is included.
+     */
+    long getAvailableQuantity(Order.OrderType side, BigDecimal limitPrice);
+
+    /**
+     * Gets the resting quantity on a side that an order of {@code traderId} limited at {@code limitPrice}
+     * could trade with, leaving out the trader's own orders. Hidden iceberg quantity is included.
+     * @param cutoff Where the trader's own orders stop the count
+     * @param needed Quantity after which counting may stop; the result is then at least this much
+     */
+    long getAvailableQuantity(Order.OrderType side, BigDecimal limitPrice, String traderId, OwnOrderCutoff cutoff,
+                              long needed);
+
+    /**
+     * How far an incoming order can trade past the trader's own resting orders.
+     */
+    enum OwnOrderCutoff {
+        /** Own orders are cancelled out of the way and every level counts without them */
+        NONE,
+        /** Trading stops at the first own order in time priority, after the others ahead of it */
+        FIRST_ORDER,
+        /** Trading stops before the first level holding an own order, which allocates all at once */
+        FIRST_LEVEL
+    }
+
+    /**
+     * Gets the resting orders at the best price on a side in time priority, or an empty list.
+     */
+    List<Order> getBestLevelOrders(Order.OrderType side);
+
+    /**
+     * Gets the visible resting quantity at one price, read from the level's running total.
+     */
+    long getLevelQuantity(Order.OrderType side, BigDecimal price);
+
+    /**
+     * Gets the number of orders and visible quantity ahead of a resting order at its price level,
+     * in O(log orders at the level).
+     * @throws com.example.trading_system.exception.TradingException ORDER_NOT_FOUND for an unknown order,
+     *         INVALID_ORDER when the order is not resting in the book.
+     */
+    QueuePosition getQueuePosition(String orderId);
+
+    /**
+     * Estimates the average and worst price of sweeping {@code quantity} from the opposite side right now,
+     * without changing the book. Reads the side's cumulative depth in O(log levels).
+     * @param side Side of the order being estimated.
+     */
+    FillEstimate estimateFill(Order.OrderType side, int quantity);
+
+    /**
+     * Gets up to {@code limit} of the most recent candles of one interval, oldest first. Candles are
+     * updated as trades are recorded, so this never rereads the trade history.
+     * @throws com.example.trading_system.exception.TradingException INVALID_PAGE_REQUEST when the limit is
+     *         not between 1 and the history kept per interval.
+     */
+    List<Candle> getCandles(CandleInterval interval, int limit);
+
+    /**
+     * Slides the rolling trade statistics to end at {@code now}, so trades that aged out of a window stop
+     * counting even when no new trade arrives.
+     */
+    void rollStatistics(LocalDateTime now);
+
+    /**
+     * Gets the VWAP, volume, trade count and high/low of every {@link com.example.trading_system.model.StatisticsWindow},
+     * as last published by a trade or a roll. Reads a volatile snapshot without locking the book.
+     */
+    List<WindowStatistics> getTradeStatistics();
+
+    /**
+     * Gets the volume, notional, VWAP and price range of the trades in a time range, and the imbalance between
+     * the quantity on the best {@code depthLevels} levels of each side. The trades are read as primitive
+     * columns and reduced in bulk, with the Vector API when it is built and enabled; the depth comes from
+     * each side's cumulative depth in O(log levels).
+     * @param from Start of the range, inclusive, or null for the first trade.
+     * @param to End of the range, exclusive, or null for no end.
+     * @throws com.example.trading_system.exception.TradingException INVALID_ANALYTICS_REQUEST when the range
+     *         ends before it starts or the depth levels are not between 1 and 1000.
+     */
+    TradeAnalytics getTradeAnalytics(LocalDateTime from, LocalDateTime to, int depthLevels);
+
+    /**
+     * Gets the number of orders the book is holding: those resting at a price level plus untriggered stops.
+     */
+    int getRestingOrderCount();
+
+    /**
+     * Monotonic counter bumped whenever the visible contents of the book change.
+     */
+    long getVersion();
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.example.trading_system.service;
+
+import com.example.trading_system.model.Order;
+import com.example.trading_system.model.Trade;
+
+/**
+ * Receives changes made by an order book, on the thread that made them, while the book is locked.
+ */
+public interface OrderBookListener {
+    OrderBookListener NONE = new OrderBookListener() {};
+
+    /**
+     * Called with every trade as it is recorded.
+     */
+    default void onTrade(Trade trade) {}
+
+    /**
+     * Called after the status, price or remaining quantity of an order in the book may have changed,
+     * including when it is filled, cancelled, expired or amended. May be called again for an unchanged
+     * order, so listeners should compare against what they saw last.
+     */
+    default void onOrderUpdated(Order order) {}
+}
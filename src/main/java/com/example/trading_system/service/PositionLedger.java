@@ -0,0 +1,72 @@
+package com.example.trading_system.service;
+
+import com.example.trading_system.model.Trade;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Net position, average cost and realized P&L of every trader in every instrument, updated from each trade.
+ * <p>
+ * Each position is an immutable {@link Holding} replaced on every fill. Positions in one instrument are only
+ * written from that instrument's sequencer, so every entry has a single writer, and a reader gets a
+ * consistent holding from one map lookup without locking.
+ */
+class PositionLedger {
+    private static final int AVERAGE_COST_SCALE = 6;
+
+    // Map of traderId to instrumentId to holding
+    private final Map<String, Map<String, Holding>> holdings = new ConcurrentHashMap<>();
+
+    void apply(Trade trade) {
+        fill(trade.buyTraderId(), trade.instrumentId(), trade.quantity(), trade.price());
+        fill(trade.sellTraderId(), trade.instrumentId(), -trade.quantity(), trade.price());
+    }
+
+    Holding get(String traderId, String instrumentId) {
+        return holdings.getOrDefault(traderId, Map.of()).get(instrumentId);
+    }
+
+    /**
+     * Holdings of a trader keyed by instrument; a live view that later fills write through.
+     */
+    Map<String, Holding> get(String traderId) {
+        return holdings.getOrDefault(traderId, Map.of());
+    }
+
+    private void fill(String traderId, String instrumentId, long quantity, BigDecimal price) {
+        Map<String, Holding> positions = holdings.computeIfAbsent(traderId, id -> new ConcurrentHashMap<>());
+        positions.put(instrumentId, positions.getOrDefault(instrumentId, Holding.FLAT).fill(quantity, price));
+    }
+
+    /**
+     * @param quantity Net quantity, positive when long.
+     * @param averageCost Average price of the open quantity, zero when flat.
+     */
+    record Holding(long quantity, BigDecimal averageCost, BigDecimal realizedPnl) {
+        static final Holding FLAT = new Holding(0, BigDecimal.ZERO, BigDecimal.ZERO);
+
+        /**
+         * Applies a fill of signed {@code fillQuantity}. Quantity on the same side adds to the average cost;
+         * quantity on the other side closes at the fill price and realizes the difference, and any excess
+         * opens a new position at the fill price.
+         */
+        Holding fill(long fillQuantity, BigDecimal price) {
+            long newQuantity = quantity + fillQuantity;
+            if (quantity == 0 || Long.signum(quantity) == Long.signum(fillQuantity)) {
+                BigDecimal cost = averageCost.multiply(BigDecimal.valueOf(Math.abs(quantity)))
+                    .add(price.multiply(BigDecimal.valueOf(Math.abs(fillQuantity))));
+                return new Holding(newQuantity, cost.divide(BigDecimal.valueOf(Math.abs(newQuantity)),
+                    AVERAGE_COST_SCALE, RoundingMode.HALF_EVEN), realizedPnl);
+            }
+            long closed = Math.min(Math.abs(quantity), Math.abs(fillQuantity));
+            BigDecimal realized = price.subtract(averageCost)
+                .multiply(BigDecimal.valueOf(Long.signum(quantity) * closed));
+            BigDecimal newAverageCost = newQuantity == 0 ? BigDecimal.ZERO
+                : Long.signum(newQuantity) == Long.signum(quantity) ? averageCost : price;
+            return new Holding(newQuantity, newAverageCost, realizedPnl.add(realized));
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.trading_system.service;
+
+import com.example.trading_system.model.Order;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * All resting orders at one price, in time priority.
+ * <p>
+ * Orders are kept in insertion order with O(1) removal by ID, and the level maintains the visible and
+ * hidden remaining quantity, in total and per trader, incrementally so liquidity checks never walk
+ * individual orders. The one exception is {@link #getQuantityBefore}, which walks up to one trader's first
+ * order.
+ * <p>
+ * Each order also takes the next slot in a pair of Fenwick trees holding visible quantity and order count
+ * by arrival, so the quantity and number of orders ahead of any order is a prefix sum in O(log n). Slots of
+ * departed orders are left empty and reclaimed by renumbering the queue once half of them are dead.
+ * <p>
+ * Every change to the level's visible plus hidden quantity is also reported to the side's {@link DepthIndex}.
+ */
+class PriceLevel {
+    private static final int INITIAL_SLOTS = 8;
+
+    private final BigDecimal price;
+    private final LinkedHashMap<String, Order> orders;
+    private long totalQuantity;
+    private long hiddenQuantity;
+    // Map of traderId to its visible plus hidden quantity at this price, present while it has orders here
+    private final Map<String, long[]> traderQuantities;
+    private final Map<String, Integer> slots;
+    private final FenwickTree quantityAhead;
+    private final FenwickTree ordersAhead;
+    private int nextSlot;
+    private final DepthIndex depth;
+
+    PriceLevel(BigDecimal price, DepthIndex depth) {
+        this.price = price;
+        this.depth = depth;
+        this.orders = new LinkedHashMap<>();
+        this.traderQuantities = new HashMap<>();
+        this.slots = new HashMap<>();
+        this.quantityAhead = new FenwickTree(INITIAL_SLOTS);
+        this.ordersAhead = new FenwickTree(INITIAL_SLOTS);
+    }
+
+    BigDecimal getPrice() {
+        return price;
+    }
+
+    void add(Order order) {
+        if (nextSlot == quantityAhead.capacity()) {
+            renumber();
+        }
+        int slot = nextSlot++;
+        orders.put(order.getOrderId(), order);
+        slots.put(order.getOrderId(), slot);
+        quantityAhead.add(slot, order.getQuantity());
+        ordersAhead.add(slot, 1);
+        totalQuantity += order.getQuantity();
+        hiddenQuantity += order.getHiddenQuantity();
+        adjustTrader(order, order.getTotalQuantity());
+        depth.adjust(price, order.getTotalQuantity());
+    }
+
+    boolean remove(Order order) {
+        if (orders.remove(order.getOrderId()) == null) {
+            return false;
+        }
+        int slot = slots.remove(order.getOrderId());
+        quantityAhead.add(slot, -order.getQuantity());
+        ordersAhead.add(slot, -1);
+        totalQuantity -= order.getQuantity();
+        hiddenQuantity -= order.getHiddenQuantity();
+        adjustTrader(order, -order.getTotalQuantity());
+        depth.adjust(price, -order.getTotalQuantity());
+        return true;
+    }
+
+    /**
+     * Accounts for visible quantity removed from an order that stays in the level (fill or in-place amend).
+     */
+    void reduce(Order order, int quantity) {
+        quantityAhead.add(slots.get(order.getOrderId()), -quantity);
+        totalQuantity -= quantity;
+        adjustTrader(order, -quantity);
+        depth.adjust(price, -quantity);
+    }
+
+    /**
+     * Accounts for iceberg reserve removed from an order that stays in the level.
+     */
+    void reduceHidden(Order order, int quantity) {
+        hiddenQuantity -= quantity;
+        adjustTrader(order, -quantity);
+        depth.adjust(price, -quantity);
+    }
+
+    /**
+     * Visible plus hidden quantity of one trader's orders at this price.
+     */
+    long getTraderQuantity(String traderId) {
+        long[] quantity = traderQuantities.get(traderId);
+        return quantity == null ? 0 : quantity[0];
+    }
+
+    /**
+     * Visible quantity of other traders' orders ahead of the trader's first order, which is what an
+     * incoming order of the trader takes before meeting its own. Iceberg reserve does not count, as each
+     * replenished slice joins the back of the queue. Stops walking once {@code needed} is reached.
+     */
+    long getQuantityBefore(String traderId, long needed) {
+        long quantity = 0;
+        for (Order order : orders.values()) {
+            if (quantity >= needed || order.getTraderId().equals(traderId)) {
+                break;
+            }
+            quantity += order.getQuantity();
+        }
+        return quantity;
+    }
+
+    private void adjustTrader(Order order, long quantity) {
+        if (quantity == 0) {
+            return;
+        }
+        long[] total = traderQuantities.computeIfAbsent(order.getTraderId(), id -> new long[1]);
+        total[0] += quantity;
+        if (total[0] == 0) {
+            traderQuantities.remove(order.getTraderId());
+        }
+    }
+
+    boolean contains(Order order) {
+        return orders.get(order.getOrderId()) == order;
+    }
+
+    /**
+     * Visible quantity of the orders ahead of a resting order.
+     */
+    long getQuantityAhead(Order order) {
+        return quantityAhead.prefixSum(slots.get(order.getOrderId()));
+    }
+
+    /**
+     * Number of orders ahead of a resting order.
+     */
+    int getOrdersAhead(Order order) {
+        return (int) ordersAhead.prefixSum(slots.get(order.getOrderId()));
+    }
+
+    Order first() {
+        return orders.isEmpty() ? null : orders.firstEntry().getValue();
+    }
+
+    Collection<Order> getOrders() {
+        return orders.values();
+    }
+
+    /**
+     * Visible quantity at this price.
+     */
+    long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    /**
+     * Iceberg reserve at this price, which is tradable but never shown.
+     */
+    long getHiddenQuantity() {
+        return hiddenQuantity;
+    }
+
+    int size() {
+        return orders.size();
+    }
+
+    boolean isEmpty() {
+        return orders.isEmpty();
+    }
+
+    /**
+     * Gives the live orders consecutive slots in time priority, doubling the trees when more than half
+     * of the slots are still in use. Runs at most once per filled slot range, so adds stay amortised O(1).
+     */
+    private void renumber() {
+        int capacity = quantityAhead.capacity();
+        if (orders.size() * 2 > capacity) {
+            capacity *= 2;
+        }
+        long[] quantities = new long[orders.size()];
+        long[] counts = new long[orders.size()];
+        int slot = 0;
+        for (Order order : orders.values()) {
+            slots.put(order.getOrderId(), slot);
+            quantities[slot] = order.getQuantity();
+            counts[slot] = 1;
+            slot++;
+        }
+        quantityAhead.rebuild(quantities, slot, capacity);
+        ordersAhead.rebuild(counts, slot, capacity);
+        nextSlot = slot;
+    }
+}
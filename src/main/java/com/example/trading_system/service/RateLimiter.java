@@ -0,0 +1,124 @@
+package com.example.trading_system.service;
+
+import com.example.trading_system.model.RateLimit;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One token bucket per key, e.g. per trader or per session.
+ * <p>
+ * Each bucket is a single long: the time at which it will next be full, as in the generic cell rate
+ * algorithm. A request is allowed when that time is at most {@code burst - 1} refill intervals ahead of
+ * now, and then pushes it one interval further, in a single compare-and-set. There are no locks and no
+ * separate token count or refill timestamp to keep consistent.
+ * <p>
+ * A bucket whose full time has passed holds no information, so {@link #evictIdle} drops it. Eviction
+ * marks the bucket dead with the same compare-and-set before removing it, and a request that races with
+ * it simply starts a fresh bucket, which is what the dead one was equivalent to.
+ */
+public class RateLimiter {
+    private static final long DEAD = -1;
+    private static final VarHandle FULL_AT;
+
+    static {
+        try {
+            FULL_AT = MethodHandles.lookup().findVarHandle(Bucket.class, "fullAt", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    // Keeps bucket times non-negative, so DEAD never collides with a real one
+    private final long origin = System.nanoTime();
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public RateLimiter(RateLimit limit) {
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / limit.requestsPerSecond()));
+        this.toleranceNanos = intervalNanos * (limit.burst() - 1);
+    }
+
+    /**
+     * Takes one token from the key's bucket.
+     * @return Whether a token was available.
+     */
+    public boolean tryAcquire(String key) {
+        long now = now();
+        while (true) {
+            Bucket bucket = buckets.get(key);
+            if (bucket == null) {
+                // A new bucket is full, so the first request always passes
+                if (buckets.putIfAbsent(key, new Bucket(now + intervalNanos)) == null) {
+                    return true;
+                }
+                continue;
+            }
+            long fullAt = bucket.fullAt;
+            if (fullAt == DEAD) {
+                buckets.remove(key, bucket);
+                continue;
+            }
+            long start = Math.max(fullAt, now);
+            if (start - now > toleranceNanos) {
+                return false;
+            }
+            if (FULL_AT.compareAndSet(bucket, fullAt, start + intervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Time until the key's bucket has a token again, zero when one is available now.
+     */
+    public long nanosUntilAvailable(String key) {
+        Bucket bucket = buckets.get(key);
+        long fullAt = bucket == null ? DEAD : bucket.fullAt;
+        return fullAt == DEAD ? 0 : Math.max(0, fullAt - toleranceNanos - now());
+    }
+
+    /**
+     * Drops the buckets of keys that have been idle long enough to refill completely.
+     * @return Number of buckets dropped.
+     */
+    public int evictIdle() {
+        long now = now();
+        int evicted = 0;
+        for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+            Bucket bucket = entry.getValue();
+            long fullAt = bucket.fullAt;
+            if (fullAt != DEAD && fullAt <= now && FULL_AT.compareAndSet(bucket, fullAt, DEAD)) {
+                buckets.remove(entry.getKey(), bucket);
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Drops a key's bucket straight away, e.g. when its session closes.
+     */
+    public void remove(String key) {
+        buckets.remove(key);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private long now() {
+        return System.nanoTime() - origin;
+    }
+
+    private static final class Bucket {
+        private volatile long fullAt;
+
+        private Bucket(long fullAt) {
+            this.fullAt = fullAt;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.trading_system.service;
+
+import com.example.trading_system.exception.TradingException;
+import com.example.trading_system.model.Order;
+import com.example.trading_system.model.RiskLimits;
+import com.example.trading_system.model.Trade;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-trade risk checks, run on the instrument's sequencer before an order reaches the book.
+ * <p>
+ * Each trader's open order count, open buy and sell notional and net spend on fills are running counters.
+ * An order is checked and its notional counted in one step under its trader's counters, so concurrent
+ * orders on other instruments cannot slip past a cap together. From then on the book reports every fill,
+ * cancel, expiry and amend of the order, and the counters move by the difference from what was last
+ * counted for it. Checks are O(1) and never scan orders.
+ */
+class RiskGate {
+    private final RiskLimits limits;
+    // Map of traderId to its running counters
+    private final Map<String, Exposure> exposures = new ConcurrentHashMap<>();
+    // Map of orderId to what is currently counted for the order
+    private final Map<String, Reservation> reservations = new ConcurrentHashMap<>();
+
+    RiskGate(RiskLimits limits) {
+        this.limits = limits;
+    }
+
+    /**
+     * Checks an order about to be submitted or amended to {@code price} and {@code quantity}, and counts it
+     * at that size. An amended order keeps its open order slot.
+     * @param price Limit price, or null for a market order.
+     * @param referencePrice Market price the band is measured from and market orders are valued at, or null
+     *                       when there is none yet, which skips the band check.
+     * @throws TradingException with the code of the first limit breached; nothing is counted.
+     */
+    void reserve(Order order, BigDecimal price, int quantity, BigDecimal referencePrice) {
+        if (limits.maxOrderQuantity() != null && quantity > limits.maxOrderQuantity()) {
+            throw reject(TradingException.ErrorCode.ORDER_QUANTITY_LIMIT_EXCEEDED,
+                "Quantity " + quantity + " is above the limit of " + limits.maxOrderQuantity());
+        }
+        if (limits.priceBand() != null && price != null && referencePrice != null
+                && price.subtract(referencePrice).abs().compareTo(referencePrice.multiply(limits.priceBand())) > 0) {
+            throw reject(TradingException.ErrorCode.PRICE_OUTSIDE_BAND,
+                "Price " + price + " is outside the band around the market price " + referencePrice);
+        }
+        BigDecimal valuationPrice = price != null ? price : referencePrice;
+        BigDecimal notional = notional(valuationPrice, quantity);
+        if (limits.maxOrderNotional() != null && notional.compareTo(limits.maxOrderNotional()) > 0) {
+            throw reject(TradingException.ErrorCode.ORDER_NOTIONAL_LIMIT_EXCEEDED,
+                "Notional " + notional + " is above the limit of " + limits.maxOrderNotional());
+        }
+
+        boolean buy = order.getType() == Order.OrderType.BUY;
+        Exposure exposure = exposures.computeIfAbsent(order.getTraderId(), id -> new Exposure());
+        synchronized (exposure) {
+            Reservation previous = reservations.get(order.getOrderId());
+            BigDecimal delta = previous == null ? notional : notional.subtract(previous.notional());
+            if (previous == null && limits.maxOpenOrders() != null && exposure.openOrders >= limits.maxOpenOrders()) {
+                throw reject(TradingException.ErrorCode.OPEN_ORDER_LIMIT_EXCEEDED,
+                    "Trader already has " + exposure.openOrders + " open orders");
+            }
+            if (limits.maxGrossExposure() != null && exposure.openBuyNotional.add(exposure.openSellNotional)
+                    .add(delta).compareTo(limits.maxGrossExposure()) > 0) {
+                throw reject(TradingException.ErrorCode.EXPOSURE_LIMIT_EXCEEDED,
+                    "Open notional would exceed the limit of " + limits.maxGrossExposure());
+            }
+            if (buy && limits.creditLimit() != null && exposure.openBuyNotional.add(exposure.boughtNotional)
+                    .add(delta).compareTo(limits.creditLimit()) > 0) {
+                throw reject(TradingException.ErrorCode.CREDIT_LIMIT_EXCEEDED,
+                    "Credit usage would exceed the limit of " + limits.creditLimit());
+            }
+            exposure.add(buy, previous == null ? 1 : 0, delta);
+            reservations.put(order.getOrderId(), new Reservation(buy, valuationPrice, notional));
+        }
+    }
+
+    /**
+     * Stops counting an order that was reserved but never reached the book.
+     */
+    void release(Order order) {
+        Exposure exposure = exposures.get(order.getTraderId());
+        if (exposure == null) {
+            return;
+        }
+        synchronized (exposure) {
+            Reservation reservation = reservations.remove(order.getOrderId());
+            if (reservation != null) {
+                exposure.add(reservation.buy(), -1, reservation.notional().negate());
+            }
+        }
+    }
+
+    /**
+     * Brings the counters in line with the order's current state. An order that was never reserved is
+     * counted from its first update.
+     */
+    void onOrderUpdated(Order order) {
+        Reservation reservation = reservations.get(order.getOrderId());
+        boolean open = isOpen(order);
+        if (reservation == null && !open) {
+            return;
+        }
+        BigDecimal valuationPrice = order.getPrice() != null ? order.getPrice()
+            : reservation != null ? reservation.valuationPrice() : null;
+        BigDecimal notional = open ? notional(valuationPrice, order.getTotalQuantity()) : BigDecimal.ZERO;
+        if (open && reservation != null && notional.compareTo(reservation.notional()) == 0) {
+            return;
+        }
+        boolean buy = order.getType() == Order.OrderType.BUY;
+        Exposure exposure = exposures.computeIfAbsent(order.getTraderId(), id -> new Exposure());
+        synchronized (exposure) {
+            BigDecimal counted = reservation == null ? BigDecimal.ZERO : reservation.notional();
+            int orders = reservation == null ? 1 : open ? 0 : -1;
+            exposure.add(buy, orders, notional.subtract(counted));
+            if (open) {
+                reservations.put(order.getOrderId(), new Reservation(buy, valuationPrice, notional));
+            } else {
+                reservations.remove(order.getOrderId());
+            }
+        }
+    }
+
+    /**
+     * Moves the notional of a fill into the buyer's and seller's net spend.
+     */
+    void onTrade(Trade trade) {
+        BigDecimal notional = notional(trade.price(), trade.quantity());
+        spend(trade.buyTraderId(), notional);
+        spend(trade.sellTraderId(), notional.negate());
+    }
+
+    private void spend(String traderId, BigDecimal amount) {
+        Exposure exposure = exposures.computeIfAbsent(traderId, id -> new Exposure());
+        synchronized (exposure) {
+            exposure.boughtNotional = exposure.boughtNotional.add(amount);
+        }
+    }
+
+    private static boolean isOpen(Order order) {
+        return (order.getStatus() == Order.OrderStatus.OPEN || order.getStatus() == Order.OrderStatus.PARTIALLY_FILLED)
+            && order.getTotalQuantity() > 0;
+    }
+
+    private static BigDecimal notional(BigDecimal price, long quantity) {
+        return price == null ? BigDecimal.ZERO : price.multiply(BigDecimal.valueOf(quantity));
+    }
+
+    private static TradingException reject(TradingException.ErrorCode code, String message) {
+        return new TradingException(code.name(), message);
+    }
+
+    /**
+     * @param valuationPrice Price the order is valued at: its limit price, or the market price when it was
+     *                       checked for a market order.
+     */
+    private record Reservation(boolean buy, BigDecimal valuationPrice, BigDecimal notional) {}
+
+    /**
+     * One trader's counters, guarded by the instance's monitor.
+     */
+    private static final class Exposure {
+        private int openOrders;
+        private BigDecimal openBuyNotional = BigDecimal.ZERO;
+        private BigDecimal openSellNotional = BigDecimal.ZERO;
+        // Spent on buys net of sell proceeds
+        private BigDecimal boughtNotional = BigDecimal.ZERO;
+
+        private void add(boolean buy, int orders, BigDecimal notional) {
+            openOrders += orders;
+            if (buy) {
+                openBuyNotional = openBuyNotional.add(notional);
+            } else {
+                openSellNotional = openSellNotional.add(notional);
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.trading_system.service;
+
+import com.example.trading_system.model.StatisticsWindow;
+import com.example.trading_system.model.WindowStatistics;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * Volume, notional, trade count and high/low of the trades in a sliding window.
+ * <p>
+ * The window is a ring of time buckets. Volume, notional and trade count are running totals that each
+ * trade adds to and each expiring bucket subtracts from, and the high and low are the heads of two
+ * monotonic queues of bucket numbers whose extremes only ever get less extreme towards the tail. Every
+ * bucket enters and leaves each queue once, so recording a trade and sliding the window are amortised
+ * O(1), and the figures are read without visiting the buckets.
+ * <p>
+ * Not thread safe; the owning order book calls it under its own lock.
+ */
+class RollingWindow {
+    private static final int VWAP_SCALE = 6;
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final StatisticsWindow window;
+    private final long bucketMillis;
+    private final int bucketCount;
+    // Per-slot bucket number, i.e. start time / bucket width, or NONE when the slot is empty
+    private final long[] bucketNumber;
+    private final long[] volume;
+    private final long[] trades;
+    private final BigDecimal[] notional;
+    private final BigDecimal[] high;
+    private final BigDecimal[] low;
+    // Bucket numbers with a strictly decreasing high (and increasing low) from head to tail
+    private final long[] highQueue;
+    private final long[] lowQueue;
+    private int highHead;
+    private int highSize;
+    private int lowHead;
+    private int lowSize;
+    // Oldest bucket that may still hold trades, and the newest bucket written
+    private long oldest = NONE;
+    private long newest = NONE;
+    private long totalVolume;
+    private long totalTrades;
+    private BigDecimal totalNotional = BigDecimal.ZERO;
+
+    RollingWindow(StatisticsWindow window) {
+        this.window = window;
+        this.bucketMillis = window.getBucketWidth().toMillis();
+        this.bucketCount = window.getBuckets();
+        this.bucketNumber = new long[bucketCount];
+        this.volume = new long[bucketCount];
+        this.trades = new long[bucketCount];
+        this.notional = new BigDecimal[bucketCount];
+        this.high = new BigDecimal[bucketCount];
+        this.low = new BigDecimal[bucketCount];
+        this.highQueue = new long[bucketCount];
+        this.lowQueue = new long[bucketCount];
+        Arrays.fill(bucketNumber, NONE);
+    }
+
+    /**
+     * Adds a trade at wall-clock {@code timeMillis}. A trade stamped before the newest bucket, as after a
+     * clock step back, is counted in the newest bucket.
+     */
+    void record(long timeMillis, BigDecimal price, long quantity) {
+        long number = Math.max(Math.floorDiv(timeMillis, bucketMillis), newest);
+        advance(number);
+        int slot = slot(number);
+        if (bucketNumber[slot] != number) {
+            bucketNumber[slot] = number;
+            volume[slot] = 0;
+            trades[slot] = 0;
+            notional[slot] = BigDecimal.ZERO;
+            high[slot] = price;
+            low[slot] = price;
+            if (oldest == NONE) {
+                oldest = number;
+            }
+            newest = number;
+        } else {
+            high[slot] = high[slot].max(price);
+            low[slot] = low[slot].min(price);
+        }
+        BigDecimal tradeNotional = price.multiply(BigDecimal.valueOf(quantity));
+        volume[slot] += quantity;
+        trades[slot]++;
+        notional[slot] = notional[slot].add(tradeNotional);
+        totalVolume += quantity;
+        totalTrades++;
+        totalNotional = totalNotional.add(tradeNotional);
+        pushHigh(number);
+        pushLow(number);
+    }
+
+    /**
+     * Slides the window so it ends at wall-clock {@code nowMillis}, dropping buckets that fell out of it.
+     * @return Whether any trades left the window.
+     */
+    boolean roll(long nowMillis) {
+        return advance(Math.floorDiv(nowMillis, bucketMillis));
+    }
+
+    WindowStatistics snapshot() {
+        if (totalTrades == 0) {
+            return new WindowStatistics(window, null, 0, 0, null, null);
+        }
+        BigDecimal vwap = totalNotional.divide(BigDecimal.valueOf(totalVolume), VWAP_SCALE, RoundingMode.HALF_EVEN);
+        return new WindowStatistics(window, vwap, totalVolume, totalTrades,
+            high[slot(highQueue[highHead])], low[slot(lowQueue[lowHead])]);
+    }
+
+    /**
+     * Expires every bucket older than the window ending at bucket {@code current}. Each bucket number is
+     * passed at most once, and a gap longer than the window clears the ring in one pass.
+     */
+    private boolean advance(long current) {
+        long firstLive = current - bucketCount + 1;
+        if (oldest == NONE || oldest >= firstLive) {
+            return false;
+        }
+        if (newest < firstLive) {
+            clear();
+            return true;
+        }
+        boolean dropped = false;
+        for (; oldest < firstLive; oldest++) {
+            int slot = slot(oldest);
+            if (bucketNumber[slot] == oldest) {
+                totalVolume -= volume[slot];
+                totalTrades -= trades[slot];
+                totalNotional = totalNotional.subtract(notional[slot]);
+                bucketNumber[slot] = NONE;
+                dropped = true;
+            }
+        }
+        while (highSize > 0 && highQueue[highHead] < firstLive) {
+            highHead = (highHead + 1) % bucketCount;
+            highSize--;
+        }
+        while (lowSize > 0 && lowQueue[lowHead] < firstLive) {
+            lowHead = (lowHead + 1) % bucketCount;
+            lowSize--;
+        }
+        return dropped;
+    }
+
+    private void clear() {
+        Arrays.fill(bucketNumber, NONE);
+        oldest = NONE;
+        newest = NONE;
+        totalVolume = 0;
+        totalTrades = 0;
+        totalNotional = BigDecimal.ZERO;
+        highSize = 0;
+        lowSize = 0;
+    }
+
+    /**
+     * Makes the newest bucket the tail of the high queue, first dropping the buckets before it that it
+     * now outranks. The bucket may already be the tail from an earlier trade.
+     */
+    private void pushHigh(long number) {
+        BigDecimal value = high[slot(number)];
+        while (highSize > 0) {
+            long tail = highQueue[(highHead + highSize - 1) % bucketCount];
+            if (tail != number && high[slot(tail)].compareTo(value) > 0) {
+                break;
+            }
+            highSize--;
+        }
+        highQueue[(highHead + highSize) % bucketCount] = number;
+        highSize++;
+    }
+
+    private void pushLow(long number) {
+        BigDecimal value = low[slot(number)];
+        while (lowSize > 0) {
+            long tail = lowQueue[(lowHead + lowSize - 1) % bucketCount];
+            if (tail != number && low[slot(tail)].compareTo(value) < 0) {
+                break;
+            }
+            lowSize--;
+        }
+        lowQueue[(lowHead + lowSize) % bucketCount] = number;
+        lowSize++;
+    }
+
+    private int slot(long number) {
+        return (int) Math.floorMod(number, (long) bucketCount);
+    }
+}
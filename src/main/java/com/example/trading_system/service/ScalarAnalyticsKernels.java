@@ -0,0 +1,28 @@
+package com.example.trading_system.service;
+
+/**
+ * Analytics kernels as plain loops, used when the Vector API is unavailable.
+ */
+final class ScalarAnalyticsKernels implements AnalyticsKernels {
+
+    @Override
+    public Summary summarize(double[] prices, double[] quantities, int from, int to) {
+        double quantity = 0;
+        double notional = 0;
+        double low = Double.POSITIVE_INFINITY;
+        double high = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            double price = prices[i];
+            quantity += quantities[i];
+            notional += price * quantities[i];
+            low = Math.min(low, price);
+            high = Math.max(high, price);
+        }
+        return new Summary(quantity, notional, low, high);
+    }
+
+    @Override
+    public String toString() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.trading_system.service;
+
+import com.example.trading_system.model.NettingReport;
+import com.example.trading_system.model.PairObligation;
+import com.example.trading_system.model.Trade;
+import com.example.trading_system.model.TraderObligation;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End-of-day netting of trades into obligations per trader pair and instrument.
+ * <p>
+ * The trades are split in halves with fork/join down to about four leaves per worker, of at least
+ * {@link #MIN_LEAF_SIZE} trades. Each leaf nets its trades into its own table, and each join folds the smaller table into the larger, so the
+ * threads share nothing but the ID dictionaries. Trader and instrument IDs are interned to ints once per
+ * trade, and a pair in an instrument is a single long key into an open addressing table held in one
+ * long array. Cash is exact: prices are brought to the largest scale among the trades, and notionals are
+ * summed as 128-bit integers, so the hot loop allocates nothing beyond reading the price.
+ * <p>
+ * Supports up to 65536 instruments and 16777216 traders per run.
+ */
+class SettlementNetting {
+    // Fewest trades per leaf task, enough to amortise the task. Leaves are kept few beyond that, since
+    // with many pairs each leaf's table holds most of them and every extra leaf is another merge
+    static final int MIN_LEAF_SIZE = 1 << 16;
+    private static final int LEAVES_PER_WORKER = 4;
+    private static final int TRADER_BITS = 24;
+    private static final int INSTRUMENT_BITS = Long.SIZE - 2 * TRADER_BITS;
+    private static final long TRADER_MASK = (1L << TRADER_BITS) - 1;
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final List<Trade> trades;
+    private final LocalDate tradeDate;
+    // Scale of every cash figure: the largest price scale among the trades
+    private final int scale;
+    private final Dictionary traders = new Dictionary(1 << TRADER_BITS);
+    private final Dictionary instruments = new Dictionary(1 << INSTRUMENT_BITS);
+    private final int leafSize;
+
+    private SettlementNetting(List<Trade> trades, LocalDate tradeDate, int parallelism, int scale) {
+        this.trades = trades;
+        this.tradeDate = tradeDate;
+        this.leafSize = Math.max(MIN_LEAF_SIZE, trades.size() / (parallelism * LEAVES_PER_WORKER) + 1);
+        this.scale = scale;
+    }
+
+    /**
+     * Nets the trades on the pool.
+     * @param trades Trades to net; must support fast random access.
+     * @param tradeDate Day whose trades are netted, or null for all of them.
+     */
+    static NettingReport net(List<Trade> trades, LocalDate tradeDate, ForkJoinPool pool) {
+        // A parallel stream runs on the pool of the task that starts it, so this stays off the common pool
+        int scale = pool.submit(() -> trades.parallelStream()
+            .mapToInt(trade -> trade.price().scale()).max().orElse(0)).join();
+        SettlementNetting netting = new SettlementNetting(trades, tradeDate, pool.getParallelism(), Math.max(0, scale));
+        NettingTable table = pool.invoke(netting.new NetTask(0, trades.size()));
+        return netting.report(table);
+    }
+
+    private NettingTable netRange(int from, int to) {
+        NettingTable table = new NettingTable();
+        for (int i = from; i < to; i++) {
+            Trade trade = trades.get(i);
+            if (tradeDate != null && !trade.timestamp().toLocalDate().equals(tradeDate)) {
+                continue;
+            }
+            int buyer = traders.id(trade.buyTraderId());
+            int seller = traders.id(trade.sellTraderId());
+            if (buyer == seller) {
+                continue;
+            }
+            long low = Math.min(buyer, seller);
+            long high = Math.max(buyer, seller);
+            long key = ((long) instruments.id(trade.instrumentId()) << (2 * TRADER_BITS)) | (low << TRADER_BITS) | high;
+            // Figures are kept from the lower ID's side: units it received and cash it paid
+            long quantity = buyer == low ? trade.quantity() : -trade.quantity();
+
+            BigDecimal price = trade.price();
+            int shift = scale - price.scale();
+            BigInteger unscaled = price.unscaledValue();
+            if (unscaled.bitLength() < Long.SIZE && shift < POWERS_OF_TEN.length) {
+                long value = unscaled.longValue();
+                long scaled = value * POWERS_OF_TEN[shift];
+                if (Math.multiplyHigh(value, POWERS_OF_TEN[shift]) == scaled >> (Long.SIZE - 1)) {
+                    table.add(key, quantity, Math.multiplyHigh(scaled, quantity), scaled * quantity);
+                    continue;
+                }
+            }
+            BigInteger notional = unscaled.multiply(BigInteger.TEN.pow(shift)).multiply(BigInteger.valueOf(quantity));
+            if (notional.bitLength() >= 2 * Long.SIZE - 1) {
+                throw new ArithmeticException("Notional of trade " + trade.tradeId() + " is too large to net");
+            }
+            table.add(key, quantity, notional.shiftRight(Long.SIZE).longValue(), notional.longValue());
+        }
+        return table;
+    }
+
+    private NettingReport report(NettingTable table) {
+        String[] traderIds = traders.names();
+        String[] instrumentIds = instruments.names();
+        List<PairObligation> pairs = new ArrayList<>(table.size);
+        Map<TraderInstrument, long[]> quantities = new HashMap<>();
+        Map<TraderInstrument, BigInteger> cash = new HashMap<>();
+        long tradeCount = 0;
+        long[] slots = table.slots;
+        for (int base = 0; base < slots.length; base += NettingTable.STRIDE) {
+            long key = slots[base + NettingTable.KEY];
+            if (key == NettingTable.EMPTY) {
+                continue;
+            }
+            String instrumentId = instrumentIds[(int) (key >>> (2 * TRADER_BITS))];
+            String trader = traderIds[(int) ((key >>> TRADER_BITS) & TRADER_MASK)];
+            String counterparty = traderIds[(int) (key & TRADER_MASK)];
+            long quantity = slots[base + NettingTable.QUANTITY];
+            BigInteger notional = toBigInteger(slots[base + NettingTable.CASH_HIGH], slots[base + NettingTable.CASH_LOW]);
+            if (trader.compareTo(counterparty) > 0) {
+                String swap = trader;
+                trader = counterparty;
+                counterparty = swap;
+                quantity = -quantity;
+                notional = notional.negate();
+            }
+            pairs.add(new PairObligation(instrumentId, trader, counterparty, quantity, new BigDecimal(notional, scale),
+                slots[base + NettingTable.GROSS_QUANTITY], slots[base + NettingTable.TRADE_COUNT]));
+            tradeCount += slots[base + NettingTable.TRADE_COUNT];
+
+            TraderInstrument payer = new TraderInstrument(trader, instrumentId);
+            TraderInstrument payee = new TraderInstrument(counterparty, instrumentId);
+            quantities.computeIfAbsent(payer, k -> new long[1])[0] += quantity;
+            quantities.computeIfAbsent(payee, k -> new long[1])[0] -= quantity;
+            cash.merge(payer, notional, BigInteger::add);
+            cash.merge(payee, notional.negate(), BigInteger::add);
+        }
+        pairs.sort(Comparator.comparing(PairObligation::instrumentId)
+            .thenComparing(PairObligation::traderId)
+            .thenComparing(PairObligation::counterpartyId));
+
+        List<TraderObligation> traderObligations = new ArrayList<>(quantities.size());
+        quantities.forEach((id, quantity) -> traderObligations.add(new TraderObligation(id.traderId(),
+            id.instrumentId(), quantity[0], new BigDecimal(cash.get(id), scale))));
+        traderObligations.sort(Comparator.comparing(TraderObligation::traderId)
+            .thenComparing(TraderObligation::instrumentId));
+        return new NettingReport(tradeDate, tradeCount, pairs, traderObligations);
+    }
+
+    private static BigInteger toBigInteger(long high, long low) {
+        return BigInteger.valueOf(high).shiftLeft(Long.SIZE).add(new BigInteger(Long.toUnsignedString(low)));
+    }
+
+    private record TraderInstrument(String traderId, String instrumentId) {}
+
+    private final class NetTask extends RecursiveTask<NettingTable> {
+        private final int from;
+        private final int to;
+
+        private NetTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected NettingTable compute() {
+            if (to - from <= leafSize) {
+                return netRange(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            NetTask left = new NetTask(from, middle);
+            left.fork();
+            NettingTable right = new NetTask(middle, to).compute();
+            NettingTable joined = left.join();
+            return joined.size >= right.size ? joined.merge(right) : right.merge(joined);
+        }
+    }
+
+    /**
+     * Dense IDs for strings, shared by all tasks. Lookups of known strings take no lock.
+     */
+    private static final class Dictionary {
+        private final int limit;
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        private final AtomicInteger next = new AtomicInteger();
+
+        private Dictionary(int limit) {
+            this.limit = limit;
+        }
+
+        private int id(String name) {
+            Integer id = ids.get(name);
+            return id != null ? id : ids.computeIfAbsent(name, key -> {
+                int assigned = next.getAndIncrement();
+                if (assigned >= limit) {
+                    throw new IllegalStateException("More than " + limit + " distinct IDs to net");
+                }
+                return assigned;
+            });
+        }
+
+        private String[] names() {
+            String[] names = new String[next.get()];
+            ids.forEach((name, id) -> names[id] = name);
+            return names;
+        }
+    }
+
+    /**
+     * Net figures per pair key with linear probing. Each slot is a run of longs in one array (key, net
+     * quantity, cash high and low, gross quantity, trade count), so an update touches a single cache line.
+     * Cash is a signed 128-bit integer split into a high and a low long.
+     */
+    private static final class NettingTable {
+        // The lower trader ID of a key is always below the higher one, so no key is zero
+        private static final long EMPTY = 0;
+        private static final int KEY = 0;
+        private static final int QUANTITY = 1;
+        private static final int CASH_HIGH = 2;
+        private static final int CASH_LOW = 3;
+        private static final int GROSS_QUANTITY = 4;
+        private static final int TRADE_COUNT = 5;
+        private static final int STRIDE = 6;
+        private static final int INITIAL_SLOTS = 64;
+
+        private long[] slots = new long[INITIAL_SLOTS * STRIDE];
+        private int capacity = INITIAL_SLOTS;
+        private int size;
+
+        private void add(long key, long netQuantity, long high, long low) {
+            int base = slotFor(key);
+            slots[base + QUANTITY] += netQuantity;
+            addCash(base, high, low);
+            slots[base + GROSS_QUANTITY] += Math.abs(netQuantity);
+            slots[base + TRADE_COUNT]++;
+        }
+
+        private NettingTable merge(NettingTable other) {
+            long[] from = other.slots;
+            for (int i = 0; i < from.length; i += STRIDE) {
+                if (from[i + KEY] != EMPTY) {
+                    int base = slotFor(from[i + KEY]);
+                    slots[base + QUANTITY] += from[i + QUANTITY];
+                    addCash(base, from[i + CASH_HIGH], from[i + CASH_LOW]);
+                    slots[base + GROSS_QUANTITY] += from[i + GROSS_QUANTITY];
+                    slots[base + TRADE_COUNT] += from[i + TRADE_COUNT];
+                }
+            }
+            return this;
+        }
+
+        private void addCash(int base, long high, long low) {
+            long sum = slots[base + CASH_LOW] + low;
+            slots[base + CASH_HIGH] += high + (Long.compareUnsigned(sum, low) < 0 ? 1 : 0);
+            slots[base + CASH_LOW] = sum;
+        }
+
+        /**
+         * Index of the key's slot, claiming an empty one for a new key.
+         */
+        private int slotFor(long key) {
+            int mask = capacity - 1;
+            int slot = hash(key) & mask;
+            while (slots[slot * STRIDE + KEY] != key) {
+                if (slots[slot * STRIDE + KEY] == EMPTY) {
+                    if (2 * (size + 1) > capacity) {
+                        grow();
+                        return slotFor(key);
+                    }
+                    slots[slot * STRIDE + KEY] = key;
+                    size++;
+                    return slot * STRIDE;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return slot * STRIDE;
+        }
+
+        private void grow() {
+            long[] old = slots;
+            capacity *= 2;
+            slots = new long[capacity * STRIDE];
+            int mask = capacity - 1;
+            for (int i = 0; i < old.length; i += STRIDE) {
+                if (old[i + KEY] != EMPTY) {
+                    int slot = hash(old[i + KEY]) & mask;
+                    while (slots[slot * STRIDE + KEY] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    System.arraycopy(old, i, slots, slot * STRIDE, STRIDE);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long mixed = key * 0x9E3779B97F4A7C15L;
+            return (int) (mixed ^ (mixed >>> 32));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.trading_system.service;
+
+import com.example.trading_system.model.Order;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Pending stop orders of one instrument, indexed by stop price.
+ * <p>
+ * Each side is a sorted map ordered so that the stops triggered by a trade price always form a prefix:
+ * buy stops ascending (triggered once the price trades at or above them) and sell stops descending
+ * (triggered at or below). Polling therefore costs O(log n) plus the number of triggered orders,
+ * no matter how many stops are pending.
+ */
+class StopOrderIndex {
+    private final NavigableMap<BigDecimal, LinkedHashMap<String, Order>> buyStops;
+    private final NavigableMap<BigDecimal, LinkedHashMap<String, Order>> sellStops;
+    private int size;
+
+    StopOrderIndex() {
+        this.buyStops = new TreeMap<>();
+        this.sellStops = new TreeMap<>(Comparator.reverseOrder());
+    }
+
+    void add(Order order) {
+        stopsFor(order.getType())
+            .computeIfAbsent(order.getStopPrice(), price -> new LinkedHashMap<>())
+            .put(order.getOrderId(), order);
+        size++;
+    }
+
+    boolean remove(Order order) {
+        NavigableMap<BigDecimal, LinkedHashMap<String, Order>> stops = stopsFor(order.getType());
+        LinkedHashMap<String, Order> level = stops.get(order.getStopPrice());
+        if (level == null || level.remove(order.getOrderId()) == null) {
+            return false;
+        }
+        if (level.isEmpty()) {
+            stops.remove(order.getStopPrice());
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Whether a trade at {@code lastPrice} triggers the stop.
+     */
+    static boolean isTriggeredBy(Order order, BigDecimal lastPrice) {
+        int comparison = lastPrice.compareTo(order.getStopPrice());
+        return order.getType() == Order.OrderType.BUY ? comparison >= 0 : comparison <= 0;
+    }
+
+    /**
+     * Removes and returns every stop triggered by a trade at {@code lastPrice}, nearest stop price first
+     * and time priority within a stop price.
+     */
+    List<Order> pollTriggered(BigDecimal lastPrice) {
+        List<Order> triggered = new ArrayList<>();
+        poll(buyStops, lastPrice, triggered);
+        poll(sellStops, lastPrice, triggered);
+        size -= triggered.size();
+        return triggered;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private NavigableMap<BigDecimal, LinkedHashMap<String, Order>> stopsFor(Order.OrderType side) {
+        return side == Order.OrderType.BUY ? buyStops : sellStops;
+    }
+
+    private static void poll(NavigableMap<BigDecimal, LinkedHashMap<String, Order>> stops, BigDecimal lastPrice,
+                             List<Order> triggered) {
+        Map<BigDecimal, LinkedHashMap<String, Order>> reached = stops.headMap(lastPrice, true);
+        for (LinkedHashMap<String, Order> level : reached.values()) {
+            triggered.addAll(level.values());
+        }
+        reached.clear();
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.trading_system.service;
+
+import com.example.trading_system.model.Order;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel holding order expiry deadlines.
+ * <p>
+ * Time is cut into ticks. Level 0 has one slot per tick for the next {@value #SLOTS} ticks, and each higher
+ * level has slots {@value #SLOTS} times wider. A timer sits in the lowest level whose window it shares with
+ * the current tick and moves down a level each time the wheel reaches its slot, so scheduling and cancelling
+ * are O(1) and advancing one tick only touches the slots that are due. Each slot is an intrusive doubly
+ * linked list, so a cancelled timer is unlinked without searching.
+ * <p>
+ * Not thread safe; the owning order book calls it under its own lock.
+ */
+class TimingWheel {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 6;
+
+    private final long tickMillis;
+    private final Timeout[][] slots;
+    // Timers beyond the top level's range, re-placed whenever the top level wraps
+    private final Timeout overflow;
+    // Next tick to process
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.slots = new Timeout[LEVELS][SLOTS];
+        for (Timeout[] level : slots) {
+            for (int i = 0; i < SLOTS; i++) {
+                level[i] = Timeout.sentinel();
+            }
+        }
+        this.overflow = Timeout.sentinel();
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedules an order to expire at {@code deadlineMillis}. The timer fires on the first advance past
+     * the end of the tick holding the deadline, so never early and at most one tick late.
+     */
+    Timeout schedule(Order order, long deadlineMillis) {
+        // Round up so a deadline inside a tick is not reported early
+        long deadlineTick = Math.max(currentTick, (deadlineMillis + tickMillis - 1) / tickMillis);
+        Timeout timeout = new Timeout(order, deadlineTick);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    void cancel(Timeout timeout) {
+        if (timeout.next != null) {
+            timeout.unlink();
+            size--;
+        }
+    }
+
+    /**
+     * Processes every tick up to {@code nowMillis} and returns the orders whose deadline has passed,
+     * earliest first.
+     */
+    List<Order> advance(long nowMillis) {
+        long nowTick = nowMillis / tickMillis;
+        List<Order> expired = new ArrayList<>();
+        if (size == 0) {
+            currentTick = Math.max(currentTick, nowTick + 1);
+            return expired;
+        }
+        while (currentTick <= nowTick && size > 0) {
+            cascade();
+            Timeout head = slots[0][(int) (currentTick & SLOT_MASK)];
+            while (head.next != head) {
+                Timeout timeout = head.next;
+                timeout.unlink();
+                size--;
+                expired.add(timeout.order);
+            }
+            currentTick++;
+        }
+        currentTick = Math.max(currentTick, nowTick + 1);
+        return expired;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Moves timers down from every higher-level slot whose window starts at the current tick,
+     * highest level first so they can keep falling through the levels below.
+     */
+    private void cascade() {
+        if ((currentTick & ((1L << (SLOT_BITS * LEVELS)) - 1)) == 0) {
+            replace(overflow);
+        }
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                replace(slots[level][(int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK)]);
+            }
+        }
+    }
+
+    private void replace(Timeout head) {
+        Timeout timeout = head.next;
+        head.next = head;
+        head.prev = head;
+        while (timeout != head) {
+            Timeout next = timeout.next;
+            place(timeout);
+            timeout = next;
+        }
+    }
+
+    private void place(Timeout timeout) {
+        for (int level = 0; level < LEVELS; level++) {
+            int windowShift = SLOT_BITS * (level + 1);
+            if ((timeout.deadlineTick >>> windowShift) == (currentTick >>> windowShift)) {
+                int slot = (int) ((timeout.deadlineTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+                slots[level][slot].append(timeout);
+                return;
+            }
+        }
+        overflow.append(timeout);
+    }
+
+    /**
+     * Pending expiry of one order, linked into a wheel slot.
+     */
+    static final class Timeout {
+        private final Order order;
+        private final long deadlineTick;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(Order order, long deadlineTick) {
+            this.order = order;
+            this.deadlineTick = deadlineTick;
+        }
+
+        private static Timeout sentinel() {
+            Timeout head = new Timeout(null, 0);
+            head.prev = head;
+            head.next = head;
+            return head;
+        }
+
+        private void append(Timeout timeout) {
+            timeout.prev = prev;
+            timeout.next = this;
+            prev.next = timeout;
+            prev = timeout;
+        }
+
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.trading_system.service;
 
+import com.example.trading_system.model.MatchingAlgorithm;
 import com.example.trading_system.model.Order;
+import com.example.trading_system.model.SelfTradePrevention;
 import com.example.trading_system.model.Trade;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,10 +12,28 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class TradeMatcher {
     private static final Logger log = LoggerFactory.getLogger(TradeMatcher.class);
 
+    private final SelfTradePrevention selfTradePrevention;
+    private final MatchingAlgorithm matchingAlgorithm;
+
+    public TradeMatcher() {
+        this(SelfTradePrevention.CANCEL_NEWEST);
+    }
+
+    public TradeMatcher(SelfTradePrevention selfTradePrevention) {
+        this(selfTradePrevention, MatchingAlgorithm.FIFO);
+    }
+
+    public TradeMatcher(SelfTradePrevention selfTradePrevention, MatchingAlgorithm matchingAlgorithm) {
+        this.selfTradePrevention = selfTradePrevention;
+        this.matchingAlgorithm = matchingAlgorithm;
+    }
+
     public List<Trade> match(OrderBook orderBook, String instrumentId) {
         log.info("Starting order matching process for instrument {}", instrumentId);
         List<Trade> trades = new ArrayList<>();
@@ -45,6 +65,14 @@ public class TradeMatcher {
                 return trades;
             }
 
+            if (isSelfTrade(buyOrder, sellOrder)) {
+                // Resolving the self-trade cancels or reduces one of the orders, so the loop moves on
+                // to the next order behind it instead of stopping with the book crossed
+                boolean sellIsNewer = !sellOrder.getTimestamp().isBefore(buyOrder.getTimestamp());
+                preventSelfTrade(sellIsNewer ? buyOrder : sellOrder, sellIsNewer ? sellOrder : buyOrder, orderBook);
+                continue;
+            }
+
             Trade trade = createTrade(buyOrder, sellOrder, instrumentId);
             trades.add(trade);
             log.info("Created trade {} between buy order {} and sell order {} - Price: {}, Quantity: {}", 
@@ -62,6 +90,223 @@ public class TradeMatcher {
         return trades;
     }
 
+    /**
+     * Matches an incoming order against the opposite side of the book in a single pass over its price
+     * levels, best level first and time priority within a level. The incoming order is not in the book.
+     * FOK orders are checked against the reachable quantity of other traders first and do not trade at all
+     * when it is insufficient, so self-trade prevention can never leave one partly filled. Under pro-rata matching each level is allocated as a whole
+     * instead of in time priority.
+     */
+    public List<Trade> execute(Order incoming, OrderBook orderBook, String instrumentId) {
+        log.info("Executing incoming {} order {} for instrument {}",
+            incoming.getTimeInForce(), incoming.getOrderId(), instrumentId);
+        Order.OrderType restingSide = incoming.getType() == Order.OrderType.BUY
+            ? Order.OrderType.SELL : Order.OrderType.BUY;
+
+        if (incoming.getTimeInForce() == Order.TimeInForce.FOK
+                && fokLiquidity(incoming, restingSide, orderBook) < incoming.getTotalQuantity()) {
+            log.info("FOK order {} killed - insufficient liquidity for {} units",
+                incoming.getOrderId(), incoming.getTotalQuantity());
+            incoming.setStatus(Order.OrderStatus.CANCELLED);
+            return List.of();
+        }
+
+        if (matchingAlgorithm.isProRata()) {
+            return executeProRata(incoming, restingSide, orderBook, instrumentId);
+        }
+
+        List<Trade> trades = new ArrayList<>();
+        while (incoming.getQuantity() > 0 && incoming.getStatus() != Order.OrderStatus.CANCELLED) {
+            Optional<Order> restingOpt = restingSide == Order.OrderType.SELL
+                ? orderBook.getBestSellOrder() : orderBook.getBestBuyOrder();
+            if (restingOpt.isEmpty()) {
+                log.debug("No more resting orders to match against");
+                break;
+            }
+            Order resting = restingOpt.get();
+            if (shouldSkipOrder(resting, orderBook)) {
+                continue;
+            }
+
+            Order buyOrder = incoming.getType() == Order.OrderType.BUY ? incoming : resting;
+            Order sellOrder = incoming.getType() == Order.OrderType.SELL ? incoming : resting;
+            if (!canMatch(buyOrder, sellOrder)) {
+                break;
+            }
+            if (isSelfTrade(buyOrder, sellOrder)) {
+                preventSelfTrade(resting, incoming, orderBook);
+                continue;
+            }
+
+            Trade trade = createTrade(buyOrder, sellOrder, instrumentId);
+            trades.add(trade);
+            log.info("Created trade {} between buy order {} and sell order {} - Price: {}, Quantity: {}", 
+                trade.tradeId(), buyOrder.getOrderId(), sellOrder.getOrderId(),
+                trade.price(), trade.quantity());
+
+            incoming.execute(trade.quantity());
+            orderBook.fillOrder(resting, trade.quantity());
+            replenishIfDepleted(incoming, orderBook);
+            replenishIfDepleted(resting, orderBook);
+        }
+
+        log.info("Completed execution of order {} - {} trades executed, {} remaining",
+            incoming.getOrderId(), trades.size(), incoming.getQuantity());
+        return trades;
+    }
+
+    /**
+     * Quantity an FOK order can fill. The trader's own orders never count: CANCEL_OLDEST cancels them and
+     * sweeps on, while every other mode cancels or reduces the incoming order when it meets one, so only
+     * the orders before the first of them count. Pro-rata settles a level holding one before allocating,
+     * so there the count ends at that level.
+     */
+    private long fokLiquidity(Order incoming, Order.OrderType restingSide, OrderBook orderBook) {
+        OrderBook.OwnOrderCutoff cutoff = selfTradePrevention == SelfTradePrevention.CANCEL_OLDEST
+            ? OrderBook.OwnOrderCutoff.NONE
+            : matchingAlgorithm.isProRata() ? OrderBook.OwnOrderCutoff.FIRST_LEVEL
+            : OrderBook.OwnOrderCutoff.FIRST_ORDER;
+        return orderBook.getAvailableQuantity(restingSide, incoming.getPrice(), incoming.getTraderId(), cutoff,
+            incoming.getTotalQuantity());
+    }
+
+    private List<Trade> executeProRata(Order incoming, Order.OrderType restingSide, OrderBook orderBook,
+                                       String instrumentId) {
+        List<Trade> trades = new ArrayList<>();
+        while (incoming.getQuantity() > 0 && incoming.getStatus() != Order.OrderStatus.CANCELLED) {
+            List<Order> level = orderBook.getBestLevelOrders(restingSide);
+            if (level.isEmpty()) {
+                log.debug("No more resting orders to match against");
+                break;
+            }
+            Order first = level.getFirst();
+            if (!canMatch(incoming.getType() == Order.OrderType.BUY ? incoming : first,
+                    incoming.getType() == Order.OrderType.SELL ? incoming : first)) {
+                break;
+            }
+            Optional<Order> own = level.stream().filter(resting -> isSelfTrade(resting, incoming)).findFirst();
+            if (own.isPresent()) {
+                // The whole level would trade with the incoming order, so resolve the self-trade up front
+                preventSelfTrade(own.get(), incoming, orderBook);
+                continue;
+            }
+            allocate(incoming, level, orderBook.getLevelQuantity(restingSide, first.getPrice()), orderBook,
+                instrumentId, trades);
+            replenishIfDepleted(incoming, orderBook);
+        }
+
+        log.info("Completed pro-rata execution of order {} - {} trades executed, {} remaining",
+            incoming.getOrderId(), trades.size(), incoming.getQuantity());
+        return trades;
+    }
+
+    /**
+     * Shares the incoming order's visible quantity across one price level in a single pass over its orders,
+     * using the level's running visible total as the pro-rata base.
+     */
+    private void allocate(Order incoming, List<Order> level, long levelQuantity, OrderBook orderBook,
+                          String instrumentId, List<Trade> trades) {
+        int[] allocations = new int[level.size()];
+        int remaining = incoming.getQuantity();
+        if (remaining >= levelQuantity) {
+            // Enough to take out the whole level, so there is nothing to share
+            for (int i = 0; i < allocations.length; i++) {
+                allocations[i] = level.get(i).getQuantity();
+            }
+        } else {
+            int start = 0;
+            long base = levelQuantity;
+            if (matchingAlgorithm.topOrderPriority()) {
+                allocations[0] = Math.min(remaining, level.getFirst().getQuantity());
+                remaining -= allocations[0];
+                base -= level.getFirst().getQuantity();
+                start = 1;
+            }
+            long pool = remaining;
+            for (int i = start; i < allocations.length && base > 0; i++) {
+                int share = (int) (pool * level.get(i).getQuantity() / base);
+                allocations[i] = share >= matchingAlgorithm.minimumAllocation() ? share : 0;
+                remaining -= allocations[i];
+            }
+            // Rounding and minimum allocation leftovers go out in time priority
+            for (int i = start; i < allocations.length && remaining > 0; i++) {
+                int extra = Math.min(remaining, level.get(i).getQuantity() - allocations[i]);
+                allocations[i] += extra;
+                remaining -= extra;
+            }
+        }
+
+        for (int i = 0; i < allocations.length; i++) {
+            if (allocations[i] == 0) {
+                continue;
+            }
+            Order resting = level.get(i);
+            Order buyOrder = incoming.getType() == Order.OrderType.BUY ? incoming : resting;
+            Order sellOrder = incoming.getType() == Order.OrderType.SELL ? incoming : resting;
+            Trade trade = createTrade(buyOrder, sellOrder, allocations[i], instrumentId);
+            trades.add(trade);
+            log.debug("Allocated {} units of order {} to resting order {}",
+                allocations[i], incoming.getOrderId(), resting.getOrderId());
+            incoming.execute(allocations[i]);
+            orderBook.fillOrder(resting, allocations[i]);
+            replenishIfDepleted(resting, orderBook);
+        }
+    }
+
+    /**
+     * Executes an auction uncross: every eligible order trades at the single equilibrium price, buys and
+     * sells paired off in price-time priority until the equilibrium volume is exhausted. Fills are made in
+     * one pass over the two priority lists, with a single timestamp for the whole batch.
+     * @param buys Buy orders priced at or above the equilibrium price, in priority order.
+     * @param sells Sell orders priced at or below the equilibrium price, in priority order.
+     */
+    public List<Trade> uncross(List<Order> buys, List<Order> sells, BigDecimal price, long volume,
+                               OrderBook orderBook, String instrumentId) {
+        log.info("Uncrossing instrument {} at {} for {} units", instrumentId, price, volume);
+        List<Trade> trades = new ArrayList<>();
+        LocalDateTime timestamp = LocalDateTime.now();
+        long remaining = volume;
+        int b = 0;
+        int s = 0;
+        while (remaining > 0 && b < buys.size() && s < sells.size()) {
+            Order buyOrder = buys.get(b);
+            Order sellOrder = sells.get(s);
+            if (isSelfTrade(buyOrder, sellOrder)) {
+                boolean sellIsNewer = !sellOrder.getTimestamp().isBefore(buyOrder.getTimestamp());
+                preventSelfTrade(sellIsNewer ? buyOrder : sellOrder, sellIsNewer ? sellOrder : buyOrder, orderBook);
+                b += isDone(buyOrder) ? 1 : 0;
+                s += isDone(sellOrder) ? 1 : 0;
+                continue;
+            }
+            int quantity = (int) Math.min(remaining,
+                Math.min(buyOrder.getTotalQuantity(), sellOrder.getTotalQuantity()));
+
+            trades.add(new Trade(newTradeId(), buyOrder.getOrderId(), sellOrder.getOrderId(),
+                buyOrder.getTraderId(), sellOrder.getTraderId(), instrumentId, price, quantity, timestamp));
+            fill(buyOrder, quantity, orderBook);
+            fill(sellOrder, quantity, orderBook);
+            remaining -= quantity;
+
+            b += isDone(buyOrder) ? 1 : 0;
+            s += isDone(sellOrder) ? 1 : 0;
+        }
+
+        log.info("Completed uncross for instrument {} - {} trades executed", instrumentId, trades.size());
+        return trades;
+    }
+
+    /**
+     * Fills a resting order, working through iceberg slices when the quantity exceeds what is visible.
+     */
+    private void fill(Order order, int quantity, OrderBook orderBook) {
+        while (quantity > 0) {
+            int slice = Math.min(quantity, order.getQuantity());
+            orderBook.fillOrder(order, slice);
+            replenishIfDepleted(order, orderBook);
+            quantity -= slice;
+        }
+    }
+
     private boolean shouldSkipOrder(Order order, OrderBook orderBook) {
         if (order.getStatus() == Order.OrderStatus.CANCELLED || order.getQuantity() == 0) {
             log.debug("Skipping order {} - Status: {}, Quantity: {}", 
@@ -73,31 +318,80 @@ public class TradeMatcher {
     }
 
     private boolean canMatch(Order buyOrder, Order sellOrder) {
-        boolean priceMatch = buyOrder.getPrice().compareTo(sellOrder.getPrice()) >= 0;
-        boolean differentTraders = !buyOrder.getTraderId().equals(sellOrder.getTraderId());
+        // Market orders accept any price on the other side
+        boolean priceMatch = buyOrder.isMarket() || sellOrder.isMarket()
+                || buyOrder.getPrice().compareTo(sellOrder.getPrice()) >= 0;
         
         if (!priceMatch) {
             log.debug("Price mismatch - Buy: {}, Sell: {}", 
                 buyOrder.getPrice(), sellOrder.getPrice());
         }
-        if (!differentTraders) {
-            log.debug("Same trader attempting to match with themselves: {}", 
-                buyOrder.getTraderId());
+        return priceMatch;
+    }
+
+    private boolean isSelfTrade(Order buyOrder, Order sellOrder) {
+        return buyOrder.getTraderId().equals(sellOrder.getTraderId());
+    }
+
+    /**
+     * Applies the configured self-trade prevention mode to two crossing orders of the same trader.
+     * Every mode cancels or reduces at least one of them, so matching always makes progress.
+     */
+    private void preventSelfTrade(Order older, Order newer, OrderBook orderBook) {
+        log.debug("Same trader {} on both sides - applying {} to orders {} and {}",
+            newer.getTraderId(), selfTradePrevention, older.getOrderId(), newer.getOrderId());
+        switch (selfTradePrevention) {
+            case CANCEL_NEWEST -> cancel(newer, orderBook);
+            case CANCEL_OLDEST -> cancel(older, orderBook);
+            case CANCEL_BOTH -> {
+                cancel(older, orderBook);
+                cancel(newer, orderBook);
+            }
+            case DECREMENT -> {
+                int quantity = Math.min(older.getTotalQuantity(), newer.getTotalQuantity());
+                orderBook.reduceOrder(older, quantity);
+                orderBook.reduceOrder(newer, quantity);
+            }
         }
-        
-        return priceMatch && differentTraders;
+    }
+
+    private void cancel(Order order, OrderBook orderBook) {
+        order.setStatus(Order.OrderStatus.CANCELLED);
+        orderBook.removeOrder(order);
+    }
+
+    private static boolean isDone(Order order) {
+        return order.getTotalQuantity() == 0 || order.getStatus() == Order.OrderStatus.CANCELLED;
     }
 
     private Trade createTrade(Order buyOrder, Order sellOrder, String instrumentId) {
-        int executedQuantity = Math.min(buyOrder.getQuantity(), sellOrder.getQuantity());
-        BigDecimal executionPrice = sellOrder.getPrice();
-        String tradeId = java.util.UUID.randomUUID().toString();
+        return createTrade(buyOrder, sellOrder, Math.min(buyOrder.getQuantity(), sellOrder.getQuantity()),
+            instrumentId);
+    }
+
+    private Trade createTrade(Order buyOrder, Order sellOrder, int executedQuantity, String instrumentId) {
+        // Trades print at the sell order's limit, or at the buy limit when selling at market
+        BigDecimal executionPrice = sellOrder.isMarket() ? buyOrder.getPrice() : sellOrder.getPrice();
+        String tradeId = newTradeId();
         LocalDateTime timestamp = java.time.LocalDateTime.now();
         
         log.debug("Creating trade - Quantity: {}, Price: {}", executedQuantity, executionPrice);
         
         return new Trade(tradeId, buyOrder.getOrderId(), sellOrder.getOrderId(),
-                instrumentId, executionPrice, executedQuantity, timestamp);
+                buyOrder.getTraderId(), sellOrder.getTraderId(), instrumentId, executionPrice, executedQuantity,
+                timestamp);
+    }
+
+    /**
+     * Random version 4 UUID for a trade. Trade IDs only need to be unique, not unpredictable, so they are
+     * drawn from ThreadLocalRandom rather than the SecureRandom behind {@link UUID#randomUUID()}, which
+     * dominated the cost of large auction uncrosses.
+     */
+    private static String newTradeId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long high = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long low = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(high, low).toString();
     }
 
     private void updateOrders(Order buyOrder, Order sellOrder, OrderBook orderBook) {
@@ -106,16 +400,19 @@ public class TradeMatcher {
         log.debug("Executing {} units for buy order {} and sell order {}", 
             executedQuantity, buyOrder.getOrderId(), sellOrder.getOrderId());
             
-        buyOrder.execute(executedQuantity);
-        sellOrder.execute(executedQuantity);
+        orderBook.fillOrder(buyOrder, executedQuantity);
+        orderBook.fillOrder(sellOrder, executedQuantity);
+        replenishIfDepleted(buyOrder, orderBook);
+        replenishIfDepleted(sellOrder, orderBook);
+    }
 
-        if (buyOrder.isFilled()) {
-            log.debug("Buy order {} is filled, removing from order book", buyOrder.getOrderId());
-            orderBook.removeOrder(buyOrder);
-        }
-        if (sellOrder.isFilled()) {
-            log.debug("Sell order {} is filled, removing from order book", sellOrder.getOrderId());
-            orderBook.removeOrder(sellOrder);
+    /**
+     * Shows the next slice of an iceberg order as soon as its visible quantity is used up, so the
+     * remaining reserve keeps trading without a new order from the client.
+     */
+    private void replenishIfDepleted(Order order, OrderBook orderBook) {
+        if (order.getQuantity() == 0 && order.getHiddenQuantity() > 0) {
+            orderBook.replenishOrder(order);
         }
     }
 
@@ -0,0 +1,67 @@
+package com.example.trading_system.service;
+
+import java.util.Arrays;
+
+/**
+ * Every trade of an instrument as parallel primitive columns of time, price and quantity, in the order
+ * they were recorded.
+ * <p>
+ * Bulk analytics scan these columns instead of the trade records, so a pass over a range of trades reads
+ * contiguous doubles with no pointer chasing or {@code BigDecimal} arithmetic. Times never decrease, a
+ * trade stamped before the previous one being moved up to it, so a time range is found by binary search.
+ * <p>
+ * Columns only grow: a {@link Columns} view taken under the owning book's lock stays valid after it is
+ * released, because later appends write past the view's size or into new, larger arrays.
+ * Not thread safe; the owning order book appends and takes views under its own lock.
+ */
+class TradeTape {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] times = new long[INITIAL_CAPACITY];
+    private double[] prices = new double[INITIAL_CAPACITY];
+    private double[] quantities = new double[INITIAL_CAPACITY];
+    private int size;
+
+    void append(long timeMillis, double price, double quantity) {
+        if (size == times.length) {
+            int capacity = size * 2;
+            times = Arrays.copyOf(times, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+        }
+        times[size] = size == 0 ? timeMillis : Math.max(timeMillis, times[size - 1]);
+        prices[size] = price;
+        quantities[size] = quantity;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    Columns view() {
+        return new Columns(times, prices, quantities, size);
+    }
+
+    /**
+     * The first {@code size} entries of the columns as they were when the view was taken.
+     */
+    record Columns(long[] times, double[] prices, double[] quantities, int size) {
+        /**
+         * Index of the first trade at or after {@code timeMillis}, or {@code size} if there is none.
+         */
+        int indexOf(long timeMillis) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (times[middle] < timeMillis) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.trading_system.service;
+
+import com.example.trading_system.model.Order;
+
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Orders placed by a single trader, kept in placement order.
+ * <p>
+ * Each order is keyed by a per-trader sequence number, which is the stable cursor used for pagination.
+ * Appends are serialised so sequence numbers become visible in order; readers iterate the skip list
+ * without locking.
+ */
+class TraderOrders {
+    private final ConcurrentSkipListMap<Long, Order> orders;
+    private long lastSequence;
+
+    TraderOrders() {
+        this.orders = new ConcurrentSkipListMap<>();
+    }
+
+    synchronized void add(Order order) {
+        orders.put(++lastSequence, order);
+    }
+
+    /**
+     * Returns a live view of the orders placed after the given sequence number.
+     */
+    NavigableMap<Long, Order> after(long sequence) {
+        return orders.tailMap(sequence, false);
+    }
+}
@@ -1,12 +1,24 @@
 package com.example.trading_system.service;
 
+import com.example.trading_system.model.IngressStatistics;
 import com.example.trading_system.model.Instrument;
+import com.example.trading_system.model.MarketStatistics;
+import com.example.trading_system.model.MassQuoteResult;
+import com.example.trading_system.model.NettingReport;
 import com.example.trading_system.model.Order;
+import com.example.trading_system.model.OrderAck;
+import com.example.trading_system.model.OrderPage;
+import com.example.trading_system.model.Position;
+import com.example.trading_system.model.Quote;
 import com.example.trading_system.model.Trade;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public interface TradingService {
     /**
@@ -22,6 +34,24 @@ public interface TradingService {
      */
     List<Trade> placeOrder(Order order);
 
+    /**
+     * Places an order without blocking the caller. Matching runs on the instrument's
+     * sequencer thread, which serialises every change to its order book.
+     * @param order The order to place.
+     * @return Future completed with the trades executed as a result of this order.
+     */
+    CompletableFuture<List<Trade>> placeOrderAsync(Order order);
+
+    /**
+     * Places an order at most once per client order ID. When the trader already placed an order with the
+     * same ID within the duplicate window, nothing is submitted and the original placement's outcome is
+     * returned, waiting for it if it is still running. IDs of rejected orders are forgotten, so they can be
+     * retried. Orders without a client order ID are always placed.
+     * @param order The order to place.
+     * @return The placed order's ID and status after matching, and the trades it executed.
+     */
+    OrderAck placeOrderOnce(Order order);
+
     /**
      * Cancels an order by its ID and instrument.
      * @param instrumentId The instrument ID.
@@ -30,6 +60,77 @@ public interface TradingService {
      */
     void cancelOrder(String instrumentId, String orderId);
 
+    /**
+     * Cancels an order without blocking the caller.
+     * @param instrumentId The instrument ID.
+     * @param orderId The order ID to cancel.
+     * @return Future completed once the order has been removed from the book.
+     */
+    CompletableFuture<Void> cancelOrderAsync(String instrumentId, String orderId);
+
+    /**
+     * Amends the price and/or remaining quantity of a resting order.
+     * A quantity decrease keeps the order's time priority; a price change or quantity increase
+     * re-queues it and triggers order matching.
+     * @param instrumentId The instrument ID.
+     * @param orderId The order ID to amend.
+     * @param newPrice The new limit price, or null to keep the current one.
+     * @param newQuantity The new remaining quantity, or null to keep the current one.
+     * @return List of trades executed as a result of the amendment.
+     */
+    List<Trade> amendOrder(String instrumentId, String orderId, BigDecimal newPrice, Integer newQuantity);
+
+    /**
+     * Amends an order without blocking the caller.
+     * @see #amendOrder(String, String, BigDecimal, Integer)
+     */
+    CompletableFuture<List<Trade>> amendOrderAsync(String instrumentId, String orderId,
+                                                   BigDecimal newPrice, Integer newQuantity);
+
+    /**
+     * Replaces a trader's two-sided quotes on many instruments in one call. The whole request is validated
+     * before anything changes, and each instrument's bid and ask are replaced together in one step on its
+     * sequencer. A live quote order is amended in place, keeping its time priority when only its size
+     * shrinks; otherwise a new order is placed. A quote rejected on its sequencer, for example by a risk
+     * limit, leaves that instrument's previous quote in place while the other instruments are still updated.
+     * @param traderId The market maker.
+     * @param quotes At most one quote per instrument.
+     * @return The outcome of each quote in request order, and the trades executed by the applied ones.
+     * @throws com.example.trading_system.exception.TradingException If the request is invalid, throttled
+     *         or refused by a full queue, in which case nothing changed.
+     */
+    MassQuoteResult massQuote(String traderId, List<Quote> quotes);
+
+    /**
+     * Puts an instrument into a call auction, for example at the open or close. Orders accumulate in
+     * the book without matching until the auction ends.
+     * @param instrumentId The instrument ID.
+     */
+    void startAuction(String instrumentId);
+
+    /**
+     * Ends the call auction: uncrosses the book at the price that maximises executable volume and
+     * resumes continuous trading.
+     * @param instrumentId The instrument ID.
+     * @return List of trades executed by the uncross.
+     */
+    List<Trade> endAuction(String instrumentId);
+
+    /**
+     * Switches an instrument to frequent batch auctions: orders accumulate and the book is uncrossed at a
+     * single clearing price once per interval. A batch holds every order sequenced before its uncross.
+     * @param instrumentId The instrument ID.
+     * @param interval Batch length, between 1 and 100 milliseconds.
+     */
+    void startBatchAuctions(String instrumentId, Duration interval);
+
+    /**
+     * Clears the final batch and returns the instrument to continuous trading.
+     * @param instrumentId The instrument ID.
+     * @return List of trades executed by the final batch.
+     */
+    List<Trade> stopBatchAuctions(String instrumentId);
+
     /**
      * Gets the current market price for an instrument (mid price between best buy and sell).
      * @param instrumentId The instrument ID.
@@ -37,6 +138,47 @@ public interface TradingService {
      */
     BigDecimal getMarketPrice(String instrumentId);
 
+    /**
+     * Gets the market price, last trade price and rolling VWAP, volume, trade count and high/low of an
+     * instrument. Every figure is read from published values, without locking the order book.
+     * @param instrumentId The instrument ID.
+     */
+    MarketStatistics getMarketStatistics(String instrumentId);
+
+    /**
+     * Gets an instrument's pending command depth and resting order count against its ingress limits, and how
+     * many commands were rejected for each.
+     * @param instrumentId The instrument ID.
+     */
+    IngressStatistics getIngressStatistics(String instrumentId);
+
+    /**
+     * Nets the recorded trades of every instrument into the obligations between each pair of traders and
+     * of each trader, per instrument. Runs in parallel on the common fork/join pool.
+     * @param tradeDate Day whose trades are netted, or null for every recorded trade.
+     */
+    NettingReport computeNetting(LocalDate tradeDate);
+
+    /**
+     * Gets the netting report stored by the end-of-day batch job, which nets each day's trades just after
+     * midnight local time.
+     * @param tradeDate Day whose report to get.
+     * @throws com.example.trading_system.exception.TradingException NETTING_REPORT_NOT_FOUND if no report is stored for the day.
+     */
+    NettingReport getEndOfDayNetting(LocalDate tradeDate);
+
+    /**
+     * Gets a trader's net position, average cost and realized P&L in one instrument, maintained from each
+     * trade, with unrealized P&L valued at the current market price. Runs in O(1) without locking.
+     * @throws com.example.trading_system.exception.TradingException INSTRUMENT_NOT_FOUND for an unknown instrument.
+     */
+    Position getPosition(String traderId, String instrumentId);
+
+    /**
+     * Gets a trader's position in every instrument it has traded, including flat ones.
+     */
+    List<Position> getPositions(String traderId);
+
     /**
      * Gets the order book for an instrument.
      *
@@ -50,10 +192,31 @@ public interface TradingService {
      */
     Collection<Instrument> getAllInstruments();
 
+    /**
+     * Gets a counter that changes whenever an instrument is registered or its market price changes.
+     */
+    long getRegistryVersion();
+
     /**
      * Gets all orders placed by a trader.
      * @param traderId The trader ID.
      * @return List of orders placed by the trader.
      */
     List<Order> getOrdersByTrader(String traderId);
+
+    /**
+     * Gets one page of the orders placed by a trader, in placement order.
+     * @param traderId The trader ID.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit The maximum number of orders to return.
+     * @return The page of orders and the cursor for the next one.
+     */
+    OrderPage getOrdersByTrader(String traderId, String cursor, int limit);
+
+    /**
+     * Streams the orders placed by a trader, in placement order, without copying them.
+     * @param traderId The trader ID.
+     * @return Lazy stream over the trader's orders.
+     */
+    Stream<Order> streamOrdersByTrader(String traderId);
 }
@@ -1,15 +1,45 @@
 package com.example.trading_system.service;
 
 import com.example.trading_system.exception.TradingException;
+import com.example.trading_system.model.DuplicateWindow;
+import com.example.trading_system.model.IngressLimits;
+import com.example.trading_system.model.IngressStatistics;
 import com.example.trading_system.model.Instrument;
+import com.example.trading_system.model.MarketStatistics;
+import com.example.trading_system.model.MassQuoteResult;
+import com.example.trading_system.model.NettingReport;
 import com.example.trading_system.model.Order;
+import com.example.trading_system.model.OrderAck;
+import com.example.trading_system.model.OrderPage;
+import com.example.trading_system.model.Position;
+import com.example.trading_system.model.Quote;
+import com.example.trading_system.model.QuoteOutcome;
+import com.example.trading_system.model.RateLimit;
+import com.example.trading_system.model.RiskLimits;
 import com.example.trading_system.model.Trade;
+import com.example.trading_system.model.TradingPhase;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * TradingService orchestrates the trading logic for multiple instruments.
@@ -17,26 +47,134 @@ import java.util.stream.Collectors;
  */
 public class TradingServiceImpl implements TradingService {
     private static final Logger log = LoggerFactory.getLogger(TradingServiceImpl.class);
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final Duration MIN_BATCH_INTERVAL = Duration.ofMillis(1);
+    private static final Duration MAX_BATCH_INTERVAL = Duration.ofMillis(100);
+    private static final long THROTTLE_EVICTION_SECONDS = 10;
+    private static final int NETTING_REPORT_RETENTION_DAYS = 90;
 
     // Map of traderId to its OrderBook
     private final Map<String, OrderBook> orderBooks;
     // Map of traderId to Instrument (for market price, etc.)
     private final Map<String, Instrument> instruments;
+    // Map of instrumentId to the single-threaded executor that serialises all writes to its OrderBook
+    private final Map<String, ExecutorService> sequencers;
+    // Map of traderId to the orders it placed, in placement order
+    private final Map<String, TraderOrders> traderOrders;
+    // Map of instrumentId to each trader's live quote orders; only touched on the instrument's sequencer
+    private final Map<String, Map<String, QuotePair>> quoteBooks;
+    // Bumped when the instrument list or any market price changes, used to validate cached snapshots
+    private final AtomicLong registryVersion;
+    // Closes batch auction intervals, expires GTD and DAY orders and rolls trade statistics by queueing work on the instrument's sequencer
+    private final ScheduledExecutorService scheduler;
+    // Map of instrumentId to its running batch auction schedule
+    private final Map<String, ScheduledFuture<?>> batchSchedules;
+    // Every trader's position in every instrument, written from the instrument's sequencer as trades are recorded
+    private final PositionLedger positions;
+    // Pre-trade limits and the per-trader counters they are checked against
+    private final RiskGate riskGate;
+    // Feeds each book's trades and order changes to the position ledger and the risk counters
+    private final OrderBookListener bookListener;
+    // Per-trader token buckets for new orders, amends and quotes, or null when unthrottled
+    private final RateLimiter traderThrottle;
+    // Bounds on each instrument's pending commands and resting orders
+    private final IngressLimits ingressLimits;
+    // Map of instrumentId to its admission counters
+    private final Map<String, IngressGate> ingressGates;
+    // Client order IDs placed within the duplicate window, with each placement's outcome
+    private final ClientOrderIdIndex clientOrderIds;
+    // Map of trade date to the netting report stored by the end-of-day job
+    private final NavigableMap<LocalDate, NettingReport> nettingReports;
 
     public TradingServiceImpl() {
-        log.info("Initializing TradingService");
-        this.orderBooks = new HashMap<>();
-        this.instruments = new HashMap<>();
+        this(RiskLimits.NONE);
+    }
+
+    public TradingServiceImpl(RiskLimits riskLimits) {
+        this(riskLimits, null);
+    }
+
+    /**
+     * @param traderRateLimit Rate of order entry messages allowed per trader, or null for no limit.
+     */
+    public TradingServiceImpl(RiskLimits riskLimits, RateLimit traderRateLimit) {
+        this(riskLimits, traderRateLimit, IngressLimits.NONE);
+    }
+
+    /**
+     * @param traderRateLimit Rate of order entry messages allowed per trader, or null for no limit.
+     * @param ingressLimits Bounds on each instrument's pending commands and resting orders.
+     */
+    public TradingServiceImpl(RiskLimits riskLimits, RateLimit traderRateLimit, IngressLimits ingressLimits) {
+        this(riskLimits, traderRateLimit, ingressLimits, DuplicateWindow.DEFAULT);
+    }
+
+    /**
+     * @param traderRateLimit Rate of order entry messages allowed per trader, or null for no limit.
+     * @param ingressLimits Bounds on each instrument's pending commands and resting orders.
+     * @param duplicateWindow How long client order IDs are remembered to catch resubmitted orders.
+     */
+    public TradingServiceImpl(RiskLimits riskLimits, RateLimit traderRateLimit, IngressLimits ingressLimits,
+                              DuplicateWindow duplicateWindow) {
+        log.info("Initializing TradingService with risk limits {}, trader rate limit {}, ingress limits {} and duplicate window {}",
+            riskLimits, traderRateLimit, ingressLimits, duplicateWindow);
+        this.clientOrderIds = new ClientOrderIdIndex(duplicateWindow, System.currentTimeMillis());
+        this.ingressLimits = ingressLimits;
+        this.ingressGates = new ConcurrentHashMap<>();
+        this.orderBooks = new ConcurrentHashMap<>();
+        this.instruments = new ConcurrentHashMap<>();
+        this.sequencers = new ConcurrentHashMap<>();
+        this.registryVersion = new AtomicLong();
+        this.traderOrders = new ConcurrentHashMap<>();
+        this.quoteBooks = new ConcurrentHashMap<>();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("trading-scheduler").daemon().factory());
+        this.batchSchedules = new ConcurrentHashMap<>();
+        this.nettingReports = new ConcurrentSkipListMap<>();
+        this.positions = new PositionLedger();
+        this.riskGate = new RiskGate(riskLimits);
+        this.bookListener = new OrderBookListener() {
+            @Override
+            public void onTrade(Trade trade) {
+                positions.apply(trade);
+                riskGate.onTrade(trade);
+            }
+
+            @Override
+            public void onOrderUpdated(Order order) {
+                riskGate.onOrderUpdated(order);
+            }
+        };
+        long tick = InMemoryOrderBook.EXPIRY_TICK_MILLIS;
+        this.scheduler.scheduleAtFixedRate(this::expireOrders, tick, tick, TimeUnit.MILLISECONDS);
+        this.traderThrottle = traderRateLimit == null ? null : new RateLimiter(traderRateLimit);
+        if (traderThrottle != null) {
+            this.scheduler.scheduleAtFixedRate(traderThrottle::evictIdle,
+                THROTTLE_EVICTION_SECONDS, THROTTLE_EVICTION_SECONDS, TimeUnit.SECONDS);
+        }
+        scheduleEndOfDayNetting(LocalDate.now());
     }
 
     public void registerInstrument(Instrument instrument) {
         log.info("Registering new instrument: {}", instrument.getSymbol());
         instruments.put(instrument.getId(), instrument);
-        orderBooks.putIfAbsent(instrument.getId(), new InMemoryOrderBook(instrument.getId()));
+        orderBooks.putIfAbsent(instrument.getId(),
+                new InMemoryOrderBook(instrument.getId(), instrument.getSelfTradePrevention(),
+                    instrument.getMatchingAlgorithm(), bookListener));
+        quoteBooks.putIfAbsent(instrument.getId(), new HashMap<>());
+        ingressGates.putIfAbsent(instrument.getId(), new IngressGate(instrument.getId(), ingressLimits));
+        sequencers.computeIfAbsent(instrument.getId(), id -> Executors.newSingleThreadExecutor(
+                Thread.ofVirtual().name("sequencer-" + instrument.getSymbol()).factory()));
+        registryVersion.incrementAndGet();
         log.debug("Instrument {} registered with ID {}", instrument.getSymbol(), instrument.getId());
     }
 
     public List<Trade> placeOrder(Order order) {
+        return await(placeOrderAsync(order));
+    }
+
+    @Override
+    public CompletableFuture<List<Trade>> placeOrderAsync(Order order) {
         log.info("Placing order {} for instrument {}: type={}, price={}, quantity={}", 
             order.getOrderId(), order.getInstrumentId(), order.getType(), 
             order.getPrice(), order.getQuantity());
@@ -45,14 +183,67 @@ public class TradingServiceImpl implements TradingService {
         OrderBook orderBook = orderBooks.get(instrumentId);
         if (orderBook == null) {
             log.error("Instrument not found: {}", instrumentId);
-            throw new TradingException(TradingException.ErrorCode.INSTRUMENT_NOT_FOUND.name(),
-                "Instrument not found: " + order.getInstrumentId());
+            return CompletableFuture.failedFuture(new TradingException(
+                TradingException.ErrorCode.INSTRUMENT_NOT_FOUND.name(),
+                "Instrument not found: " + order.getInstrumentId()));
+        }
+        if (!acquire(order.getTraderId())) {
+            return CompletableFuture.failedFuture(rateLimited(order.getTraderId()));
+        }
+        IngressGate gate = ingressGates.get(instrumentId);
+        try {
+            gate.admit();
+        } catch (TradingException e) {
+            log.warn("Rejecting order {}: {}", order.getOrderId(), e.getMessage());
+            return CompletableFuture.failedFuture(e);
         }
 
-        orderBook.addOrder(order);
-        log.debug("Order {} added to order book", order.getOrderId());
+        return submit(gate, instrumentId, () -> {
+            gate.checkCapacity(orderBook, order);
+            return executeOrder(orderBook, order);
+        });
+    }
+
+    @Override
+    public OrderAck placeOrderOnce(Order order) {
+        String clientOrderId = order.getClientOrderId();
+        if (clientOrderId == null) {
+            List<Trade> trades = placeOrder(order);
+            return new OrderAck(order.getOrderId(), order.getStatus(), trades);
+        }
+        CompletableFuture<OrderAck> placement = new CompletableFuture<>();
+        CompletableFuture<OrderAck> original = clientOrderIds.claim(order.getTraderId(), clientOrderId, placement,
+            System.currentTimeMillis());
+        if (original != null) {
+            log.info("Order {} from trader {} is a resubmission, returning the original placement",
+                sanitizeLogData(clientOrderId), sanitizeLogData(order.getTraderId()));
+            return await(original);
+        }
+        placeOrderAsync(order).whenComplete((trades, error) -> {
+            if (error != null) {
+                clientOrderIds.release(order.getTraderId(), clientOrderId, placement);
+                placement.completeExceptionally(error);
+            } else {
+                // Status as of the placement, which a resubmission gets back unchanged
+                placement.complete(new OrderAck(order.getOrderId(), order.getStatus(), trades));
+            }
+        });
+        return await(placement);
+    }
+
+    private List<Trade> executeOrder(OrderBook orderBook, Order order) {
+        riskGate.reserve(order, order.getPrice(), order.getTotalQuantity(),
+            referencePrice(order.getInstrumentId(), orderBook));
+        List<Trade> trades;
+        try {
+            trades = orderBook.submitOrder(order);
+        } catch (RuntimeException e) {
+            riskGate.release(order);
+            throw e;
+        }
+        traderOrders.computeIfAbsent(order.getTraderId(), id -> new TraderOrders()).add(order);
+        log.debug("Order {} submitted to order book", order.getOrderId());
 
-        List<Trade> trades = orderBook.matchOrders();
         if (!trades.isEmpty()) {
             log.info("Executed {} trades for order {}", trades.size(), order.getOrderId());
             trades.forEach(trade -> 
@@ -62,20 +253,17 @@ public class TradingServiceImpl implements TradingService {
             log.debug("No trades executed for order {}", order.getOrderId());
         }
 
-        Optional<BigDecimal> marketPrice = orderBook.getMarketPrice();
-        marketPrice.ifPresent(price -> {
-            Instrument instrument = instruments.get(instrumentId);
-            if (instrument != null) {
-                instrument.setMarketPrice(price);
-                log.debug("Updated market price for {} to {}", instrument.getSymbol(), price);
-            }
-        });
-
+        updateMarketPrice(order.getInstrumentId(), orderBook);
         return trades;
     }
 
     @Override
     public void cancelOrder(String instrumentId, String orderId) {
+        await(cancelOrderAsync(instrumentId, orderId));
+    }
+
+    @Override
+    public CompletableFuture<Void> cancelOrderAsync(String instrumentId, String orderId) {
         String sanitizedOrderId = sanitizeLogData(orderId);
         String sanitizedInstrumentId = sanitizeLogData(instrumentId);
         log.info("Cancelling order {} for instrument {}", sanitizedOrderId, sanitizedInstrumentId);
@@ -83,23 +271,485 @@ public class TradingServiceImpl implements TradingService {
         OrderBook orderBook = orderBooks.get(sanitizedInstrumentId);
         if (orderBook == null) {
             log.warn("Attempted to cancel order for non-existent instrument: {}", sanitizedInstrumentId);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Cancels shrink the book, so they are queued even when the instrument is overloaded
+        IngressGate gate = ingressGates.get(sanitizedInstrumentId);
+        gate.admitAlways();
+        return submit(gate, sanitizedInstrumentId, () -> {
+            orderBook.cancelOrder(sanitizedOrderId);
+            log.debug("Order {} cancelled", sanitizedOrderId);
+            updateMarketPrice(sanitizedInstrumentId, orderBook);
+            return null;
+        });
+    }
+
+    @Override
+    public List<Trade> amendOrder(String instrumentId, String orderId, BigDecimal newPrice, Integer newQuantity) {
+        return await(amendOrderAsync(instrumentId, orderId, newPrice, newQuantity));
+    }
+
+    @Override
+    public CompletableFuture<List<Trade>> amendOrderAsync(String instrumentId, String orderId,
+                                                          BigDecimal newPrice, Integer newQuantity) {
+        String sanitizedOrderId = sanitizeLogData(orderId);
+        String sanitizedInstrumentId = sanitizeLogData(instrumentId);
+        log.info("Amending order {} for instrument {}: price={}, quantity={}",
+            sanitizedOrderId, sanitizedInstrumentId, newPrice, newQuantity);
+
+        OrderBook orderBook = orderBooks.get(sanitizedInstrumentId);
+        if (orderBook == null) {
+            log.error("Instrument not found: {}", sanitizedInstrumentId);
+            return CompletableFuture.failedFuture(new TradingException(
+                TradingException.ErrorCode.INSTRUMENT_NOT_FOUND.name(),
+                "Instrument not found: " + sanitizedInstrumentId));
+        }
+        // An unknown order is left for the book to reject
+        Order amended = orderBook.getAllOrders().get(sanitizedOrderId);
+        if (amended != null && !acquire(amended.getTraderId())) {
+            return CompletableFuture.failedFuture(rateLimited(amended.getTraderId()));
+        }
+        IngressGate gate = ingressGates.get(sanitizedInstrumentId);
+        try {
+            gate.admit();
+        } catch (TradingException e) {
+            log.warn("Rejecting amendment of order {}: {}", sanitizedOrderId, e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return submit(gate, sanitizedInstrumentId,
+            () -> executeAmendment(orderBook, sanitizedInstrumentId, sanitizedOrderId, newPrice, newQuantity));
+    }
+
+    private List<Trade> executeAmendment(OrderBook orderBook, String instrumentId, String orderId,
+                                         BigDecimal newPrice, Integer newQuantity) {
+        checkAmendment(orderBook, instrumentId, orderId, newPrice, newQuantity);
+        List<Trade> trades;
+        try {
+            trades = orderBook.amendOrder(orderId, newPrice, newQuantity);
+        } catch (RuntimeException e) {
+            // Reporting the unchanged order restores the counters
+            Order order = orderBook.getAllOrders().get(orderId);
+            if (order != null) {
+                riskGate.onOrderUpdated(order);
+            }
+            throw e;
+        }
+        log.debug("Order {} amended, {} trades executed", orderId, trades.size());
+        updateMarketPrice(instrumentId, orderBook);
+        return trades;
+    }
+
+    /**
+     * Runs the pre-trade checks on the amended price and quantity of a live order, counting it at its new
+     * size. Orders the book will reject anyway are left for the book to report.
+     */
+    private void checkAmendment(OrderBook orderBook, String instrumentId, String orderId,
+                                BigDecimal newPrice, Integer newQuantity) {
+        Order order = orderBook.getAllOrders().get(orderId);
+        if (order == null || (order.getStatus() != Order.OrderStatus.OPEN
+                && order.getStatus() != Order.OrderStatus.PARTIALLY_FILLED)) {
+            // The book reports the error
+            return;
+        }
+        BigDecimal price = newPrice != null ? newPrice : order.getPrice();
+        int quantity = newQuantity != null ? newQuantity : order.getTotalQuantity();
+        riskGate.reserve(order, price, quantity, referencePrice(instrumentId, orderBook));
+    }
+
+    @Override
+    public MassQuoteResult massQuote(String traderId, List<Quote> quotes) {
+        log.info("Mass quote from trader {} on {} instruments", traderId, quotes.size());
+        Set<String> quoted = new HashSet<>();
+        for (Quote quote : quotes) {
+            validateQuote(quote);
+            if (!quoted.add(quote.instrumentId())) {
+                throw new TradingException(TradingException.ErrorCode.INVALID_ORDER.name(),
+                    "Instrument quoted more than once: " + quote.instrumentId());
+            }
+        }
+        if (!acquire(traderId)) {
+            throw rateLimited(traderId);
+        }
+        // All instruments are admitted before any quote is applied, so a full queue rejects the whole update
+        List<IngressGate> admitted = new ArrayList<>(quotes.size());
+        try {
+            for (Quote quote : quotes) {
+                IngressGate gate = ingressGates.get(quote.instrumentId());
+                gate.admit();
+                admitted.add(gate);
+            }
+        } catch (TradingException e) {
+            admitted.forEach(IngressGate::done);
+            log.warn("Rejecting mass quote from trader {}: {}", traderId, e.getMessage());
+            throw e;
+        }
+
+        List<CompletableFuture<List<Trade>>> updates = new ArrayList<>(quotes.size());
+        for (int i = 0; i < quotes.size(); i++) {
+            Quote quote = quotes.get(i);
+            IngressGate gate = admitted.get(i);
+            OrderBook orderBook = orderBooks.get(quote.instrumentId());
+            try {
+                updates.add(submit(gate, quote.instrumentId(), () -> applyQuote(traderId, quote, orderBook, gate)));
+            } catch (RejectedExecutionException e) {
+                // The rejected gate is already counted out; the quotes after it were never queued
+                admitted.subList(i + 1, admitted.size()).forEach(IngressGate::done);
+                throw e;
+            }
+        }
+        // Every instrument is waited for, so a rejected quote never hides the trades of the ones applied
+        List<QuoteOutcome> outcomes = new ArrayList<>(quotes.size());
+        List<Trade> trades = new ArrayList<>();
+        RuntimeException failure = null;
+        for (int i = 0; i < quotes.size(); i++) {
+            String instrumentId = quotes.get(i).instrumentId();
+            try {
+                trades.addAll(await(updates.get(i)));
+                outcomes.add(QuoteOutcome.applied(instrumentId));
+            } catch (TradingException e) {
+                log.warn("Rejected quote from trader {} on instrument {}: {}", traderId, instrumentId, e.getMessage());
+                outcomes.add(QuoteOutcome.rejected(instrumentId, e));
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return new MassQuoteResult(outcomes, trades);
+    }
+
+    private void validateQuote(Quote quote) {
+        if (!orderBooks.containsKey(quote.instrumentId())) {
+            throw new TradingException(TradingException.ErrorCode.INSTRUMENT_NOT_FOUND.name(),
+                "Instrument not found: " + quote.instrumentId());
+        }
+        boolean bid = quote.bidQuantity() > 0;
+        boolean ask = quote.askQuantity() > 0;
+        if (quote.bidQuantity() < 0 || quote.askQuantity() < 0
+                || (bid && (quote.bidPrice() == null || quote.bidPrice().signum() <= 0))
+                || (ask && (quote.askPrice() == null || quote.askPrice().signum() <= 0))) {
+            throw new TradingException(TradingException.ErrorCode.INVALID_ORDER.name(),
+                "Quoted sides need a positive price and quantity: " + quote.instrumentId());
+        }
+        if (bid && ask && quote.bidPrice().compareTo(quote.askPrice()) >= 0) {
+            throw new TradingException(TradingException.ErrorCode.INVALID_ORDER.name(),
+                "Bid must be below ask: " + quote.instrumentId());
+        }
+    }
+
+    /**
+     * Replaces one instrument's quote pair. Runs on the sequencer, so no other order sees half of it. Both
+     * sides pass the pre-trade checks before either touches the book, so a rejected quote changes nothing.
+     */
+    private List<Trade> applyQuote(String traderId, Quote quote, OrderBook orderBook, IngressGate gate) {
+        String instrumentId = quote.instrumentId();
+        QuotePair pair = quoteBooks.get(instrumentId).computeIfAbsent(traderId, id -> new QuotePair());
+        // Sides without a live order rest as new orders
+        gate.checkCapacity(orderBook, (quote.bidQuantity() > 0 && !isLive(pair.bid) ? 1 : 0)
+            + (quote.askQuantity() > 0 && !isLive(pair.ask) ? 1 : 0));
+        BigDecimal referencePrice = referencePrice(instrumentId, orderBook);
+        Order bid = reserveQuote(pair.bid, traderId, instrumentId, Order.OrderType.BUY,
+            quote.bidPrice(), quote.bidQuantity(), referencePrice);
+        Order ask;
+        try {
+            ask = reserveQuote(pair.ask, traderId, instrumentId, Order.OrderType.SELL,
+                quote.askPrice(), quote.askQuantity(), referencePrice);
+        } catch (RuntimeException e) {
+            unreserveQuote(pair.bid, bid);
+            throw e;
+        }
+
+        List<Trade> trades = new ArrayList<>();
+        // Move the ask first when the new bid would otherwise reach the old ask
+        boolean askFirst = bid != null && isLive(pair.ask) && quote.bidPrice().compareTo(pair.ask.getPrice()) >= 0;
+        if (askFirst) {
+            pair.ask = requote(orderBook, pair.ask, ask, quote.askPrice(), quote.askQuantity(), trades);
+        }
+        pair.bid = requote(orderBook, pair.bid, bid, quote.bidPrice(), quote.bidQuantity(), trades);
+        if (!askFirst) {
+            pair.ask = requote(orderBook, pair.ask, ask, quote.askPrice(), quote.askQuantity(), trades);
+        }
+        updateMarketPrice(instrumentId, orderBook);
+        return trades;
+    }
+
+    /**
+     * Runs the pre-trade checks on one side of a quote and counts it at its new size, like an order or an
+     * amendment. Returns the order that will carry the side: the live quote order, a new order, or null when
+     * the side is withdrawn.
+     */
+    private Order reserveQuote(Order current, String traderId, String instrumentId, Order.OrderType side,
+                               BigDecimal price, int quantity, BigDecimal referencePrice) {
+        if (quantity == 0) {
+            return null;
+        }
+        if (isLive(current)) {
+            if (price.compareTo(current.getPrice()) != 0 || quantity != current.getTotalQuantity()) {
+                riskGate.reserve(current, price, quantity, referencePrice);
+            }
+            return current;
+        }
+        Order order = new Order(instrumentId, traderId, side, price, quantity);
+        riskGate.reserve(order, price, quantity, referencePrice);
+        return order;
+    }
+
+    /**
+     * Undoes {@link #reserveQuote} for a side that is not applied.
+     */
+    private void unreserveQuote(Order current, Order reserved) {
+        if (reserved == null) {
+            return;
+        }
+        if (reserved == current) {
+            // Reporting the unchanged order restores the counters
+            riskGate.onOrderUpdated(current);
+        } else {
+            riskGate.release(reserved);
+        }
+    }
+
+    private Order requote(OrderBook orderBook, Order current, Order next, BigDecimal price, int quantity,
+                          List<Trade> trades) {
+        if (next == null) {
+            if (isLive(current)) {
+                orderBook.cancelOrder(current.getOrderId());
+            }
+            return null;
+        }
+        try {
+            if (next == current) {
+                if (price.compareTo(current.getPrice()) != 0 || quantity != current.getTotalQuantity()) {
+                    trades.addAll(orderBook.amendOrder(current.getOrderId(), price, quantity));
+                }
+            } else {
+                trades.addAll(orderBook.submitOrder(next));
+                traderOrders.computeIfAbsent(next.getTraderId(), id -> new TraderOrders()).add(next);
+            }
+        } catch (RuntimeException e) {
+            unreserveQuote(current, next);
+            throw e;
+        }
+        return next;
+    }
+
+    private static boolean isLive(Order order) {
+        return order != null && (order.getStatus() == Order.OrderStatus.OPEN
+            || order.getStatus() == Order.OrderStatus.PARTIALLY_FILLED);
+    }
+
+    @Override
+    public void startAuction(String instrumentId) {
+        OrderBook orderBook = getOrderBook(instrumentId);
+        await(CompletableFuture.runAsync(() -> {
+            requireNotBatchAuction(instrumentId, orderBook);
+            orderBook.setTradingPhase(TradingPhase.AUCTION);
+        }, sequencers.get(instrumentId)));
+        log.info("Instrument {} entered auction", instrumentId);
+    }
+
+    @Override
+    public List<Trade> endAuction(String instrumentId) {
+        OrderBook orderBook = getOrderBook(instrumentId);
+        return await(CompletableFuture.supplyAsync(() -> {
+            requireNotBatchAuction(instrumentId, orderBook);
+            return uncrossAndResume(instrumentId, orderBook);
+        }, sequencers.get(instrumentId)));
+    }
+
+    @Override
+    public void startBatchAuctions(String instrumentId, Duration interval) {
+        if (interval.compareTo(MIN_BATCH_INTERVAL) < 0 || interval.compareTo(MAX_BATCH_INTERVAL) > 0) {
+            throw new TradingException(TradingException.ErrorCode.INVALID_TRADING_PHASE.name(),
+                    "Batch interval must be between " + MIN_BATCH_INTERVAL.toMillis() + " and "
+                    + MAX_BATCH_INTERVAL.toMillis() + " ms");
+        }
+        OrderBook orderBook = getOrderBook(instrumentId);
+        ExecutorService sequencer = sequencers.get(instrumentId);
+        await(CompletableFuture.runAsync(() -> {
+            if (orderBook.getTradingPhase() == TradingPhase.AUCTION) {
+                throw new TradingException(TradingException.ErrorCode.INVALID_TRADING_PHASE.name(),
+                        "Instrument is in a call auction: " + instrumentId);
+            }
+            orderBook.setTradingPhase(TradingPhase.BATCH_AUCTION);
+        }, sequencer));
+
+        long nanos = interval.toNanos();
+        ScheduledFuture<?> schedule = scheduler.scheduleAtFixedRate(
+            () -> sequencer.execute(() -> clearBatch(instrumentId, orderBook)), nanos, nanos, TimeUnit.NANOSECONDS);
+        ScheduledFuture<?> previous = batchSchedules.put(instrumentId, schedule);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        log.info("Instrument {} running batch auctions every {} ms", instrumentId, interval.toMillis());
+    }
+
+    @Override
+    public List<Trade> stopBatchAuctions(String instrumentId) {
+        OrderBook orderBook = getOrderBook(instrumentId);
+        ScheduledFuture<?> schedule = batchSchedules.remove(instrumentId);
+        if (schedule != null) {
+            schedule.cancel(false);
+        }
+        return await(CompletableFuture.supplyAsync(() -> {
+            if (orderBook.getTradingPhase() != TradingPhase.BATCH_AUCTION) {
+                return List.<Trade>of();
+            }
+            return uncrossAndResume(instrumentId, orderBook);
+        }, sequencers.get(instrumentId)));
+    }
+
+    /**
+     * Uncrosses one batch. Runs on the sequencer, so the batch is exactly the orders sequenced before it.
+     */
+    private void clearBatch(String instrumentId, OrderBook orderBook) {
+        if (orderBook.getTradingPhase() != TradingPhase.BATCH_AUCTION) {
             return;
         }
+        List<Trade> trades = orderBook.uncross();
+        // Stops triggered by the clearing price rest into the next batch
+        orderBook.triggerStops();
+        if (!trades.isEmpty()) {
+            log.debug("Batch for instrument {} cleared at {} with {} trades",
+                instrumentId, trades.getFirst().price(), trades.size());
+            updateMarketPrice(instrumentId, orderBook);
+        }
+    }
+
+    /**
+     * Queues one expiry pass per instrument. Each book removes its due orders in a single batch on its
+     * sequencer, so expiry is ordered with the instrument's other requests, and slides its rolling trade
+     * statistics past any trades that aged out.
+     */
+    private void expireOrders() {
+        long now = System.currentTimeMillis();
+        LocalDateTime wallClock = LocalDateTime.now();
+        orderBooks.forEach((instrumentId, orderBook) -> {
+            ExecutorService sequencer = sequencers.get(instrumentId);
+            if (sequencer == null) {
+                // Still registering
+                return;
+            }
+            sequencer.execute(() -> {
+                if (!orderBook.expireOrders(now).isEmpty()) {
+                    updateMarketPrice(instrumentId, orderBook);
+                }
+                orderBook.rollStatistics(wallClock);
+            });
+        });
+    }
+
+    private List<Trade> uncrossAndResume(String instrumentId, OrderBook orderBook) {
+        List<Trade> trades = new ArrayList<>(orderBook.uncross());
+        orderBook.setTradingPhase(TradingPhase.CONTINUOUS);
+        // Stops triggered by the uncross price were left pending; they trade now along with any cross
+        trades.addAll(orderBook.matchOrders());
+        log.info("Auction for instrument {} ended with {} trades", instrumentId, trades.size());
+        updateMarketPrice(instrumentId, orderBook);
+        return trades;
+    }
+
+    private static void requireNotBatchAuction(String instrumentId, OrderBook orderBook) {
+        if (orderBook.getTradingPhase() == TradingPhase.BATCH_AUCTION) {
+            throw new TradingException(TradingException.ErrorCode.INVALID_TRADING_PHASE.name(),
+                    "Instrument is running batch auctions: " + instrumentId);
+        }
+    }
 
-        orderBook.cancelOrder(sanitizedOrderId);
-        log.debug("Order {} cancelled", sanitizedOrderId);
+    /**
+     * The market price, or the last trade price while one side of the book is empty; null before either exists.
+     */
+    private BigDecimal referencePrice(String instrumentId, OrderBook orderBook) {
+        Instrument instrument = instruments.get(instrumentId);
+        BigDecimal marketPrice = instrument == null ? null : instrument.getMarketPrice();
+        return marketPrice != null && marketPrice.signum() > 0
+            ? marketPrice : orderBook.getLastTradePrice().orElse(null);
+    }
 
+    private void updateMarketPrice(String instrumentId, OrderBook orderBook) {
         Optional<BigDecimal> marketPrice = orderBook.getMarketPrice();
         marketPrice.ifPresent(price -> {
-            Instrument instrument = instruments.get(sanitizedInstrumentId);
-            if (instrument != null) {
+            Instrument instrument = instruments.get(instrumentId);
+            if (instrument != null && !price.equals(instrument.getMarketPrice())) {
                 instrument.setMarketPrice(price);
-                log.debug("Updated market price for {} to {} after cancellation", 
-                    instrument.getSymbol(), price);
+                registryVersion.incrementAndGet();
+                log.debug("Updated market price for {} to {}", instrument.getSymbol(), price);
             }
         });
     }
 
+    /**
+     * Waits for a sequencer task and rethrows its failure unwrapped, so blocking callers
+     * see the same {@link TradingException} they would get from a direct call.
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Queues a command admitted through the gate on the instrument's sequencer. The command is counted out
+     * when it finishes, or straight away if the sequencer refuses it, such as after shutdown.
+     */
+    private <T> CompletableFuture<T> submit(IngressGate gate, String instrumentId, Supplier<T> command) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return command.get();
+                } finally {
+                    gate.done();
+                }
+            }, sequencers.get(instrumentId));
+        } catch (RejectedExecutionException e) {
+            gate.done();
+            throw e;
+        }
+    }
+
+    /**
+     * Takes a token from the trader's bucket. Cancels are never throttled, so a trader over its rate can
+     * still pull its orders.
+     */
+    private boolean acquire(String traderId) {
+        return traderThrottle == null || traderThrottle.tryAcquire(traderId);
+    }
+
+    private TradingException rateLimited(String traderId) {
+        log.warn("Trader {} is over its message rate", sanitizeLogData(traderId));
+        Duration retryAfter = Duration.ofNanos(traderThrottle.nanosUntilAvailable(traderId));
+        return new TradingException(TradingException.ErrorCode.RATE_LIMITED.name(),
+            "Message rate exceeded for trader " + traderId + ", retry in "
+                + Math.max(1, retryAfter.toMillis()) + " ms", retryAfter);
+    }
+
+    /**
+     * Stops the scheduler and the per-instrument sequencer threads. Invoked by Spring on context shutdown.
+     */
+    public void shutdown() {
+        log.info("Shutting down {} instrument sequencers", sequencers.size());
+        scheduler.shutdownNow();
+        sequencers.values().forEach(ExecutorService::shutdown);
+    }
+
+    /**
+     * A trader's current bid and ask order on one instrument.
+     */
+    private static final class QuotePair {
+        private Order bid;
+        private Order ask;
+    }
+
     private String sanitizeLogData(String data) {
         return data.replaceAll("[\\n\\r\\t]", "_");
     }
@@ -119,6 +769,105 @@ public class TradingServiceImpl implements TradingService {
         return price;
     }
 
+    @Override
+    public MarketStatistics getMarketStatistics(String instrumentId) {
+        BigDecimal marketPrice = getMarketPrice(instrumentId);
+        OrderBook orderBook = getOrderBook(instrumentId);
+        return new MarketStatistics(instrumentId, marketPrice, orderBook.getLastTradePrice().orElse(null),
+            orderBook.getTradeStatistics());
+    }
+
+    @Override
+    public IngressStatistics getIngressStatistics(String instrumentId) {
+        OrderBook orderBook = getOrderBook(instrumentId);
+        return ingressGates.get(instrumentId).snapshot(orderBook);
+    }
+
+    @Override
+    public NettingReport computeNetting(LocalDate tradeDate) {
+        List<Trade> trades = new ArrayList<>();
+        if (tradeDate == null) {
+            orderBooks.values().forEach(orderBook -> trades.addAll(orderBook.getTrades()));
+        } else {
+            // Only the day's trades are copied, however long the books have been trading
+            LocalDateTime from = tradeDate.atStartOfDay();
+            orderBooks.values().forEach(orderBook -> trades.addAll(orderBook.getTrades(from, from.plusDays(1))));
+        }
+        long start = System.nanoTime();
+        NettingReport report = SettlementNetting.net(trades, tradeDate, ForkJoinPool.commonPool());
+        log.info("Netted {} trades into {} pair obligations in {} ms", report.tradeCount(), report.pairs().size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return report;
+    }
+
+    @Override
+    public NettingReport getEndOfDayNetting(LocalDate tradeDate) {
+        NettingReport report = nettingReports.get(tradeDate);
+        if (report == null) {
+            throw new TradingException(TradingException.ErrorCode.NETTING_REPORT_NOT_FOUND.name(),
+                "No end-of-day netting report for " + tradeDate);
+        }
+        return report;
+    }
+
+    /**
+     * Schedules the netting of a day's trades for just after the day ends, local time. Each run schedules
+     * the next day, so the job follows the calendar across daylight saving changes.
+     */
+    private void scheduleEndOfDayNetting(LocalDate tradeDate) {
+        Duration untilEndOfDay = Duration.between(LocalDateTime.now(), tradeDate.plusDays(1).atStartOfDay());
+        scheduler.schedule(() -> {
+            scheduleEndOfDayNetting(tradeDate.plusDays(1));
+            // Netting a busy day takes seconds, which would hold up the expiry ticks on the scheduler thread
+            ForkJoinPool.commonPool().execute(() -> {
+                try {
+                    closeTradingDay(tradeDate);
+                } catch (RuntimeException e) {
+                    log.error("End-of-day netting for {} failed: {}", tradeDate, e.getMessage(), e);
+                }
+            });
+        }, Math.max(0, untilEndOfDay.toMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Nets a day's trades and stores the report, replacing any stored before, and drops the reports that
+     * have fallen out of the retention window. Run by the end-of-day job.
+     */
+    NettingReport closeTradingDay(LocalDate tradeDate) {
+        NettingReport report = computeNetting(tradeDate);
+        nettingReports.put(tradeDate, report);
+        nettingReports.headMap(tradeDate.minusDays(NETTING_REPORT_RETENTION_DAYS - 1)).clear();
+        log.info("Stored end-of-day netting report for {}", tradeDate);
+        return report;
+    }
+
+    @Override
+    public Position getPosition(String traderId, String instrumentId) {
+        OrderBook orderBook = getOrderBook(instrumentId);
+        PositionLedger.Holding holding = positions.get(traderId, instrumentId);
+        return toPosition(traderId, instrumentId, holding == null ? PositionLedger.Holding.FLAT : holding, orderBook);
+    }
+
+    @Override
+    public List<Position> getPositions(String traderId) {
+        List<Position> result = new ArrayList<>();
+        positions.get(traderId).forEach((instrumentId, holding) ->
+            result.add(toPosition(traderId, instrumentId, holding, orderBooks.get(instrumentId))));
+        return result;
+    }
+
+    /**
+     * Values the open quantity at the reference price.
+     */
+    private Position toPosition(String traderId, String instrumentId, PositionLedger.Holding holding,
+                                OrderBook orderBook) {
+        BigDecimal markPrice = referencePrice(instrumentId, orderBook);
+        BigDecimal unrealizedPnl = markPrice == null ? null
+            : markPrice.subtract(holding.averageCost()).multiply(BigDecimal.valueOf(holding.quantity()));
+        return new Position(traderId, instrumentId, holding.quantity(),
+            holding.quantity() == 0 ? null : holding.averageCost(), holding.realizedPnl(), markPrice, unrealizedPnl);
+    }
+
     @Override
     public OrderBook getOrderBook(String instrumentId) {
         log.debug("Getting order book for instrument {}", instrumentId);
@@ -139,18 +888,70 @@ public class TradingServiceImpl implements TradingService {
         return instruments;
     }
 
+    @Override
+    public long getRegistryVersion() {
+        return registryVersion.get();
+    }
+
     @Override
     public List<Order> getOrdersByTrader(String traderId) {
         log.info("Getting all orders for trader {}", traderId);
         
-        List<Order> orders = getAllInstruments().stream()
-            .map(instrument -> getOrderBook(instrument.getId()))
-            .filter(Objects::nonNull)
-            .flatMap(orderBook -> orderBook.getAllOrders().values().stream())
-            .filter(order -> order.getTraderId().equals(traderId))
-            .toList();
+        List<Order> orders = streamOrdersByTrader(traderId).toList();
             
         log.debug("Found {} orders for trader {}", orders.size(), traderId);
         return orders;
     }
+
+    @Override
+    public OrderPage getOrdersByTrader(String traderId, String cursor, int limit) {
+        log.info("Getting orders for trader {} after cursor {} (limit {})", traderId, cursor, limit);
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new TradingException(TradingException.ErrorCode.INVALID_PAGE_REQUEST.name(),
+                    "Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        long afterSequence = parseCursor(cursor);
+        TraderOrders orders = traderOrders.get(traderId);
+        if (orders == null) {
+            return new OrderPage(List.of(), null);
+        }
+
+        List<Order> page = new ArrayList<>(limit);
+        Iterator<Map.Entry<Long, Order>> entries = orders.after(afterSequence).entrySet().iterator();
+        long lastSequence = 0;
+        while (page.size() < limit && entries.hasNext()) {
+            Map.Entry<Long, Order> entry = entries.next();
+            page.add(entry.getValue());
+            lastSequence = entry.getKey();
+        }
+        String nextCursor = entries.hasNext() ? Long.toString(lastSequence) : null;
+        log.debug("Returning {} orders for trader {}, next cursor {}", page.size(), traderId, nextCursor);
+        return new OrderPage(page, nextCursor);
+    }
+
+    @Override
+    public Stream<Order> streamOrdersByTrader(String traderId) {
+        TraderOrders orders = traderOrders.get(traderId);
+        if (orders == null) {
+            return Stream.empty();
+        }
+        return orders.after(0).values().stream();
+    }
+
+    private static long parseCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            long sequence = Long.parseLong(cursor);
+            if (sequence >= 0) {
+                return sequence;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new TradingException(TradingException.ErrorCode.INVALID_PAGE_REQUEST.name(),
+                "Invalid cursor: " + cursor);
+    }
 }
@@ -0,0 +1,52 @@
+package com.example.trading_system.service;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Analytics kernels on the Vector API, at the widest vector shape the CPU supports.
+ * <p>
+ * Each lane keeps its own running sums and extremes, which are only combined across lanes after the loop,
+ * and the tail that does not fill a whole vector is finished with scalar code. Summing in a different
+ * order than the scalar kernels can change the last bits of the totals.
+ * <p>
+ * Only loaded by {@link AnalyticsKernels#select()} once the {@code jdk.incubator.vector} module is known
+ * to be present.
+ */
+final class VectorAnalyticsKernels implements AnalyticsKernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public Summary summarize(double[] prices, double[] quantities, int from, int to) {
+        DoubleVector quantity = DoubleVector.zero(SPECIES);
+        DoubleVector notional = DoubleVector.zero(SPECIES);
+        DoubleVector low = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+        DoubleVector high = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            DoubleVector price = DoubleVector.fromArray(SPECIES, prices, i);
+            DoubleVector size = DoubleVector.fromArray(SPECIES, quantities, i);
+            quantity = quantity.add(size);
+            notional = notional.add(price.mul(size));
+            low = low.min(price);
+            high = high.max(price);
+        }
+        double totalQuantity = quantity.reduceLanes(VectorOperators.ADD);
+        double totalNotional = notional.reduceLanes(VectorOperators.ADD);
+        double lowest = low.reduceLanes(VectorOperators.MIN);
+        double highest = high.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            totalQuantity += quantities[i];
+            totalNotional += prices[i] * quantities[i];
+            lowest = Math.min(lowest, prices[i]);
+            highest = Math.max(highest, prices[i]);
+        }
+        return new Summary(totalQuantity, totalNotional, lowest, highest);
+    }
+
+    @Override
+    public String toString() {
+        return "vector " + SPECIES;
+    }
+}
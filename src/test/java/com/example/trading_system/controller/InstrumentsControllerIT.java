@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
@@ -16,7 +17,11 @@ import java.util.List;
 import java.util.UUID;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -44,6 +49,18 @@ class InstrumentsControllerIT {
                 .andExpect(jsonPath("$.marketPrice", is(0)));
     }
 
+    @Test
+    void testRegisterInstrument_proRata() throws Exception {
+        mockMvc.perform(post("/api/trading/instruments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"symbol\": \"ZN\", \"matchingAlgorithm\": \"PRO_RATA\", "
+                        + "\"topOrderPriority\": true, \"minimumAllocation\": 2}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.matchingAlgorithm.type", is("PRO_RATA")))
+                .andExpect(jsonPath("$.matchingAlgorithm.topOrderPriority", is(true)))
+                .andExpect(jsonPath("$.matchingAlgorithm.minimumAllocation", is(2)));
+    }
+
     @Test
     void testRegisterInstrument_invalidSymbol_returnsTradingException() throws Exception {
         // Test lowercase symbol
@@ -90,6 +107,27 @@ class InstrumentsControllerIT {
                 .andExpect(jsonPath("$.trades", isA(List.class)));
     }
 
+    @Test
+    void testPlaceOrder_resentClientOrderId_returnsOriginalResponse() throws Exception {
+        Instrument instrument = new Instrument("BTC");
+        tradingService.registerInstrument(instrument);
+        String request = "{\"type\": \"BUY\", \"price\": 100.00, \"quantity\": 10, \"traderId\": \"" + TRADER_ID
+                + "\", \"clientOrderId\": \"retry-1\"}";
+
+        String first = mockMvc.perform(post("/api/trading/instruments/{instrumentId}/order", instrument.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(post("/api/trading/instruments/{instrumentId}/order", instrument.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isCreated())
+                .andExpect(content().json(first, true));
+
+        assertEquals(1, tradingService.getOrdersByTrader(TRADER_ID).size());
+    }
+
     @Test
     void testPlaceOrder_invalidInstrument_returnsTradingException() throws Exception {
         mockMvc.perform(post(
@@ -123,6 +161,234 @@ class InstrumentsControllerIT {
                 .andExpect(jsonPath("$.message", containsString("Trader ID is required")));
     }
 
+    @Test
+    void testPlaceOrder_marketIocOrder_fillsAgainstBook() throws Exception {
+        Instrument instrument = new Instrument("BTC");
+        tradingService.registerInstrument(instrument);
+        tradingService.placeOrder(
+                new Order(instrument.getId(), "SELLER", Order.OrderType.SELL, BigDecimal.valueOf(100), 4));
+
+        mockMvc.perform(post("/api/trading/instruments/{instrumentId}/order", instrument.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"type\": \"BUY\", \"quantity\": 10, \"timeInForce\": \"IOC\", \"traderId\": \"" + TRADER_ID + "\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.status", is("CANCELLED")))
+                .andExpect(jsonPath("$.trades", hasSize(1)))
+                .andExpect(jsonPath("$.trades[0].quantity", is(4)));
+    }
+
+    @Test
+    void testPlaceOrder_stopOrder_isAcceptedWithoutEnteringBook() throws Exception {
+        Instrument instrument = new Instrument("BTC");
+        tradingService.registerInstrument(instrument);
+
+        mockMvc.perform(post("/api/trading/instruments/{instrumentId}/order", instrument.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"type\": \"BUY\", \"price\": 110.00, \"stopPrice\": 105.00, \"quantity\": 10, \"traderId\": \"" + TRADER_ID + "\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.status", is("OPEN")))
+                .andExpect(jsonPath("$.trades", hasSize(0)));
+
+        mockMvc.perform(get("/api/trading/instruments/{instrumentId}/orderbook", instrument.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.buyOrders", hasSize(0)));
+    }
+
+    @Test
+    void testPlaceOrder_icebergOrder_hidesReserveFromOrderBook() throws Exception {
+        Instrument instrument = new Instrument("BTC");
+        tradingService.registerInstrument(instrument);
+
+        mockMvc.perform(post("/api/trading/instruments/{instrumentId}/order", instrument.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"type\": \"BUY\", \"price\": 100.00, \"quantity\": 100, \"displayQuantity\": 10, \"traderId\": \"" + TRADER_ID + "\"}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/trading/instruments/{instrumentId}/orderbook", instrument.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.buyOrders[0].quantity", is(10)))
+                .andExpect(jsonPath("$.buyOrders[0].hiddenQuantity").doesNotExist())
+                .andExpect(jsonPath("$.buyOrders[0].totalQuantity").doesNotExist());
+    }
+
+    @Test
+    void testAuction_startAndUncross() throws Exception {
+        Instrument instrument = new Instrument("BTC");
+        tradingService.registerInstrument(instrument);
+
+        mockMvc.perform(post("/api/trading/instruments/{instrumentId}/auction", instrument.getId()))
+                .andExpect(status().isOk());
+        tradingService.placeOrder(
+                new Order(instrument.getId(), "BUYER", Order.OrderType.BUY, BigDecimal.valueOf(101), 10));
+        tradingService.placeOrder(
+                new Order(instrument.getId(), "SELLER", Order.OrderType.SELL, BigDecimal.valueOf(101), 10));
+
+        mockMvc.perform(delete("/api/trading/instruments/{instrumentId}/auction", instrument.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.phase", is("CONTINUOUS")))
+                .andExpect(jsonPath("$.price", is(101)))
+                .andExpect(jsonPath("$.volume", is(10)))
+                .andExpect(jsonPath("$.tradeCount", is(1)));
+    }
+
+    @Test
+    void testBatchAuction_startAndStop() throws Exception {
+        Instrument instrument = new Instrument("BTC");
+        tradingService.registerInstrument(instrument);
+
+        mockMvc.perform(put("/api/trading/instruments/{instrumentId}/batch-auction", instrument.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"intervalMillis\": 20}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/trading/instruments/{instrumentId}/batch-auction", instrument.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.phase", is("CONTINUOUS")));
+    }
+
+    @Test
+    void testBatchAuction_invalidInterval_returnsValidationError() throws Exception {
+        mockMvc.perform(put("/api/trading/instruments/{instrumentId}/batch-auction", UUID.randomUUID().toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"intervalMillis\": 500}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode", is("VALIDATION_ERROR")))
+                .andExpect(jsonPath("$.message", containsString("Interval must be between 1 and 100 ms")));
+    }
+
+    @Test
+    void testPlaceOrder_marketGtcOrder_returnsValidationError() throws Exception {
+        mockMvc.perform(post(
+                "/api/trading/instruments/{instrumentId}/order", UUID.randomUUID().toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"type\": \"BUY\", \"quantity\": 10, \"traderId\": \"" + TRADER_ID + "\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode", is("VALIDATION_ERROR")))
+                .andExpect(jsonPath("$.message", containsString("Price is required unless the order is IOC or FOK")));
+    }
+
+    @Test
+    void testPlaceOrder_gtdWithoutExpireTime_returnsValidationError() throws Exception {
+        mockMvc.perform(post(
+                "/api/trading/instruments/{instrumentId}/order", UUID.randomUUID().toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"type\": \"BUY\", \"price\": 100.00, \"quantity\": 10, \"timeInForce\": \"GTD\", "
+                        + "\"traderId\": \"" + TRADER_ID + "\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode", is("VALIDATION_ERROR")))
+                .andExpect(jsonPath("$.message", containsString("Expire time is required for GTD orders")));
+    }
+
+    @Test
+    void testGetQueuePosition_success() throws Exception {
+        Instrument instrument = new Instrument("BTC");
+        tradingService.registerInstrument(instrument);
+        tradingService.placeOrder(new Order(instrument.getId(), "OTHER", Order.OrderType.BUY, BigDecimal.valueOf(100), 7));
+        Order order = new Order(instrument.getId(), TRADER_ID, Order.OrderType.BUY, BigDecimal.valueOf(100), 10);
+        tradingService.placeOrder(order);
+
+        mockMvc.perform(get("/api/trading/instruments/{id}/orders/{orderId}/queue-position",
+                        instrument.getId(), order.getOrderId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ordersAhead", is(1)))
+                .andExpect(jsonPath("$.quantityAhead", is(7)))
+                .andExpect(jsonPath("$.levelQuantity", is(17)));
+    }
+
+    @Test
+    void testEstimateFill_success() throws Exception {
+        Instrument instrument = new Instrument("BTC");
+        tradingService.registerInstrument(instrument);
+        tradingService.placeOrder(new Order(instrument.getId(), "OTHER", Order.OrderType.SELL, BigDecimal.valueOf(100), 10));
+        tradingService.placeOrder(new Order(instrument.getId(), "OTHER", Order.OrderType.SELL, BigDecimal.valueOf(110), 10));
+
+        mockMvc.perform(get("/api/trading/instruments/{id}/fill-estimate", instrument.getId())
+                        .param("side", "BUY")
+                        .param("quantity", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fillableQuantity", is(20)))
+                .andExpect(jsonPath("$.averagePrice", is(105.0)))
+                .andExpect(jsonPath("$.worstPrice", is(110)));
+    }
+
+    @Test
+    void testGetMarketStatistics_success() throws Exception {
+        Instrument instrument = new Instrument("BTC");
+        tradingService.registerInstrument(instrument);
+        tradingService.placeOrder(new Order(instrument.getId(), "OTHER", Order.OrderType.SELL, BigDecimal.valueOf(100), 10));
+        tradingService.placeOrder(new Order(instrument.getId(), TRADER_ID, Order.OrderType.BUY, BigDecimal.valueOf(100), 4));
+        tradingService.placeOrder(new Order(instrument.getId(), TRADER_ID, Order.OrderType.BUY, BigDecimal.valueOf(98), 4));
+
+        mockMvc.perform(get("/api/trading/instruments/{id}/statistics", instrument.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.marketPrice", is(99)))
+                .andExpect(jsonPath("$.lastTradePrice", is(100)))
+                .andExpect(jsonPath("$.windows", hasSize(3)))
+                .andExpect(jsonPath("$.windows[2].window", is("SESSION")))
+                .andExpect(jsonPath("$.windows[2].vwap", is(100.0)))
+                .andExpect(jsonPath("$.windows[2].volume", is(4)));
+    }
+
+    @Test
+    void testGetIngressStatistics_success() throws Exception {
+        Instrument instrument = new Instrument("BTC");
+        tradingService.registerInstrument(instrument);
+        tradingService.placeOrder(new Order(instrument.getId(), TRADER_ID, Order.OrderType.BUY, BigDecimal.valueOf(98), 4));
+
+        mockMvc.perform(get("/api/trading/instruments/{id}/ingress", instrument.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pendingCommands", is(0)))
+                .andExpect(jsonPath("$.maxPendingCommands", is(10000)))
+                .andExpect(jsonPath("$.restingOrders", is(1)))
+                .andExpect(jsonPath("$.queueFullRejects", is(0)));
+    }
+
+    @Test
+    void testGetCandles_success() throws Exception {
+        Instrument instrument = new Instrument("BTC");
+        tradingService.registerInstrument(instrument);
+        tradingService.placeOrder(new Order(instrument.getId(), "OTHER", Order.OrderType.SELL, BigDecimal.valueOf(100), 10));
+        tradingService.placeOrder(new Order(instrument.getId(), TRADER_ID, Order.OrderType.BUY, BigDecimal.valueOf(100), 4));
+
+        mockMvc.perform(get("/api/trading/instruments/{id}/candles", instrument.getId())
+                        .param("interval", "H1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].open", is(100)))
+                .andExpect(jsonPath("$[0].close", is(100)))
+                .andExpect(jsonPath("$[0].volume", is(4)))
+                .andExpect(jsonPath("$[0].tradeCount", is(1)));
+
+        mockMvc.perform(get("/api/trading/instruments/{id}/candles", instrument.getId())
+                        .param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode", is("INVALID_PAGE_REQUEST")));
+    }
+
+    @Test
+    void testGetTradeAnalytics_success() throws Exception {
+        Instrument instrument = new Instrument("BTC");
+        tradingService.registerInstrument(instrument);
+        tradingService.placeOrder(new Order(instrument.getId(), "OTHER", Order.OrderType.SELL, BigDecimal.valueOf(100), 10));
+        tradingService.placeOrder(new Order(instrument.getId(), TRADER_ID, Order.OrderType.BUY, BigDecimal.valueOf(100), 4));
+        tradingService.placeOrder(new Order(instrument.getId(), TRADER_ID, Order.OrderType.BUY, BigDecimal.valueOf(98), 2));
+
+        mockMvc.perform(get("/api/trading/instruments/{id}/analytics", instrument.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tradeCount", is(1)))
+                .andExpect(jsonPath("$.volume", is(4)))
+                .andExpect(jsonPath("$.vwap", is(100.0)))
+                .andExpect(jsonPath("$.bidDepth", is(2)))
+                .andExpect(jsonPath("$.askDepth", is(6)))
+                .andExpect(jsonPath("$.depthImbalance", is(-0.5)));
+
+        mockMvc.perform(get("/api/trading/instruments/{id}/analytics", instrument.getId())
+                        .param("from", "2030-01-02T00:00:00")
+                        .param("to", "2030-01-01T00:00:00"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode", is("INVALID_ANALYTICS_REQUEST")));
+    }
+
     @Test
     void testCancelOrder_success() throws Exception {
         // First register an instrument and place an order
@@ -215,4 +481,113 @@ class InstrumentsControllerIT {
                 .andExpect(jsonPath("$", hasSize(3)))
                 .andExpect(jsonPath("$[*].symbol", containsInAnyOrder("BTC", "ETH", "XRP")));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testGetOrderBook_conditionalRequest_returnsNotModifiedUntilBookChanges() throws Exception {
+        Instrument instrument = new Instrument("BTC");
+        tradingService.registerInstrument(instrument);
+
+        String etag = mockMvc.perform(get("/api/trading/instruments/{instrumentId}/orderbook", instrument.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/trading/instruments/{instrumentId}/orderbook", instrument.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        tradingService.placeOrder(new Order(instrument.getId(), TRADER_ID, Order.OrderType.BUY, BigDecimal.valueOf(100), 10));
+
+        mockMvc.perform(get("/api/trading/instruments/{instrumentId}/orderbook", instrument.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+                .andExpect(jsonPath("$.buyOrders", hasSize(1)));
+    }
+
+    @Test
+    void testGetOrderBook_conditionalRequest_tagFromAnotherProcessIsNotMatched() throws Exception {
+        Instrument instrument = new Instrument("BTC");
+        tradingService.registerInstrument(instrument);
+
+        String etag = mockMvc.perform(get("/api/trading/instruments/{instrumentId}/orderbook", instrument.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue(etag.startsWith("\"" + SerializedResponseCache.EPOCH + "-"));
+
+        // Same key and version as kept by a client before a restart
+        String staleTag = etag.replace(SerializedResponseCache.EPOCH, "0");
+        mockMvc.perform(get("/api/trading/instruments/{instrumentId}/orderbook", instrument.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, staleTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    void testGetMarketPrice_conditionalRequest_revalidatesAfterPriceChange() throws Exception {
+        Instrument instrument = new Instrument("BTC");
+        tradingService.registerInstrument(instrument);
+
+        String etag = mockMvc.perform(get("/api/trading/instruments/{instrumentId}/price", instrument.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/trading/instruments/{instrumentId}/price", instrument.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        tradingService.placeOrder(new Order(instrument.getId(), TRADER_ID, Order.OrderType.BUY, BigDecimal.valueOf(100), 10));
+        tradingService.placeOrder(new Order(instrument.getId(), "OTHER_TRADER", Order.OrderType.SELL, BigDecimal.valueOf(110), 10));
+
+        mockMvc.perform(get("/api/trading/instruments/{instrumentId}/price", instrument.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", is(105)));
+    }
+
+    @Test
+    void testGetAllInstruments_conditionalRequest_revalidatesAfterRegistration() throws Exception {
+        tradingService.registerInstrument(new Instrument("BTC"));
+
+        String etag = mockMvc.perform(get("/api/trading/instruments"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/trading/instruments").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        tradingService.registerInstrument(new Instrument("ETH"));
+
+        mockMvc.perform(get("/api/trading/instruments").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    void testAmendOrder_success() throws Exception {
+        Instrument instrument = new Instrument("BTC");
+        tradingService.registerInstrument(instrument);
+        Order order = new Order(instrument.getId(), TRADER_ID, Order.OrderType.BUY, BigDecimal.valueOf(100), 10);
+        tradingService.placeOrder(order);
+
+        mockMvc.perform(patch("/api/trading/instruments/{id}/orders/{orderId}", instrument.getId(), order.getOrderId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"quantity\": 4}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderId", is(order.getOrderId())))
+                .andExpect(jsonPath("$.status", is("OPEN")))
+                .andExpect(jsonPath("$.trades", hasSize(0)));
+    }
+
+    @Test
+    void testAmendOrder_nonexistentOrder_returnsTradingException() throws Exception {
+        Instrument instrument = new Instrument("BTC");
+        tradingService.registerInstrument(instrument);
+
+        mockMvc.perform(patch("/api/trading/instruments/{id}/orders/{orderId}", instrument.getId(), UUID.randomUUID().toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"price\": 101.00}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.errorCode", is("ORDER_NOT_FOUND")));
+    }
+}
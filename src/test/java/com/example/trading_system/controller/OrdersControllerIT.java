@@ -3,6 +3,7 @@ package com.example.trading_system.controller;
 import com.example.trading_system.model.Instrument;
 import com.example.trading_system.model.Order;
 import com.example.trading_system.service.TradingService;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -72,4 +73,54 @@ class OrdersControllerIT {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(0)));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testGetOrdersPageByTrader_followsCursorInPlacementOrder() throws Exception {
+        String symbol = "BTC";
+        tradingService.registerInstrument(new Instrument(symbol));
+        String firstId = tradingService.getAllInstruments().stream()
+                .filter(order -> order.getSymbol().equals(symbol))
+                .map(Instrument::getId).findFirst().get();
+
+        Order order1 = new Order(firstId, TRADER_ID, Order.OrderType.BUY, BigDecimal.valueOf(100), 1);
+        Order order2 = new Order(firstId, TRADER_ID, Order.OrderType.BUY, BigDecimal.valueOf(101), 2);
+        Order order3 = new Order(firstId, TRADER_ID, Order.OrderType.BUY, BigDecimal.valueOf(102), 3);
+        tradingService.placeOrder(order1);
+        tradingService.placeOrder(order2);
+        tradingService.placeOrder(order3);
+
+        String cursor = JsonPath.read(mockMvc.perform(get("/api/trading/orders/page")
+                        .param("traderId", TRADER_ID)
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders[*].orderId", contains(order1.getOrderId(), order2.getOrderId())))
+                .andExpect(jsonPath("$.nextCursor", notNullValue()))
+                .andReturn().getResponse().getContentAsString(), "$.nextCursor");
+
+        mockMvc.perform(get("/api/trading/orders/page")
+                        .param("traderId", TRADER_ID)
+                        .param("cursor", cursor)
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders[*].orderId", contains(order3.getOrderId())))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+    }
+
+    @Test
+    void testGetOrdersPageByTrader_invalidCursor_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/trading/orders/page")
+                        .param("traderId", TRADER_ID)
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode", is("INVALID_PAGE_REQUEST")));
+    }
+
+    @Test
+    void testGetOrdersPageByTrader_invalidLimit_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/trading/orders/page")
+                        .param("traderId", TRADER_ID)
+                        .param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode", is("INVALID_PAGE_REQUEST")));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.trading_system.controller;
+
+import com.example.trading_system.model.Instrument;
+import com.example.trading_system.model.Order;
+import com.example.trading_system.service.TradingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class PositionsControllerIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TradingService tradingService;
+
+    @Test
+    void testGetPositions_success() throws Exception {
+        Instrument instrument = new Instrument("BTC");
+        tradingService.registerInstrument(instrument);
+        tradingService.placeOrder(new Order(instrument.getId(), "SELLER", Order.OrderType.SELL, BigDecimal.valueOf(100), 10));
+        tradingService.placeOrder(new Order(instrument.getId(), "BUYER", Order.OrderType.BUY, BigDecimal.valueOf(100), 4));
+
+        mockMvc.perform(get("/api/trading/positions").param("traderId", "BUYER"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].instrumentId", is(instrument.getId())))
+                .andExpect(jsonPath("$[0].quantity", is(4)))
+                .andExpect(jsonPath("$[0].averageCost", is(100.0)));
+
+        mockMvc.perform(get("/api/trading/positions/{instrumentId}", instrument.getId()).param("traderId", "SELLER"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity", is(-4)))
+                .andExpect(jsonPath("$.markPrice", is(100)))
+                .andExpect(jsonPath("$.unrealizedPnl", is(0.0)));
+    }
+
+    @Test
+    void testGetPosition_unknownInstrument_returnsNotFound() throws Exception {
+        mockMvc.perform(get("/api/trading/positions/{instrumentId}", "missing").param("traderId", "BUYER"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.errorCode", is("INSTRUMENT_NOT_FOUND")));
+    }
+}
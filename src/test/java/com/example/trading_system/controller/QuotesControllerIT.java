@@ -0,0 +1,62 @@
+package com.example.trading_system.controller;
+
+import com.example.trading_system.model.Instrument;
+import com.example.trading_system.service.TradingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class QuotesControllerIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TradingService tradingService;
+
+    @Test
+    void testMassQuote_success() throws Exception {
+        Instrument first = new Instrument("BTC");
+        Instrument second = new Instrument("ETH");
+        tradingService.registerInstrument(first);
+        tradingService.registerInstrument(second);
+
+        mockMvc.perform(post("/api/trading/quotes")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"traderId\": \"MM1\", \"quotes\": ["
+                        + "{\"instrumentId\": \"" + first.getId() + "\", \"bidPrice\": 99.00, \"bidQuantity\": 10, "
+                        + "\"askPrice\": 101.00, \"askQuantity\": 10},"
+                        + "{\"instrumentId\": \"" + second.getId() + "\", \"bidPrice\": 49.00, \"bidQuantity\": 5, "
+                        + "\"askPrice\": 51.00, \"askQuantity\": 5}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quoteCount", is(2)))
+                .andExpect(jsonPath("$.tradeCount", is(0)))
+                .andExpect(jsonPath("$.outcomes[*].applied", contains(true, true)))
+                .andExpect(jsonPath("$.outcomes[1].instrumentId", is(second.getId())));
+
+        assertEquals(1, tradingService.getOrderBook(second.getId()).getSellOrders().size());
+    }
+
+    @Test
+    void testMassQuote_unknownInstrument_returnsNotFound() throws Exception {
+        mockMvc.perform(post("/api/trading/quotes")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"traderId\": \"MM1\", \"quotes\": [{\"instrumentId\": \"missing\", "
+                        + "\"bidPrice\": 99.00, \"bidQuantity\": 10, \"askPrice\": 101.00, \"askQuantity\": 10}]}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.errorCode", is("INSTRUMENT_NOT_FOUND")));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.trading_system.controller;
+
+import com.example.trading_system.model.Instrument;
+import com.example.trading_system.model.Order;
+import com.example.trading_system.service.TradingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class SettlementControllerIT {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TradingService tradingService;
+
+    @Test
+    void testGetNettingReport_success() throws Exception {
+        Instrument instrument = new Instrument("BTC");
+        tradingService.registerInstrument(instrument);
+        tradingService.placeOrder(new Order(instrument.getId(), "SELLER", Order.OrderType.SELL, new BigDecimal("100"), 10));
+        tradingService.placeOrder(new Order(instrument.getId(), "BUYER", Order.OrderType.BUY, new BigDecimal("100"), 4));
+
+        mockMvc.perform(get("/api/trading/settlement/netting").param("date", LocalDate.now().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tradeCount", is(1)))
+                .andExpect(jsonPath("$.pairs", hasSize(1)))
+                .andExpect(jsonPath("$.pairs[0].traderId", is("BUYER")))
+                .andExpect(jsonPath("$.pairs[0].counterpartyId", is("SELLER")))
+                .andExpect(jsonPath("$.pairs[0].netQuantity", is(4)))
+                .andExpect(jsonPath("$.pairs[0].netCash", is(400)))
+                .andExpect(jsonPath("$.traders", hasSize(2)))
+                .andExpect(jsonPath("$.traders[1].traderId", is("SELLER")))
+                .andExpect(jsonPath("$.traders[1].netQuantity", is(-4)));
+    }
+
+    @Test
+    void testGetEndOfDayNettingReport_notYetStored_returnsNotFound() throws Exception {
+        mockMvc.perform(get("/api/trading/settlement/netting/{date}", LocalDate.now().toString()))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.errorCode", is("NETTING_REPORT_NOT_FOUND")));
+    }
+}
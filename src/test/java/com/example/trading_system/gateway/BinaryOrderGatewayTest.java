@@ -0,0 +1,212 @@
+package com.example.trading_system.gateway;
+
+import com.example.trading_system.exception.TradingException;
+import com.example.trading_system.model.Instrument;
+import com.example.trading_system.model.Order;
+import com.example.trading_system.model.RateLimit;
+import com.example.trading_system.model.Trade;
+import com.example.trading_system.service.TradingService;
+import com.example.trading_system.service.TradingServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the binary order entry gateway and its protocol.
+ */
+class BinaryOrderGatewayTest {
+    private TradingService tradingService;
+    private BinaryOrderGateway gateway;
+    private BinaryOrderClient client;
+    private Instrument instrument;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tradingService = new TradingServiceImpl();
+        instrument = new Instrument("BTC");
+        tradingService.registerInstrument(instrument);
+        gateway = new BinaryOrderGateway(tradingService, 0);
+        gateway.start();
+        client = BinaryOrderClient.connect("localhost", gateway.getPort());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        gateway.close();
+    }
+
+    @Test
+    void testNewOrder_returnsExecutionReport() throws IOException {
+        client.sendNewOrder(1, instrument.getId(), "TRADER1", Order.OrderType.BUY, new BigDecimal("100.25"), 10);
+
+        BinaryProtocol.ExecutionReport report = assertInstanceOf(BinaryProtocol.ExecutionReport.class,
+                client.readResponse());
+        assertEquals(1, report.clientSeq());
+        assertEquals(Order.OrderStatus.OPEN, report.status());
+        assertEquals(0, report.executedQuantity());
+        assertEquals(10, report.leavesQuantity());
+        assertEquals(new BigDecimal("100.2500"),
+                tradingService.getOrderBook(instrument.getId()).getAllOrders().get(report.orderId()).getPrice());
+    }
+
+    @Test
+    void testNewOrder_matchReportsExecutedQuantityAndPrice() throws IOException {
+        client.sendNewOrder(1, instrument.getId(), "TRADER1", Order.OrderType.SELL, new BigDecimal("99.5"), 4);
+        client.sendNewOrder(2, instrument.getId(), "TRADER2", Order.OrderType.BUY, new BigDecimal("100"), 10);
+
+        Map<Long, BinaryProtocol.Response> responses = readResponses(2);
+        BinaryProtocol.ExecutionReport report = (BinaryProtocol.ExecutionReport) responses.get(2L);
+        assertEquals(Order.OrderStatus.PARTIALLY_FILLED, report.status());
+        assertEquals(4, report.executedQuantity());
+        assertEquals(6, report.leavesQuantity());
+        assertEquals(0, new BigDecimal("99.5").compareTo(report.lastPrice()));
+    }
+
+    @Test
+    void testCancel_returnsCancelledReport() throws IOException {
+        client.sendNewOrder(1, instrument.getId(), "TRADER1", Order.OrderType.BUY, new BigDecimal("100"), 10);
+        BinaryProtocol.ExecutionReport placed = (BinaryProtocol.ExecutionReport) client.readResponse();
+
+        client.sendCancel(2, instrument.getId(), placed.orderId());
+
+        BinaryProtocol.ExecutionReport cancelled = (BinaryProtocol.ExecutionReport) client.readResponse();
+        assertEquals(2, cancelled.clientSeq());
+        assertEquals(Order.OrderStatus.CANCELLED, cancelled.status());
+        assertTrue(tradingService.getOrderBook(instrument.getId()).getBuyOrders().isEmpty());
+    }
+
+    @Test
+    void testNewOrder_unknownInstrument_isRejected() throws IOException {
+        client.sendNewOrder(7, "UNKNOWN", "TRADER1", Order.OrderType.BUY, new BigDecimal("100"), 10);
+
+        BinaryProtocol.Reject reject = assertInstanceOf(BinaryProtocol.Reject.class, client.readResponse());
+        assertEquals(7, reject.clientSeq());
+        assertEquals(TradingException.ErrorCode.INSTRUMENT_NOT_FOUND, reject.errorCode());
+    }
+
+    @Test
+    void testNewOrder_invalidQuantity_isRejected() throws IOException {
+        client.sendNewOrder(3, instrument.getId(), "TRADER1", Order.OrderType.BUY, new BigDecimal("100"), 0);
+
+        BinaryProtocol.Reject reject = assertInstanceOf(BinaryProtocol.Reject.class, client.readResponse());
+        assertEquals(TradingException.ErrorCode.INVALID_ORDER, reject.errorCode());
+    }
+
+    @Test
+    void testPipelinedOrders_allAnswered() throws IOException {
+        int count = 2000;
+        for (int i = 0; i < count; i++) {
+            Order.OrderType type = i % 2 == 0 ? Order.OrderType.BUY : Order.OrderType.SELL;
+            client.sendNewOrder(i, instrument.getId(), "TRADER" + (i % 2), type, new BigDecimal("100"), 1);
+        }
+
+        Map<Long, BinaryProtocol.Response> responses = readResponses(count);
+        assertEquals(count, responses.size());
+        assertTrue(tradingService.getOrderBook(instrument.getId()).getBuyOrders().isEmpty());
+        assertTrue(tradingService.getOrderBook(instrument.getId()).getSellOrders().isEmpty());
+    }
+
+    @Test
+    void testSessionRateLimit_rejectsNewOrdersOverTheBurstButNotCancels() throws IOException {
+        try (BinaryOrderGateway throttled = new BinaryOrderGateway(tradingService, 0, new RateLimit(0.001, 2))) {
+            throttled.start();
+            try (BinaryOrderClient first = BinaryOrderClient.connect("localhost", throttled.getPort());
+                 BinaryOrderClient second = BinaryOrderClient.connect("localhost", throttled.getPort())) {
+                for (int i = 1; i <= 3; i++) {
+                    first.sendNewOrder(i, instrument.getId(), "TRADER1", Order.OrderType.BUY, new BigDecimal("100"), 1);
+                }
+                Map<Long, BinaryProtocol.Response> responses = new HashMap<>();
+                for (int i = 0; i < 3; i++) {
+                    BinaryProtocol.Response response = first.readResponse();
+                    responses.put(response.clientSeq(), response);
+                }
+                assertInstanceOf(BinaryProtocol.ExecutionReport.class, responses.get(1L));
+                assertInstanceOf(BinaryProtocol.ExecutionReport.class, responses.get(2L));
+                assertEquals(TradingException.ErrorCode.RATE_LIMITED,
+                        assertInstanceOf(BinaryProtocol.Reject.class, responses.get(3L)).errorCode());
+                assertEquals(2, tradingService.getOrderBook(instrument.getId()).getBuyOrders().size());
+
+                // Cancels bypass the bucket, so the session can still pull its resting orders
+                first.sendCancel(4, instrument.getId(),
+                        ((BinaryProtocol.ExecutionReport) responses.get(1L)).orderId());
+                first.sendCancel(5, instrument.getId(),
+                        ((BinaryProtocol.ExecutionReport) responses.get(2L)).orderId());
+                assertEquals(Order.OrderStatus.CANCELLED,
+                        assertInstanceOf(BinaryProtocol.ExecutionReport.class, first.readResponse()).status());
+                assertEquals(Order.OrderStatus.CANCELLED,
+                        assertInstanceOf(BinaryProtocol.ExecutionReport.class, first.readResponse()).status());
+                assertTrue(tradingService.getOrderBook(instrument.getId()).getBuyOrders().isEmpty());
+
+                // Each connection has its own bucket
+                second.sendNewOrder(1, instrument.getId(), "TRADER1", Order.OrderType.BUY, new BigDecimal("100"), 1);
+                assertInstanceOf(BinaryProtocol.ExecutionReport.class, second.readResponse());
+            }
+        }
+    }
+
+    @Test
+    void testUnexpectedError_closesOnlyThatConnection() throws IOException {
+        TradingServiceImpl faulty = new TradingServiceImpl() {
+            @Override
+            public CompletableFuture<List<Trade>> placeOrderAsync(Order order) {
+                if (order.getTraderId().equals("FAULTY")) {
+                    throw new IllegalStateException("Simulated failure");
+                }
+                return super.placeOrderAsync(order);
+            }
+        };
+        faulty.registerInstrument(instrument);
+        try (BinaryOrderGateway faultyGateway = new BinaryOrderGateway(faulty, 0)) {
+            faultyGateway.start();
+            try (BinaryOrderClient first = BinaryOrderClient.connect("localhost", faultyGateway.getPort());
+                 BinaryOrderClient second = BinaryOrderClient.connect("localhost", faultyGateway.getPort())) {
+                first.sendNewOrder(1, instrument.getId(), "FAULTY", Order.OrderType.BUY, new BigDecimal("100"), 1);
+                assertThrows(IOException.class, first::readResponse);
+
+                // The selector thread is still serving the other sessions and new connections
+                second.sendNewOrder(1, instrument.getId(), "TRADER1", Order.OrderType.BUY, new BigDecimal("100"), 1);
+                assertInstanceOf(BinaryProtocol.ExecutionReport.class, second.readResponse());
+                try (BinaryOrderClient third = BinaryOrderClient.connect("localhost", faultyGateway.getPort())) {
+                    third.sendNewOrder(1, instrument.getId(), "TRADER2", Order.OrderType.BUY, new BigDecimal("100"), 1);
+                    assertInstanceOf(BinaryProtocol.ExecutionReport.class, third.readResponse());
+                }
+            }
+        } finally {
+            faulty.shutdown();
+        }
+    }
+
+    @Test
+    void testCodec_roundTripsExecutionReport() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(128);
+        BinaryProtocol.encodeExecutionReport(buffer, 42, "order-1", Order.OrderStatus.FILLED, 5, 0,
+                BinaryProtocol.toFixedPoint(new BigDecimal("12.3456")));
+
+        BinaryProtocol.Response response = BinaryProtocol.decodeResponse(buffer,
+                BinaryProtocol.LENGTH_FIELD_SIZE, new byte[BinaryProtocol.ID_LENGTH]);
+
+        assertEquals(BinaryProtocol.LENGTH_FIELD_SIZE + BinaryProtocol.EXECUTION_REPORT_LENGTH, buffer.position());
+        assertEquals(new BinaryProtocol.ExecutionReport(42, "order-1", Order.OrderStatus.FILLED, 5, 0,
+                new BigDecimal("12.3456")), response);
+    }
+
+    private Map<Long, BinaryProtocol.Response> readResponses(int count) throws IOException {
+        Map<Long, BinaryProtocol.Response> responses = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            BinaryProtocol.Response response = client.readResponse();
+            responses.put(response.clientSeq(), response);
+        }
+        return responses;
+    }
+}
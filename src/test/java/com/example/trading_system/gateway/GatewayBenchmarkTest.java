@@ -0,0 +1,140 @@
+package com.example.trading_system.gateway;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.trading_system.dto.OrderRequest;
+import com.example.trading_system.model.Instrument;
+import com.example.trading_system.model.Order;
+import com.example.trading_system.service.TradingServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Cost of the binary frame against JSON for a new order, and pipelined messages per second per connection
+ * through the gateway. Opt-in: {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+class GatewayBenchmarkTest {
+    private static final int ORDERS_PER_CONNECTION = 200_000;
+    private static final int WINDOW = 500;
+
+    private Level previousLevel;
+
+    @BeforeEach
+    void setUp() {
+        Logger logger = (Logger) LoggerFactory.getLogger("com.example.trading_system");
+        previousLevel = logger.getLevel();
+        logger.setLevel(Level.WARN);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ((Logger) LoggerFactory.getLogger("com.example.trading_system")).setLevel(previousLevel);
+    }
+
+    @Test
+    void newOrderFrameAgainstJson() throws IOException {
+        String instrumentId = new Instrument("BENCH").getId();
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        OrderRequest request = new OrderRequest("TRADER1", Order.OrderType.BUY, new BigDecimal("100.25"), 10,
+            Order.TimeInForce.GTC, null, null, null, null);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BinaryProtocol.LENGTH_FIELD_SIZE + BinaryProtocol.MAX_FRAME_LENGTH);
+        byte[] scratch = new byte[BinaryProtocol.ID_LENGTH];
+        int messages = 1_000_000;
+        for (int round = 0; round < 5; round++) {
+            long checksum = 0;
+            long t0 = System.nanoTime();
+            for (int i = 0; i < messages; i++) {
+                buffer.clear();
+                BinaryProtocol.encodeNewOrder(buffer, i, instrumentId, "TRADER1", Order.OrderType.BUY,
+                    BinaryProtocol.toFixedPoint(request.price()), request.quantity(), Order.TimeInForce.GTC);
+                // The fields the gateway reads in place, including the two ids it turns into Strings
+                int frame = BinaryProtocol.LENGTH_FIELD_SIZE;
+                checksum += buffer.getLong(frame + BinaryProtocol.NEW_ORDER_PRICE_OFFSET)
+                    + buffer.getInt(frame + BinaryProtocol.NEW_ORDER_QUANTITY_OFFSET)
+                    + BinaryProtocol.getAscii(buffer, frame + BinaryProtocol.NEW_ORDER_INSTRUMENT_OFFSET,
+                        BinaryProtocol.ID_LENGTH, scratch).length()
+                    + BinaryProtocol.getAscii(buffer, frame + BinaryProtocol.NEW_ORDER_TRADER_OFFSET,
+                        BinaryProtocol.TRADER_ID_LENGTH, scratch).length();
+            }
+            long t1 = System.nanoTime();
+            for (int i = 0; i < messages; i++) {
+                OrderRequest decoded = objectMapper.readValue(objectMapper.writeValueAsBytes(request),
+                    OrderRequest.class);
+                checksum -= decoded.quantity();
+            }
+            long t2 = System.nanoTime();
+            System.out.printf("new order encode+decode: binary %.0f ns, JSON %.0f ns (%d)%n",
+                (t1 - t0) / (double) messages, (t2 - t1) / (double) messages, checksum);
+        }
+    }
+
+    @Test
+    void pipelinedMessagesPerConnection() throws Exception {
+        for (int connections : new int[]{1, 1, 4}) {
+            TradingServiceImpl tradingService = new TradingServiceImpl();
+            List<Instrument> instruments = new ArrayList<>();
+            for (int i = 0; i < connections; i++) {
+                Instrument instrument = new Instrument("BENCH" + i);
+                tradingService.registerInstrument(instrument);
+                instruments.add(instrument);
+            }
+            try (BinaryOrderGateway gateway = new BinaryOrderGateway(tradingService, 0);
+                 ExecutorService clients = Executors.newFixedThreadPool(connections)) {
+                gateway.start();
+                List<Future<Integer>> results = new ArrayList<>();
+                long start = System.nanoTime();
+                for (Instrument instrument : instruments) {
+                    results.add(clients.submit(() -> sendOrders(gateway.getPort(), instrument.getId())));
+                }
+                for (Future<Integer> result : results) {
+                    assertEquals(ORDERS_PER_CONNECTION, result.get());
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("gateway, %d connection(s) with %d in flight: %,.0f messages/s per connection%n",
+                    connections, WINDOW, ORDERS_PER_CONNECTION / seconds);
+            } finally {
+                tradingService.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Sends alternating buys and sells that trade against each other, a window at a time, and counts the
+     * responses.
+     */
+    private static int sendOrders(int port, String instrumentId) throws IOException {
+        BigDecimal price = new BigDecimal("100");
+        int answered = 0;
+        try (BinaryOrderClient client = BinaryOrderClient.connect("localhost", port)) {
+            for (int sent = 0; sent < ORDERS_PER_CONNECTION; sent += WINDOW) {
+                for (int i = sent; i < sent + WINDOW; i++) {
+                    boolean buy = i % 2 == 0;
+                    client.sendNewOrder(i, instrumentId, buy ? "BUYER" : "SELLER",
+                        buy ? Order.OrderType.BUY : Order.OrderType.SELL, price, 1);
+                }
+                for (int i = 0; i < WINDOW; i++) {
+                    if (client.readResponse() instanceof BinaryProtocol.ExecutionReport) {
+                        answered++;
+                    }
+                }
+            }
+        }
+        return answered;
+    }
+}
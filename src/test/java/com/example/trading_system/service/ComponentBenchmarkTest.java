@@ -0,0 +1,327 @@
+package com.example.trading_system.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.trading_system.model.Instrument;
+import com.example.trading_system.model.MatchingAlgorithm;
+import com.example.trading_system.model.NettingReport;
+import com.example.trading_system.model.Order;
+import com.example.trading_system.model.Quote;
+import com.example.trading_system.model.RateLimit;
+import com.example.trading_system.model.RiskLimits;
+import com.example.trading_system.model.SelfTradePrevention;
+import com.example.trading_system.model.Trade;
+import com.example.trading_system.model.TradingPhase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Timing harnesses behind the figures quoted for the matching, expiry, quoting, risk, throttling, netting
+ * and analytics components. Each repeats its measurement so the later rounds show warmed-up code.
+ * Opt-in: {@code mvn -Pbenchmark test}; sizes marked below can be raised with system properties.
+ */
+@Tag("benchmark")
+class ComponentBenchmarkTest {
+    private Level previousLevel;
+
+    @BeforeEach
+    void setUp() {
+        Logger logger = (Logger) LoggerFactory.getLogger("com.example.trading_system");
+        previousLevel = logger.getLevel();
+        logger.setLevel(Level.WARN);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ((Logger) LoggerFactory.getLogger("com.example.trading_system")).setLevel(previousLevel);
+    }
+
+    @Test
+    void uncrossOfOneMillionAccumulatedOrders() {
+        for (int round = 0; round < 3; round++) {
+            InMemoryOrderBook book = new InMemoryOrderBook("X");
+            book.setTradingPhase(TradingPhase.AUCTION);
+            Random random = new Random(round);
+            for (int i = 0; i < 1_000_000; i++) {
+                Order.OrderType side = i % 2 == 0 ? Order.OrderType.BUY : Order.OrderType.SELL;
+                book.submitOrder(new Order("X", "T" + (i % 1000), side,
+                    BigDecimal.valueOf(9000 + random.nextInt(2000), 2), 1 + random.nextInt(100)));
+            }
+            long start = System.nanoTime();
+            List<Trade> trades = book.uncross();
+            System.out.printf("uncross: %d ms, %d trades%n", (System.nanoTime() - start) / 1_000_000, trades.size());
+        }
+    }
+
+    @Test
+    void timingWheelScheduleCancelAndAdvanceADay() {
+        long day = 86_400_000L;
+        int timers = 3_000_000;
+        for (int round = 0; round < 3; round++) {
+            long start = System.currentTimeMillis();
+            TimingWheel wheel = new TimingWheel(InMemoryOrderBook.EXPIRY_TICK_MILLIS, start);
+            Order order = new Order("X", "T", Order.OrderType.BUY, BigDecimal.ONE, 1);
+            Random random = new Random(1);
+            TimingWheel.Timeout[] timeouts = new TimingWheel.Timeout[timers];
+            long t0 = System.nanoTime();
+            for (int i = 0; i < timers; i++) {
+                timeouts[i] = wheel.schedule(order, start + (long) (random.nextDouble() * day));
+            }
+            long t1 = System.nanoTime();
+            for (int i = 0; i < timers; i += 2) {
+                wheel.cancel(timeouts[i]);
+            }
+            long t2 = System.nanoTime();
+            long fired = 0;
+            for (long now = start; now <= start + day + InMemoryOrderBook.EXPIRY_TICK_MILLIS;
+                 now += InMemoryOrderBook.EXPIRY_TICK_MILLIS) {
+                fired += wheel.advance(now).size();
+            }
+            long t3 = System.nanoTime();
+            assertEquals(timers / 2, fired);
+            System.out.printf("timing wheel: schedule %.0f ns, cancel %.0f ns, advance a day %d ms%n",
+                (t1 - t0) / (double) timers, (t2 - t1) / (timers / 2.0), (t3 - t2) / 1_000_000);
+        }
+    }
+
+    @Test
+    void proRataAgainstFifoByLevelSize() {
+        for (int warmup = 0; warmup < 3; warmup++) {
+            sweepLevel(MatchingAlgorithm.FIFO, 100);
+            sweepLevel(MatchingAlgorithm.proRata(false, 0), 100);
+        }
+        for (int levelSize : new int[]{10, 100, 1000}) {
+            System.out.printf("level of %d: FIFO %d ns/order, PRO_RATA %d ns/order%n", levelSize,
+                sweepLevel(MatchingAlgorithm.FIFO, levelSize), sweepLevel(MatchingAlgorithm.proRata(true, 2), levelSize));
+        }
+    }
+
+    /**
+     * Average time of an IOC order into a level of {@code levelSize} resting orders.
+     */
+    private static long sweepLevel(MatchingAlgorithm matchingAlgorithm, int levelSize) {
+        long total = 0;
+        for (int book = 0; book < 200; book++) {
+            InMemoryOrderBook orderBook = new InMemoryOrderBook("X", SelfTradePrevention.CANCEL_NEWEST,
+                matchingAlgorithm);
+            for (int i = 0; i < levelSize; i++) {
+                orderBook.submitOrder(new Order("X", "M" + i, Order.OrderType.SELL, BigDecimal.valueOf(100), 1000));
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < 200; i++) {
+                orderBook.submitOrder(new Order("X", "T", Order.OrderType.BUY, BigDecimal.valueOf(100),
+                    levelSize * 3, Order.TimeInForce.IOC));
+            }
+            total += System.nanoTime() - start;
+        }
+        return total / (200 * 200);
+    }
+
+    @Test
+    void massQuoteUpdatesAcrossFiftyInstruments() {
+        TradingServiceImpl tradingService = new TradingServiceImpl();
+        try {
+            List<Instrument> instruments = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                Instrument instrument = new Instrument("S" + i);
+                tradingService.registerInstrument(instrument);
+                instruments.add(instrument);
+            }
+            BigDecimal[] bids = {new BigDecimal("99.00"), new BigDecimal("99.50")};
+            BigDecimal[] asks = {new BigDecimal("101.00"), new BigDecimal("100.50")};
+            for (int round = 0; round < 3; round++) {
+                long start = System.nanoTime();
+                int updates = 0;
+                for (int k = 0; k < 4000; k++) {
+                    List<Quote> quotes = new ArrayList<>(instruments.size());
+                    for (Instrument instrument : instruments) {
+                        quotes.add(new Quote(instrument.getId(), bids[k & 1], 10 + (k & 3), asks[k & 1], 10 + (k & 3)));
+                    }
+                    tradingService.massQuote("MM", quotes);
+                    updates += quotes.size();
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("mass quote: %.0f quote updates/s%n", updates / seconds);
+            }
+        } finally {
+            tradingService.shutdown();
+        }
+    }
+
+    @Test
+    void riskGateCheckAndRelease() {
+        RiskGate gate = new RiskGate(new RiskLimits(1_000_000, new BigDecimal("1e12"), new BigDecimal("0.5"),
+            1_000_000, new BigDecimal("1e15"), new BigDecimal("1e15")));
+        Order[] orders = new Order[10_000];
+        for (int i = 0; i < orders.length; i++) {
+            orders[i] = new Order("I", "T" + (i % 100), i % 2 == 0 ? Order.OrderType.BUY : Order.OrderType.SELL,
+                new BigDecimal("100.25"), 10);
+        }
+        BigDecimal referencePrice = new BigDecimal("100");
+        for (int round = 0; round < 40; round++) {
+            long t0 = System.nanoTime();
+            for (Order order : orders) {
+                gate.reserve(order, order.getPrice(), order.getTotalQuantity(), referencePrice);
+            }
+            long t1 = System.nanoTime();
+            for (Order order : orders) {
+                order.setStatus(Order.OrderStatus.CANCELLED);
+                gate.onOrderUpdated(order);
+                order.setStatus(Order.OrderStatus.OPEN);
+            }
+            long t2 = System.nanoTime();
+            if (round % 10 == 9) {
+                System.out.printf("risk gate: check-and-reserve %.0f ns, release %.0f ns%n",
+                    (t1 - t0) / (double) orders.length, (t2 - t1) / (double) orders.length);
+            }
+        }
+    }
+
+    @Test
+    void rateLimiterWithOneMillionTraders() throws InterruptedException {
+        int traders = 1_000_000;
+        String[] keys = new String[traders];
+        for (int i = 0; i < traders; i++) {
+            keys[i] = "trader-" + i;
+        }
+        for (int round = 0; round < 3; round++) {
+            RateLimiter limiter = new RateLimiter(new RateLimit(1_000_000, 1_000_000));
+            long t0 = System.nanoTime();
+            for (String key : keys) {
+                limiter.tryAcquire(key);
+            }
+            long t1 = System.nanoTime();
+            for (int repeat = 0; repeat < 5; repeat++) {
+                for (String key : keys) {
+                    limiter.tryAcquire(key);
+                }
+            }
+            long t2 = System.nanoTime();
+            Thread.sleep(50);
+            long t3 = System.nanoTime();
+            int evicted = limiter.evictIdle();
+            long t4 = System.nanoTime();
+            assertEquals(traders, evicted);
+            System.out.printf("rate limiter: first touch %.0f ns, acquire %.0f ns, evict all %d ms%n",
+                (t1 - t0) / (double) traders, (t2 - t1) / (traders * 5.0), (t4 - t3) / 1_000_000);
+        }
+    }
+
+    @Test
+    void nettingAgainstSerialBigDecimalMaps() {
+        int tradeCount = Integer.getInteger("benchmark.netting.trades", 2_000_000);
+        // 20 and 200 traders over 10 instruments make about 1,900 and 199,000 pairs
+        for (int traderCount : new int[]{20, 200}) {
+            List<Trade> trades = randomTrades(tradeCount, traderCount, 10);
+            for (int round = 0; round < 3; round++) {
+                long t0 = System.nanoTime();
+                NettingReport report = SettlementNetting.net(trades, null, ForkJoinPool.commonPool());
+                long t1 = System.nanoTime();
+                int naivePairs = netSerially(trades);
+                long t2 = System.nanoTime();
+                assertEquals(naivePairs, report.pairs().size());
+                System.out.printf("netting %d pairs: fork/join %.0f ns/trade, serial BigDecimal %.0f ns/trade%n",
+                    naivePairs, (t1 - t0) / (double) tradeCount, (t2 - t1) / (double) tradeCount);
+            }
+        }
+    }
+
+    /**
+     * Nets the trades per instrument and trader pair into a map of BigDecimal sums, the straightforward way.
+     */
+    private static int netSerially(List<Trade> trades) {
+        Map<String, BigDecimal[]> pairs = new HashMap<>();
+        for (Trade trade : trades) {
+            if (trade.buyTraderId().equals(trade.sellTraderId())) {
+                continue;
+            }
+            boolean lowBuys = trade.buyTraderId().compareTo(trade.sellTraderId()) < 0;
+            String key = trade.instrumentId() + "|" + (lowBuys ? trade.buyTraderId() + "|" + trade.sellTraderId()
+                : trade.sellTraderId() + "|" + trade.buyTraderId());
+            BigDecimal[] sums = pairs.computeIfAbsent(key, k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+            BigDecimal quantity = BigDecimal.valueOf(lowBuys ? trade.quantity() : -trade.quantity());
+            sums[0] = sums[0].add(quantity);
+            sums[1] = sums[1].add(trade.price().multiply(quantity));
+        }
+        return pairs.size();
+    }
+
+    @Test
+    void analyticsOverColumnsAgainstTradeObjects() {
+        int tradeCount = Integer.getInteger("benchmark.analytics.trades", 2_000_000);
+        AnalyticsKernels selected = AnalyticsKernels.select();
+        AnalyticsKernels scalar = new ScalarAnalyticsKernels();
+        List<Trade> trades = randomTrades(tradeCount, 20, 1);
+        TradeTape tape = new TradeTape();
+        for (Trade trade : trades) {
+            tape.append(0, trade.price().doubleValue(), trade.quantity());
+        }
+        TradeTape.Columns columns = tape.view();
+        // The whole tape, then a range small enough to stay in cache
+        for (int length : new int[]{tradeCount, 50_000}) {
+            int repeats = Math.max(1, tradeCount / length);
+            for (int round = 0; round < 5; round++) {
+                long t0 = System.nanoTime();
+                BigDecimal notional = BigDecimal.ZERO;
+                for (Trade trade : trades.subList(0, length)) {
+                    notional = notional.add(trade.price().multiply(BigDecimal.valueOf(trade.quantity())));
+                }
+                long t1 = System.nanoTime();
+                for (int i = 0; i < repeats; i++) {
+                    scalar.summarize(columns.prices(), columns.quantities(), 0, length);
+                }
+                long t2 = System.nanoTime();
+                AnalyticsKernels.Summary summary = null;
+                for (int i = 0; i < repeats; i++) {
+                    summary = selected.summarize(columns.prices(), columns.quantities(), 0, length);
+                }
+                long t3 = System.nanoTime();
+                assertTrue(Math.abs(summary.notional() - notional.doubleValue()) <= notional.doubleValue() * 1e-9);
+                System.out.printf("analytics over %d trades: objects %.2f ns/trade, scalar %.2f, %s %.2f%n", length,
+                    (t1 - t0) / (double) length, (t2 - t1) / ((double) length * repeats), selected,
+                    (t3 - t2) / ((double) length * repeats));
+            }
+        }
+    }
+
+    private static List<Trade> randomTrades(int count, int traderCount, int instrumentCount) {
+        Random random = new Random(1);
+        String[] traders = new String[traderCount];
+        for (int i = 0; i < traders.length; i++) {
+            traders[i] = "trader-" + i;
+        }
+        String[] instruments = new String[instrumentCount];
+        for (int i = 0; i < instruments.length; i++) {
+            instruments[i] = UUID.randomUUID().toString();
+        }
+        BigDecimal[] prices = new BigDecimal[5000];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = BigDecimal.valueOf(5000 + i, 2);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Trade[] trades = new Trade[count];
+        for (int i = 0; i < count; i++) {
+            trades[i] = new Trade("t", "b", "s", traders[random.nextInt(traders.length)],
+                traders[random.nextInt(traders.length)], instruments[random.nextInt(instruments.length)],
+                prices[random.nextInt(prices.length)], 1 + random.nextInt(500), now);
+        }
+        return Arrays.asList(trades);
+    }
+}
@@ -1,13 +1,29 @@
 package com.example.trading_system.service;
 
 import com.example.trading_system.exception.TradingException;
+import com.example.trading_system.model.Candle;
+import com.example.trading_system.model.CandleInterval;
+import com.example.trading_system.model.FillEstimate;
+import com.example.trading_system.model.MatchingAlgorithm;
 import com.example.trading_system.model.Order;
+import com.example.trading_system.model.QueuePosition;
+import com.example.trading_system.model.SelfTradePrevention;
+import com.example.trading_system.model.StatisticsWindow;
 import com.example.trading_system.model.Trade;
+import com.example.trading_system.model.TradeAnalytics;
+import com.example.trading_system.model.TradingPhase;
+import com.example.trading_system.model.WindowStatistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static com.example.trading_system.model.Order.OrderStatus.CANCELLED;
 import static org.junit.jupiter.api.Assertions.*;
@@ -229,4 +245,1100 @@ class InMemoryOrderBookTest {
         assertEquals(1, trades.size());
         assertEquals(Integer.MAX_VALUE, trades.get(0).quantity());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testVersion_changesOnlyWhenBookChanges() {
+        long initial = orderBook.getVersion();
+        Order buyOrder = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(90), 10);
+        orderBook.addOrder(buyOrder);
+        long afterAdd = orderBook.getVersion();
+        assertTrue(afterAdd > initial);
+
+        orderBook.matchOrders();
+        assertEquals(afterAdd, orderBook.getVersion(), "Matching without trades must not invalidate snapshots");
+
+        orderBook.addOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(90), 5));
+        long beforeMatch = orderBook.getVersion();
+        orderBook.matchOrders();
+        assertTrue(orderBook.getVersion() > beforeMatch);
+
+        long beforeCancel = orderBook.getVersion();
+        orderBook.cancelOrder(buyOrder.getOrderId());
+        assertTrue(orderBook.getVersion() > beforeCancel);
+    }
+
+    @Test
+    void testAmendOrder_quantityDecreaseKeepsTimePriority() {
+        Order first = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 10);
+        Order second = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 10);
+        orderBook.addOrder(first);
+        orderBook.addOrder(second);
+
+        List<Trade> amendTrades = orderBook.amendOrder(first.getOrderId(), null, 4);
+        orderBook.addOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 4));
+        List<Trade> trades = orderBook.matchOrders();
+
+        assertTrue(amendTrades.isEmpty());
+        assertEquals(1, trades.size());
+        assertEquals(first.getOrderId(), trades.getFirst().buyOrderId());
+        assertEquals(Order.OrderStatus.FILLED, first.getStatus());
+    }
+
+    @Test
+    void testAmendOrder_quantityIncreaseLosesTimePriority() {
+        Order first = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 10);
+        Order second = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 10);
+        orderBook.addOrder(first);
+        orderBook.addOrder(second);
+
+        orderBook.amendOrder(first.getOrderId(), null, 20);
+        orderBook.addOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 10));
+        List<Trade> trades = orderBook.matchOrders();
+
+        assertEquals(second.getOrderId(), trades.getFirst().buyOrderId());
+        assertEquals(20, first.getQuantity());
+    }
+
+    @Test
+    void testAmendOrder_priceChangeRequeuesAndMatches() {
+        Order buyOrder = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(95), 10);
+        Order sellOrder = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 6);
+        orderBook.addOrder(buyOrder);
+        orderBook.addOrder(sellOrder);
+        assertTrue(orderBook.matchOrders().isEmpty());
+
+        List<Trade> trades = orderBook.amendOrder(buyOrder.getOrderId(), BigDecimal.valueOf(100), null);
+
+        assertEquals(1, trades.size());
+        assertEquals(6, trades.getFirst().quantity());
+        assertEquals(BigDecimal.valueOf(100), buyOrder.getPrice());
+        assertEquals(4, buyOrder.getQuantity());
+        assertEquals(List.of(buyOrder), orderBook.getBuyOrders());
+    }
+
+    @Test
+    void testAmendOrder_cancelledOrder_throwsTradingException() {
+        Order order = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 10);
+        orderBook.addOrder(order);
+        orderBook.cancelOrder(order.getOrderId());
+
+        TradingException exception = assertThrows(TradingException.class,
+                () -> orderBook.amendOrder(order.getOrderId(), null, 5));
+        assertEquals("INVALID_ORDER", exception.getErrorCode());
+    }
+
+    @Test
+    void testAmendOrder_nonExistentOrder_throwsTradingException() {
+        TradingException exception = assertThrows(TradingException.class,
+                () -> orderBook.amendOrder("non-existent-id", BigDecimal.TEN, null));
+        assertEquals("ORDER_NOT_FOUND", exception.getErrorCode());
+    }
+
+    @Test
+    void testSubmitOrder_iocPartialFillCancelsRemainder() {
+        orderBook.addOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 4));
+        Order ioc = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 10,
+                Order.TimeInForce.IOC);
+
+        List<Trade> trades = orderBook.submitOrder(ioc);
+
+        assertEquals(1, trades.size());
+        assertEquals(4, trades.getFirst().quantity());
+        assertEquals(6, ioc.getQuantity());
+        assertEquals(CANCELLED, ioc.getStatus());
+        assertTrue(orderBook.getBuyOrders().isEmpty());
+        assertTrue(orderBook.getSellOrders().isEmpty());
+    }
+
+    @Test
+    void testSubmitOrder_marketOrderSweepsLevels() {
+        Order sell1 = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 5);
+        Order sell2 = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(101), 5);
+        Order sell3 = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(102), 5);
+        orderBook.addOrder(sell1);
+        orderBook.addOrder(sell2);
+        orderBook.addOrder(sell3);
+        Order market = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, null, 12, Order.TimeInForce.IOC);
+
+        List<Trade> trades = orderBook.submitOrder(market);
+
+        assertEquals(3, trades.size());
+        assertEquals(BigDecimal.valueOf(100), trades.get(0).price());
+        assertEquals(BigDecimal.valueOf(101), trades.get(1).price());
+        assertEquals(BigDecimal.valueOf(102), trades.get(2).price());
+        assertEquals(2, trades.get(2).quantity());
+        assertTrue(market.isFilled());
+        assertEquals(List.of(sell3), orderBook.getSellOrders());
+        assertEquals(3, sell3.getQuantity());
+    }
+
+    @Test
+    void testSubmitOrder_fokWithoutEnoughLiquidityLeavesBookUntouched() {
+        Order sell1 = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 5);
+        Order sell2 = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(105), 5);
+        orderBook.addOrder(sell1);
+        orderBook.addOrder(sell2);
+        long version = orderBook.getVersion();
+        Order fok = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(101), 8,
+                Order.TimeInForce.FOK);
+
+        List<Trade> trades = orderBook.submitOrder(fok);
+
+        assertTrue(trades.isEmpty());
+        assertEquals(CANCELLED, fok.getStatus());
+        assertEquals(8, fok.getQuantity());
+        assertEquals(5, sell1.getQuantity());
+        assertEquals(List.of(sell1, sell2), orderBook.getSellOrders());
+        assertEquals(version, orderBook.getVersion());
+    }
+
+    @Test
+    void testSubmitOrder_fokFillsAcrossLevels() {
+        orderBook.addOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 5));
+        orderBook.addOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(101), 5));
+        Order fok = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(101), 8,
+                Order.TimeInForce.FOK);
+
+        List<Trade> trades = orderBook.submitOrder(fok);
+
+        assertEquals(2, trades.size());
+        assertTrue(fok.isFilled());
+        assertEquals(2, orderBook.getSellOrders().getFirst().getQuantity());
+    }
+
+    @Test
+    void testSubmitOrder_marketGtcOrder_throwsTradingException() {
+        Order market = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, null, 5);
+
+        TradingException exception = assertThrows(TradingException.class, () -> orderBook.submitOrder(market));
+        assertEquals("INVALID_ORDER", exception.getErrorCode());
+    }
+
+    @Test
+    void testSubmitOrder_stopOrderWaitsUntilTriggered() {
+        Order stop = new Order(INSTRUMENT_ID, "TRADER3", Order.OrderType.BUY, BigDecimal.valueOf(110), 5,
+                Order.TimeInForce.GTC, BigDecimal.valueOf(105));
+        assertTrue(orderBook.submitOrder(stop).isEmpty());
+        assertTrue(orderBook.getBuyOrders().isEmpty());
+        assertEquals(stop, orderBook.getAllOrders().get(stop.getOrderId()));
+
+        orderBook.addOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(105), 2));
+        orderBook.addOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(106), 10));
+        List<Trade> trades = orderBook.submitOrder(
+                new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(105), 2));
+
+        assertEquals(2, trades.size());
+        assertEquals(stop.getOrderId(), trades.get(1).buyOrderId());
+        assertEquals(BigDecimal.valueOf(106), trades.get(1).price());
+        assertTrue(stop.isFilled());
+        assertEquals(BigDecimal.valueOf(106), orderBook.getLastTradePrice().orElseThrow());
+    }
+
+    @Test
+    void testSubmitOrder_triggeredStopsCascade() {
+        orderBook.addOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 1));
+        orderBook.addOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(101), 1));
+        orderBook.addOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(102), 5));
+        Order first = new Order(INSTRUMENT_ID, "TRADER3", Order.OrderType.BUY, null, 1,
+                Order.TimeInForce.IOC, BigDecimal.valueOf(100));
+        Order second = new Order(INSTRUMENT_ID, "TRADER4", Order.OrderType.BUY, null, 1,
+                Order.TimeInForce.IOC, BigDecimal.valueOf(101));
+        orderBook.submitOrder(first);
+        orderBook.submitOrder(second);
+
+        List<Trade> trades = orderBook.submitOrder(
+                new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 1));
+
+        assertEquals(3, trades.size());
+        assertEquals(first.getOrderId(), trades.get(1).buyOrderId());
+        assertEquals(second.getOrderId(), trades.get(2).buyOrderId());
+        assertEquals(BigDecimal.valueOf(102), orderBook.getLastTradePrice().orElseThrow());
+        assertEquals(4, orderBook.getSellOrders().getFirst().getQuantity());
+    }
+
+    @Test
+    void testCancelOrder_pendingStopNeverTriggers() {
+        Order stop = new Order(INSTRUMENT_ID, "TRADER3", Order.OrderType.SELL, null, 5,
+                Order.TimeInForce.IOC, BigDecimal.valueOf(100));
+        orderBook.submitOrder(stop);
+        orderBook.cancelOrder(stop.getOrderId());
+
+        orderBook.addOrder(new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 10));
+        List<Trade> trades = orderBook.submitOrder(
+                new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 1));
+
+        assertEquals(1, trades.size());
+        assertEquals(CANCELLED, stop.getStatus());
+        assertEquals(9, orderBook.getBuyOrders().getFirst().getQuantity());
+    }
+
+    @Test
+    void testSubmitOrder_stopAlreadyThroughLastPriceTriggersImmediately() {
+        orderBook.addOrder(new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 5));
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 1));
+
+        Order stop = new Order(INSTRUMENT_ID, "TRADER3", Order.OrderType.SELL, BigDecimal.valueOf(99), 2,
+                Order.TimeInForce.GTC, BigDecimal.valueOf(101));
+        List<Trade> trades = orderBook.submitOrder(stop);
+
+        assertEquals(1, trades.size());
+        assertTrue(stop.isFilled());
+    }
+
+    @Test
+    void testIcebergOrder_showsOnlyDisplayQuantity() {
+        Order iceberg = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 10,
+                Order.TimeInForce.GTC, null, 3);
+        orderBook.submitOrder(iceberg);
+
+        assertEquals(3, orderBook.getBuyOrders().getFirst().getQuantity());
+        assertEquals(7, iceberg.getHiddenQuantity());
+        assertEquals(10, orderBook.getAvailableQuantity(Order.OrderType.BUY, null));
+    }
+
+    @Test
+    void testIcebergOrder_replenishesWithNewTimePriority() {
+        Order iceberg = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 10,
+                Order.TimeInForce.GTC, null, 3);
+        Order plain = new Order(INSTRUMENT_ID, "TRADER3", Order.OrderType.SELL, BigDecimal.valueOf(100), 5);
+        orderBook.submitOrder(iceberg);
+        orderBook.submitOrder(plain);
+
+        List<Trade> trades = orderBook.submitOrder(
+                new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 4));
+
+        assertEquals(2, trades.size());
+        assertEquals(iceberg.getOrderId(), trades.get(0).sellOrderId());
+        assertEquals(3, trades.get(0).quantity());
+        assertEquals(plain.getOrderId(), trades.get(1).sellOrderId());
+        assertEquals(List.of(plain, iceberg), orderBook.getSellOrders());
+        assertEquals(3, iceberg.getQuantity());
+        assertEquals(4, iceberg.getHiddenQuantity());
+        assertEquals(Order.OrderStatus.PARTIALLY_FILLED, iceberg.getStatus());
+    }
+
+    @Test
+    void testIcebergOrder_hiddenQuantityCountsForFok() {
+        Order iceberg = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 10,
+                Order.TimeInForce.GTC, null, 2);
+        orderBook.submitOrder(iceberg);
+        Order fok = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 8,
+                Order.TimeInForce.FOK);
+
+        List<Trade> trades = orderBook.submitOrder(fok);
+
+        assertEquals(4, trades.size());
+        assertTrue(fok.isFilled());
+        assertEquals(2, iceberg.getTotalQuantity());
+        assertEquals(0, iceberg.getHiddenQuantity());
+    }
+
+    @Test
+    void testIcebergOrder_incomingIcebergTradesHiddenQuantity() {
+        orderBook.addOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 7));
+        Order iceberg = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 10,
+                Order.TimeInForce.GTC, null, 4);
+
+        List<Trade> trades = orderBook.submitOrder(iceberg);
+
+        assertEquals(7, trades.stream().mapToInt(Trade::quantity).sum());
+        assertEquals(1, iceberg.getQuantity());
+        assertEquals(2, iceberg.getHiddenQuantity());
+        assertEquals(List.of(iceberg), orderBook.getBuyOrders());
+    }
+
+    @Test
+    void testAmendOrder_icebergDecreaseTakesHiddenFirst() {
+        Order iceberg = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 10,
+                Order.TimeInForce.GTC, null, 3);
+        orderBook.submitOrder(iceberg);
+
+        orderBook.amendOrder(iceberg.getOrderId(), null, 5);
+
+        assertEquals(3, iceberg.getQuantity());
+        assertEquals(2, iceberg.getHiddenQuantity());
+        assertEquals(5, orderBook.getAvailableQuantity(Order.OrderType.BUY, null));
+    }
+
+    @Test
+    void testAuction_ordersAccumulateWithoutMatching() {
+        orderBook.setTradingPhase(TradingPhase.AUCTION);
+
+        assertTrue(orderBook.submitOrder(
+                new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(105), 10)).isEmpty());
+        assertTrue(orderBook.submitOrder(
+                new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 10)).isEmpty());
+        assertTrue(orderBook.matchOrders().isEmpty());
+
+        assertEquals(1, orderBook.getBuyOrders().size());
+        assertEquals(1, orderBook.getSellOrders().size());
+    }
+
+    @Test
+    void testAuction_rejectsImmediateOrders() {
+        orderBook.setTradingPhase(TradingPhase.AUCTION);
+        Order ioc = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 10,
+                Order.TimeInForce.IOC);
+
+        TradingException exception = assertThrows(TradingException.class, () -> orderBook.submitOrder(ioc));
+        assertEquals("INVALID_ORDER", exception.getErrorCode());
+    }
+
+    @Test
+    void testUncross_tradesAtPriceMaximisingVolume() {
+        orderBook.setTradingPhase(TradingPhase.AUCTION);
+        Order buy102 = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(102), 10);
+        Order buy101 = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(101), 10);
+        Order buy100 = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 10);
+        Order sell99 = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(99), 5);
+        Order sell100 = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 10);
+        Order sell101 = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(101), 10);
+        List.of(buy102, buy101, buy100, sell99, sell100, sell101).forEach(orderBook::submitOrder);
+
+        List<Trade> trades = orderBook.uncross();
+
+        assertEquals(20, trades.stream().mapToInt(Trade::quantity).sum());
+        assertTrue(trades.stream().allMatch(trade -> trade.price().equals(BigDecimal.valueOf(101))));
+        assertTrue(buy102.isFilled());
+        assertTrue(buy101.isFilled());
+        assertEquals(List.of(buy100), orderBook.getBuyOrders());
+        assertEquals(List.of(sell101), orderBook.getSellOrders());
+        assertEquals(5, sell101.getQuantity());
+        assertFalse(orderBook.hasMatchingOrders());
+    }
+
+    @Test
+    void testUncross_tieBrokenByReferencePrice() {
+        orderBook.addOrder(new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(104), 1));
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(104), 1));
+        orderBook.setTradingPhase(TradingPhase.AUCTION);
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(105), 10));
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 10));
+
+        List<Trade> trades = orderBook.uncross();
+
+        assertEquals(1, trades.size());
+        assertEquals(BigDecimal.valueOf(105), trades.getFirst().price());
+    }
+
+    @Test
+    void testUncross_uncrossedBookDoesNothing() {
+        orderBook.setTradingPhase(TradingPhase.AUCTION);
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(99), 10));
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 10));
+
+        assertTrue(orderBook.uncross().isEmpty());
+        assertEquals(TradingPhase.AUCTION, orderBook.getTradingPhase());
+    }
+
+    @Test
+    void testUncross_batchAllocatesAtUniformPriceInTimePriority() {
+        orderBook.setTradingPhase(TradingPhase.BATCH_AUCTION);
+        Order first = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(101), 5);
+        Order second = new Order(INSTRUMENT_ID, "TRADER3", Order.OrderType.BUY, BigDecimal.valueOf(101), 5);
+        Order lower = new Order(INSTRUMENT_ID, "TRADER4", Order.OrderType.BUY, BigDecimal.valueOf(100), 5);
+        Order sell = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(99), 8);
+        List.of(first, second, lower, sell).forEach(orderBook::submitOrder);
+
+        List<Trade> trades = orderBook.uncross();
+
+        assertEquals(2, trades.size());
+        assertEquals(first.getOrderId(), trades.get(0).buyOrderId());
+        assertEquals(5, trades.get(0).quantity());
+        assertEquals(second.getOrderId(), trades.get(1).buyOrderId());
+        assertEquals(3, trades.get(1).quantity());
+        assertTrue(trades.stream().allMatch(trade -> trade.price().equals(BigDecimal.valueOf(101))));
+        assertEquals(List.of(second, lower), orderBook.getBuyOrders());
+        assertEquals(TradingPhase.BATCH_AUCTION, orderBook.getTradingPhase());
+    }
+
+    @Test
+    void testSelfTradePrevention_cancelNewestCancelsIncoming() {
+        OrderBook book = new InMemoryOrderBook(INSTRUMENT_ID, SelfTradePrevention.CANCEL_NEWEST);
+        Order own = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.SELL, BigDecimal.valueOf(100), 5);
+        Order other = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 5);
+        book.submitOrder(own);
+        book.submitOrder(other);
+        Order incoming = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 5);
+
+        assertTrue(book.submitOrder(incoming).isEmpty());
+
+        assertEquals(CANCELLED, incoming.getStatus());
+        assertEquals(List.of(own, other), book.getSellOrders());
+        assertTrue(book.getBuyOrders().isEmpty());
+    }
+
+    @Test
+    void testSelfTradePrevention_cancelOldestSkipsToNextOrderInLevel() {
+        OrderBook book = new InMemoryOrderBook(INSTRUMENT_ID, SelfTradePrevention.CANCEL_OLDEST);
+        Order own = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.SELL, BigDecimal.valueOf(100), 5);
+        Order other = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 5);
+        book.submitOrder(own);
+        book.submitOrder(other);
+        Order incoming = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 5);
+
+        List<Trade> trades = book.submitOrder(incoming);
+
+        assertEquals(1, trades.size());
+        assertEquals(other.getOrderId(), trades.getFirst().sellOrderId());
+        assertEquals(CANCELLED, own.getStatus());
+        assertTrue(incoming.isFilled());
+        assertTrue(book.getSellOrders().isEmpty());
+    }
+
+    @Test
+    void testSelfTradePrevention_cancelBothCancelsBothOrders() {
+        OrderBook book = new InMemoryOrderBook(INSTRUMENT_ID, SelfTradePrevention.CANCEL_BOTH);
+        Order own = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.SELL, BigDecimal.valueOf(100), 5);
+        Order other = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 5);
+        book.submitOrder(own);
+        book.submitOrder(other);
+        Order incoming = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 5);
+
+        assertTrue(book.submitOrder(incoming).isEmpty());
+
+        assertEquals(CANCELLED, own.getStatus());
+        assertEquals(CANCELLED, incoming.getStatus());
+        assertEquals(List.of(other), book.getSellOrders());
+    }
+
+    @Test
+    void testSelfTradePrevention_decrementReducesBothOrders() {
+        OrderBook book = new InMemoryOrderBook(INSTRUMENT_ID, SelfTradePrevention.DECREMENT);
+        Order own = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.SELL, BigDecimal.valueOf(100), 3);
+        Order other = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 5);
+        book.submitOrder(own);
+        book.submitOrder(other);
+        Order incoming = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 6);
+
+        List<Trade> trades = book.submitOrder(incoming);
+
+        assertEquals(1, trades.size());
+        assertEquals(3, trades.getFirst().quantity());
+        assertEquals(CANCELLED, own.getStatus());
+        assertTrue(incoming.isFilled());
+        assertEquals(2, other.getQuantity());
+        assertEquals(2, book.getAvailableQuantity(Order.OrderType.SELL, null));
+    }
+
+    @Test
+    void testSelfTradePrevention_cancelOldestFokIgnoresOwnOrders() {
+        OrderBook book = new InMemoryOrderBook(INSTRUMENT_ID, SelfTradePrevention.CANCEL_OLDEST);
+        Order own = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.SELL, BigDecimal.valueOf(100), 10);
+        Order other = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(101), 10);
+        book.submitOrder(own);
+        book.submitOrder(other);
+        Order fok = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(101), 20,
+                Order.TimeInForce.FOK);
+
+        assertTrue(book.submitOrder(fok).isEmpty());
+        assertEquals(CANCELLED, fok.getStatus());
+        assertEquals(List.of(own, other), book.getSellOrders());
+
+        // Enough from others, so the own order is cancelled on the way and the FOK fills
+        book.submitOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(101), 10));
+        Order filled = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(101), 20,
+                Order.TimeInForce.FOK);
+        assertEquals(2, book.submitOrder(filled).size());
+        assertTrue(filled.isFilled());
+        assertEquals(CANCELLED, own.getStatus());
+    }
+
+    @Test
+    void testSelfTradePrevention_cancelNewestKillsFokThatWouldMeetOwnOrder() {
+        assertFokKilledBeforeOwnOrder(SelfTradePrevention.CANCEL_NEWEST);
+
+        // Filled from the level ahead before the own order is reached
+        OrderBook book = new InMemoryOrderBook(INSTRUMENT_ID, SelfTradePrevention.CANCEL_NEWEST);
+        book.submitOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 20));
+        book.submitOrder(new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.SELL, BigDecimal.valueOf(101), 10));
+        Order fok = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(101), 20,
+                Order.TimeInForce.FOK);
+        assertEquals(1, book.submitOrder(fok).size());
+        assertTrue(fok.isFilled());
+    }
+
+    @Test
+    void testSelfTradePrevention_fokFillsFromOrdersAheadOfOwnOrderAtSamePrice() {
+        OrderBook book = new InMemoryOrderBook(INSTRUMENT_ID, SelfTradePrevention.CANCEL_NEWEST);
+        Order other = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(101), 10);
+        Order own = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.SELL, BigDecimal.valueOf(101), 10);
+        book.submitOrder(other);
+        book.submitOrder(own);
+        Order fok = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(101), 10,
+                Order.TimeInForce.FOK);
+
+        assertEquals(1, book.submitOrder(fok).size());
+        assertTrue(fok.isFilled());
+        assertTrue(other.isFilled());
+        assertEquals(List.of(own), book.getSellOrders());
+
+        // One more unit would reach the own order, so the next FOK is killed
+        book.submitOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(101), 10));
+        Order tooLarge = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(101), 1,
+                Order.TimeInForce.FOK);
+        assertTrue(book.submitOrder(tooLarge).isEmpty());
+        assertEquals(CANCELLED, tooLarge.getStatus());
+    }
+
+    @Test
+    void testSelfTradePrevention_cancelBothKillsFokThatWouldMeetOwnOrder() {
+        assertFokKilledBeforeOwnOrder(SelfTradePrevention.CANCEL_BOTH);
+    }
+
+    @Test
+    void testSelfTradePrevention_decrementKillsFokThatWouldMeetOwnOrder() {
+        assertFokKilledBeforeOwnOrder(SelfTradePrevention.DECREMENT);
+    }
+
+    /**
+     * Without the check, the FOK would take the 10 at 100 and then be cancelled or reduced by its own order.
+     */
+    private static void assertFokKilledBeforeOwnOrder(SelfTradePrevention selfTradePrevention) {
+        OrderBook book = new InMemoryOrderBook(INSTRUMENT_ID, selfTradePrevention);
+        Order ahead = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 10);
+        Order own = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.SELL, BigDecimal.valueOf(101), 10);
+        Order behind = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(101), 10);
+        book.submitOrder(ahead);
+        book.submitOrder(own);
+        book.submitOrder(behind);
+        Order fok = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(101), 20,
+                Order.TimeInForce.FOK);
+
+        assertTrue(book.submitOrder(fok).isEmpty());
+        assertEquals(CANCELLED, fok.getStatus());
+        assertEquals(20, fok.getQuantity());
+        assertEquals(List.of(ahead, own, behind), book.getSellOrders());
+        assertEquals(10, own.getQuantity());
+    }
+
+    @Test
+    void testSelfTradePrevention_matchingContinuesPastSameTraderOrders() {
+        Order buy = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(101), 5);
+        Order ownSell = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.SELL, BigDecimal.valueOf(100), 5);
+        Order otherSell = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 5);
+        orderBook.addOrder(buy);
+        orderBook.addOrder(ownSell);
+        orderBook.addOrder(otherSell);
+
+        List<Trade> trades = orderBook.matchOrders();
+
+        assertEquals(1, trades.size());
+        assertEquals(otherSell.getOrderId(), trades.getFirst().sellOrderId());
+        assertEquals(CANCELLED, ownSell.getStatus());
+        assertFalse(orderBook.hasMatchingOrders());
+    }
+
+    @Test
+    void testSelfTradePrevention_uncrossClearsAtOnePriceAndLeavesResidualCross() {
+        OrderBook book = new InMemoryOrderBook(INSTRUMENT_ID, SelfTradePrevention.CANCEL_NEWEST);
+        book.setTradingPhase(TradingPhase.AUCTION);
+        Order buy = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(105), 10);
+        Order ownSell = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.SELL, BigDecimal.valueOf(100), 10);
+        Order otherSell = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(103), 10);
+        List.of(buy, ownSell, otherSell).forEach(book::submitOrder);
+
+        // The equilibrium price only reaches the own sell, which self-trade prevention cancels
+        assertTrue(book.uncross().isEmpty());
+        assertEquals(CANCELLED, ownSell.getStatus());
+        assertTrue(book.hasMatchingOrders());
+
+        book.setTradingPhase(TradingPhase.CONTINUOUS);
+        List<Trade> trades = book.matchOrders();
+        assertEquals(1, trades.size());
+        assertEquals(otherSell.getOrderId(), trades.getFirst().sellOrderId());
+        assertFalse(book.hasMatchingOrders());
+    }
+
+    @Test
+    void testExpireOrders_gtdOrderLeavesTheBookAtItsExpireTime() {
+        LocalDateTime expireTime = LocalDateTime.now().plusMinutes(5);
+        Order order = gtd(Order.OrderType.BUY, BigDecimal.valueOf(100), expireTime);
+        orderBook.submitOrder(order);
+
+        assertTrue(orderBook.expireOrders(toMillis(expireTime) - 1).isEmpty());
+        assertEquals(List.of(order), orderBook.getBuyOrders());
+
+        long version = orderBook.getVersion();
+        assertEquals(List.of(order), orderBook.expireOrders(toMillis(expireTime) + InMemoryOrderBook.EXPIRY_TICK_MILLIS));
+        assertEquals(Order.OrderStatus.EXPIRED, order.getStatus());
+        assertTrue(orderBook.getBuyOrders().isEmpty());
+        assertEquals(version + 1, orderBook.getVersion());
+    }
+
+    @Test
+    void testExpireOrders_firesAcrossWheelLevelsNeverEarly() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Duration> lifetimes = List.of(Duration.ofSeconds(1), Duration.ofMinutes(10), Duration.ofHours(30),
+            Duration.ofDays(400));
+        List<Order> orders = lifetimes.stream()
+            .map(lifetime -> gtd(Order.OrderType.SELL, BigDecimal.valueOf(100), now.plus(lifetime)))
+            .toList();
+        orders.reversed().forEach(orderBook::submitOrder);
+
+        for (Order order : orders) {
+            long deadline = toMillis(order.getExpireTime());
+            assertTrue(orderBook.expireOrders(deadline - 1).isEmpty());
+            assertEquals(List.of(order), orderBook.expireOrders(deadline + InMemoryOrderBook.EXPIRY_TICK_MILLIS));
+        }
+        assertTrue(orderBook.getSellOrders().isEmpty());
+    }
+
+    @Test
+    void testExpireOrders_skipsCancelledAndFilledOrders() {
+        LocalDateTime expireTime = LocalDateTime.now().plusMinutes(1);
+        Order cancelled = gtd(Order.OrderType.BUY, BigDecimal.valueOf(100), expireTime);
+        Order filled = gtd(Order.OrderType.BUY, BigDecimal.valueOf(99), expireTime);
+        Order partial = gtd(Order.OrderType.BUY, BigDecimal.valueOf(98), expireTime);
+        List.of(cancelled, filled, partial).forEach(orderBook::submitOrder);
+        orderBook.cancelOrder(cancelled.getOrderId());
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(98), 15));
+
+        assertTrue(filled.isFilled());
+        assertEquals(List.of(partial), orderBook.expireOrders(toMillis(expireTime) + InMemoryOrderBook.EXPIRY_TICK_MILLIS));
+        assertEquals(CANCELLED, cancelled.getStatus());
+        assertEquals(Order.OrderStatus.EXPIRED, partial.getStatus());
+    }
+
+    @Test
+    void testExpireOrders_pendingStopExpiresWithoutTriggering() {
+        LocalDateTime expireTime = LocalDateTime.now().plusMinutes(1);
+        Order stop = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(106), 10,
+            Order.TimeInForce.GTD, BigDecimal.valueOf(105));
+        stop.setExpireTime(expireTime);
+        orderBook.submitOrder(stop);
+
+        assertEquals(List.of(stop), orderBook.expireOrders(toMillis(expireTime) + InMemoryOrderBook.EXPIRY_TICK_MILLIS));
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(105), 5));
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.BUY, BigDecimal.valueOf(105), 5));
+        assertEquals(Order.OrderStatus.EXPIRED, stop.getStatus());
+        assertTrue(orderBook.getBuyOrders().isEmpty());
+    }
+
+    @Test
+    void testSubmitOrder_dayOrderExpiresAtEndOfDay() {
+        Order order = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 10,
+            Order.TimeInForce.DAY);
+        orderBook.submitOrder(order);
+
+        assertEquals(LocalDate.now().plusDays(1).atStartOfDay(), order.getExpireTime());
+        assertEquals(List.of(order), orderBook.expireOrders(toMillis(order.getExpireTime())));
+    }
+
+    @Test
+    void testSubmitOrder_gtdWithoutFutureExpireTimeRejected() {
+        Order missing = gtd(Order.OrderType.BUY, BigDecimal.valueOf(100), null);
+        Order past = gtd(Order.OrderType.BUY, BigDecimal.valueOf(100), LocalDateTime.now().minusSeconds(1));
+
+        assertThrows(TradingException.class, () -> orderBook.submitOrder(missing));
+        assertThrows(TradingException.class, () -> orderBook.submitOrder(past));
+        assertTrue(orderBook.getBuyOrders().isEmpty());
+    }
+
+    @Test
+    void testProRata_allocatesInProportionToSize() {
+        OrderBook book = proRataBook(MatchingAlgorithm.proRata(false, 0));
+        List<Order> resting = restSells(book, 10, 30, 60);
+
+        List<Trade> trades = book.submitOrder(
+            new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 50));
+
+        assertEquals(List.of(5, 15, 30), trades.stream().map(Trade::quantity).toList());
+        assertEquals(List.of(5, 15, 30), resting.stream().map(Order::getQuantity).toList());
+        assertEquals(50, book.getLevelQuantity(Order.OrderType.SELL, BigDecimal.valueOf(100)));
+    }
+
+    @Test
+    void testProRata_amendThatCrossesIsAllocatedAcrossTheLevel() {
+        OrderBook book = proRataBook(MatchingAlgorithm.proRata(false, 0));
+        List<Order> resting = restSells(book, 10, 30, 60);
+        Order buy = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(99), 60);
+        book.submitOrder(buy);
+
+        List<Trade> trades = book.amendOrder(buy.getOrderId(), BigDecimal.valueOf(100), 50);
+
+        assertEquals(List.of(5, 15, 30), trades.stream().map(Trade::quantity).toList());
+        assertEquals(List.of(5, 15, 30), resting.stream().map(Order::getQuantity).toList());
+        assertTrue(buy.isFilled());
+        assertTrue(book.getBuyOrders().isEmpty());
+    }
+
+    @Test
+    void testProRata_roundingLeftoverGoesInTimePriority() {
+        OrderBook book = proRataBook(MatchingAlgorithm.proRata(false, 0));
+        List<Order> resting = restSells(book, 10, 10, 10);
+
+        book.submitOrder(new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 10));
+
+        assertEquals(List.of(6, 7, 7), resting.stream().map(Order::getQuantity).toList());
+    }
+
+    @Test
+    void testProRata_topOrderPriorityAndMinimumAllocation() {
+        OrderBook book = proRataBook(MatchingAlgorithm.proRata(true, 5));
+        List<Order> resting = restSells(book, 10, 50, 8);
+
+        book.submitOrder(new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 30));
+
+        // Top order filled first; of the other 20 the 8 lot's share of 2 is below the minimum and rolls over
+        assertTrue(resting.getFirst().isFilled());
+        assertEquals(30, resting.get(1).getQuantity());
+        assertEquals(8, resting.get(2).getQuantity());
+    }
+
+    @Test
+    void testProRata_sweepsLevelsAndRestsRemainder() {
+        OrderBook book = proRataBook(MatchingAlgorithm.proRata(false, 0));
+        List<Order> best = restSells(book, 4, 6);
+        Order next = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(101), 10);
+        book.submitOrder(next);
+        Order incoming = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(101), 25);
+
+        List<Trade> trades = book.submitOrder(incoming);
+
+        assertEquals(3, trades.size());
+        assertTrue(best.stream().allMatch(Order::isFilled));
+        assertTrue(next.isFilled());
+        assertEquals(5, incoming.getQuantity());
+        assertEquals(List.of(incoming), book.getBuyOrders());
+    }
+
+    @Test
+    void testQueuePosition_tracksFillsCancelsAndAmends() {
+        List<Order> resting = restSells(orderBook, 10, 20, 30, 40);
+        Order last = resting.getLast();
+        assertEquals(new QueuePosition(last.getOrderId(), BigDecimal.valueOf(100), 3, 60, 100),
+            orderBook.getQueuePosition(last.getOrderId()));
+
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 15));
+        orderBook.cancelOrder(resting.get(2).getOrderId());
+        orderBook.amendOrder(resting.get(1).getOrderId(), null, 12);
+
+        QueuePosition position = orderBook.getQueuePosition(last.getOrderId());
+        assertEquals(1, position.ordersAhead());
+        assertEquals(12, position.quantityAhead());
+        assertEquals(52, position.levelQuantity());
+    }
+
+    @Test
+    void testQueuePosition_matchesLinearCountThroughSlotReuse() {
+        List<Order> resting = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Order order = new Order(INSTRUMENT_ID, "MAKER" + i, Order.OrderType.SELL, BigDecimal.valueOf(100), i + 1);
+            orderBook.submitOrder(order);
+            resting.add(order);
+            if (i % 3 == 0) {
+                orderBook.cancelOrder(resting.remove(resting.size() / 2).getOrderId());
+            }
+        }
+
+        long ahead = 0;
+        for (int i = 0; i < resting.size(); i++) {
+            QueuePosition position = orderBook.getQueuePosition(resting.get(i).getOrderId());
+            assertEquals(i, position.ordersAhead());
+            assertEquals(ahead, position.quantityAhead());
+            ahead += resting.get(i).getQuantity();
+        }
+    }
+
+    @Test
+    void testQueuePosition_rejectsOrdersNotResting() {
+        Order buy = new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 10);
+        orderBook.submitOrder(buy);
+        orderBook.cancelOrder(buy.getOrderId());
+
+        assertThrows(TradingException.class, () -> orderBook.getQueuePosition(buy.getOrderId()));
+        assertThrows(TradingException.class, () -> orderBook.getQueuePosition("missing"));
+    }
+
+    @Test
+    void testEstimateFill_sweepsLevelsWithoutTouchingTheBook() {
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 10));
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(101), 10,
+            Order.TimeInForce.GTC, null, 5));
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(102), 10));
+        long version = orderBook.getVersion();
+
+        FillEstimate estimate = orderBook.estimateFill(Order.OrderType.BUY, 25);
+
+        assertEquals(25, estimate.fillableQuantity());
+        assertEquals(0, BigDecimal.valueOf(2520).compareTo(estimate.notional()));
+        assertEquals(new BigDecimal("100.800000"), estimate.averagePrice());
+        assertEquals(BigDecimal.valueOf(100), estimate.bestPrice());
+        assertEquals(BigDecimal.valueOf(102), estimate.worstPrice());
+        assertEquals(new BigDecimal("0.800000"), estimate.slippage());
+        assertEquals(version, orderBook.getVersion());
+    }
+
+    @Test
+    void testEstimateFill_reportsShortfallAndEmptySide() {
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.BUY, BigDecimal.valueOf(100), 10));
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.BUY, BigDecimal.valueOf(99), 10));
+
+        FillEstimate estimate = orderBook.estimateFill(Order.OrderType.SELL, 50);
+        assertEquals(20, estimate.fillableQuantity());
+        assertEquals(BigDecimal.valueOf(99), estimate.worstPrice());
+        assertEquals(new BigDecimal("0.500000"), estimate.slippage());
+
+        assertEquals(0, orderBook.estimateFill(Order.OrderType.BUY, 5).fillableQuantity());
+        assertThrows(TradingException.class, () -> orderBook.estimateFill(Order.OrderType.BUY, 0));
+    }
+
+    @Test
+    void testEstimateFill_matchesLevelWalkAfterRandomActivity() {
+        Random random = new Random(7);
+        List<Order> live = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            if (!live.isEmpty() && random.nextInt(4) == 0) {
+                orderBook.cancelOrder(live.remove(random.nextInt(live.size())).getOrderId());
+            } else if (random.nextInt(5) == 0) {
+                orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY,
+                    BigDecimal.valueOf(90 + random.nextInt(20)), 1 + random.nextInt(30), Order.TimeInForce.IOC));
+            } else {
+                Order sell = new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL,
+                    BigDecimal.valueOf(95 + random.nextInt(20)), 1 + random.nextInt(20));
+                orderBook.submitOrder(sell);
+                live.add(sell);
+            }
+
+            int quantity = 1 + random.nextInt(200);
+            long remaining = quantity;
+            BigDecimal notional = BigDecimal.ZERO;
+            for (Order resting : orderBook.getSellOrders()) {
+                long taken = Math.min(remaining, resting.getTotalQuantity());
+                notional = notional.add(resting.getPrice().multiply(BigDecimal.valueOf(taken)));
+                remaining -= taken;
+            }
+            FillEstimate estimate = orderBook.estimateFill(Order.OrderType.BUY, quantity);
+            assertEquals(quantity - remaining, estimate.fillableQuantity());
+            assertEquals(0, notional.compareTo(estimate.notional()));
+        }
+    }
+
+    @Test
+    void testGetCandles_aggregatesTradesIntoEveryInterval() {
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(101), 10));
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, new BigDecimal("103.25"), 10));
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(99), 10));
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(103.25), 15));
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(105), 10));
+
+        for (CandleInterval interval : CandleInterval.values()) {
+            List<Candle> candles = orderBook.getCandles(interval, 10);
+            assertFalse(candles.isEmpty());
+            assertEquals(BigDecimal.valueOf(99), candles.getFirst().open());
+            assertEquals(new BigDecimal("103.25"), candles.getLast().close());
+            assertEquals(25, candles.stream().mapToLong(Candle::volume).sum());
+            assertEquals(4, candles.stream().mapToInt(Candle::tradeCount).sum());
+            assertEquals(new BigDecimal("103.25"), candles.stream().map(Candle::high).max(BigDecimal::compareTo).get());
+            assertEquals(BigDecimal.valueOf(99), candles.stream().map(Candle::low).min(BigDecimal::compareTo).get());
+        }
+        assertThrows(TradingException.class, () -> orderBook.getCandles(CandleInterval.M1, 0));
+    }
+
+    @Test
+    void testCandleSeries_startsNewCandlesAndOverwritesTheOldest() {
+        CandleSeries series = new CandleSeries(1000, 3);
+        series.record(500, BigDecimal.valueOf(10), 1);
+        series.record(900, BigDecimal.valueOf(12), 2);
+        series.record(1200, BigDecimal.valueOf(11), 3);
+        series.record(3100, new BigDecimal("9.5"), 4);
+        // Stamped before the current candle, so folded into it
+        series.record(3000 - 1, BigDecimal.valueOf(8), 5);
+        series.record(4000, BigDecimal.valueOf(7), 6);
+
+        List<Candle> candles = series.latest(5);
+        assertEquals(3, candles.size());
+        assertEquals(LocalDateTime.of(1970, 1, 1, 0, 0, 1), candles.get(0).openTime());
+        assertEquals(3, candles.get(0).volume());
+        Candle folded = candles.get(1);
+        assertEquals(new BigDecimal("9.5"), folded.open());
+        assertEquals(BigDecimal.valueOf(8), folded.low());
+        assertEquals(BigDecimal.valueOf(8), folded.close());
+        assertEquals(9, folded.volume());
+        assertEquals(2, folded.tradeCount());
+        assertEquals(List.of(candles.get(2)), series.latest(1));
+    }
+
+    @Test
+    void testCandleSeries_dropsDecimalPlacesForPricesThatDoNotFit() {
+        CandleSeries series = new CandleSeries(1000, 3);
+        series.record(0, new BigDecimal("10.5"), 1);
+        series.record(1000, BigDecimal.valueOf(Long.MAX_VALUE / 1000), 1);
+
+        List<Candle> candles = series.latest(2);
+        assertEquals(new BigDecimal("10.5"), candles.get(0).open());
+        assertEquals(BigDecimal.valueOf(Long.MAX_VALUE / 1000), candles.get(1).close());
+    }
+
+    @Test
+    void testGetTradeStatistics_publishesVwapOfEveryWindow() {
+        assertNull(orderBook.getTradeStatistics().getFirst().vwap());
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 10));
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(103), 10));
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(103), 15));
+
+        List<WindowStatistics> statistics = orderBook.getTradeStatistics();
+        assertEquals(List.of(StatisticsWindow.values()), statistics.stream().map(WindowStatistics::window).toList());
+        for (WindowStatistics window : statistics) {
+            assertEquals(new BigDecimal("101.000000"), window.vwap());
+            assertEquals(15, window.volume());
+            assertEquals(2, window.tradeCount());
+            assertEquals(BigDecimal.valueOf(103), window.high());
+            assertEquals(BigDecimal.valueOf(100), window.low());
+        }
+
+        orderBook.rollStatistics(LocalDateTime.now().plusMinutes(2));
+        statistics = orderBook.getTradeStatistics();
+        assertEquals(0, statistics.get(0).volume());
+        assertEquals(15, statistics.get(1).volume());
+    }
+
+    @Test
+    void testRollingWindow_slidesBucketsOutAndKeepsHighLowOfTheRest() {
+        RollingWindow window = new RollingWindow(StatisticsWindow.M1);
+        window.record(0, BigDecimal.valueOf(110), 1);
+        window.record(10_000, BigDecimal.valueOf(90), 1);
+        window.record(20_000, BigDecimal.valueOf(105), 2);
+        window.record(20_500, BigDecimal.valueOf(95), 2);
+
+        assertEquals(BigDecimal.valueOf(110), window.snapshot().high());
+        assertEquals(BigDecimal.valueOf(90), window.snapshot().low());
+        assertFalse(window.roll(59_999));
+
+        assertTrue(window.roll(60_000));
+        WindowStatistics statistics = window.snapshot();
+        assertEquals(5, statistics.volume());
+        assertEquals(BigDecimal.valueOf(105), statistics.high());
+        assertEquals(BigDecimal.valueOf(90), statistics.low());
+
+        assertTrue(window.roll(70_000));
+        statistics = window.snapshot();
+        assertEquals(new BigDecimal("100.000000"), statistics.vwap());
+        assertEquals(BigDecimal.valueOf(95), statistics.low());
+
+        // A gap longer than the window empties it
+        window.record(200_000, BigDecimal.valueOf(50), 3);
+        statistics = window.snapshot();
+        assertEquals(3, statistics.volume());
+        assertEquals(1, statistics.tradeCount());
+        assertEquals(BigDecimal.valueOf(50), statistics.high());
+    }
+
+    @Test
+    void testGetTradeAnalytics_reducesTradesInRangeAndDepthOfBestLevels() {
+        LocalDateTime start = LocalDateTime.now().minusSeconds(1);
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 10));
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(103), 10));
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(103), 15));
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(99), 20));
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(98), 10));
+
+        TradeAnalytics analytics = orderBook.getTradeAnalytics(start, null, 1);
+        assertEquals(2, analytics.tradeCount());
+        assertEquals(15, analytics.volume());
+        assertEquals(1515.0, analytics.notional());
+        assertEquals(101.0, analytics.vwap());
+        assertEquals(100.0, analytics.low());
+        assertEquals(103.0, analytics.high());
+        assertEquals(20, analytics.bidDepth());
+        assertEquals(5, analytics.askDepth());
+        assertEquals(0.6, analytics.depthImbalance(), 1e-12);
+        assertEquals(30, orderBook.getTradeAnalytics(null, null, 10).bidDepth());
+        assertEquals(30, orderBook.getTradeAnalytics(null, null, 2).bidDepth());
+
+        TradeAnalytics empty = orderBook.getTradeAnalytics(start.plusMinutes(1), null, 1);
+        assertEquals(0, empty.tradeCount());
+        assertEquals(0, empty.volume());
+        assertNull(empty.vwap());
+        assertNull(empty.low());
+        assertEquals(0, orderBook.getTradeAnalytics(null, start, 1).tradeCount());
+
+        assertThrows(TradingException.class, () -> orderBook.getTradeAnalytics(start, start.minusSeconds(1), 1));
+        assertThrows(TradingException.class, () -> orderBook.getTradeAnalytics(null, null, 0));
+    }
+
+    @Test
+    void testGetTrades_returnsOnlyTheTradesInRange() {
+        LocalDateTime start = LocalDateTime.now().minusSeconds(1);
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_2, Order.OrderType.SELL, BigDecimal.valueOf(100), 10));
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 4));
+        orderBook.submitOrder(new Order(INSTRUMENT_ID, TRADER_1, Order.OrderType.BUY, BigDecimal.valueOf(100), 6));
+
+        assertEquals(orderBook.getTrades(), orderBook.getTrades(start, start.plusMinutes(1)));
+        assertEquals(2, orderBook.getTrades(start, start.plusMinutes(1)).size());
+        assertTrue(orderBook.getTrades(start.minusDays(1), start).isEmpty());
+        assertTrue(orderBook.getTrades(start.plusMinutes(1), start.plusDays(1)).isEmpty());
+    }
+
+    @Test
+    void testTradeTape_keepsTimesOrderedAcrossClockStepsAndGrows() {
+        TradeTape tape = new TradeTape();
+        for (int i = 0; i < 100; i++) {
+            tape.append(i * 10L, 100 + i, 1);
+        }
+        // Stamped before the previous trade, so moved up to it
+        tape.append(5, 50, 2);
+        TradeTape.Columns columns = tape.view();
+        tape.append(2000, 60, 3);
+
+        assertEquals(101, columns.size());
+        assertEquals(990, columns.times()[100]);
+        assertEquals(0, columns.indexOf(0));
+        assertEquals(50, columns.indexOf(495));
+        assertEquals(99, columns.indexOf(990));
+        assertEquals(101, columns.indexOf(991));
+        assertEquals(102, tape.view().indexOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testAnalyticsKernels_selectedKernelsAgreeWithScalarOnEveryRange() {
+        AnalyticsKernels scalar = new ScalarAnalyticsKernels();
+        AnalyticsKernels selected = AnalyticsKernels.select();
+        // Vector kernels only under the vector profile, which resolves the module for the test JVM
+        boolean vectorModule = ModuleLayer.boot().findModule(AnalyticsKernels.VECTOR_MODULE).isPresent();
+        assertEquals(!vectorModule, selected instanceof ScalarAnalyticsKernels);
+        Random random = new Random(7);
+        double[] prices = new double[1003];
+        double[] quantities = new double[prices.length];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = 50 + random.nextInt(10_000) / 100.0;
+            quantities[i] = 1 + random.nextInt(500);
+        }
+        int[][] ranges = {{0, prices.length}, {3, 1000}, {1, 2}, {17, 40}, {500, 500}};
+        for (int[] range : ranges) {
+            AnalyticsKernels.Summary expected = scalar.summarize(prices, quantities, range[0], range[1]);
+            AnalyticsKernels.Summary actual = selected.summarize(prices, quantities, range[0], range[1]);
+            assertEquals(expected.quantity(), actual.quantity());
+            assertEquals(expected.notional(), actual.notional(), Math.abs(expected.notional()) * 1e-12);
+            assertEquals(expected.low(), actual.low());
+            assertEquals(expected.high(), actual.high());
+        }
+        assertEquals(Double.POSITIVE_INFINITY, selected.summarize(prices, quantities, 9, 9).low());
+    }
+
+    private static OrderBook proRataBook(MatchingAlgorithm matchingAlgorithm) {
+        return new InMemoryOrderBook(INSTRUMENT_ID, SelfTradePrevention.CANCEL_NEWEST, matchingAlgorithm);
+    }
+
+    private static List<Order> restSells(OrderBook book, int... quantities) {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < quantities.length; i++) {
+            Order order = new Order(INSTRUMENT_ID, "MAKER" + i, Order.OrderType.SELL, BigDecimal.valueOf(100),
+                quantities[i]);
+            book.submitOrder(order);
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    private static Order gtd(Order.OrderType type, BigDecimal price, LocalDateTime expireTime) {
+        Order order = new Order(INSTRUMENT_ID, TRADER_1, type, price, 10, Order.TimeInForce.GTD);
+        order.setExpireTime(expireTime);
+        return order;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
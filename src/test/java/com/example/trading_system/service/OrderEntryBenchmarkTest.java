@@ -0,0 +1,170 @@
+package com.example.trading_system.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.trading_system.model.Instrument;
+import com.example.trading_system.model.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput and latency of order entry with many concurrent clients, for the blocking path on a bounded
+ * platform thread pool against virtual threads and the async API. Opt-in: {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+class OrderEntryBenchmarkTest {
+    private static final int CLIENTS = 10_000;
+    private static final int ORDERS_PER_CLIENT = 20;
+    private static final int INSTRUMENTS = 8;
+    // Tomcat's default maximum number of request threads
+    private static final int PLATFORM_THREADS = 200;
+
+    private Level previousLevel;
+    private TradingServiceImpl tradingService;
+    private List<Instrument> instruments;
+
+    @BeforeEach
+    void setUp() {
+        Logger logger = (Logger) LoggerFactory.getLogger("com.example.trading_system");
+        previousLevel = logger.getLevel();
+        logger.setLevel(Level.WARN);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ((Logger) LoggerFactory.getLogger("com.example.trading_system")).setLevel(previousLevel);
+        if (tradingService != null) {
+            tradingService.shutdown();
+        }
+    }
+
+    @Test
+    void blockingOnBoundedPlatformPool() throws Exception {
+        for (int round = 0; round < 3; round++) {
+            reset();
+            try (ExecutorService requestThreads = Executors.newFixedThreadPool(PLATFORM_THREADS)) {
+                report("blocking, " + PLATFORM_THREADS + " platform threads", runClients((client, order) ->
+                    requestThreads.submit(() -> tradingService.placeOrder(order)).get()));
+            }
+        }
+    }
+
+    @Test
+    void blockingOnVirtualThreads() throws Exception {
+        for (int round = 0; round < 3; round++) {
+            reset();
+            report("blocking, virtual thread per client", runClients((client, order) ->
+                tradingService.placeOrder(order)));
+        }
+    }
+
+    @Test
+    void asyncWithoutRequestThreads() throws Exception {
+        for (int round = 0; round < 3; round++) {
+            reset();
+            long[] latencies = new long[CLIENTS * ORDERS_PER_CLIENT];
+            AtomicInteger recorded = new AtomicInteger();
+            CountDownLatch done = new CountDownLatch(CLIENTS);
+            long start = System.nanoTime();
+            // Each client is a chain of callbacks that sends its next order when the last one completes
+            for (int client = 0; client < CLIENTS; client++) {
+                sendAsync(client, 0, latencies, recorded, done);
+            }
+            assertTrue(done.await(5, TimeUnit.MINUTES));
+            report("async, completion callbacks", new Run(System.nanoTime() - start, latencies));
+        }
+    }
+
+    private void sendAsync(int client, int sequence, long[] latencies, AtomicInteger recorded, CountDownLatch done) {
+        long sent = System.nanoTime();
+        tradingService.placeOrderAsync(order(client, sequence)).whenComplete((trades, failure) -> {
+            latencies[recorded.getAndIncrement()] = System.nanoTime() - sent;
+            if (sequence + 1 < ORDERS_PER_CLIENT) {
+                sendAsync(client, sequence + 1, latencies, recorded, done);
+            } else {
+                done.countDown();
+            }
+        });
+    }
+
+    private void reset() {
+        if (tradingService != null) {
+            tradingService.shutdown();
+        }
+        tradingService = new TradingServiceImpl();
+        instruments = new ArrayList<>();
+        for (int i = 0; i < INSTRUMENTS; i++) {
+            Instrument instrument = new Instrument("BENCH" + i);
+            tradingService.registerInstrument(instrument);
+            instruments.add(instrument);
+        }
+    }
+
+    /**
+     * Runs every client on its own virtual thread, each sending its orders one after another.
+     */
+    private Run runClients(ClientCall call) throws Exception {
+        long[] latencies = new long[CLIENTS * ORDERS_PER_CLIENT];
+        AtomicInteger recorded = new AtomicInteger();
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < CLIENTS; client++) {
+                int id = client;
+                clients.submit(() -> {
+                    for (int sequence = 0; sequence < ORDERS_PER_CLIENT; sequence++) {
+                        Order order = order(id, sequence);
+                        long sent = System.nanoTime();
+                        call.place(id, order);
+                        latencies[recorded.getAndIncrement()] = System.nanoTime() - sent;
+                    }
+                    return null;
+                });
+            }
+        }
+        assertEquals(latencies.length, recorded.get());
+        return new Run(System.nanoTime() - start, latencies);
+    }
+
+    private Order order(int client, int sequence) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Order.OrderType side = (client + sequence) % 2 == 0 ? Order.OrderType.BUY : Order.OrderType.SELL;
+        return new Order(instruments.get(client % INSTRUMENTS).getId(), "CLIENT" + client, side,
+            BigDecimal.valueOf(9_900 + random.nextInt(200), 2), 1 + random.nextInt(10));
+    }
+
+    private static void report(String mode, Run run) {
+        long[] sorted = run.latencies().clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-40s %,7.0f orders/s  p50 %,7.1f ms  p99 %,7.1f ms  p99.9 %,7.1f ms  max %,7.1f ms%n",
+            mode, sorted.length / (run.elapsedNanos() / 1e9), millis(sorted, 0.50), millis(sorted, 0.99),
+            millis(sorted, 0.999), sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double millis(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+
+    private record Run(long elapsedNanos, long[] latencies) {}
+
+    @FunctionalInterface
+    private interface ClientCall {
+        void place(int client, Order order) throws Exception;
+    }
+}
@@ -1,17 +1,46 @@
 package com.example.trading_system.service;
 
+import com.example.trading_system.exception.TradingException;
+import com.example.trading_system.model.IngressLimits;
+import com.example.trading_system.model.IngressStatistics;
+import com.example.trading_system.model.DuplicateWindow;
 import com.example.trading_system.model.Instrument;
+import com.example.trading_system.model.MassQuoteResult;
+import com.example.trading_system.model.NettingReport;
 import com.example.trading_system.model.Order;
+import com.example.trading_system.model.OrderAck;
+import com.example.trading_system.model.OrderPage;
+import com.example.trading_system.model.PairObligation;
+import com.example.trading_system.model.Position;
+import com.example.trading_system.model.Quote;
+import com.example.trading_system.model.QuoteOutcome;
+import com.example.trading_system.model.RateLimit;
+import com.example.trading_system.model.RiskLimits;
 import com.example.trading_system.model.Trade;
+import com.example.trading_system.model.TraderObligation;
+import com.example.trading_system.model.TradingPhase;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -134,4 +163,707 @@ class TradingServiceImplTest {
         Collection<Instrument> instruments = tradingService.getAllInstruments();
         assertTrue(instruments.isEmpty());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testPlaceOrderAsync_matchesOnSequencer() {
+        tradingService.registerInstrument(instrument);
+        Order sellOrder = new Order(instrument.getId(), "trader2", Order.OrderType.SELL, new BigDecimal("100"), 10);
+        Order buyOrder = new Order(instrument.getId(), "trader1", Order.OrderType.BUY, new BigDecimal("100"), 10);
+
+        CompletableFuture<List<Trade>> first = tradingService.placeOrderAsync(sellOrder);
+        CompletableFuture<List<Trade>> second = tradingService.placeOrderAsync(buyOrder);
+
+        assertTrue(first.join().isEmpty());
+        assertEquals(1, second.join().size());
+        assertEquals(Order.OrderStatus.FILLED, buyOrder.getStatus());
+        assertEquals(Order.OrderStatus.FILLED, sellOrder.getStatus());
+    }
+
+    @Test
+    void testPlaceOrderAsync_unknownInstrument_completesExceptionally() {
+        Order order = new Order("UNKNOWN", "trader1", Order.OrderType.BUY, new BigDecimal("100"), 10);
+
+        CompletableFuture<List<Trade>> future = tradingService.placeOrderAsync(order);
+
+        CompletionException exception = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(TradingException.class, exception.getCause());
+    }
+
+    @Test
+    void testPlaceOrder_unknownInstrument_throwsTradingException() {
+        Order order = new Order("UNKNOWN", "trader1", Order.OrderType.BUY, new BigDecimal("100"), 10);
+
+        TradingException exception = assertThrows(TradingException.class, () -> tradingService.placeOrder(order));
+        assertEquals("INSTRUMENT_NOT_FOUND", exception.getErrorCode());
+    }
+
+    @Test
+    void testCancelOrderAsync() {
+        tradingService.registerInstrument(instrument);
+        Order buyOrder = new Order(instrument.getId(), "trader1", Order.OrderType.BUY, new BigDecimal("110"), 10);
+        tradingService.placeOrder(buyOrder);
+
+        tradingService.cancelOrderAsync(instrument.getId(), buyOrder.getOrderId()).join();
+
+        assertEquals(Order.OrderStatus.CANCELLED, buyOrder.getStatus());
+        assertEquals(0, tradingService.getOrderBook(instrument.getId()).getBuyOrders().size());
+    }
+
+    @Test
+    void testPlaceOrderAsync_concurrentClientsAreSerialised() {
+        tradingService.registerInstrument(instrument);
+        List<CompletableFuture<List<Trade>>> futures = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Order.OrderType type = i % 2 == 0 ? Order.OrderType.BUY : Order.OrderType.SELL;
+            Order order = new Order(instrument.getId(), "trader" + i, type, new BigDecimal("100"), 1);
+            futures.add(CompletableFuture.supplyAsync(() -> order)
+                    .thenCompose(tradingService::placeOrderAsync));
+        }
+
+        int tradedQuantity = futures.stream()
+                .flatMap(future -> future.join().stream())
+                .mapToInt(Trade::quantity)
+                .sum();
+
+        assertEquals(250, tradedQuantity);
+        assertTrue(tradingService.getOrderBook(instrument.getId()).getBuyOrders().isEmpty());
+        assertTrue(tradingService.getOrderBook(instrument.getId()).getSellOrders().isEmpty());
+    }
+
+    @Test
+    void testGetOrdersByTrader_pagesAreStableWhileNewOrdersArrive() {
+        tradingService.registerInstrument(instrument);
+        List<Order> placed = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Order order = new Order(instrument.getId(), "trader1", Order.OrderType.BUY, new BigDecimal(100 + i), 1);
+            tradingService.placeOrder(order);
+            placed.add(order);
+        }
+        tradingService.placeOrder(new Order(instrument.getId(), "trader2", Order.OrderType.BUY, new BigDecimal("90"), 1));
+
+        OrderPage first = tradingService.getOrdersByTrader("trader1", null, 3);
+        Order late = new Order(instrument.getId(), "trader1", Order.OrderType.BUY, new BigDecimal("99"), 1);
+        tradingService.placeOrder(late);
+        OrderPage second = tradingService.getOrdersByTrader("trader1", first.nextCursor(), 3);
+
+        assertEquals(placed.subList(0, 3), first.orders());
+        assertEquals(List.of(placed.get(3), placed.get(4), late), second.orders());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void testGetOrdersByTrader_unknownTrader_returnsEmptyPage() {
+        OrderPage page = tradingService.getOrdersByTrader("nobody", null, 10);
+
+        assertTrue(page.orders().isEmpty());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void testGetOrdersByTrader_invalidCursor_throwsTradingException() {
+        TradingException exception = assertThrows(TradingException.class,
+                () -> tradingService.getOrdersByTrader("trader1", "-5", 10));
+        assertEquals("INVALID_PAGE_REQUEST", exception.getErrorCode());
+    }
+
+    @Test
+    void testAmendOrder_updatesMarketPrice() {
+        tradingService.registerInstrument(instrument);
+        Order sellOrder = new Order(instrument.getId(), "trader2", Order.OrderType.SELL, new BigDecimal("100"), 2);
+        Order buyOrder = new Order(instrument.getId(), "trader1", Order.OrderType.BUY, new BigDecimal("80"), 5);
+        tradingService.placeOrder(sellOrder);
+        tradingService.placeOrder(buyOrder);
+
+        List<Trade> trades = tradingService.amendOrder(instrument.getId(), buyOrder.getOrderId(), new BigDecimal("90"), null);
+
+        assertTrue(trades.isEmpty());
+        assertEquals(new BigDecimal("95"), tradingService.getMarketPrice(instrument.getId()));
+    }
+
+    @Test
+    void testAuction_uncrossesAndResumesContinuousTrading() {
+        tradingService.registerInstrument(instrument);
+        tradingService.startAuction(instrument.getId());
+        tradingService.placeOrder(new Order(instrument.getId(), "trader1", Order.OrderType.BUY, new BigDecimal("101"), 10));
+        tradingService.placeOrder(new Order(instrument.getId(), "trader2", Order.OrderType.SELL, new BigDecimal("99"), 4));
+
+        List<Trade> trades = tradingService.endAuction(instrument.getId());
+
+        assertEquals(1, trades.size());
+        assertEquals(4, trades.getFirst().quantity());
+        OrderBook orderBook = tradingService.getOrderBook(instrument.getId());
+        assertEquals(TradingPhase.CONTINUOUS, orderBook.getTradingPhase());
+        assertEquals(1, tradingService.placeOrder(
+                new Order(instrument.getId(), "trader3", Order.OrderType.SELL, new BigDecimal("101"), 6)).size());
+    }
+
+    @Test
+    void testAuction_stopMarketOrderTriggeredByUncrossTradesAfterResuming() {
+        tradingService.registerInstrument(instrument);
+        Order stop = new Order(instrument.getId(), "trader3", Order.OrderType.BUY, null, 5,
+                Order.TimeInForce.IOC, new BigDecimal("100"));
+        tradingService.placeOrder(stop);
+        tradingService.startAuction(instrument.getId());
+        tradingService.placeOrder(new Order(instrument.getId(), "trader1", Order.OrderType.BUY, new BigDecimal("101"), 10));
+        tradingService.placeOrder(new Order(instrument.getId(), "trader2", Order.OrderType.SELL, new BigDecimal("100"), 4));
+        tradingService.placeOrder(new Order(instrument.getId(), "trader2", Order.OrderType.SELL, new BigDecimal("102"), 5));
+
+        List<Trade> trades = tradingService.endAuction(instrument.getId());
+
+        assertEquals(2, trades.size());
+        assertEquals(new BigDecimal("102"), trades.get(1).price());
+        assertTrue(stop.isFilled());
+    }
+
+    @Test
+    void testStartAuction_unknownInstrument_throwsTradingException() {
+        TradingException exception = assertThrows(TradingException.class,
+                () -> tradingService.startAuction("missing"));
+        assertEquals("INSTRUMENT_NOT_FOUND", exception.getErrorCode());
+    }
+
+    @Test
+    void testBatchAuctions_clearEachInterval() throws InterruptedException {
+        tradingService.registerInstrument(instrument);
+        tradingService.startBatchAuctions(instrument.getId(), Duration.ofMillis(5));
+        Order buyOrder = new Order(instrument.getId(), "trader1", Order.OrderType.BUY, new BigDecimal("101"), 10);
+        Order sellOrder = new Order(instrument.getId(), "trader2", Order.OrderType.SELL, new BigDecimal("99"), 10);
+
+        assertTrue(tradingService.placeOrder(buyOrder).isEmpty());
+        assertTrue(tradingService.placeOrder(sellOrder).isEmpty());
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!sellOrder.isFilled() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(buyOrder.isFilled());
+        assertTrue(sellOrder.isFilled());
+        assertEquals(TradingPhase.BATCH_AUCTION, tradingService.getOrderBook(instrument.getId()).getTradingPhase());
+    }
+
+    @Test
+    void testStopBatchAuctions_clearsFinalBatchAndResumesContinuousTrading() {
+        tradingService.registerInstrument(instrument);
+        tradingService.startBatchAuctions(instrument.getId(), Duration.ofMillis(100));
+        Order buyOrder = new Order(instrument.getId(), "trader1", Order.OrderType.BUY, new BigDecimal("101"), 10);
+        tradingService.placeOrder(buyOrder);
+        tradingService.placeOrder(new Order(instrument.getId(), "trader2", Order.OrderType.SELL, new BigDecimal("99"), 10));
+
+        tradingService.stopBatchAuctions(instrument.getId());
+
+        assertTrue(buyOrder.isFilled());
+        assertEquals(TradingPhase.CONTINUOUS, tradingService.getOrderBook(instrument.getId()).getTradingPhase());
+    }
+
+    @Test
+    void testStartBatchAuctions_invalidInterval_throwsTradingException() {
+        tradingService.registerInstrument(instrument);
+
+        TradingException exception = assertThrows(TradingException.class,
+                () -> tradingService.startBatchAuctions(instrument.getId(), Duration.ofMillis(101)));
+        assertEquals("INVALID_TRADING_PHASE", exception.getErrorCode());
+    }
+
+    @Test
+    void testStartAuction_duringBatchAuctions_throwsTradingException() {
+        tradingService.registerInstrument(instrument);
+        tradingService.startBatchAuctions(instrument.getId(), Duration.ofMillis(50));
+
+        TradingException exception = assertThrows(TradingException.class,
+                () -> tradingService.startAuction(instrument.getId()));
+        assertEquals("INVALID_TRADING_PHASE", exception.getErrorCode());
+    }
+
+    @Test
+    void testMassQuote_placesThenAmendsInPlace() {
+        Instrument other = new Instrument("MSFT");
+        tradingService.registerInstrument(instrument);
+        tradingService.registerInstrument(other);
+
+        tradingService.massQuote("mm", List.of(
+            new Quote(instrument.getId(), new BigDecimal("99"), 10, new BigDecimal("101"), 10),
+            new Quote(other.getId(), new BigDecimal("49"), 5, new BigDecimal("51"), 5)));
+        OrderBook book = tradingService.getOrderBook(instrument.getId());
+        Order bid = book.getBuyOrders().getFirst();
+        Order ask = book.getSellOrders().getFirst();
+
+        tradingService.massQuote("mm", List.of(
+            new Quote(instrument.getId(), new BigDecimal("98"), 10, new BigDecimal("101"), 4)));
+
+        assertEquals(List.of(bid), book.getBuyOrders());
+        assertEquals(List.of(ask), book.getSellOrders());
+        assertEquals(new BigDecimal("98"), bid.getPrice());
+        assertEquals(4, ask.getQuantity());
+        assertEquals(4, tradingService.getOrdersByTrader("mm").size());
+    }
+
+    @Test
+    void testMassQuote_zeroQuantityWithdrawsSide() {
+        tradingService.registerInstrument(instrument);
+        tradingService.massQuote("mm", List.of(
+            new Quote(instrument.getId(), new BigDecimal("99"), 10, new BigDecimal("101"), 10)));
+
+        tradingService.massQuote("mm", List.of(new Quote(instrument.getId(), null, 0, new BigDecimal("101"), 10)));
+
+        OrderBook book = tradingService.getOrderBook(instrument.getId());
+        assertTrue(book.getBuyOrders().isEmpty());
+        assertEquals(1, book.getSellOrders().size());
+    }
+
+    @Test
+    void testMassQuote_invalidQuoteChangesNothing() {
+        tradingService.registerInstrument(instrument);
+        List<Quote> quotes = List.of(
+            new Quote(instrument.getId(), new BigDecimal("99"), 10, new BigDecimal("101"), 10),
+            new Quote("missing", new BigDecimal("99"), 10, new BigDecimal("101"), 10));
+
+        assertThrows(TradingException.class, () -> tradingService.massQuote("mm", quotes));
+        assertThrows(TradingException.class, () -> tradingService.massQuote("mm", List.of(
+            new Quote(instrument.getId(), new BigDecimal("101"), 10, new BigDecimal("101"), 10))));
+        assertTrue(tradingService.getOrderBook(instrument.getId()).getBuyOrders().isEmpty());
+    }
+
+    @Test
+    void testMassQuote_rejectsQuotesBreachingRiskLimits() {
+        tradingService = new TradingServiceImpl(new RiskLimits(100, null, new BigDecimal("0.10"), 2, null, null));
+        tradingService.registerInstrument(instrument);
+        String id = instrument.getId();
+        // The bid passes but the ask is too large, so neither is placed nor counted
+        assertQuoteRejected("ORDER_QUANTITY_LIMIT_EXCEEDED",
+            new Quote(id, new BigDecimal("99"), 10, new BigDecimal("101"), 101));
+        assertTrue(tradingService.getOrdersByTrader("mm").isEmpty());
+
+        tradingService.massQuote("mm", List.of(new Quote(id, new BigDecimal("99"), 10, new BigDecimal("101"), 10)));
+        OrderBook book = tradingService.getOrderBook(id);
+        Order bid = book.getBuyOrders().getFirst();
+        Order ask = book.getSellOrders().getFirst();
+
+        assertQuoteRejected("PRICE_OUTSIDE_BAND", new Quote(id, new BigDecimal("98"), 10, new BigDecimal("120"), 10));
+        assertQuoteRejected("ORDER_QUANTITY_LIMIT_EXCEEDED",
+            new Quote(id, new BigDecimal("98"), 101, new BigDecimal("101"), 10));
+        assertEquals(new BigDecimal("99"), bid.getPrice());
+        assertEquals(10, bid.getQuantity());
+        assertEquals(new BigDecimal("101"), ask.getPrice());
+
+        // The quotes hold both open order slots, and the rejected updates left the counters as they were
+        assertRejected("OPEN_ORDER_LIMIT_EXCEEDED", new Order(id, "mm", Order.OrderType.BUY, new BigDecimal("98"), 1));
+        tradingService.massQuote("mm", List.of(new Quote(id, new BigDecimal("98"), 20, new BigDecimal("102"), 20)));
+        assertEquals(List.of(bid), book.getBuyOrders());
+        assertEquals(new BigDecimal("98"), bid.getPrice());
+        assertEquals(20, ask.getQuantity());
+    }
+
+    @Test
+    void testMassQuote_rejectedInstrumentKeepsTheOthersAndTheirTrades() {
+        tradingService = new TradingServiceImpl(new RiskLimits(100, null, null, null, null, null));
+        Instrument other = new Instrument("MSFT");
+        tradingService.registerInstrument(instrument);
+        tradingService.registerInstrument(other);
+        tradingService.placeOrder(new Order(instrument.getId(), "trader2", Order.OrderType.SELL,
+            new BigDecimal("101"), 5));
+
+        MassQuoteResult result = tradingService.massQuote("mm", List.of(
+            new Quote(instrument.getId(), new BigDecimal("101"), 10, new BigDecimal("103"), 10),
+            new Quote(other.getId(), new BigDecimal("49"), 5, new BigDecimal("51"), 101)));
+
+        assertEquals(QuoteOutcome.applied(instrument.getId()), result.outcomes().get(0));
+        QuoteOutcome rejected = result.outcomes().get(1);
+        assertEquals(other.getId(), rejected.instrumentId());
+        assertFalse(rejected.applied());
+        assertEquals("ORDER_QUANTITY_LIMIT_EXCEEDED", rejected.errorCode());
+        assertEquals(1, result.trades().size());
+        assertEquals(5, result.trades().getFirst().quantity());
+        assertTrue(tradingService.getOrderBook(other.getId()).getBuyOrders().isEmpty());
+    }
+
+    @Test
+    void testMassQuote_movingThroughOwnAskDoesNotSelfTrade() {
+        tradingService.registerInstrument(instrument);
+        tradingService.massQuote("mm", List.of(
+            new Quote(instrument.getId(), new BigDecimal("99"), 10, new BigDecimal("101"), 10)));
+        tradingService.placeOrder(new Order(instrument.getId(), "trader2", Order.OrderType.SELL,
+            new BigDecimal("103"), 5));
+
+        List<Trade> trades = tradingService.massQuote("mm", List.of(
+            new Quote(instrument.getId(), new BigDecimal("102"), 10, new BigDecimal("104"), 10))).trades();
+
+        OrderBook book = tradingService.getOrderBook(instrument.getId());
+        assertTrue(trades.isEmpty());
+        assertEquals(new BigDecimal("102"), book.getBestBuyOrder().orElseThrow().getPrice());
+        assertEquals(new BigDecimal("103"), book.getBestSellOrder().orElseThrow().getPrice());
+        assertEquals(10, book.getBestBuyOrder().orElseThrow().getQuantity());
+    }
+
+    @Test
+    void testGetPosition_tracksAverageCostRealizedAndUnrealizedPnl() {
+        tradingService.registerInstrument(instrument);
+        String id = instrument.getId();
+        trade(id, Order.OrderType.BUY, "100", 10);
+        trade(id, Order.OrderType.BUY, "110", 10);
+        assertEquals(0, new BigDecimal("105").compareTo(tradingService.getPosition("trader1", id).averageCost()));
+
+        trade(id, Order.OrderType.SELL, "120", 15);
+        Position position = tradingService.getPosition("trader1", id);
+        assertEquals(5, position.quantity());
+        assertEquals(0, new BigDecimal("105").compareTo(position.averageCost()));
+        assertEquals(0, new BigDecimal("225").compareTo(position.realizedPnl()));
+
+        // Closes the remaining 5 at a loss and goes 5 short at the fill price
+        trade(id, Order.OrderType.SELL, "90", 10);
+        tradingService.placeOrder(new Order(id, "trader3", Order.OrderType.BUY, new BigDecimal("94"), 2));
+        tradingService.placeOrder(new Order(id, "trader3", Order.OrderType.SELL, new BigDecimal("98"), 2));
+        position = tradingService.getPosition("trader1", id);
+        assertEquals(-5, position.quantity());
+        assertEquals(0, new BigDecimal("90").compareTo(position.averageCost()));
+        assertEquals(0, new BigDecimal("150").compareTo(position.realizedPnl()));
+        assertEquals(0, new BigDecimal("96").compareTo(position.markPrice()));
+        assertEquals(0, new BigDecimal("-30").compareTo(position.unrealizedPnl()));
+
+        Position counterparty = tradingService.getPosition("trader2", id);
+        assertEquals(5, counterparty.quantity());
+        assertEquals(0, new BigDecimal("-150").compareTo(counterparty.realizedPnl()));
+        assertEquals(List.of(position), tradingService.getPositions("trader1"));
+
+        Position flat = tradingService.getPosition("nobody", id);
+        assertEquals(0, flat.quantity());
+        assertNull(flat.averageCost());
+        assertThrows(TradingException.class, () -> tradingService.getPosition("trader1", "missing"));
+    }
+
+    @Test
+    void testPlaceOrder_rejectsOrdersBreachingOrderLimits() {
+        tradingService = new TradingServiceImpl(new RiskLimits(100, new BigDecimal("9999"), new BigDecimal("0.10"),
+            null, null, null));
+        tradingService.registerInstrument(instrument);
+        String id = instrument.getId();
+        // Nothing to measure the band from yet
+        tradingService.placeOrder(new Order(id, "trader2", Order.OrderType.BUY, new BigDecimal("99"), 10));
+        tradingService.placeOrder(new Order(id, "trader2", Order.OrderType.SELL, new BigDecimal("101"), 10));
+
+        assertRejected("ORDER_QUANTITY_LIMIT_EXCEEDED", new Order(id, "trader1", Order.OrderType.BUY, new BigDecimal("100"), 101));
+        assertRejected("PRICE_OUTSIDE_BAND", new Order(id, "trader1", Order.OrderType.BUY, new BigDecimal("111"), 10));
+        assertRejected("PRICE_OUTSIDE_BAND", new Order(id, "trader1", Order.OrderType.SELL, new BigDecimal("89"), 10));
+        assertRejected("ORDER_NOTIONAL_LIMIT_EXCEEDED", new Order(id, "trader1", Order.OrderType.BUY, new BigDecimal("101"), 100));
+        // Market orders are valued at the market price
+        assertRejected("ORDER_NOTIONAL_LIMIT_EXCEEDED", new Order(id, "trader1", Order.OrderType.BUY, null, 100,
+            Order.TimeInForce.IOC));
+
+        assertEquals(1, tradingService.placeOrder(
+            new Order(id, "trader1", Order.OrderType.BUY, new BigDecimal("101"), 99)).size());
+        assertEquals(89, tradingService.getOrderBook(id).getBestBuyOrder().orElseThrow().getQuantity());
+    }
+
+    @Test
+    void testPlaceOrder_checksTraderCountersKeptOnAddFillAndCancel() {
+        tradingService = new TradingServiceImpl(new RiskLimits(null, null, null, 2, new BigDecimal("2500"),
+            new BigDecimal("1500")));
+        tradingService.registerInstrument(instrument);
+        String id = instrument.getId();
+        Order bid = new Order(id, "trader1", Order.OrderType.BUY, new BigDecimal("100"), 10);
+        Order offer = new Order(id, "trader1", Order.OrderType.SELL, new BigDecimal("120"), 10);
+        tradingService.placeOrder(bid);
+        tradingService.placeOrder(offer);
+
+        assertRejected("OPEN_ORDER_LIMIT_EXCEEDED", new Order(id, "trader1", Order.OrderType.SELL, new BigDecimal("130"), 1));
+        tradingService.cancelOrder(id, offer.getOrderId());
+        assertRejected("CREDIT_LIMIT_EXCEEDED", new Order(id, "trader1", Order.OrderType.BUY, new BigDecimal("100"), 6));
+        assertRejected("EXPOSURE_LIMIT_EXCEEDED", new Order(id, "trader1", Order.OrderType.SELL, new BigDecimal("110"), 20));
+
+        // Filling the bid turns its open notional into spent credit and frees its open order slot
+        tradingService.placeOrder(new Order(id, "trader2", Order.OrderType.SELL, new BigDecimal("100"), 10));
+        assertRejected("CREDIT_LIMIT_EXCEEDED", new Order(id, "trader1", Order.OrderType.BUY, new BigDecimal("100"), 6));
+        Order topUp = new Order(id, "trader1", Order.OrderType.BUY, new BigDecimal("100"), 5);
+        tradingService.placeOrder(topUp);
+
+        TradingException amendReject = assertThrows(TradingException.class,
+            () -> tradingService.amendOrder(id, topUp.getOrderId(), null, 11));
+        assertEquals("CREDIT_LIMIT_EXCEEDED", amendReject.getErrorCode());
+        assertEquals(5, topUp.getQuantity());
+        tradingService.placeOrder(new Order(id, "trader1", Order.OrderType.SELL, new BigDecimal("120"), 10));
+    }
+
+    @Test
+    void testTraderRateLimit_rejectsMessagesOverTheBurstBeforeTheBook() {
+        // Refills far too slowly to matter during the test
+        tradingService = new TradingServiceImpl(RiskLimits.NONE, new RateLimit(0.001, 3));
+        tradingService.registerInstrument(instrument);
+        String id = instrument.getId();
+        Order first = new Order(id, "trader1", Order.OrderType.BUY, new BigDecimal("100"), 10);
+        tradingService.placeOrder(first);
+        tradingService.placeOrder(new Order(id, "trader1", Order.OrderType.BUY, new BigDecimal("99"), 10));
+        tradingService.amendOrder(id, first.getOrderId(), null, 5);
+
+        assertRejected("RATE_LIMITED", new Order(id, "trader1", Order.OrderType.BUY, new BigDecimal("98"), 10));
+        TradingException amendReject = assertThrows(TradingException.class,
+            () -> tradingService.amendOrder(id, first.getOrderId(), null, 4));
+        assertEquals("RATE_LIMITED", amendReject.getErrorCode());
+        // The next token is about 1000 seconds away at this rate
+        assertTrue(amendReject.getRetryAfter().compareTo(Duration.ofSeconds(900)) > 0);
+        assertTrue(amendReject.getRetryAfter().compareTo(Duration.ofSeconds(1000)) <= 0);
+        assertEquals(5, first.getQuantity());
+        TradingException quoteReject = assertThrows(TradingException.class, () -> tradingService.massQuote("trader1",
+            List.of(new Quote(id, new BigDecimal("90"), 1, new BigDecimal("110"), 1))));
+        assertEquals("RATE_LIMITED", quoteReject.getErrorCode());
+
+        // Cancels still go through, and other traders have their own buckets
+        tradingService.cancelOrder(id, first.getOrderId());
+        assertEquals(Order.OrderStatus.CANCELLED, first.getStatus());
+        tradingService.placeOrder(new Order(id, "trader2", Order.OrderType.SELL, new BigDecimal("99"), 10));
+        assertTrue(tradingService.getOrderBook(id).getBuyOrders().isEmpty());
+    }
+
+    @Test
+    void testIngressLimits_rejectOrdersOnceTheBookIsFull() {
+        tradingService = new TradingServiceImpl(RiskLimits.NONE, null, new IngressLimits(2, null));
+        tradingService.registerInstrument(instrument);
+        String id = instrument.getId();
+        Order bid = new Order(id, "trader1", Order.OrderType.BUY, new BigDecimal("99"), 10);
+        tradingService.placeOrder(bid);
+        // Untriggered stops take room in the book too
+        tradingService.placeOrder(new Order(id, "trader1", Order.OrderType.SELL, null, 5, Order.TimeInForce.IOC,
+            new BigDecimal("90")));
+
+        assertRejected("ORDER_QUEUE_FULL", new Order(id, "trader2", Order.OrderType.SELL, new BigDecimal("101"), 10));
+        // Orders that cannot rest are still accepted
+        assertEquals(1, tradingService.placeOrder(new Order(id, "trader2", Order.OrderType.SELL, new BigDecimal("99"), 4,
+            Order.TimeInForce.IOC)).size());
+        tradingService.cancelOrder(id, bid.getOrderId());
+        tradingService.placeOrder(new Order(id, "trader2", Order.OrderType.SELL, new BigDecimal("101"), 10));
+
+        IngressStatistics statistics = tradingService.getIngressStatistics(id);
+        assertEquals(2, statistics.restingOrders());
+        assertEquals(2, statistics.maxRestingOrders());
+        assertEquals(0, statistics.pendingCommands());
+        assertEquals(1, statistics.bookFullRejects());
+        assertEquals(0, statistics.queueFullRejects());
+    }
+
+    @Test
+    void testIngressLimits_quotesCountTowardsTheRestingOrderBound() {
+        tradingService = new TradingServiceImpl(RiskLimits.NONE, null, new IngressLimits(2, null));
+        tradingService.registerInstrument(instrument);
+        String id = instrument.getId();
+        tradingService.placeOrder(new Order(id, "trader1", Order.OrderType.BUY, new BigDecimal("95"), 10));
+
+        // A two-sided quote needs two new orders and only one fits, so neither side is placed
+        assertQuoteRejected("ORDER_QUEUE_FULL", new Quote(id, new BigDecimal("99"), 10, new BigDecimal("101"), 10));
+        assertTrue(tradingService.getOrdersByTrader("mm").isEmpty());
+
+        tradingService.massQuote("mm", List.of(new Quote(id, new BigDecimal("99"), 10, null, 0)));
+        // Moving a live quote in a full book needs no room
+        tradingService.massQuote("mm", List.of(new Quote(id, new BigDecimal("98"), 10, null, 0)));
+        assertQuoteRejected("ORDER_QUEUE_FULL", new Quote(id, new BigDecimal("98"), 10, new BigDecimal("101"), 10));
+        assertEquals(2, tradingService.getIngressStatistics(id).restingOrders());
+        assertEquals(new BigDecimal("98"), tradingService.getOrderBook(id).getBestBuyOrder().orElseThrow().getPrice());
+    }
+
+    @Test
+    void testIngressLimits_rejectCommandsOverThePendingDepth() {
+        tradingService = new TradingServiceImpl(RiskLimits.NONE, null, new IngressLimits(null, 1));
+        tradingService.registerInstrument(instrument);
+        String id = instrument.getId();
+        List<CompletableFuture<List<Trade>>> results = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            results.add(tradingService.placeOrderAsync(
+                new Order(id, "trader1", Order.OrderType.BUY, new BigDecimal("100"), 1)));
+        }
+
+        int rejected = 0;
+        for (CompletableFuture<List<Trade>> result : results) {
+            try {
+                result.join();
+            } catch (CompletionException e) {
+                assertEquals("ORDER_QUEUE_FULL", assertInstanceOf(TradingException.class, e.getCause()).getErrorCode());
+                rejected++;
+            }
+        }
+        assertTrue(rejected > 0);
+        IngressStatistics statistics = tradingService.getIngressStatistics(id);
+        assertEquals(rejected, statistics.queueFullRejects());
+        assertEquals(0, statistics.pendingCommands());
+        assertEquals(1000 - rejected, statistics.restingOrders());
+    }
+
+    @Test
+    void testIngressGate_commandsRefusedBySequencerAreCountedOut() {
+        TradingServiceImpl stopped = new TradingServiceImpl(RiskLimits.NONE, null, new IngressLimits(2, null));
+        tradingService = stopped;
+        Instrument other = new Instrument("ETH");
+        tradingService.registerInstrument(instrument);
+        tradingService.registerInstrument(other);
+        String id = instrument.getId();
+        stopped.shutdown();
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(RejectedExecutionException.class, () -> tradingService.placeOrderAsync(
+                new Order(id, "trader1", Order.OrderType.BUY, new BigDecimal("100"), 1)));
+            assertThrows(RejectedExecutionException.class,
+                () -> tradingService.amendOrderAsync(id, "missing", null, 1));
+            assertThrows(RejectedExecutionException.class, () -> tradingService.cancelOrderAsync(id, "missing"));
+            assertThrows(RejectedExecutionException.class, () -> tradingService.massQuote("trader1", List.of(
+                new Quote(id, new BigDecimal("99"), 1, new BigDecimal("101"), 1),
+                new Quote(other.getId(), new BigDecimal("99"), 1, new BigDecimal("101"), 1))));
+        }
+        assertEquals(0, tradingService.getIngressStatistics(id).pendingCommands());
+        assertEquals(0, tradingService.getIngressStatistics(other.getId()).pendingCommands());
+        assertEquals(0, tradingService.getIngressStatistics(id).queueFullRejects());
+    }
+
+    @Test
+    void testPlaceOrderOnce_resubmissionReturnsOriginalPlacement() {
+        tradingService = new TradingServiceImpl(RiskLimits.NONE, null, new IngressLimits(2, null));
+        tradingService.registerInstrument(instrument);
+        String id = instrument.getId();
+        tradingService.placeOrder(new Order(id, "trader2", Order.OrderType.SELL, new BigDecimal("100"), 4));
+        Order order = new Order(id, "trader1", Order.OrderType.BUY, new BigDecimal("100"), 10);
+        order.setClientOrderId("client-1");
+        Order resent = new Order(id, "trader1", Order.OrderType.BUY, new BigDecimal("100"), 10);
+        resent.setClientOrderId("client-1");
+
+        OrderAck ack = tradingService.placeOrderOnce(order);
+        tradingService.placeOrder(new Order(id, "trader2", Order.OrderType.BUY, new BigDecimal("90"), 1));
+        // Returned even though the book is now full
+        OrderAck again = tradingService.placeOrderOnce(resent);
+        assertEquals(ack, again);
+        assertEquals(Order.OrderStatus.PARTIALLY_FILLED, again.status());
+        assertEquals(1, again.trades().size());
+        assertEquals(List.of(order), tradingService.getOrdersByTrader("trader1"));
+
+        // Client order IDs are per trader
+        Order other = new Order(id, "trader3", Order.OrderType.SELL, new BigDecimal("101"), 1);
+        other.setClientOrderId("client-1");
+        TradingException rejected = assertThrows(TradingException.class, () -> tradingService.placeOrderOnce(other));
+        assertEquals("ORDER_QUEUE_FULL", rejected.getErrorCode());
+        // A rejected ID can be retried once there is room
+        tradingService.cancelOrder(id, order.getOrderId());
+        assertEquals(other.getOrderId(), tradingService.placeOrderOnce(other).orderId());
+    }
+
+    @Test
+    void testClientOrderIdIndex_forgetsIdsAfterTheWindowOrOverCapacity() {
+        CompletableFuture<OrderAck> first = new CompletableFuture<>();
+        ClientOrderIdIndex index = new ClientOrderIdIndex(new DuplicateWindow(Duration.ofSeconds(3), 8), 0);
+        assertNull(index.claim("trader1", "a", first, 0));
+        assertEquals(first, index.claim("trader1", "a", new CompletableFuture<>(), 2_999));
+        assertNull(index.claim("trader1", "a", new CompletableFuture<>(), 4_001));
+
+        // Two IDs per bucket; the ring turns early when the newest bucket is full
+        for (int i = 0; i < 8; i++) {
+            assertNull(index.claim("trader2", "id-" + i, new CompletableFuture<>(), 5_000));
+        }
+        assertNull(index.claim("trader2", "id-0", new CompletableFuture<>(), 5_000));
+        assertEquals(7, index.size());
+        // A gap longer than the window clears everything
+        assertNull(index.claim("trader2", "id-7", new CompletableFuture<>(), 60_000));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testComputeNetting_netsTradesPerPairAndPerTrader() {
+        tradingService.registerInstrument(instrument);
+        String id = instrument.getId();
+        trade(id, Order.OrderType.BUY, "100.5", 10);
+        trade(id, Order.OrderType.SELL, "101", 4);
+        tradingService.placeOrder(new Order(id, "trader3", Order.OrderType.SELL, new BigDecimal("99.25"), 3));
+        tradingService.placeOrder(new Order(id, "trader1", Order.OrderType.BUY, new BigDecimal("99.25"), 3));
+
+        NettingReport report = tradingService.computeNetting(null);
+        assertEquals(3, report.tradeCount());
+        assertEquals(List.of(
+            new PairObligation(id, "trader1", "trader2", 6, new BigDecimal("601.00"), 14, 2),
+            new PairObligation(id, "trader1", "trader3", 3, new BigDecimal("297.75"), 3, 1)), report.pairs());
+        assertEquals(List.of(
+            new TraderObligation("trader1", id, 9, new BigDecimal("898.75")),
+            new TraderObligation("trader2", id, -6, new BigDecimal("-601.00")),
+            new TraderObligation("trader3", id, -3, new BigDecimal("-297.75"))), report.traders());
+        assertEquals(0, tradingService.computeNetting(LocalDate.now().minusDays(1)).tradeCount());
+    }
+
+    @Test
+    void testEndOfDayNetting_storesTheDaysReport() {
+        tradingService.registerInstrument(instrument);
+        String id = instrument.getId();
+        trade(id, Order.OrderType.BUY, "100.5", 10);
+        LocalDate today = LocalDate.now();
+        TradingException missing = assertThrows(TradingException.class,
+            () -> tradingService.getEndOfDayNetting(today));
+        assertEquals("NETTING_REPORT_NOT_FOUND", missing.getErrorCode());
+
+        NettingReport report = ((TradingServiceImpl) tradingService).closeTradingDay(today);
+        // Later trades do not change the stored report
+        trade(id, Order.OrderType.SELL, "101", 4);
+        assertEquals(report, tradingService.getEndOfDayNetting(today));
+        assertEquals(1, report.tradeCount());
+        assertEquals(List.of(new PairObligation(id, "trader1", "trader2", 10, new BigDecimal("1005.0"), 10, 1)),
+            report.pairs());
+        assertThrows(TradingException.class, () -> tradingService.getEndOfDayNetting(today.minusDays(1)));
+
+        // Reports are kept for 90 days, counting the day just closed
+        ((TradingServiceImpl) tradingService).closeTradingDay(today.plusDays(89));
+        assertEquals(report, tradingService.getEndOfDayNetting(today));
+        ((TradingServiceImpl) tradingService).closeTradingDay(today.plusDays(90));
+        assertThrows(TradingException.class, () -> tradingService.getEndOfDayNetting(today));
+    }
+
+    @Test
+    void testSettlementNetting_matchesSerialSumsAcrossManyLeaves() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Trade> trades = new ArrayList<>();
+        Random random = new Random(7);
+        BigDecimal expectedCash = BigDecimal.ZERO;
+        long expectedQuantity = 0;
+        for (int i = 0; i < 3 * SettlementNetting.MIN_LEAF_SIZE + 17; i++) {
+            String buyer = "t" + random.nextInt(20);
+            String seller = "t" + random.nextInt(20);
+            BigDecimal price = BigDecimal.valueOf(random.nextInt(1_000_000), random.nextInt(5));
+            int quantity = 1 + random.nextInt(1000);
+            trades.add(new Trade("trade-" + i, "b", "s", buyer, seller, "i" + random.nextInt(3), price, quantity, now));
+            if (buyer.equals("t0") && !seller.equals("t0")) {
+                expectedQuantity += quantity;
+                expectedCash = expectedCash.add(price.multiply(BigDecimal.valueOf(quantity)));
+            } else if (seller.equals("t0") && !buyer.equals("t0")) {
+                expectedQuantity -= quantity;
+                expectedCash = expectedCash.subtract(price.multiply(BigDecimal.valueOf(quantity)));
+            }
+        }
+        // Prices near the long limit take the 128-bit path
+        trades.add(new Trade("big", "b", "s", "t0", "t1", "i0", new BigDecimal(Long.MAX_VALUE), 1000, now));
+        expectedQuantity += 1000;
+        expectedCash = expectedCash.add(new BigDecimal(Long.MAX_VALUE).multiply(BigDecimal.valueOf(1000)));
+
+        NettingReport report;
+        try (ForkJoinPool pool = new ForkJoinPool(2)) {
+            report = SettlementNetting.net(trades, null, pool);
+        }
+        List<TraderObligation> t0 = report.traders().stream().filter(o -> o.traderId().equals("t0")).toList();
+        assertEquals(expectedQuantity, t0.stream().mapToLong(TraderObligation::netQuantity).sum());
+        assertEquals(0, expectedCash.compareTo(t0.stream().map(TraderObligation::netCash)
+            .reduce(BigDecimal.ZERO, BigDecimal::add)));
+        assertEquals(0, report.traders().stream().map(TraderObligation::netCash)
+            .reduce(BigDecimal.ZERO, BigDecimal::add).signum());
+    }
+
+    private void assertRejected(String errorCode, Order order) {
+        TradingException exception = assertThrows(TradingException.class, () -> tradingService.placeOrder(order));
+        assertEquals(errorCode, exception.getErrorCode());
+        assertTrue(tradingService.getOrdersByTrader(order.getTraderId()).stream()
+            .noneMatch(placed -> placed.getOrderId().equals(order.getOrderId())));
+    }
+
+    private void assertQuoteRejected(String errorCode, Quote quote) {
+        MassQuoteResult result = tradingService.massQuote("mm", List.of(quote));
+        assertFalse(result.outcomes().getFirst().applied());
+        assertEquals(errorCode, result.outcomes().getFirst().errorCode());
+        assertTrue(result.trades().isEmpty());
+    }
+
+    /**
+     * Trades {@code quantity} between trader1 on {@code side} and a resting trader2 order.
+     */
+    private void trade(String instrumentId, Order.OrderType side, String price, int quantity) {
+        Order.OrderType restingSide = side == Order.OrderType.BUY ? Order.OrderType.SELL : Order.OrderType.BUY;
+        tradingService.placeOrder(new Order(instrumentId, "trader2", restingSide, new BigDecimal(price), quantity));
+        assertEquals(1, tradingService.placeOrder(
+            new Order(instrumentId, "trader1", side, new BigDecimal(price), quantity)).size());
+    }
+}
\ No newline at end of file